@@ -25,13 +25,19 @@ import java.nio.file.WatchEvent;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
 import java.nio.file.WatchEvent.Kind;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 import __redirected.__JAXPRedirected;
 import org.jboss.modules.Module;
+import org.jboss.modules.ModuleLoader;
 import org.wildfly.swarm.bootstrap.env.ApplicationEnvironment;
+import org.wildfly.swarm.bootstrap.modules.ApplicationModuleFinder;
 import org.wildfly.swarm.bootstrap.modules.BootModuleLoader;
+import org.wildfly.swarm.bootstrap.modules.ContainerModuleFinder;
+import org.wildfly.swarm.bootstrap.modules.ModulePreloader;
 import org.wildfly.swarm.bootstrap.performance.Performance;
 import org.wildfly.swarm.bootstrap.util.BootstrapProperties;
 
@@ -126,6 +132,7 @@ public class Main {
 
     public void run() throws Throwable {
         setupBootModuleLoader();
+        preloadModules();
 
         __JAXPRedirected.changeAll("swarm.container", Module.getBootModuleLoader());
         mainInvoker = new MainInvoker(ApplicationEnvironment.get().getMainClassName(), this.args);
@@ -136,5 +143,24 @@ public class Main {
         System.setProperty("boot.module.loader", BootModuleLoader.class.getName());
     }
 
+    /**
+     * Start defining the container, application and fraction modules in the background,
+     * if <code>swarm.bootstrap.parallel</code> is set.
+     */
+    public void preloadModules() {
+        if (!BootstrapProperties.flagIsSet(ModulePreloader.ENABLED_PROPERTY)) {
+            return;
+        }
+        ModuleLoader loader = Module.getBootModuleLoader();
+        if (!(loader instanceof BootModuleLoader)) {
+            return;
+        }
+        List<String> roots = new ArrayList<>();
+        roots.add(ContainerModuleFinder.MODULE_NAME);
+        roots.add(ApplicationModuleFinder.MODULE_NAME);
+        roots.addAll(ApplicationEnvironment.get().bootstrapModules());
+        new ModulePreloader((BootModuleLoader) loader).preload(roots);
+    }
+
     private final String[] args;
 }
@@ -35,6 +35,7 @@ import org.jboss.modules.maven.ArtifactCoordinates;
 import org.wildfly.swarm.bootstrap.env.ApplicationEnvironment;
 import org.wildfly.swarm.bootstrap.logging.BootstrapLogger;
 import org.wildfly.swarm.bootstrap.util.BootstrapUtil;
+import org.wildfly.swarm.bootstrap.util.ExtractionCache;
 import org.wildfly.swarm.bootstrap.util.TempFileManager;
 
 /**
@@ -122,22 +123,31 @@ public class ApplicationModuleFinder extends AbstractSingleModuleFinder {
             name = name.substring(0, dotLoc);
         }
 
-        File tmp = File.createTempFile(name, ext);
+        final String jarName;
+        final File tmpDir;
 
-        try (InputStream artifactIn = getClass().getClassLoader().getResourceAsStream(path)) {
-            Files.copy(artifactIn, tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
-        }
+        if (ExtractionCache.INSTANCE.isEnabled()) {
+            File cached = ExtractionCache.INSTANCE.extract(getClass().getClassLoader().getResource(path), name, ext);
+            jarName = cached.getName();
+            tmpDir = ExtractionCache.INSTANCE.explode(cached);
+        } else {
+            File tmp = File.createTempFile(name, ext);
+
+            try (InputStream artifactIn = getClass().getClassLoader().getResourceAsStream(path)) {
+                Files.copy(artifactIn, tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
 
-        final String jarName = tmp.getName().toString();
-        final JarFile jarFile = new JarFile(tmp);
+            jarName = tmp.getName().toString();
+            final JarFile jarFile = new JarFile(tmp);
 
-        File tmpDir = TempFileManager.INSTANCE.newTempDirectory(name, ext);
+            tmpDir = TempFileManager.INSTANCE.newTempDirectory(name, ext);
 
-        //Explode jar due to some issues in Windows on stopping (JarFiles cannot be deleted)
-        BootstrapUtil.explodeJar(jarFile, tmpDir.getAbsolutePath());
+            //Explode jar due to some issues in Windows on stopping (JarFiles cannot be deleted)
+            BootstrapUtil.explodeJar(jarFile, tmpDir.getAbsolutePath());
 
-        jarFile.close();
-        tmp.delete();
+            jarFile.close();
+            tmp.delete();
+        }
 
         final ResourceLoader jarLoader = ResourceLoaders.createFileResourceLoader(jarName, tmpDir);
         builder.addResourceRoot(ResourceLoaderSpec.createResourceLoaderSpec(jarLoader));
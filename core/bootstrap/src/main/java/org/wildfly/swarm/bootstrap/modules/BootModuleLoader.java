@@ -17,7 +17,9 @@ package org.wildfly.swarm.bootstrap.modules;
 
 import java.io.IOException;
 
+import org.jboss.modules.Module;
 import org.jboss.modules.ModuleFinder;
+import org.jboss.modules.ModuleLoadException;
 import org.jboss.modules.ModuleLoader;
 
 /**
@@ -35,4 +37,14 @@ public class BootModuleLoader extends ModuleLoader {
                 new DynamicModuleFinder(),
         });
     }
+
+    /**
+     * Define a module without linking it, so its dependencies may be inspected.
+     *
+     * @param name The module name.
+     * @return The module, or <code>null</code> if no finder locates it.
+     */
+    Module preload(String name) throws ModuleLoadException {
+        return preloadModule(name);
+    }
 }
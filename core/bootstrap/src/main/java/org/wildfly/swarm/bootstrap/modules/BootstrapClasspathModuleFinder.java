@@ -47,6 +47,11 @@ public class BootstrapClasspathModuleFinder implements ModuleFinder {
         }
 
         try (AutoCloseable handle = Performance.accumulate("module: BootstrapClassPath")) {
+            ModuleIndex.Entry indexed = ModuleIndex.get().lookup(identifier, true);
+            if (indexed != null) {
+                return indexed.toModuleSpec(simpleIdentifier, MavenResolvers.get(), "/");
+            }
+
             final String path = "modules/" + identifier.replace('.', MODULE_SEPARATOR).replace(':', MODULE_SEPARATOR) + "/module.xml";
 
             ClassLoader cl = BootstrapClasspathModuleFinder.class.getClassLoader();
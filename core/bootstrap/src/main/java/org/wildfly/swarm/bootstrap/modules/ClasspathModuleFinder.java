@@ -47,6 +47,14 @@ public class ClasspathModuleFinder implements ModuleFinder {
             identifier = identifier + ":main";
         }
         try (AutoCloseable handle = Performance.accumulate("module: Classpath")) {
+            ModuleIndex.Entry indexed = ModuleIndex.get().lookup(identifier, false);
+            if (indexed != null) {
+                if (LOG.isTraceEnabled()) {
+                    LOG.trace("indexed: " + identifier);
+                }
+                return indexed.toModuleSpec(simpleIdentifier, MavenResolvers.get(), "/");
+            }
+
             final String path = "modules/" + identifier.replace('.', MODULE_SEPARATOR).replace(':', MODULE_SEPARATOR) + "/module.xml";
 
 
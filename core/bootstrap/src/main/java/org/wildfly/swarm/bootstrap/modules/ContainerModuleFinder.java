@@ -28,10 +28,12 @@ import org.wildfly.swarm.bootstrap.env.ApplicationEnvironment;
  */
 public class ContainerModuleFinder extends AbstractSingleModuleFinder {
 
+    public static final String MODULE_NAME = "swarm.container";
+
     private static final String RUNTIME_SLOT = "runtime";
 
     public ContainerModuleFinder() {
-        super("swarm.container");
+        super(MODULE_NAME);
     }
 
     @Override
@@ -0,0 +1,225 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.bootstrap.modules;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.security.CodeSigner;
+import java.security.CodeSource;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+import org.jboss.modules.AbstractResourceLoader;
+import org.jboss.modules.ClassSpec;
+import org.jboss.modules.PackageSpec;
+import org.jboss.modules.Resource;
+import org.wildfly.swarm.bootstrap.util.MappedZip;
+
+/**
+ * Resource-loader serving classes and resources straight out of a {@link MappedZip},
+ * either a whole nested archive or a directory within the uberjar.
+ */
+public class MappedJarResourceLoader extends AbstractResourceLoader {
+
+    private static final String JAR_PROTOCOL = "jar";
+
+    private static final String SEPARATOR = "!/";
+
+    /**
+     * @param rootName The name of the resource root.
+     * @param zip      The archive to serve from.
+     * @param prefix   The directory within the archive to serve, either empty or ending in <code>/</code>.
+     */
+    public MappedJarResourceLoader(String rootName, MappedZip zip, String prefix) throws MalformedURLException {
+        this.rootName = rootName;
+        this.zip = zip;
+        this.prefix = prefix;
+        this.handler = new MappedZipURLStreamHandler();
+        this.rootUrl = url("");
+        this.codeSource = new CodeSource(this.rootUrl, (CodeSigner[]) null);
+        this.paths = Collections.unmodifiableSet(collectPaths());
+    }
+
+    @Override
+    public String getRootName() {
+        return this.rootName;
+    }
+
+    @Override
+    public ClassSpec getClassSpec(String fileName) throws IOException {
+        MappedZip.Entry entry = this.zip.getEntry(this.prefix + fileName);
+        if (entry == null) {
+            return null;
+        }
+        ClassSpec spec = new ClassSpec();
+        spec.setBytes(this.zip.read(entry));
+        spec.setCodeSource(this.codeSource);
+        return spec;
+    }
+
+    @Override
+    public PackageSpec getPackageSpec(String name) throws IOException {
+        return getPackageSpec(name, getManifest(), this.rootUrl);
+    }
+
+    @Override
+    public Resource getResource(String name) {
+        String path = name.startsWith("/") ? name.substring(1) : name;
+        MappedZip.Entry entry = this.zip.getEntry(this.prefix + path);
+        if (entry == null || entry.isDirectory()) {
+            return null;
+        }
+        try {
+            return new MappedResource(path, entry, url(path));
+        } catch (MalformedURLException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public Collection<String> getPaths() {
+        return this.paths;
+    }
+
+    public String toString() {
+        return getClass().getSimpleName() + "(" + this.zip.getName() + SEPARATOR + this.prefix + ")";
+    }
+
+    private Set<String> collectPaths() {
+        Set<String> result = new HashSet<>();
+        for (MappedZip.Entry each : this.zip.getEntries()) {
+            String name = each.getName();
+            if (each.isDirectory() || !name.startsWith(this.prefix)) {
+                continue;
+            }
+            int slashLoc = name.lastIndexOf('/');
+            if (slashLoc < this.prefix.length()) {
+                result.add("");
+            } else {
+                result.add(name.substring(this.prefix.length(), slashLoc));
+            }
+        }
+        return result;
+    }
+
+    private Manifest getManifest() throws IOException {
+        if (this.manifest == null) {
+            MappedZip.Entry entry = this.zip.getEntry(this.prefix + JarFile.MANIFEST_NAME);
+            if (entry == null) {
+                return null;
+            }
+            try (InputStream in = this.zip.openStream(entry)) {
+                this.manifest = new Manifest(in);
+            }
+        }
+        return this.manifest;
+    }
+
+    private URL url(String path) throws MalformedURLException {
+        String file = this.prefix.isEmpty()
+                ? "file:" + this.zip.getName() + SEPARATOR + path
+                : "file:" + this.zip.getName() + SEPARATOR + this.prefix + path;
+        return new URL(JAR_PROTOCOL, "", -1, file, this.handler);
+    }
+
+    private final String rootName;
+
+    private final MappedZip zip;
+
+    private final String prefix;
+
+    private final URLStreamHandler handler;
+
+    private final URL rootUrl;
+
+    private final CodeSource codeSource;
+
+    private final Set<String> paths;
+
+    private volatile Manifest manifest;
+
+    private class MappedResource implements Resource {
+
+        MappedResource(String name, MappedZip.Entry entry, URL url) {
+            this.name = name;
+            this.entry = entry;
+            this.url = url;
+        }
+
+        @Override
+        public String getName() {
+            return this.name;
+        }
+
+        @Override
+        public URL getURL() {
+            return this.url;
+        }
+
+        @Override
+        public InputStream openStream() throws IOException {
+            return MappedJarResourceLoader.this.zip.openStream(this.entry);
+        }
+
+        @Override
+        public long getSize() {
+            return this.entry.getSize();
+        }
+
+        private final String name;
+
+        private final MappedZip.Entry entry;
+
+        private final URL url;
+    }
+
+    private class MappedZipURLStreamHandler extends URLStreamHandler {
+
+        @Override
+        protected URLConnection openConnection(URL u) throws IOException {
+            String file = u.getFile();
+            String path = file.substring(file.lastIndexOf(SEPARATOR) + SEPARATOR.length());
+            MappedZip.Entry entry = MappedJarResourceLoader.this.zip.getEntry(path);
+            if (entry == null) {
+                throw new IOException("Not found: " + u);
+            }
+            return new URLConnection(u) {
+                @Override
+                public void connect() {
+                    this.connected = true;
+                }
+
+                @Override
+                public InputStream getInputStream() throws IOException {
+                    return MappedJarResourceLoader.this.zip.openStream(entry);
+                }
+
+                @Override
+                public long getContentLengthLong() {
+                    return entry.getSize();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,380 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.bootstrap.modules;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.AllPermission;
+import java.security.Permissions;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.modules.DependencySpec;
+import org.jboss.modules.ModuleLoadException;
+import org.jboss.modules.ModuleSpec;
+import org.jboss.modules.NativeLibraryResourceLoader;
+import org.jboss.modules.ResourceLoader;
+import org.jboss.modules.ResourceLoaderSpec;
+import org.jboss.modules.Version;
+import org.jboss.modules.filter.MultiplePathFilterBuilder;
+import org.jboss.modules.filter.PathFilter;
+import org.jboss.modules.filter.PathFilters;
+import org.jboss.modules.maven.MavenArtifactUtil;
+import org.jboss.modules.maven.MavenResolver;
+import org.wildfly.swarm.bootstrap.logging.BootstrapLogger;
+import org.wildfly.swarm.bootstrap.util.BootstrapProperties;
+
+/**
+ * Pre-parsed <code>module.xml</code> descriptors, written into the uberjar by the build tooling.
+ *
+ * <p>Only descriptors which can be reproduced exactly without the XML parser are indexed: those using
+ * plain module dependencies and artifact resources. Anything else (filters, properties, permissions,
+ * system dependencies, resource-roots) is left out, and the module finders fall back to locating and
+ * parsing the <code>module.xml</code> as before.</p>
+ */
+public class ModuleIndex {
+
+    public static final String CLASSPATH_LOCATION = "META-INF/wildfly-swarm-modules.idx";
+
+    public static final String ENABLED_PROPERTY = "swarm.bootstrap.module.index";
+
+    private static final int MAGIC = 0x534D4958;
+
+    private static final int VERSION = 1;
+
+    private static final int ROOT = 0x01;
+
+    private static final int RESOURCES = 0x02;
+
+    private static final int EXPORT = 0x01;
+
+    private static final int OPTIONAL = 0x02;
+
+    public ModuleIndex() {
+
+    }
+
+    /**
+     * Retrieve the index bundled with the running uberjar.
+     *
+     * @return The index, empty if none is bundled.
+     */
+    public static ModuleIndex get() {
+        return Holder.INSTANCE;
+    }
+
+    public static ModuleIndex read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a module index");
+        }
+        if (data.readInt() != VERSION) {
+            throw new IOException("Unsupported module index version");
+        }
+        ModuleIndex index = new ModuleIndex();
+        int count = data.readInt();
+        for (int i = 0; i < count; ++i) {
+            String identifier = data.readUTF();
+            int flags = data.readByte();
+            Entry entry = new Entry(identifier, (flags & ROOT) != 0);
+            entry.resources = (flags & RESOURCES) != 0;
+            entry.version = emptyToNull(data.readUTF());
+            entry.mainClass = emptyToNull(data.readUTF());
+            entry.aliasTarget = emptyToNull(data.readUTF());
+            int dependencies = data.readInt();
+            for (int j = 0; j < dependencies; ++j) {
+                String name = data.readUTF();
+                String slot = data.readUTF();
+                int depFlags = data.readByte();
+                Services services = Services.values()[data.readByte()];
+                entry.addDependency(name, slot, (depFlags & EXPORT) != 0, (depFlags & OPTIONAL) != 0, services);
+            }
+            int artifacts = data.readInt();
+            for (int j = 0; j < artifacts; ++j) {
+                entry.addArtifact(data.readUTF());
+            }
+            index.add(entry);
+        }
+        return index;
+    }
+
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(this.rootEntries.size() + this.classpathEntries.size());
+        for (Entry entry : entries()) {
+            data.writeUTF(entry.identifier);
+            data.writeByte((entry.root ? ROOT : 0) | (entry.resources ? RESOURCES : 0));
+            data.writeUTF(nullToEmpty(entry.version));
+            data.writeUTF(nullToEmpty(entry.mainClass));
+            data.writeUTF(nullToEmpty(entry.aliasTarget));
+            data.writeInt(entry.dependencies.size());
+            for (Dependency dependency : entry.dependencies) {
+                data.writeUTF(dependency.name);
+                data.writeUTF(dependency.slot);
+                data.writeByte((dependency.export ? EXPORT : 0) | (dependency.optional ? OPTIONAL : 0));
+                data.writeByte(dependency.services.ordinal());
+            }
+            data.writeInt(entry.artifacts.size());
+            for (String artifact : entry.artifacts) {
+                data.writeUTF(artifact);
+            }
+        }
+        data.flush();
+    }
+
+    public void add(Entry entry) {
+        (entry.root ? this.rootEntries : this.classpathEntries).put(entry.identifier, entry);
+    }
+
+    /**
+     * Locate an indexed module.
+     *
+     * @param identifier The module identifier, with or without a slot.
+     * @param root       <code>true</code> for modules at the root of the uberjar,
+     *                   <code>false</code> for modules within its bootstrap artifacts.
+     * @return The indexed module, or <code>null</code> if not indexed.
+     */
+    public Entry lookup(String identifier, boolean root) {
+        if (!identifier.contains(":")) {
+            identifier = identifier + ":main";
+        }
+        return (root ? this.rootEntries : this.classpathEntries).get(identifier);
+    }
+
+    public Collection<Entry> entries() {
+        List<Entry> entries = new ArrayList<>(this.rootEntries.values());
+        entries.addAll(this.classpathEntries.values());
+        return entries;
+    }
+
+    public boolean isEmpty() {
+        return this.rootEntries.isEmpty() && this.classpathEntries.isEmpty();
+    }
+
+    private static String emptyToNull(String str) {
+        return str.isEmpty() ? null : str;
+    }
+
+    private static String nullToEmpty(String str) {
+        return str == null ? "" : str;
+    }
+
+    private static final BootstrapLogger LOG = BootstrapLogger.logger("org.wildfly.swarm.modules.index");
+
+    private final Map<String, Entry> rootEntries = new HashMap<>();
+
+    private final Map<String, Entry> classpathEntries = new HashMap<>();
+
+    public enum Services {
+        NONE,
+        IMPORT,
+        EXPORT
+    }
+
+    public static class Entry {
+
+        /**
+         * @param identifier The module identifier, in <code>name:slot</code> form.
+         * @param root       Whether the <code>module.xml</code> is at the root of the uberjar.
+         */
+        public Entry(String identifier, boolean root) {
+            this.identifier = identifier;
+            this.root = root;
+        }
+
+        public String getIdentifier() {
+            return this.identifier;
+        }
+
+        public void setVersion(String version) {
+            this.version = version;
+        }
+
+        public void setMainClass(String mainClass) {
+            this.mainClass = mainClass;
+        }
+
+        public void setAliasTarget(String aliasTarget) {
+            this.aliasTarget = aliasTarget;
+        }
+
+        /**
+         * Whether the descriptor has a <code>&lt;resources&gt;</code> element, even if empty.
+         */
+        public void setResources(boolean resources) {
+            this.resources = resources;
+        }
+
+        /**
+         * @param name     The name of the dependency.
+         * @param slot     The slot of the dependency, or an empty string for descriptors without slots.
+         * @param export   Whether the dependency is re-exported.
+         * @param optional Whether the dependency is optional.
+         * @param services How <code>META-INF/services</code> of the dependency is handled.
+         */
+        public void addDependency(String name, String slot, boolean export, boolean optional, Services services) {
+            this.dependencies.add(new Dependency(name, slot, export, optional, services));
+        }
+
+        public void addArtifact(String gav) {
+            this.artifacts.add(gav);
+        }
+
+        public List<String> getArtifacts() {
+            return Collections.unmodifiableList(this.artifacts);
+        }
+
+        /**
+         * Build the module specification exactly as the <code>ModuleXmlParser</code> would have from the descriptor.
+         */
+        public ModuleSpec toModuleSpec(String moduleName, MavenResolver mavenResolver, String rootPath) throws ModuleLoadException {
+            if (this.aliasTarget != null) {
+                return ModuleSpec.buildAlias(moduleName, this.aliasTarget).create();
+            }
+
+            ModuleSpec.Builder builder = ModuleSpec.build(moduleName);
+            if (this.version != null) {
+                builder.setVersion(Version.parse(this.version));
+            }
+            if (this.mainClass != null) {
+                builder.setMainClass(this.mainClass);
+            }
+
+            for (String artifact : this.artifacts) {
+                ResourceLoader loader;
+                try {
+                    loader = MavenArtifactUtil.createMavenArtifactLoader(mavenResolver, artifact);
+                } catch (IOException e) {
+                    throw new ModuleLoadException(String.format("Failed to add artifact '%s'", artifact), e);
+                }
+                if (loader == null) {
+                    throw new ModuleLoadException(String.format("Failed to resolve artifact '%s'", artifact));
+                }
+                builder.addResourceRoot(ResourceLoaderSpec.createResourceLoaderSpec(loader));
+            }
+            if (this.resources) {
+                builder.addResourceRoot(ResourceLoaderSpec.createResourceLoaderSpec(new NativeLibraryResourceLoader(new File(rootPath, "lib")), PathFilters.rejectAll()));
+            }
+
+            builder.addDependency(DependencySpec.createLocalDependencySpec(PathFilters.acceptAll(), PathFilters.acceptAll()));
+            for (Dependency dependency : this.dependencies) {
+                builder.addDependency(dependency.toDependencySpec());
+            }
+
+            Permissions permissions = new Permissions();
+            permissions.add(new AllPermission());
+            builder.setPermissionCollection(permissions);
+
+            if (LOG.isTraceEnabled()) {
+                LOG.trace("Built indexed module: " + moduleName);
+            }
+            return builder.create();
+        }
+
+        public String toString() {
+            return this.identifier;
+        }
+
+        private final String identifier;
+
+        private final boolean root;
+
+        private String version;
+
+        private String mainClass;
+
+        private String aliasTarget;
+
+        private boolean resources;
+
+        private final List<Dependency> dependencies = new ArrayList<>();
+
+        private final List<String> artifacts = new ArrayList<>();
+    }
+
+    private static final class Dependency {
+
+        Dependency(String name, String slot, boolean export, boolean optional, Services services) {
+            this.name = name;
+            this.slot = slot;
+            this.export = export;
+            this.optional = optional;
+            this.services = services;
+        }
+
+        DependencySpec toDependencySpec() {
+            MultiplePathFilterBuilder exportBuilder = PathFilters.multiplePathFilterBuilder(this.export);
+            if (this.services == Services.EXPORT) {
+                exportBuilder.addFilter(PathFilters.getMetaInfServicesFilter(), true);
+            }
+            if (this.export) {
+                exportBuilder.addFilter(PathFilters.getMetaInfSubdirectoriesFilter(), false);
+                exportBuilder.addFilter(PathFilters.getMetaInfFilter(), false);
+            }
+            PathFilter importFilter = this.services == Services.NONE
+                    ? PathFilters.getDefaultImportFilter()
+                    : PathFilters.getDefaultImportFilterWithServices();
+
+            // module names carry any slot other than main, as jboss-modules 1.6 names them
+            String dependencyName = this.slot.isEmpty() || this.slot.equals("main") ? this.name : this.name + ":" + this.slot;
+            return DependencySpec.createModuleDependencySpec(importFilter, exportBuilder.create(), null, dependencyName, this.optional);
+        }
+
+        private final String name;
+
+        private final String slot;
+
+        private final boolean export;
+
+        private final boolean optional;
+
+        private final Services services;
+    }
+
+    private static final class Holder {
+
+        private static final ModuleIndex INSTANCE = load();
+
+        private Holder() {
+        }
+
+        private static ModuleIndex load() {
+            if (!BootstrapProperties.flagIsSet(ENABLED_PROPERTY, true) || BootstrapProperties.flagIsSet(BootstrapProperties.EXPLODE_NESTED_JARS)) {
+                return new ModuleIndex();
+            }
+            try (InputStream in = ModuleIndex.class.getClassLoader().getResourceAsStream(CLASSPATH_LOCATION)) {
+                if (in == null) {
+                    return new ModuleIndex();
+                }
+                return read(in);
+            } catch (IOException e) {
+                LOG.warn("Unable to read module index, falling back to module.xml: " + e.getMessage());
+                return new ModuleIndex();
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.bootstrap.modules;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+import org.jboss.modules.DependencySpec;
+import org.jboss.modules.Module;
+import org.jboss.modules.ModuleDependencySpec;
+import org.wildfly.swarm.bootstrap.logging.BootstrapLogger;
+
+/**
+ * Walks the module graph from a set of root modules, defining each module
+ * on a bounded fork-join pool ahead of its first use.
+ *
+ * <p>Module definition (locating and parsing descriptors, resolving artifacts and
+ * opening resource-roots) otherwise happens lazily, one module at a time, on the
+ * main thread. Pre-loading is best-effort: failures are ignored here and are
+ * reported when the module is loaded for real.</p>
+ */
+public class ModulePreloader {
+
+    public static final String ENABLED_PROPERTY = "swarm.bootstrap.parallel";
+
+    public static final String THREADS_PROPERTY = "swarm.bootstrap.parallel.threads";
+
+    public ModulePreloader(BootModuleLoader loader) {
+        this(loader, Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public ModulePreloader(BootModuleLoader loader, int parallelism) {
+        this.loader = loader;
+        this.pool = new ForkJoinPool(Math.max(1, parallelism), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("swarm-module-preload-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Begin defining the given modules and everything they depend upon, in the background.
+     *
+     * @param roots The names of the modules to start from.
+     * @return The task, which completes once the reachable graph has been walked.
+     */
+    public ForkJoinTask<Void> preload(Collection<String> roots) {
+        long start = System.currentTimeMillis();
+        ForkJoinTask<Void> task = this.pool.submit(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                List<Preload> tasks = new ArrayList<>();
+                for (String root : roots) {
+                    tasks.add(new Preload(root));
+                }
+                invokeAll(tasks);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("pre-loaded " + ModulePreloader.this.visited.size() + " modules in " + (System.currentTimeMillis() - start) + "ms");
+                }
+            }
+        });
+        // already-submitted work still runs to completion
+        this.pool.shutdown();
+        return task;
+    }
+
+    private static final BootstrapLogger LOG = BootstrapLogger.logger("org.wildfly.swarm.modules.preload");
+
+    private final BootModuleLoader loader;
+
+    private final ForkJoinPool pool;
+
+    private final Set<String> visited = ConcurrentHashMap.newKeySet();
+
+    private class Preload extends RecursiveAction {
+
+        Preload(String name) {
+            this.name = name;
+        }
+
+        @Override
+        protected void compute() {
+            if (!ModulePreloader.this.visited.add(this.name)) {
+                return;
+            }
+
+            List<Preload> dependencies = new ArrayList<>();
+            try {
+                Module module = ModulePreloader.this.loader.preload(this.name);
+                if (module == null) {
+                    return;
+                }
+                for (DependencySpec each : module.getDependencies()) {
+                    if (!(each instanceof ModuleDependencySpec)) {
+                        continue;
+                    }
+                    ModuleDependencySpec dependency = (ModuleDependencySpec) each;
+                    if (dependency.getModuleLoader() == null || dependency.getModuleLoader() == ModulePreloader.this.loader) {
+                        dependencies.add(new Preload(dependency.getName()));
+                    }
+                }
+            } catch (Exception e) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("unable to pre-load " + this.name + ": " + e.getMessage());
+                }
+                return;
+            }
+            invokeAll(dependencies);
+        }
+
+        private final String name;
+    }
+}
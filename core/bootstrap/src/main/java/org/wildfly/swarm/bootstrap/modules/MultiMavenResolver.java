@@ -17,8 +17,8 @@ package org.wildfly.swarm.bootstrap.modules;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.jboss.modules.maven.ArtifactCoordinates;
 import org.jboss.modules.maven.MavenResolver;
@@ -55,5 +55,5 @@ public class MultiMavenResolver implements MavenResolver {
         }
     }
 
-    private List<MavenResolver> resolvers = new ArrayList<>();
+    private final List<MavenResolver> resolvers = new CopyOnWriteArrayList<>();
 }
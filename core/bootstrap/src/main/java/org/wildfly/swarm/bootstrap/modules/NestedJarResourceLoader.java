@@ -24,22 +24,34 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Enumeration;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
 import org.jboss.modules.AbstractResourceLoader;
 import org.jboss.modules.ResourceLoader;
 import org.jboss.modules.ResourceLoaders;
+import org.wildfly.swarm.bootstrap.logging.BootstrapLogger;
 import org.wildfly.swarm.bootstrap.performance.Performance;
+import org.wildfly.swarm.bootstrap.util.BootstrapProperties;
 import org.wildfly.swarm.bootstrap.util.BootstrapUtil;
+import org.wildfly.swarm.bootstrap.util.ExtractionCache;
+import org.wildfly.swarm.bootstrap.util.MappedZip;
 import org.wildfly.swarm.bootstrap.util.TempFileManager;
 
 /**
+ * Creates resource-loaders for module resource-roots nested within the uberjar.
+ *
+ * <p>By default, resource-roots are served directly from a memory-mapped view of the uberjar,
+ * without extracting anything to disk. Only nested archives which are deflated, rather than stored,
+ * are still extracted, since they cannot be read in place. Setting <code>swarm.bootstrap.explode</code> restores
+ * the previous behaviour of exploding the uberjar and each nested archive to temporary directories.</p>
+ *
  * @author Bob McWhirter
  */
 public class NestedJarResourceLoader {
@@ -49,7 +61,7 @@ public class NestedJarResourceLoader {
     private NestedJarResourceLoader() {
     }
 
-    public static synchronized boolean requiresExplosion(URL base) throws IOException {
+    public static boolean requiresExplosion(URL base) throws IOException {
         try (AutoCloseable locateHandle = Performance.accumulate("Is explosion needed?")) {
             String urlString = base.toExternalForm();
             if (urlString.startsWith("jar:file:")) {
@@ -87,7 +99,10 @@ public class NestedJarResourceLoader {
         return false;
     }
 
-    public static synchronized Path explodedJar(URL base) throws IOException {
+    public static Path explodedJar(URL base) throws IOException {
+        if (mappedJar(base) != null) {
+            return null;
+        }
         if (!requiresExplosion(base)) {
             return null;
         }
@@ -100,26 +115,8 @@ public class NestedJarResourceLoader {
                     //if it has spaces or other characters that would be URL encoded we need to decode them
                     jarPath = URLDecoder.decode(jarPath, StandardCharsets.UTF_8.name());
 
-                    File exp = exploded.get(jarPath);
-                    if (exp == null) {
-                        try (AutoCloseable explodingHandle = Performance.accumulate("Exploding JAR")) {
-                            exp = TempFileManager.INSTANCE.newTempDirectory("module-jar", ".jar_d");
-                            try (JarFile jarFile = new JarFile(jarPath)) {
-                                Enumeration<JarEntry> entries = jarFile.entries();
-                                while (entries.hasMoreElements()) {
-                                    JarEntry each = entries.nextElement();
-                                    if (!each.isDirectory()) {
-                                        File out = new File(exp, each.getName());
-                                        out.getParentFile().mkdirs();
-                                        InputStream in = jarFile.getInputStream(each);
-                                        Files.copy(in, out.toPath(), StandardCopyOption.REPLACE_EXISTING);
-                                        in.close();
-                                    }
-                                }
-                            }
-                            exploded.put(jarPath, exp);
-                        }
-                    }
+                    // at most one thread explodes a given jar, others wait for it
+                    File exp = exploded.computeIfAbsent(jarPath, NestedJarResourceLoader::explode);
 
                     String remainder = urlString.substring(endLoc + JAR_SUFFIX.length());
                     if (remainder.startsWith("/") || remainder.startsWith("\\")) {
@@ -136,7 +133,34 @@ public class NestedJarResourceLoader {
         }
     }
 
+    private static File explode(String jarPath) {
+        try (AutoCloseable explodingHandle = Performance.accumulate("Exploding JAR")) {
+            File exp = TempFileManager.INSTANCE.newTempDirectory("module-jar", ".jar_d");
+            try (JarFile jarFile = new JarFile(jarPath)) {
+                Enumeration<JarEntry> entries = jarFile.entries();
+                while (entries.hasMoreElements()) {
+                    JarEntry each = entries.nextElement();
+                    if (!each.isDirectory()) {
+                        File out = new File(exp, each.getName());
+                        out.getParentFile().mkdirs();
+                        InputStream in = jarFile.getInputStream(each);
+                        Files.copy(in, out.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                        in.close();
+                    }
+                }
+            }
+            return exp;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     public static ResourceLoader loaderFor(URL base, String rootPath, String loaderPath, String loaderName) throws IOException {
+        MappedZip mapped = mappedJar(base);
+        if (mapped != null) {
+            return mappedLoaderFor(mapped, base, loaderPath, loaderName);
+        }
+
         Path exp = explodedJar(base);
 
         String urlString = base.toExternalForm();
@@ -186,8 +210,136 @@ public class NestedJarResourceLoader {
         throw new IllegalArgumentException("Illegal module loader base: " + base + " // " + loaderPath + " // " + loaderName);
     }
 
-    private static Map<String, File> exploded = new HashMap<>();
+    /**
+     * Locate the memory-mapped uberjar for a <code>jar:file:</code> module base.
+     *
+     * @return The mapped uberjar, or <code>null</code> if the base is not within a jar,
+     * explosion has been requested, or the jar cannot be mapped.
+     */
+    static MappedZip mappedJar(URL base) throws IOException {
+        if (BootstrapProperties.flagIsSet(BootstrapProperties.EXPLODE_NESTED_JARS)) {
+            return null;
+        }
+        String urlString = base.toExternalForm();
+        if (!urlString.startsWith("jar:file:")) {
+            return null;
+        }
+        int endLoc = urlString.indexOf(JAR_SUFFIX);
+        if (endLoc < 0) {
+            return null;
+        }
+        String jarPath = URLDecoder.decode(urlString.substring(9, endLoc + 4), StandardCharsets.UTF_8.name());
+        if (notMappable.contains(jarPath)) {
+            return null;
+        }
+        return mapped.computeIfAbsent(jarPath, NestedJarResourceLoader::map);
+    }
+
+    private static MappedZip map(String jarPath) {
+        try (AutoCloseable handle = Performance.accumulate("Mapping JAR")) {
+            return MappedZip.map(new File(jarPath));
+        } catch (Exception e) {
+            LOG.debug("Unable to map " + jarPath + ", falling back to explosion: " + e.getMessage());
+            notMappable.add(jarPath);
+            return null;
+        }
+    }
+
+    private static ResourceLoader mappedLoaderFor(MappedZip jar, URL base, String loaderPath, String loaderName) throws IOException {
+        try (AutoCloseable handle = Performance.accumulate("Mapped resource-root")) {
+            String urlString = base.toExternalForm();
+            String remainder = urlString.substring(urlString.indexOf(JAR_SUFFIX) + JAR_SUFFIX.length());
+            if (remainder.startsWith("/")) {
+                remainder = remainder.substring(1);
+            }
+            String entryName = normalize(URLDecoder.decode(remainder, StandardCharsets.UTF_8.name()) + loaderPath);
+
+            MappedZip.Entry entry = jar.getEntry(entryName);
+            if (entry != null && !entry.isDirectory() && (entryName.endsWith(".jar") || entryName.endsWith(".war"))) {
+                if (entry.isStored()) {
+                    return new MappedJarResourceLoader(loaderName, jar.nested(entry), "");
+                }
+                return extractedLoaderFor(jar, entry, loaderName);
+            }
+            return new MappedJarResourceLoader(loaderName, jar, entryName.isEmpty() || entryName.endsWith("/") ? entryName : entryName + "/");
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Create a resource-loader for a deflated nested archive, which cannot be mapped in place.
+     *
+     * <p>The archive is extracted through the {@link ExtractionCache} when enabled, or else
+     * to a temporary file, and exploded to a directory as it would be without mapping.</p>
+     */
+    private static ResourceLoader extractedLoaderFor(MappedZip jar, MappedZip.Entry entry, String loaderName) throws IOException {
+        try (AutoCloseable handle = Performance.accumulate("Extracting nested JAR")) {
+            String name = entry.getName().substring(entry.getName().lastIndexOf('/') + 1);
+            int dotLoc = name.lastIndexOf('.');
+            String ext = name.substring(dotLoc);
+            name = name.substring(0, dotLoc);
+
+            if (ExtractionCache.INSTANCE.isEnabled()) {
+                URL url = new URL("jar:" + new File(jar.getName()).toURI().toURL().toExternalForm() + "!/" + entry.getName());
+                File cached = ExtractionCache.INSTANCE.extract(url, name, ext);
+                return ResourceLoaders.createFileResourceLoader(loaderName, ExtractionCache.INSTANCE.explode(cached));
+            }
+
+            File tmp = File.createTempFile(name, ext);
+            try {
+                try (InputStream in = jar.openStream(entry)) {
+                    Files.copy(in, tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+                File tmpDir = TempFileManager.INSTANCE.newTempDirectory("nestedjarloader", null);
+                try (JarFile jarFile = new JarFile(tmp)) {
+                    //Explode jar due to some issues in Windows on stopping (JarFiles cannot be deleted)
+                    BootstrapUtil.explodeJar(jarFile, tmpDir.getAbsolutePath());
+                }
+                return ResourceLoaders.createFileResourceLoader(loaderName, tmpDir);
+            } finally {
+                tmp.delete();
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Resolve <code>.</code> and <code>..</code> segments of a path within the uberjar.
+     */
+    static String normalize(String path) {
+        String[] segments = path.split("/");
+        Deque<String> result = new ArrayDeque<>();
+        for (String segment : segments) {
+            if (segment.isEmpty() || ".".equals(segment)) {
+                continue;
+            }
+            if ("..".equals(segment)) {
+                result.pollLast();
+            } else {
+                result.addLast(segment);
+            }
+        }
+        String normalized = String.join("/", result);
+        if (!normalized.isEmpty() && path.endsWith("/")) {
+            normalized = normalized + "/";
+        }
+        return normalized;
+    }
+
+    private static final BootstrapLogger LOG = BootstrapLogger.logger("org.wildfly.swarm.modules.nested");
+
+    private static Map<String, MappedZip> mapped = new ConcurrentHashMap<>();
+
+    private static Set<String> notMappable = ConcurrentHashMap.newKeySet();
+
+    private static Map<String, File> exploded = new ConcurrentHashMap<>();
 
-    private static Set<String> explosionNotRequired = new HashSet<>();
+    private static Set<String> explosionNotRequired = ConcurrentHashMap.newKeySet();
 
 }
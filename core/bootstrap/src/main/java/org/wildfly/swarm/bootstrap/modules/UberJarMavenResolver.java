@@ -18,6 +18,7 @@ package org.wildfly.swarm.bootstrap.modules;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.Map;
@@ -27,6 +28,7 @@ import java.util.regex.Pattern;
 
 import org.jboss.modules.maven.ArtifactCoordinates;
 import org.jboss.modules.maven.MavenResolver;
+import org.wildfly.swarm.bootstrap.util.ExtractionCache;
 import org.wildfly.swarm.bootstrap.util.TempFileManager;
 
 /**
@@ -60,10 +62,17 @@ public class UberJarMavenResolver implements MavenResolver {
 
             String jarPath = artifactRelativePath + classifier + DOT + packaging;
 
-            InputStream stream = UberJarMavenResolver.class.getClassLoader().getResourceAsStream(jarPath);
-
-            if (stream != null) {
-                resolved = copyTempJar(coordinates.getArtifactId() + HYPHEN + coordinates.getVersion(), stream, packaging);
+            URL url = UberJarMavenResolver.class.getClassLoader().getResource(jarPath);
+
+            if (url != null) {
+                String name = coordinates.getArtifactId() + HYPHEN + coordinates.getVersion();
+                if (ExtractionCache.INSTANCE.isEnabled()) {
+                    resolved = ExtractionCache.INSTANCE.extract(url, name, DOT + packaging);
+                } else {
+                    try (InputStream stream = url.openStream()) {
+                        resolved = copyTempJar(name, stream, packaging);
+                    }
+                }
                 this.resolutionCache.put(coordinates, resolved);
             }
         }
@@ -15,34 +15,56 @@
  */
 package org.wildfly.swarm.bootstrap.performance;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
+ * Totals for a repeated, possibly concurrent, operation.
+ *
  * @author Bob McWhirter
  */
 public class Accumulator {
 
     private final String description;
 
-    private List<TimedEvent> children = new ArrayList<>();
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder nanos = new LongAdder();
+
+    private final LongAdder allocatedBytes = new LongAdder();
 
     Accumulator(String description) {
         this.description = description;
     }
 
-    TimedEvent newChild() {
+    AutoCloseable newChild() {
         TimedEvent event = new TimedEvent();
-        this.children.add(event);
-        return event;
+        return () -> {
+            event.close();
+            this.count.increment();
+            this.nanos.add(event.durationNanos());
+            if (event.allocatedBytes() > 0) {
+                this.allocatedBytes.add(event.allocatedBytes());
+            }
+        };
+    }
+
+    public String getDescription() {
+        return this.description;
     }
 
     public void dump(long l, StringBuilder str) {
-        long ms = this.children.stream()
-                .collect(Collectors.summingLong(e -> e.durationMs()));
+        long ms = TimeUnit.NANOSECONDS.toMillis(this.nanos.sum());
 
         str.append(String.format("%-80s...%s", this.description, Performance.formatTime(ms)));
         str.append("\n");
     }
+
+    void toJSON(StringBuilder str) {
+        str.append("{\"name\":").append(Performance.quote(this.description));
+        str.append(",\"count\":").append(this.count.sum());
+        str.append(",\"totalNanos\":").append(this.nanos.sum());
+        str.append(",\"allocatedBytes\":").append(this.allocatedBytes.sum());
+        str.append('}');
+    }
 }
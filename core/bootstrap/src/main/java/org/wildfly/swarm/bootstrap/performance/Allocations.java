@@ -0,0 +1,67 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.bootstrap.performance;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+/**
+ * Per-thread allocation counter, where the JVM provides one.
+ *
+ * <p>Accessed reflectively, as <code>com.sun.management</code> is not visible to every module.</p>
+ */
+final class Allocations {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static final Method ALLOCATED_BYTES = allocatedBytesMethod();
+
+    private Allocations() {
+    }
+
+    /**
+     * @return The bytes allocated so far by the current thread, or <code>-1</code> if unsupported.
+     */
+    static long currentThread() {
+        if (ALLOCATED_BYTES == null) {
+            return -1;
+        }
+        try {
+            return (Long) ALLOCATED_BYTES.invoke(THREADS, Thread.currentThread().getId());
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static Method allocatedBytesMethod() {
+        try {
+            Class<?> type = Class.forName("com.sun.management.ThreadMXBean", false, null);
+            if (!type.isInstance(THREADS)) {
+                return null;
+            }
+            Method method = type.getMethod("getThreadAllocatedBytes", long.class);
+            Method supported = type.getMethod("isThreadAllocatedMemorySupported");
+            Method enabled = type.getMethod("isThreadAllocatedMemoryEnabled");
+            if (!(Boolean) supported.invoke(THREADS) || !(Boolean) enabled.invoke(THREADS)) {
+                return null;
+            }
+            return method;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -15,8 +15,9 @@
  */
 package org.wildfly.swarm.bootstrap.performance;
 
-import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * @author Bob McWhirter
@@ -31,9 +32,14 @@ public class ContextualizedEvent implements AutoCloseable {
     @Override
     public void close() throws Exception {
         this.event.close();
-        Performance.CONTEXT_STACK.pop();
-        if (Performance.CONTEXT_STACK.isEmpty()) {
-            Performance.TOTAL_MEASURED_TIME.addAndGet(this.event.durationMs());
+        Deque<ContextualizedEvent> stack = Performance.CONTEXT_STACK.get();
+        if (stack.peek() == this) {
+            stack.pop();
+        } else {
+            stack.remove(this);
+        }
+        if (stack.isEmpty()) {
+            Performance.TOTAL_MEASURED_NANOS.addAndGet(this.event.durationNanos());
         }
     }
 
@@ -56,10 +62,49 @@ public class ContextualizedEvent implements AutoCloseable {
         });
     }
 
+    void toJSON(long base, StringBuilder str) {
+        str.append("{\"name\":").append(Performance.quote(this.description));
+        str.append(",\"thread\":").append(Performance.quote(this.event.thread().getName()));
+        str.append(",\"startNanos\":").append(this.event.startNanos() - base);
+        str.append(",\"durationNanos\":").append(this.event.durationNanos());
+        str.append(",\"allocatedBytes\":").append(this.event.allocatedBytes());
+        str.append(",\"children\":[");
+        boolean first = true;
+        for (ContextualizedEvent child : this.children) {
+            if (!first) {
+                str.append(',');
+            }
+            child.toJSON(base, str);
+            first = false;
+        }
+        str.append("]}");
+    }
+
+    void toTraceEvents(long base, List<String> events) {
+        StringBuilder str = new StringBuilder();
+        str.append("{\"name\":").append(Performance.quote(this.description));
+        str.append(",\"cat\":\"boot\",\"ph\":\"X\",\"pid\":1");
+        str.append(",\"tid\":").append(this.event.thread().getId());
+        str.append(",\"ts\":").append(Performance.micros(this.event.startNanos() - base));
+        str.append(",\"dur\":").append(Performance.micros(this.event.durationNanos()));
+        str.append(",\"args\":{\"allocatedBytes\":").append(this.event.allocatedBytes()).append("}}");
+        events.add(str.toString());
+
+        this.children.forEach(e -> e.toTraceEvents(base, events));
+    }
+
+    long startNanos() {
+        return this.event.startNanos();
+    }
+
+    Thread thread() {
+        return this.event.thread();
+    }
+
     private final String description;
 
     private final TimedEvent event;
 
-    private List<ContextualizedEvent> children = new ArrayList<>();
+    private final List<ContextualizedEvent> children = new CopyOnWriteArrayList<>();
 
 }
@@ -15,33 +15,67 @@
  */
 package org.wildfly.swarm.bootstrap.performance;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Deque;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * Boot-time profiler.
+ *
+ * <p>Timed phases nest per-thread, so work performed concurrently on other threads forms
+ * its own tree rather than being attributed to whatever the main thread is doing. Each
+ * phase records its duration in nanoseconds and, where the JVM supports it, the bytes
+ * allocated by its thread.</p>
+ *
+ * <p>Besides the textual {@link #dump()}, the profile can be exported as JSON or in the
+ * Chrome trace-event format (viewable in <code>chrome://tracing</code>). Setting
+ * <code>swarm.bootstrap.profile</code> to a file name writes the profile there once
+ * the container has booted; the format is chosen with <code>swarm.bootstrap.profile.format</code>
+ * (<code>json</code>, the default, or <code>chrome</code>).</p>
+ *
  * @author Bob McWhirter
  */
 public class Performance {
 
-    private static long START_TIME = -1;
+    public static final String OUTPUT_PROPERTY = "swarm.bootstrap.profile";
+
+    public static final String FORMAT_PROPERTY = "swarm.bootstrap.profile.format";
+
+    public static final String FORMAT_JSON = "json";
 
-    static Map<String, Accumulator> ACCUMULATORS = new HashMap<>();
+    public static final String FORMAT_CHROME = "chrome";
 
-    static Stack<ContextualizedEvent> CONTEXT_STACK = new Stack<>();
+    // System.nanoTime() may be negative, so only this value means not started
+    private static final long NOT_STARTED = Long.MIN_VALUE;
 
-    static List<ContextualizedEvent> ROOT_CONTEXTS = new ArrayList<>();
+    private static volatile long START_NANOS = NOT_STARTED;
 
-    static AtomicLong TOTAL_MEASURED_TIME = new AtomicLong();
+    static final Map<String, Accumulator> ACCUMULATORS = new ConcurrentHashMap<>();
+
+    static final ThreadLocal<Deque<ContextualizedEvent>> CONTEXT_STACK = ThreadLocal.withInitial(ArrayDeque::new);
+
+    static final List<ContextualizedEvent> ROOT_CONTEXTS = new CopyOnWriteArrayList<>();
+
+    static final AtomicLong TOTAL_MEASURED_NANOS = new AtomicLong();
 
     private Performance() {
     }
 
     public static void start() {
-        START_TIME = System.currentTimeMillis();
+        START_NANOS = System.nanoTime();
     }
 
     static String formatTime(long ms) {
@@ -58,36 +92,34 @@ public class Performance {
         return String.format("%02d:%02d.%03d", m, s, ms);
     }
 
-    public static synchronized AutoCloseable time(String description) {
+    public static AutoCloseable time(String description) {
+        Deque<ContextualizedEvent> stack = CONTEXT_STACK.get();
         ContextualizedEvent event = null;
 
-        if (CONTEXT_STACK.isEmpty()) {
+        if (stack.isEmpty()) {
             event = new ContextualizedEvent(description);
             ROOT_CONTEXTS.add(event);
         } else {
-            event = CONTEXT_STACK.peek().newChild(description);
+            event = stack.peek().newChild(description);
         }
 
-        CONTEXT_STACK.push(event);
+        stack.push(event);
         return event;
     }
 
-    public static synchronized AutoCloseable accumulate(String description) {
-        Accumulator accumulator = ACCUMULATORS.get(description);
-        if (accumulator == null) {
-            accumulator = new Accumulator(description);
-            ACCUMULATORS.put(description, accumulator);
-        }
-
-        return accumulator.newChild();
+    public static AutoCloseable accumulate(String description) {
+        return ACCUMULATORS.computeIfAbsent(description, Accumulator::new).newChild();
     }
 
     public static String dump() {
         StringBuilder str = new StringBuilder();
 
-        long totalTime = (START_TIME > 0 ? System.currentTimeMillis() - START_TIME : TOTAL_MEASURED_TIME.get());
+        long totalTime = TimeUnit.NANOSECONDS.toMillis(totalNanos());
 
         ROOT_CONTEXTS.forEach(e -> {
+            if (e.thread() != ROOT_CONTEXTS.get(0).thread()) {
+                str.append("[" + e.thread().getName() + "]\n");
+            }
             e.dump("", totalTime, str);
         });
 
@@ -99,4 +131,159 @@ public class Performance {
 
         return str.toString().trim();
     }
+
+    /**
+     * Export the profile as a JSON document of nested phases and accumulated totals.
+     *
+     * <p>Phase start times are in nanoseconds relative to the start of the profile.</p>
+     *
+     * @return The JSON document.
+     */
+    public static String toJSON() {
+        long base = baseNanos();
+        StringBuilder str = new StringBuilder();
+        str.append("{\"totalNanos\":").append(totalNanos());
+        str.append(",\"phases\":[");
+        boolean first = true;
+        for (ContextualizedEvent each : ROOT_CONTEXTS) {
+            if (!first) {
+                str.append(',');
+            }
+            each.toJSON(base, str);
+            first = false;
+        }
+        str.append("],\"accumulators\":[");
+        first = true;
+        for (Accumulator each : ACCUMULATORS.values()) {
+            if (!first) {
+                str.append(',');
+            }
+            each.toJSON(str);
+            first = false;
+        }
+        str.append("]}");
+        return str.toString();
+    }
+
+    /**
+     * Export the timed phases in the Chrome trace-event format, one track per thread.
+     *
+     * <p>Accumulated totals have no position in time, and are included as <code>otherData</code>.</p>
+     *
+     * @return The trace document.
+     */
+    public static String toChromeTrace() {
+        long base = baseNanos();
+        List<String> events = new ArrayList<>();
+        ROOT_CONTEXTS.forEach(e -> e.toTraceEvents(base, events));
+
+        StringBuilder str = new StringBuilder();
+        str.append("{\"traceEvents\":[");
+        str.append(String.join(",", events));
+        str.append("],\"displayTimeUnit\":\"ms\",\"otherData\":{");
+        boolean first = true;
+        for (Accumulator each : ACCUMULATORS.values()) {
+            if (!first) {
+                str.append(',');
+            }
+            StringBuilder accumulator = new StringBuilder();
+            each.toJSON(accumulator);
+            str.append(quote(each.getDescription())).append(':').append(quote(accumulator.toString()));
+            first = false;
+        }
+        str.append("}}");
+        return str.toString();
+    }
+
+    /**
+     * Export the profile in the given format.
+     *
+     * @param format Either {@link #FORMAT_JSON} or {@link #FORMAT_CHROME}.
+     * @return The exported profile.
+     */
+    public static String export(String format) {
+        if (FORMAT_CHROME.equals(format)) {
+            return toChromeTrace();
+        }
+        if (format == null || FORMAT_JSON.equals(format)) {
+            return toJSON();
+        }
+        throw new IllegalArgumentException("Unknown profile format: " + format);
+    }
+
+    /**
+     * Write the profile to the file named by <code>swarm.bootstrap.profile</code>, if set.
+     *
+     * @return <code>true</code> if the profile was written, <code>false</code> if not requested.
+     * @throws IOException If the file cannot be written.
+     */
+    public static boolean exportIfRequested() throws IOException {
+        String output = System.getProperty(OUTPUT_PROPERTY);
+        if (output == null || output.isEmpty()) {
+            return false;
+        }
+        File file = new File(output);
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        try (Writer writer = new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8)) {
+            writer.write(export(System.getProperty(FORMAT_PROPERTY, FORMAT_JSON)));
+        }
+        return true;
+    }
+
+    static long totalNanos() {
+        long start = START_NANOS;
+        return start != NOT_STARTED ? System.nanoTime() - start : TOTAL_MEASURED_NANOS.get();
+    }
+
+    private static long baseNanos() {
+        long start = START_NANOS;
+        if (start != NOT_STARTED) {
+            return start;
+        }
+        long base = Long.MAX_VALUE;
+        for (ContextualizedEvent each : ROOT_CONTEXTS) {
+            base = Math.min(base, each.startNanos());
+        }
+        return base == Long.MAX_VALUE ? System.nanoTime() : base;
+    }
+
+    static String micros(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1000.0);
+    }
+
+    static String quote(String str) {
+        StringBuilder quoted = new StringBuilder(str.length() + 2);
+        quoted.append('"');
+        for (int i = 0; i < str.length(); ++i) {
+            char c = str.charAt(i);
+            switch (c) {
+                case '"':
+                    quoted.append("\\\"");
+                    break;
+                case '\\':
+                    quoted.append("\\\\");
+                    break;
+                case '\n':
+                    quoted.append("\\n");
+                    break;
+                case '\r':
+                    quoted.append("\\r");
+                    break;
+                case '\t':
+                    quoted.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        quoted.append('"');
+        return quoted.toString();
+    }
 }
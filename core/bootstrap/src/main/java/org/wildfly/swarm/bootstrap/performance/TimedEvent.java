@@ -15,6 +15,8 @@
  */
 package org.wildfly.swarm.bootstrap.performance;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * @author Bob McWhirter
  */
@@ -22,10 +24,18 @@ class TimedEvent implements AutoCloseable {
 
     private final long start;
 
-    private long stop = -1;
+    private final long allocatedAtStart;
+
+    private final Thread thread;
+
+    private volatile long stop = -1;
+
+    private volatile long allocated = -1;
 
     TimedEvent() {
-        this.start = System.currentTimeMillis();
+        this.thread = Thread.currentThread();
+        this.allocatedAtStart = Allocations.currentThread();
+        this.start = System.nanoTime();
     }
 
     boolean isOpen() {
@@ -34,14 +44,36 @@ class TimedEvent implements AutoCloseable {
 
     @Override
     public void close() throws Exception {
-        this.stop = System.currentTimeMillis();
+        this.stop = System.nanoTime();
+        if (this.allocatedAtStart >= 0 && this.thread == Thread.currentThread()) {
+            this.allocated = Allocations.currentThread() - this.allocatedAtStart;
+        }
     }
 
-    long durationMs() {
+    long startNanos() {
+        return this.start;
+    }
+
+    long durationNanos() {
         if (this.stop < 0) {
-            return System.currentTimeMillis() - this.start;
+            return System.nanoTime() - this.start;
         }
 
         return this.stop - this.start;
     }
+
+    long durationMs() {
+        return TimeUnit.NANOSECONDS.toMillis(durationNanos());
+    }
+
+    /**
+     * @return Bytes allocated by the opening thread while open, or <code>-1</code> if unknown.
+     */
+    long allocatedBytes() {
+        return this.allocated;
+    }
+
+    Thread thread() {
+        return this.thread;
+    }
 }
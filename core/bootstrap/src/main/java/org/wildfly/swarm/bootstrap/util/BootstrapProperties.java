@@ -29,6 +29,8 @@ public class BootstrapProperties {
 
     public static final String IS_UBERJAR = "swarm.isuberjar";
 
+    public static final String EXPLODE_NESTED_JARS = "swarm.bootstrap.explode";
+
     private BootstrapProperties() {
     }
 
@@ -0,0 +1,479 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.bootstrap.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+import org.wildfly.swarm.bootstrap.logging.BootstrapLogger;
+
+/**
+ * Persistent, content-addressed cache of artifacts extracted from the uberjar.
+ *
+ * <p>Disabled unless <code>swarm.bootstrap.cache.dir</code> is set. Each extracted artifact is stored
+ * under the SHA-1 of its content, so restarts and other JVMs on the same node sharing the directory
+ * re-use previous extractions. An index file maps the uberjar entry (name, size and CRC, all known
+ * from the jar's central directory) to its SHA-1, so warm lookups never hash content.</p>
+ *
+ * <p>Content is written to a temporary file in the cache and published with an atomic rename,
+ * and the index and size-bounded LRU cleanup are guarded by a file-lock, making the cache safe
+ * for concurrent use by several JVMs. Whenever the cache is opened, least-recently-used content is
+ * evicted until it fits within <code>swarm.bootstrap.cache.max-size</code> megabytes (default 2048).</p>
+ *
+ * <p>Content handed out by the cache is leased: a shared lock is held on a <code>.lease</code> file
+ * next to it until the cache is closed or the JVM exits, and eviction skips any content whose lease
+ * is still held, so content is never removed from under a running JVM.</p>
+ */
+public class ExtractionCache implements Closeable {
+
+    public static final String CACHE_DIR_PROPERTY = "swarm.bootstrap.cache.dir";
+
+    public static final String CACHE_MAX_SIZE_PROPERTY = "swarm.bootstrap.cache.max-size";
+
+    public static final ExtractionCache INSTANCE = new ExtractionCache(
+            System.getProperty(CACHE_DIR_PROPERTY),
+            Long.getLong(CACHE_MAX_SIZE_PROPERTY, 2048) * 1024 * 1024);
+
+    private static final String INDEX = "index";
+
+    private static final String LOCK = "index.lock";
+
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    private static final String EXPLODED_SUFFIX = "_d";
+
+    private static final String LEASE_SUFFIX = ".lease";
+
+    private static final long STALE_PARTIAL_MS = TimeUnit.HOURS.toMillis(1);
+
+    ExtractionCache(String dir, long maxSize) {
+        this.dir = (dir == null ? null : new File(dir).toPath());
+        this.maxSize = maxSize;
+        boolean enabled = false;
+        if (this.dir != null) {
+            try {
+                Files.createDirectories(this.dir);
+                withLock(() -> {
+                    cleanup();
+                    return null;
+                });
+                loadIndex();
+                enabled = true;
+            } catch (IOException e) {
+                LOG.warn("Unable to initialize extraction cache " + this.dir + ", caching disabled: " + e.getMessage());
+            }
+        }
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return <code>true</code> if a cache directory is configured and was initialized.
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Release the leases on all content handed out by this cache, making it eligible for eviction.
+     */
+    @Override
+    public void close() {
+        for (FileLock each : this.leases.values()) {
+            try {
+                each.acquiredBy().close();
+            } catch (IOException e) {
+                // released anyhow when the JVM exits
+            }
+        }
+        this.leases.clear();
+    }
+
+    /**
+     * Retrieve the cached copy of a resource, extracting it first if needed.
+     *
+     * @param url  The resource, usually a <code>jar:</code> URL into the uberjar.
+     * @param name A descriptive name, used only for temporary files.
+     * @param ext  The extension of the cached file, including the leading dot.
+     * @return The cached file.
+     * @throws IOException If the resource cannot be read or the cache written.
+     */
+    public File extract(URL url, String name, String ext) throws IOException {
+        URLConnection connection = url.openConnection();
+        String key = indexKey(connection);
+
+        if (key != null) {
+            String sha1 = this.index.get(key);
+            if (sha1 != null) {
+                Path cached = contentPath(sha1, ext);
+                lease(cached);
+                if (Files.exists(cached)) {
+                    touch(cached);
+                    return cached.toFile();
+                }
+            }
+        }
+
+        Path partial = Files.createTempFile(this.dir, name, PARTIAL_SUFFIX);
+        String sha1;
+        try {
+            MessageDigest digest = sha1();
+            try (InputStream in = new DigestInputStream(connection.getInputStream(), digest)) {
+                Files.copy(in, partial, StandardCopyOption.REPLACE_EXISTING);
+            }
+            sha1 = hex(digest.digest());
+            lease(contentPath(sha1, ext));
+            publish(partial, contentPath(sha1, ext));
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+
+        if (key != null) {
+            this.index.put(key, sha1);
+            appendIndex(key, sha1);
+        }
+        return contentPath(sha1, ext).toFile();
+    }
+
+    /**
+     * Retrieve the exploded form of a cached archive, exploding it first if needed.
+     *
+     * @param archive An archive previously returned by {@link #extract(URL, String, String)}.
+     * @return The directory holding the exploded archive.
+     * @throws IOException If the archive cannot be exploded.
+     */
+    public File explode(File archive) throws IOException {
+        Path target = archive.toPath().resolveSibling(archive.getName() + EXPLODED_SUFFIX);
+        lease(target);
+        if (Files.isDirectory(target)) {
+            touch(target);
+            return target.toFile();
+        }
+
+        Path partial = Files.createTempDirectory(this.dir, archive.getName() + PARTIAL_SUFFIX);
+        try {
+            try (JarFile jarFile = new JarFile(archive)) {
+                BootstrapUtil.explodeJar(jarFile, partial.toString());
+            }
+            publish(partial, target);
+        } finally {
+            deleteRecursively(partial);
+        }
+        return target.toFile();
+    }
+
+    private void publish(Path partial, Path target) throws IOException {
+        if (Files.exists(target)) {
+            // already published by another thread or JVM
+            touch(target);
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            if (!Files.exists(target)) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Hold a shared lock on the lease file of some content, for as long as this cache is open.
+     * The lease is taken before the content is looked up, so it cannot be evicted in between.
+     */
+    private void lease(Path content) throws IOException {
+        Path lease = leasePath(content);
+        if (this.leases.containsKey(lease)) {
+            return;
+        }
+        Files.createDirectories(lease.getParent());
+        FileChannel channel = FileChannel.open(lease, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            FileLock lock = channel.lock(0, Long.MAX_VALUE, true);
+            if (this.leases.putIfAbsent(lease, lock) != null) {
+                channel.close();
+            }
+        } catch (OverlappingFileLockException e) {
+            // already leased within this JVM
+            channel.close();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Delete some content, unless any JVM, including this one, holds its lease.
+     *
+     * <p>The lease file is locked exclusively while deleting, so a JVM taking the lease
+     * meanwhile waits, then finds the content missing and extracts it again. The lease
+     * file itself is kept, as the same content-addressed name is reused if re-extracted.</p>
+     *
+     * @return <code>true</code> if the content was deleted.
+     */
+    private static boolean evict(Path content) throws IOException {
+        Path lease = leasePath(content);
+        if (!Files.exists(lease)) {
+            deleteRecursively(content);
+            return true;
+        }
+        try (FileChannel channel = FileChannel.open(lease, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.tryLock();
+            if (lock == null) {
+                return false;
+            }
+            deleteRecursively(content);
+            return true;
+        } catch (OverlappingFileLockException e) {
+            return false;
+        }
+    }
+
+    private static Path leasePath(Path content) {
+        return content.resolveSibling(content.getFileName() + LEASE_SUFFIX);
+    }
+
+    private String indexKey(URLConnection connection) throws IOException {
+        if (!(connection instanceof JarURLConnection)) {
+            return null;
+        }
+        JarEntry entry = ((JarURLConnection) connection).getJarEntry();
+        if (entry == null || entry.getSize() < 0 || entry.getCrc() < 0) {
+            return null;
+        }
+        return entry.getName() + ':' + entry.getSize() + ':' + Long.toHexString(entry.getCrc());
+    }
+
+    private Path contentPath(String sha1, String ext) {
+        return this.dir.resolve(sha1.substring(0, 2)).resolve(sha1 + ext);
+    }
+
+    private void loadIndex() throws IOException {
+        Path indexFile = this.dir.resolve(INDEX);
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tabLoc = line.lastIndexOf('\t');
+                // a partially-written line from a crashed JVM is simply skipped
+                if (tabLoc > 0 && line.length() - tabLoc - 1 == 40) {
+                    this.index.put(line.substring(0, tabLoc), line.substring(tabLoc + 1));
+                }
+            }
+        }
+    }
+
+    private void appendIndex(String key, String sha1) {
+        try {
+            withLock(() -> {
+                try (Writer writer = Files.newBufferedWriter(this.dir.resolve(INDEX), StandardCharsets.UTF_8,
+                                                             StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    writer.write(key + '\t' + sha1 + '\n');
+                }
+                return null;
+            });
+        } catch (IOException e) {
+            LOG.debug("Unable to update extraction cache index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Evict least-recently-used content until the cache fits within its size bound,
+     * and compact the index to the surviving content. Must be called holding the lock.
+     */
+    private void cleanup() throws IOException {
+        List<CachedItem> items = new ArrayList<>();
+        long total = 0;
+        long now = System.currentTimeMillis();
+
+        try (DirectoryStream<Path> buckets = Files.newDirectoryStream(this.dir)) {
+            for (Path bucket : buckets) {
+                String bucketName = bucket.getFileName().toString();
+                if (bucketName.contains(PARTIAL_SUFFIX)) {
+                    if (now - Files.getLastModifiedTime(bucket).toMillis() > STALE_PARTIAL_MS) {
+                        deleteRecursively(bucket);
+                    }
+                    continue;
+                }
+                if (!Files.isDirectory(bucket)) {
+                    continue;
+                }
+                try (DirectoryStream<Path> contents = Files.newDirectoryStream(bucket)) {
+                    for (Path each : contents) {
+                        if (each.getFileName().toString().endsWith(LEASE_SUFFIX)) {
+                            continue;
+                        }
+                        CachedItem item = new CachedItem(each, sizeOf(each), Files.getLastModifiedTime(each).toMillis());
+                        items.add(item);
+                        total += item.size;
+                    }
+                }
+            }
+        }
+
+        items.sort(Comparator.comparingLong(e -> e.lastUsed));
+
+        Set<String> survivors = new HashSet<>();
+        for (CachedItem item : items) {
+            if (total > this.maxSize && evict(item.path)) {
+                LOG.debug("Evicted " + item.path + " from extraction cache");
+                total -= item.size;
+            } else {
+                String fileName = item.path.getFileName().toString();
+                survivors.add(fileName.substring(0, Math.min(40, fileName.length())));
+            }
+        }
+
+        compactIndex(survivors);
+    }
+
+    private void compactIndex(Set<String> survivors) throws IOException {
+        Path indexFile = this.dir.resolve(INDEX);
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+        Path compacted = this.dir.resolve(INDEX + PARTIAL_SUFFIX);
+        try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8);
+             Writer writer = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tabLoc = line.lastIndexOf('\t');
+                if (tabLoc > 0 && survivors.contains(line.substring(tabLoc + 1))) {
+                    writer.write(line);
+                    writer.write('\n');
+                }
+            }
+        }
+        Files.move(compacted, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private <T> T withLock(LockedAction<T> action) throws IOException {
+        synchronized (this) {
+            try (FileChannel channel = FileChannel.open(this.dir.resolve(LOCK), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock lock = channel.lock()) {
+                return action.run();
+            }
+        }
+    }
+
+    private static void touch(Path path) {
+        try {
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // only affects eviction order
+        }
+    }
+
+    private static long sizeOf(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return Files.size(path);
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            return paths.filter(Files::isRegularFile).mapToLong(p -> p.toFile().length()).sum();
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            paths.sorted(Comparator.reverseOrder())
+                    .forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private static MessageDigest sha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder str = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            str.append(Character.forDigit((b >> 4) & 0xF, 16));
+            str.append(Character.forDigit(b & 0xF, 16));
+        }
+        return str.toString();
+    }
+
+    private static final BootstrapLogger LOG = BootstrapLogger.logger("org.wildfly.swarm.bootstrap.cache");
+
+    private final Path dir;
+
+    private final boolean enabled;
+
+    private final long maxSize;
+
+    private final Map<String, String> index = new ConcurrentHashMap<>();
+
+    private final Map<Path, FileLock> leases = new ConcurrentHashMap<>();
+
+    private interface LockedAction<T> {
+        T run() throws IOException;
+    }
+
+    private static final class CachedItem {
+
+        CachedItem(Path path, long size, long lastUsed) {
+            this.path = path;
+            this.size = size;
+            this.lastUsed = lastUsed;
+        }
+
+        private final Path path;
+
+        private final long size;
+
+        private final long lastUsed;
+    }
+}
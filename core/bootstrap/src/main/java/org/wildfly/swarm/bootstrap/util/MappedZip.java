@@ -0,0 +1,364 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.bootstrap.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Read-only view of a zip archive held in a {@link ByteBuffer}.
+ *
+ * <p>The outermost archive is memory-mapped, and nested archives which are
+ * <i>stored</i> (not deflated) within it are served as slices of that same
+ * mapping, so no entry ever has to be copied to disk to be read.</p>
+ */
+public class MappedZip {
+
+    private static final int EOCD_SIG = 0x06054b50;
+
+    private static final int CEN_SIG = 0x02014b50;
+
+    private static final int LOC_SIG = 0x04034b50;
+
+    private static final int EOCD_LEN = 22;
+
+    private static final int CEN_LEN = 46;
+
+    private static final int LOC_LEN = 30;
+
+    private static final int MAX_COMMENT_LEN = 0xFFFF;
+
+    private static final int STORED = 0;
+
+    private static final int DEFLATED = 8;
+
+    public MappedZip(String name, ByteBuffer buffer) throws IOException {
+        this.name = name;
+        this.buffer = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        this.buffer.clear();
+        readCentralDirectory();
+    }
+
+    /**
+     * Map a zip file from disk.
+     *
+     * @param file The file to map.
+     * @return The mapped view.
+     * @throws IOException If the file cannot be mapped, is larger than 2GB or uses ZIP64 extensions.
+     */
+    public static MappedZip map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new ZipException("Archive too large to be mapped: " + file);
+            }
+            return new MappedZip(file.getAbsolutePath(), channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public Entry getEntry(String name) {
+        return this.entries.get(name);
+    }
+
+    public Collection<Entry> getEntries() {
+        return Collections.unmodifiableCollection(this.entries.values());
+    }
+
+    /**
+     * Open an archive nested within this one.
+     *
+     * <p>Only a stored entry can be opened, as a slice of this archive; a deflated entry
+     * would have to be inflated and held on the heap, and is better extracted instead.</p>
+     *
+     * @param entry The stored entry holding the nested archive.
+     * @return The nested archive.
+     * @throws IOException If the entry is deflated or is not a readable zip archive.
+     */
+    public MappedZip nested(Entry entry) throws IOException {
+        if (entry.method != STORED) {
+            throw new ZipException("Nested archive is not stored: " + entry.getName() + " in " + this.name);
+        }
+        return new MappedZip(this.name + "!/" + entry.getName(), data(entry));
+    }
+
+    public byte[] read(Entry entry) throws IOException {
+        ByteBuffer data = data(entry);
+        byte[] bytes = new byte[(int) entry.size];
+        if (entry.method == STORED) {
+            data.get(bytes);
+            return bytes;
+        }
+
+        // extra trailing byte is required by the nowrap inflater
+        byte[] compressed = new byte[data.remaining() + 1];
+        data.get(compressed, 0, compressed.length - 1);
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            int len = 0;
+            while (len < bytes.length && !inflater.finished()) {
+                int read = inflater.inflate(bytes, len, bytes.length - len);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new ZipException("Truncated entry: " + entry.getName());
+                }
+                len += read;
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException(e.getMessage());
+        } finally {
+            inflater.end();
+        }
+        return bytes;
+    }
+
+    public InputStream openStream(Entry entry) throws IOException {
+        InputStream in = new ByteBufferInputStream(data(entry));
+        if (entry.method == STORED) {
+            return in;
+        }
+        Inflater inflater = new Inflater(true);
+        return new InflaterInputStream(new TrailingByteInputStream(in), inflater) {
+            @Override
+            public void close() throws IOException {
+                super.close();
+                inflater.end();
+            }
+        };
+    }
+
+    private ByteBuffer data(Entry entry) throws IOException {
+        if (entry.dataOffset < 0) {
+            int loc = entry.localHeaderOffset;
+            if (this.buffer.getInt(loc) != LOC_SIG) {
+                throw new ZipException("Invalid local header for " + entry.getName() + " in " + this.name);
+            }
+            entry.dataOffset = loc + LOC_LEN + u16(loc + 26) + u16(loc + 28);
+        }
+        ByteBuffer data = this.buffer.duplicate();
+        data.position(entry.dataOffset);
+        data.limit(entry.dataOffset + (int) entry.compressedSize);
+        return data.slice();
+    }
+
+    private void readCentralDirectory() throws IOException {
+        int eocd = findEndOfCentralDirectory();
+
+        int total = u16(eocd + 10);
+        long cenSize = u32(eocd + 12);
+        long cenOffset = u32(eocd + 16);
+
+        if (total == 0xFFFF || cenSize == 0xFFFFFFFFL || cenOffset == 0xFFFFFFFFL) {
+            throw new ZipException("ZIP64 archives are not supported: " + this.name);
+        }
+
+        // bytes prepended to the archive, such as a launch script
+        int base = (int) (eocd - cenSize - cenOffset);
+        if (base < 0) {
+            throw new ZipException("Invalid central directory in " + this.name);
+        }
+
+        int pos = (int) (base + cenOffset);
+        for (int i = 0; i < total; ++i) {
+            if (this.buffer.getInt(pos) != CEN_SIG) {
+                throw new ZipException("Invalid central directory header in " + this.name);
+            }
+            int method = u16(pos + 10);
+            long compressedSize = u32(pos + 20);
+            long size = u32(pos + 24);
+            int nameLen = u16(pos + 28);
+            int extraLen = u16(pos + 30);
+            int commentLen = u16(pos + 32);
+            long localHeaderOffset = u32(pos + 42);
+
+            if (method != STORED && method != DEFLATED) {
+                throw new ZipException("Unsupported compression method " + method + " in " + this.name);
+            }
+
+            byte[] nameBytes = new byte[nameLen];
+            ByteBuffer nameBuffer = this.buffer.duplicate();
+            nameBuffer.position(pos + CEN_LEN);
+            nameBuffer.get(nameBytes);
+            String entryName = new String(nameBytes, StandardCharsets.UTF_8);
+
+            this.entries.put(entryName, new Entry(entryName, method, compressedSize, size, (int) (base + localHeaderOffset)));
+
+            pos += CEN_LEN + nameLen + extraLen + commentLen;
+        }
+    }
+
+    private int findEndOfCentralDirectory() throws IOException {
+        int limit = this.buffer.limit();
+        int min = Math.max(0, limit - EOCD_LEN - MAX_COMMENT_LEN);
+        for (int pos = limit - EOCD_LEN; pos >= min; --pos) {
+            if (this.buffer.getInt(pos) == EOCD_SIG) {
+                return pos;
+            }
+        }
+        throw new ZipException("No central directory found in " + this.name);
+    }
+
+    private int u16(int pos) {
+        return this.buffer.getShort(pos) & 0xFFFF;
+    }
+
+    private long u32(int pos) {
+        return this.buffer.getInt(pos) & 0xFFFFFFFFL;
+    }
+
+    private final String name;
+
+    private final ByteBuffer buffer;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    public static final class Entry {
+
+        Entry(String name, int method, long compressedSize, long size, int localHeaderOffset) {
+            this.name = name;
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public boolean isDirectory() {
+            return this.name.endsWith("/");
+        }
+
+        public boolean isStored() {
+            return this.method == STORED;
+        }
+
+        public long getSize() {
+            return this.size;
+        }
+
+        public String toString() {
+            return this.name;
+        }
+
+        private final String name;
+
+        private final int method;
+
+        private final long compressedSize;
+
+        private final long size;
+
+        private final int localHeaderOffset;
+
+        private volatile int dataOffset = -1;
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            if (!this.buffer.hasRemaining()) {
+                return -1;
+            }
+            return this.buffer.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!this.buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(len, this.buffer.remaining());
+            this.buffer.get(b, off, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long n) {
+            int count = (int) Math.min(Math.max(n, 0), this.buffer.remaining());
+            this.buffer.position(this.buffer.position() + count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return this.buffer.remaining();
+        }
+
+        private final ByteBuffer buffer;
+    }
+
+    /**
+     * Supplies the single dummy byte the nowrap inflater may ask for past the end of the data.
+     */
+    private static class TrailingByteInputStream extends InputStream {
+
+        TrailingByteInputStream(InputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = this.delegate.read();
+            if (b < 0 && !this.trailerSent) {
+                this.trailerSent = true;
+                return 0;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = this.delegate.read(b, off, len);
+            if (count < 0 && !this.trailerSent && len > 0) {
+                this.trailerSent = true;
+                b[off] = 0;
+                return 1;
+            }
+            return count;
+        }
+
+        private final InputStream delegate;
+
+        private boolean trailerSent;
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.bootstrap.modules;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.modules.DependencySpec;
+import org.jboss.modules.ModuleSpec;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ModulePreloaderTest {
+
+    private final Map<String, AtomicInteger> finds = new ConcurrentHashMap<>();
+
+    @Test
+    public void testPreloadWalksGraphOnce() throws Exception {
+        register("preload.a", "preload.b", "preload.c");
+        register("preload.b", "preload.d");
+        register("preload.c", "preload.b", "preload.d");
+        register("preload.d", "preload.missing");
+
+        BootModuleLoader loader = new BootModuleLoader();
+        new ModulePreloader(loader, 4).preload(Arrays.asList("preload.a", "preload.c")).get(30, TimeUnit.SECONDS);
+
+        assertThat(this.finds.keySet()).containsOnly("preload.a", "preload.b", "preload.c", "preload.d");
+        for (AtomicInteger count : this.finds.values()) {
+            assertThat(count.get()).isEqualTo(1);
+        }
+
+        // already defined, so not found again
+        loader.loadModule("preload.a");
+        assertThat(this.finds.get("preload.a").get()).isEqualTo(1);
+    }
+
+    private void register(String name, String... dependencies) {
+        DynamicModuleFinder.register(name, (id, delegateLoader) -> {
+            this.finds.computeIfAbsent(id, k -> new AtomicInteger()).incrementAndGet();
+            ModuleSpec.Builder builder = ModuleSpec.build(id);
+            for (String dependency : dependencies) {
+                builder.addDependency(DependencySpec.createModuleDependencySpec(dependency, true, true));
+            }
+            return builder.create();
+        });
+    }
+}
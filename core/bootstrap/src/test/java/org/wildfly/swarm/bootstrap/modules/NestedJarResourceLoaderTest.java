@@ -0,0 +1,151 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.bootstrap.modules;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.jboss.modules.ClassSpec;
+import org.jboss.modules.Resource;
+import org.jboss.modules.ResourceLoader;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class NestedJarResourceLoaderTest {
+
+    private static final String MODULE_DIR = "modules/org/example/main/";
+
+    private static File uberjar;
+
+    @BeforeClass
+    public static void createUberjar() throws IOException {
+        uberjar = File.createTempFile("nested", ".jar");
+        uberjar.deleteOnExit();
+
+        byte[] nestedStored = jar(false);
+        byte[] nestedDeflated = jar(true);
+
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(uberjar))) {
+            add(out, MODULE_DIR + "module.xml", "<module/>".getBytes(StandardCharsets.UTF_8), true);
+            add(out, MODULE_DIR + "stored.jar", nestedStored, false);
+            add(out, MODULE_DIR + "deflated.jar", nestedDeflated, true);
+            add(out, MODULE_DIR + "dir/config.properties", "key=value".getBytes(StandardCharsets.UTF_8), true);
+        }
+    }
+
+    @Test
+    public void testStoredNestedJar() throws Exception {
+        ResourceLoader loader = NestedJarResourceLoader.loaderFor(base(), "/", "stored.jar", "stored.jar");
+
+        assertThat(loader).isInstanceOf(MappedJarResourceLoader.class);
+        assertNestedJar(loader);
+        assertThat(loader.getResource("/org/example/thing.txt").getURL().toExternalForm()).endsWith(".jar!/org/example/thing.txt");
+    }
+
+    @Test
+    public void testDeflatedNestedJarIsExtracted() throws Exception {
+        ResourceLoader loader = NestedJarResourceLoader.loaderFor(base(), "/", "deflated.jar", "deflated.jar");
+
+        assertThat(loader instanceof MappedJarResourceLoader).isFalse();
+        assertNestedJar(loader);
+    }
+
+    @Test
+    public void testDirectoryResourceRoot() throws Exception {
+        ResourceLoader loader = NestedJarResourceLoader.loaderFor(base(), "/", "dir", "dir");
+
+        assertThat(loader).isInstanceOf(MappedJarResourceLoader.class);
+        assertThat(loader.getPaths()).containsOnly("");
+        assertThat(read(loader.getResource("config.properties").getURL().openStream())).isEqualTo("key=value");
+    }
+
+    @Test
+    public void testNormalize() {
+        assertThat(NestedJarResourceLoader.normalize("modules/a/main/./b.jar")).isEqualTo("modules/a/main/b.jar");
+        assertThat(NestedJarResourceLoader.normalize("modules/a/main/../other/")).isEqualTo("modules/a/other/");
+        assertThat(NestedJarResourceLoader.normalize("modules/a/main/.")).isEqualTo("modules/a/main");
+    }
+
+    private static void assertNestedJar(ResourceLoader loader) throws Exception {
+        assertThat(loader.getPaths()).contains("org/example", "META-INF");
+
+        ClassSpec spec = loader.getClassSpec("org/example/Thing.class");
+        assertThat(spec).isNotNull();
+        assertThat(new String(spec.getBytes(), StandardCharsets.UTF_8)).isEqualTo("not-really-a-class");
+        assertThat(loader.getClassSpec("org/example/Missing.class")).isNull();
+
+        assertThat(loader.getPackageSpec("org/example").getImplTitle()).isEqualTo("example");
+
+        Resource resource = loader.getResource("/org/example/thing.txt");
+        assertThat(resource.getSize()).isEqualTo(5000);
+        assertThat(read(resource.openStream())).hasSize(5000);
+        assertThat(read(resource.getURL().openStream())).hasSize(5000);
+    }
+
+    private static URL base() throws IOException {
+        return new URL("jar:" + uberjar.toURI().toURL().toExternalForm() + "!/" + MODULE_DIR);
+    }
+
+    private static byte[] jar(boolean deflated) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; ++i) {
+            text.append("hello");
+        }
+        try (ZipOutputStream out = new ZipOutputStream(bytes)) {
+            add(out, "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\nImplementation-Title: example\n\n".getBytes(StandardCharsets.UTF_8), deflated);
+            add(out, "org/example/Thing.class", "not-really-a-class".getBytes(StandardCharsets.UTF_8), deflated);
+            add(out, "org/example/thing.txt", text.toString().getBytes(StandardCharsets.UTF_8), deflated);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void add(ZipOutputStream out, String name, byte[] content, boolean deflated) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        if (!deflated) {
+            CRC32 crc = new CRC32();
+            crc.update(content);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(content.length);
+            entry.setCrc(crc.getValue());
+        }
+        out.putNextEntry(entry);
+        out.write(content);
+        out.closeEntry();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[1024];
+            int len;
+            while ((len = stream.read(buf)) >= 0) {
+                out.write(buf, 0, len);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
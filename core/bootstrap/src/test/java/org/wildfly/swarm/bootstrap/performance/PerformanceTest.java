@@ -0,0 +1,77 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.bootstrap.performance;
+
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class PerformanceTest {
+
+    @Test
+    public void testPerThreadNesting() throws Exception {
+        try (AutoCloseable outer = Performance.time("perf-test outer")) {
+            Thread other = new Thread(() -> {
+                try (AutoCloseable concurrent = Performance.time("perf-test concurrent")) {
+                    byte[] garbage = new byte[1024 * 1024];
+                    assertThat(garbage).isNotNull();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }, "perf-test-thread");
+            other.start();
+            other.join();
+            try (AutoCloseable inner = Performance.time("perf-test inner")) {
+                try (AutoCloseable accumulated = Performance.accumulate("perf-test accumulated")) {
+                    Thread.sleep(1);
+                }
+            }
+        }
+
+        String json = Performance.toJSON();
+        // the other thread's phase is a root of its own, not a child of "outer"
+        assertThat(json).contains("{\"name\":\"perf-test concurrent\",\"thread\":\"perf-test-thread\"");
+        assertThat(json).contains("\"children\":[{\"name\":\"perf-test inner\"");
+        assertThat(json).contains("{\"name\":\"perf-test accumulated\",\"count\":1,");
+
+        String trace = Performance.toChromeTrace();
+        assertThat(trace).startsWith("{\"traceEvents\":[");
+        assertThat(trace).contains("\"name\":\"perf-test inner\",\"cat\":\"boot\",\"ph\":\"X\"");
+
+        assertThat(Performance.dump()).contains("[perf-test-thread]");
+    }
+
+    @Test
+    public void testExportOnlyIfRequested() throws Exception {
+        String previous = System.getProperty(Performance.OUTPUT_PROPERTY);
+        try {
+            System.clearProperty(Performance.OUTPUT_PROPERTY);
+            assertThat(Performance.exportIfRequested()).isFalse();
+
+            System.setProperty(Performance.OUTPUT_PROPERTY, "");
+            assertThat(Performance.exportIfRequested()).isFalse();
+        } finally {
+            if (previous != null) {
+                System.setProperty(Performance.OUTPUT_PROPERTY, previous);
+            }
+        }
+    }
+
+    @Test
+    public void testQuote() {
+        assertThat(Performance.quote("a \"b\"\n\\c")).isEqualTo("\"a \\\"b\\\"\\n\\\\c\"");
+    }
+}
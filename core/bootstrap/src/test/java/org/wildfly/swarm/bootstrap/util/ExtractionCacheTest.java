@@ -0,0 +1,174 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.bootstrap.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ExtractionCacheTest {
+
+    private File uberjar;
+
+    private File cacheDir;
+
+    @Before
+    public void setUp() throws IOException {
+        this.cacheDir = TempFileManager.INSTANCE.newTempDirectory("extraction-cache", null);
+        this.uberjar = TempFileManager.INSTANCE.newTempFile("uberjar", ".jar");
+
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(this.uberjar))) {
+            out.putNextEntry(new ZipEntry("m2repo/org/example/app.war"));
+            try (ZipOutputStream war = new ZipOutputStream(out) {
+                @Override
+                public void close() throws IOException {
+                    finish();
+                }
+            }) {
+                war.putNextEntry(new ZipEntry("WEB-INF/classes/app.properties"));
+                war.write("app=true".getBytes(StandardCharsets.UTF_8));
+                war.closeEntry();
+            }
+            out.closeEntry();
+        }
+    }
+
+    @Test
+    public void testExtractIsContentAddressedAndIndexed() throws Exception {
+        ExtractionCache cache = new ExtractionCache(this.cacheDir.getAbsolutePath(), Long.MAX_VALUE);
+
+        File first = cache.extract(entryUrl(), "app", ".war");
+        File second = cache.extract(entryUrl(), "app", ".war");
+
+        assertThat(first).isEqualTo(second);
+        assertThat(first.getName()).matches("[0-9a-f]{40}\\.war");
+        assertThat(first.getParentFile().getName()).isEqualTo(first.getName().substring(0, 2));
+
+        List<String> index = Files.readAllLines(new File(this.cacheDir, "index").toPath());
+        assertThat(index).hasSize(1);
+        assertThat(index.get(0)).startsWith("m2repo/org/example/app.war:");
+        assertThat(index.get(0)).endsWith("\t" + first.getName().substring(0, 40));
+
+        File reopened = new ExtractionCache(this.cacheDir.getAbsolutePath(), Long.MAX_VALUE).extract(entryUrl(), "app", ".war");
+        assertThat(reopened).isEqualTo(first);
+    }
+
+    @Test
+    public void testDisabledIfInitializationFails() throws Exception {
+        // a directory cannot be created beneath a regular file
+        ExtractionCache cache = new ExtractionCache(new File(this.uberjar, "cache").getAbsolutePath(), Long.MAX_VALUE);
+
+        assertThat(cache.isEnabled()).isFalse();
+        assertThat(new ExtractionCache(this.cacheDir.getAbsolutePath(), Long.MAX_VALUE).isEnabled()).isTrue();
+        assertThat(new ExtractionCache(null, Long.MAX_VALUE).isEnabled()).isFalse();
+    }
+
+    @Test
+    public void testExplode() throws Exception {
+        ExtractionCache cache = new ExtractionCache(this.cacheDir.getAbsolutePath(), Long.MAX_VALUE);
+
+        File exploded = cache.explode(cache.extract(entryUrl(), "app", ".war"));
+
+        assertThat(exploded.getName()).endsWith(".war_d");
+        assertThat(new File(exploded, "WEB-INF/classes/app.properties")).exists();
+        assertThat(cache.explode(cache.extract(entryUrl(), "app", ".war"))).isEqualTo(exploded);
+    }
+
+    @Test
+    public void testEvictionOnOpen() throws Exception {
+        File cached;
+        try (ExtractionCache cache = new ExtractionCache(this.cacheDir.getAbsolutePath(), Long.MAX_VALUE)) {
+            cached = cache.explode(cache.extract(entryUrl(), "app", ".war"));
+        }
+        assertThat(cached).exists();
+
+        new ExtractionCache(this.cacheDir.getAbsolutePath(), 0).close();
+
+        assertThat(cached).doesNotExist();
+        assertThat(Files.readAllLines(new File(this.cacheDir, "index").toPath())).isEmpty();
+    }
+
+    @Test
+    public void testLeasedContentIsNotEvictedWithinJvm() throws Exception {
+        try (ExtractionCache holder = new ExtractionCache(this.cacheDir.getAbsolutePath(), Long.MAX_VALUE)) {
+            File exploded = holder.explode(holder.extract(entryUrl(), "app", ".war"));
+
+            new ExtractionCache(this.cacheDir.getAbsolutePath(), 0).close();
+
+            assertThat(new File(exploded, "WEB-INF/classes/app.properties")).exists();
+            assertThat(Files.readAllLines(new File(this.cacheDir, "index").toPath())).hasSize(1);
+        }
+    }
+
+    @Test
+    public void testLeasedContentIsNotEvictedAcrossJvms() throws Exception {
+        Process holder = new ProcessBuilder(
+                new File(System.getProperty("java.home"), "bin/java").getAbsolutePath(),
+                "-cp", System.getProperty("java.class.path"),
+                Holder.class.getName(), this.cacheDir.getAbsolutePath(), entryUrl().toExternalForm())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(holder.getInputStream(), StandardCharsets.UTF_8));
+            File exploded = new File(reader.readLine());
+            assertThat(exploded).exists();
+
+            new ExtractionCache(this.cacheDir.getAbsolutePath(), 0).close();
+            assertThat(exploded).exists();
+
+            holder.getOutputStream().close();
+            assertThat(holder.waitFor()).isEqualTo(0);
+
+            new ExtractionCache(this.cacheDir.getAbsolutePath(), 0).close();
+            assertThat(exploded).doesNotExist();
+        } finally {
+            holder.destroy();
+        }
+    }
+
+    private URL entryUrl() throws IOException {
+        return new URL("jar:" + this.uberjar.toURI().toURL().toExternalForm() + "!/m2repo/org/example/app.war");
+    }
+
+    /**
+     * Holds an exploded archive from the cache until its standard input is closed.
+     */
+    public static class Holder {
+
+        public static void main(String... args) throws Exception {
+            try (ExtractionCache cache = new ExtractionCache(args[0], Long.MAX_VALUE)) {
+                System.out.println(cache.explode(cache.extract(new URL(args[1]), "app", ".war")).getAbsolutePath());
+                System.out.flush();
+                while (System.in.read() >= 0) {
+                    // wait for the test to release us
+                }
+            }
+        }
+    }
+}
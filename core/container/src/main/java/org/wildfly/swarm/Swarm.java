@@ -491,6 +491,26 @@ public class Swarm {
         return this;
     }
 
+    /**
+     * Deploy a file or exploded directory as-is.
+     *
+     * <p>Unlike {@link #deploy(Archive)}, the content is used in place rather than being
+     * re-archived, and is not processed by any fraction.  The deployment is named after
+     * the file or directory, which should therefore carry a suffix such as <code>.war</code>.</p>
+     *
+     * @param path The file or exploded directory to deploy.
+     * @return The container.
+     * @throws DeploymentException if an error occurs.
+     */
+    public Swarm deploy(Path path) throws Exception {
+        if (this.server == null) {
+            throw SwarmMessages.MESSAGES.containerNotStarted("deploy(Path)");
+        }
+
+        this.server.deployer().deploy(path, path.getFileName().toString());
+        return this;
+    }
+
     /**
      * Retrieve the default ShrinkWrap deployment.
      *
@@ -15,11 +15,11 @@
  */
 package org.wildfly.swarm.container.config;
 
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -48,6 +48,7 @@ public class ConfigNode implements ConfigTree {
      * @param value The value to set.
      */
     public void child(SimpleKey key, Object value) {
+        MODIFICATIONS.incrementAndGet();
         if (value instanceof ConfigNode) {
             this.children.put(key, (ConfigNode) value);
         } else {
@@ -106,6 +107,26 @@ public class ConfigNode implements ConfigTree {
         }
     }
 
+    /**
+     * Retrieve the count of modifications made to any node.
+     *
+     * <p>Resolution caches compare this count to determine whether they are stale.</p>
+     *
+     * @return The modification count.
+     */
+    static long modifications() {
+        return MODIFICATIONS.get();
+    }
+
+    /**
+     * Retrieve the value held directly by this node.
+     *
+     * @return The value, or {@code null} if none.
+     */
+    Object value() {
+        return this.value;
+    }
+
     ConfigNode descendant(ConfigKey key) {
         SimpleKey head = key.head();
 
@@ -190,6 +211,7 @@ public class ConfigNode implements ConfigTree {
             throw new RuntimeException("Cannot set config-node as a value of a tree config-node");
         }
 
+        MODIFICATIONS.incrementAndGet();
         this.value = value;
     }
 
@@ -245,7 +267,7 @@ public class ConfigNode implements ConfigTree {
     }
 
     public Map asMap() {
-        Map<String,Object> map = new HashMap<>();
+        Map<String,Object> map = new LinkedHashMap<>();
 
         this.children.entrySet()
                 .forEach(entry -> {
@@ -259,6 +281,8 @@ public class ConfigNode implements ConfigTree {
         return "[ConfigNode: (" + System.identityHashCode(this.children) + ") children=" + this.children + "; value=" + this.value + "]";
     }
 
+    private static final AtomicLong MODIFICATIONS = new AtomicLong();
+
     private Map<SimpleKey, ConfigNode> children = new LinkedHashMap<>();
 
     private Object value;
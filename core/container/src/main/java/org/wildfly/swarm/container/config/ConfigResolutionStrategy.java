@@ -16,11 +16,15 @@
 package org.wildfly.swarm.container.config;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -40,6 +44,10 @@ import org.wildfly.swarm.spi.api.config.SimpleKey;
  *
  * <p>The given {@code ConfigNode} objects will be search in-order for the first match.</p>
  *
+ * <p>Each {@code ConfigNode} tree is flattened into an index of key to node, and resolved
+ * values are memoized.  Both are discarded whenever a node is modified, or a node or filter
+ * is added.</p>
+ *
  * @author Bob McWhirter
  */
 class ConfigResolutionStrategy {
@@ -68,16 +76,19 @@ class ConfigResolutionStrategy {
 
     public void withFilter(ConfigurationFilter filter) {
         this.filters.add(filter);
+        this.index = null;
     }
 
     void withProperties(Properties properties) {
         this.propertiesNode = PropertiesConfigNodeFactory.load(properties);
         this.nodes.add(this.propertiesNode);
         this.properties = PropertiesManipulator.forProperties(properties);
+        this.index = null;
     }
 
     void withEnvironment(Map<String, String> environment) {
         this.nodes.add(EnvironmentConfigNodeFactory.load(environment));
+        this.index = null;
     }
 
     /**
@@ -87,10 +98,31 @@ class ConfigResolutionStrategy {
      */
     void add(ConfigNode node) {
         this.nodes.add(node);
+        this.index = null;
+    }
+
+    /**
+     * Replace a {@code ConfigNode} in the search list, retaining its position.
+     *
+     * <p>Properties activated for keys which no longer have any value are cleared.</p>
+     *
+     * @param existing    The node to replace.
+     * @param replacement The replacement.
+     */
+    void replace(ConfigNode existing, ConfigNode replacement) {
+        List<ConfigKey> previousKeys = existing.allKeysRecursively().collect(Collectors.toList());
+        this.nodes.replaceAll(e -> e == existing ? replacement : e);
+        this.index = null;
+        for (ConfigKey each : previousKeys) {
+            if (!optionalValueOf(each).isPresent()) {
+                this.properties.clearProperty(each.name());
+            }
+        }
     }
 
     void defaults(ConfigNode defaults) {
         this.defaults = defaults;
+        this.index = null;
     }
 
     void withProperty(String name, String value) {
@@ -144,12 +176,29 @@ class ConfigResolutionStrategy {
     }
 
     Optional<Object> optionalValueOf(ConfigKey key) {
-        return nodes()
-                .map(e -> e.valueOf(key))
-                .filter(Objects::nonNull)
-                .map(v -> filter(key, v))
-                .filter(Objects::nonNull)
-                .findFirst();
+        Index index = index();
+        String path = path(key);
+
+        Object value = index.resolved.get(path);
+        if (value == null) {
+            value = NONE;
+            for (Map<String, ConfigNode> layer : index.layers) {
+                ConfigNode node = layer.get(path);
+                if (node == null) {
+                    continue;
+                }
+                // mirrors ConfigNode#valueOf(), which yields the node itself when it has no direct value
+                Object candidate = node.value() == null ? node : node.value();
+                candidate = filter(key, candidate);
+                if (candidate != null) {
+                    value = candidate;
+                    break;
+                }
+            }
+            index.resolved.put(path, value);
+        }
+
+        return value == NONE ? Optional.empty() : Optional.of(value);
     }
 
     Object filter(ConfigKey key, Object value) {
@@ -165,27 +214,66 @@ class ConfigResolutionStrategy {
     }
 
     List<SimpleKey> simpleSubkeysOf(ConfigKey prefix) {
-        return nodes()
-                .map(e -> e.descendant(prefix))
-                .filter(Objects::nonNull)
-                .flatMap(e -> e.childrenKeys().stream())
-                .distinct()
-                .collect(Collectors.toList());
+        String path = path(prefix);
+        Set<SimpleKey> subkeys = new LinkedHashSet<>();
+        for (Map<String, ConfigNode> layer : index().layers) {
+            ConfigNode node = layer.get(path);
+            if (node != null) {
+                subkeys.addAll(node.childrenKeys());
+            }
+        }
+        return new ArrayList<>(subkeys);
     }
 
     boolean hasKeyOrSubkeys(ConfigKey prefix) {
-        return nodes()
-                .map(e -> e.descendant(prefix))
-                .anyMatch(Objects::nonNull);
+        String path = path(prefix);
+        for (Map<String, ConfigNode> layer : index().layers) {
+            if (layer.containsKey(path)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     Properties asProperties() {
         return this.properties.getProperties();
     }
 
+    private Index index() {
+        long modifications = ConfigNode.modifications();
+        Index index = this.index;
+        if (index == null || index.modifications != modifications) {
+            List<Map<String, ConfigNode>> layers = new ArrayList<>();
+            nodes().forEach(node -> {
+                Map<String, ConfigNode> layer = new HashMap<>();
+                flatten("", node, layer);
+                layers.add(layer);
+            });
+            index = new Index(modifications, layers);
+            this.index = index;
+        }
+        return index;
+    }
+
+    private static void flatten(String path, ConfigNode node, Map<String, ConfigNode> layer) {
+        layer.put(path, node);
+        for (SimpleKey each : node.childrenKeys()) {
+            String childPath = path.isEmpty() ? each.propertyName() : path + "." + each.propertyName();
+            flatten(childPath, node.child(each), layer);
+        }
+    }
+
+    private static String path(ConfigKey key) {
+        if (key == ConfigKey.EMPTY) {
+            return "";
+        }
+        return key.propertyName();
+    }
+
     private PropertiesManipulator properties;
 
-    private List<ConfigNode> nodes = new ArrayList<>();
+    // replaced while reloading, as request threads resolve configuration
+    private List<ConfigNode> nodes = new CopyOnWriteArrayList<>();
 
     private ConfigNode defaults;
 
@@ -193,4 +281,21 @@ class ConfigResolutionStrategy {
 
     private List<ConfigurationFilter> filters = new ArrayList<>();
 
+    private volatile Index index;
+
+    private static final Object NONE = new Object();
+
+    private static final class Index {
+        Index(long modifications, List<Map<String, ConfigNode>> layers) {
+            this.modifications = modifications;
+            this.layers = layers;
+        }
+
+        private final long modifications;
+
+        private final List<Map<String, ConfigNode>> layers;
+
+        private final Map<String, Object> resolved = new ConcurrentHashMap<>();
+    }
+
 }
@@ -111,10 +111,8 @@ public class ConfigViewFactory {
     }
 
     protected void loadProperties(String profileName, URL url) throws IOException {
-        Properties props = new Properties();
-        props.load(url.openStream());
-        ConfigNode configNode = PropertiesConfigNodeFactory.load(props);
-        this.configView.register(profileName, configNode);
+        ConfigNode configNode = loadNode(url);
+        this.configView.register(profileName, configNode, url);
         this.configView.withProfile(profileName);
     }
 
@@ -168,16 +166,26 @@ public class ConfigViewFactory {
     }
 
     private void loadYamlProjectConfig(String name, URL url) throws IOException {
-        loadYamlProjectConfig(name, url.openStream());
+        ConfigNode node = loadNode(url);
+        this.configView.register(name, node, url);
+        this.configView.withProfile(name);
     }
 
-    @SuppressWarnings("unchecked")
-    private void loadYamlProjectConfig(String name, InputStream inputStream) {
-        Map<String, ?> doc = loadYaml(inputStream);
-
-        ConfigNode node = MapConfigNodeFactory.load(doc);
-        this.configView.register(name, node);
-        this.configView.withProfile(name);
+    /**
+     * Load a properties or YAML (but not project-stages) file as a {@code ConfigNode}.
+     *
+     * @param url The file.
+     * @return The node.
+     */
+    static ConfigNode loadNode(URL url) throws IOException {
+        try (InputStream in = url.openStream()) {
+            if (url.getPath().endsWith(".properties")) {
+                Properties props = new Properties();
+                props.load(in);
+                return PropertiesConfigNodeFactory.load(props);
+            }
+            return MapConfigNodeFactory.load(loadYaml(in));
+        }
     }
 
     static Map<String, ?> loadYaml(InputStream input) {
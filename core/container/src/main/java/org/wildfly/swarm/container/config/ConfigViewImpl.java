@@ -15,8 +15,11 @@
  */
 package org.wildfly.swarm.container.config;
 
+import java.io.IOException;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -109,6 +112,50 @@ public class ConfigViewImpl implements ConfigView {
         nodes.add(config);
     }
 
+    /**
+     * Register a named {@code ConfigNode} loaded from a file.
+     *
+     * @param name   The name to register.
+     * @param config The node to register.
+     * @param source The file the node was loaded from.
+     * @see #reload(URL)
+     */
+    public synchronized void register(String name, ConfigNode config, URL source) {
+        register(name, config);
+        this.sources.put(source, config);
+    }
+
+    /**
+     * Return the files from which registered nodes were loaded.
+     *
+     * @return The files.
+     */
+    public synchronized Set<URL> sources() {
+        return new HashSet<>(this.sources.keySet());
+    }
+
+    /**
+     * Reload a file, replacing the node previously loaded from it.
+     *
+     * <p>The view should be re-{@link #activate() activated} afterwards.</p>
+     *
+     * @param source The file to reload.
+     * @return {@code true} if the file had been loaded and was replaced, otherwise {@code false}.
+     */
+    public synchronized boolean reload(URL source) throws IOException {
+        ConfigNode existing = this.sources.get(source);
+        if (existing == null) {
+            return false;
+        }
+        ConfigNode replacement = ConfigViewFactory.loadNode(source);
+        for (List<ConfigNode> nodes : this.registry.values()) {
+            nodes.replaceAll(e -> e == existing ? replacement : e);
+        }
+        this.strategy.replace(existing, replacement);
+        this.sources.put(source, replacement);
+        return true;
+    }
+
     /**
      * Return the list of all registered node names.
      *
@@ -183,6 +230,8 @@ public class ConfigViewImpl implements ConfigView {
 
     private Map<String, List<ConfigNode>> registry = new HashMap<>();
 
+    private Map<URL, ConfigNode> sources = new HashMap<>();
+
     private ConfigResolutionStrategy strategy;
 
 
@@ -15,13 +15,27 @@
  */
 package org.wildfly.swarm.container.config;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /**
@@ -61,6 +75,66 @@ public class FilesystemConfigLocator extends ConfigLocator {
         return located.stream();
     }
 
+    /**
+     * Watch configuration files, such as those located by this class, for changes.
+     *
+     * <p>Only files on the default filesystem are watched. The listener is notified
+     * from a daemon thread for each changed file, until the returned handle is closed.</p>
+     *
+     * @param files    The files to watch.
+     * @param listener The listener to notify of changed files.
+     * @return The handle with which to stop watching.
+     */
+    public static Closeable watch(Collection<URL> files, Consumer<URL> listener) throws IOException {
+        WatchService watcher = FileSystems.getDefault().newWatchService();
+        Map<Path, URL> watched = new HashMap<>();
+        for (URL each : files) {
+            if (!"file".equals(each.getProtocol())) {
+                continue;
+            }
+            Path path;
+            try {
+                path = Paths.get(each.toURI()).toAbsolutePath();
+            } catch (URISyntaxException e) {
+                continue;
+            }
+            watched.put(path, each);
+            path.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        }
+
+        Thread thread = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey key = watcher.take();
+                    Path dir = (Path) key.watchable();
+                    Set<URL> changed = new LinkedHashSet<>();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            watched.forEach((path, url) -> {
+                                if (path.getParent().equals(dir)) {
+                                    changed.add(url);
+                                }
+                            });
+                        } else {
+                            URL url = watched.get(dir.resolve((Path) event.context()));
+                            if (url != null) {
+                                changed.add(url);
+                            }
+                        }
+                    }
+                    key.reset();
+                    changed.forEach(listener);
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // stopped watching
+            }
+        }, "swarm-config-watcher");
+        thread.setDaemon(true);
+        thread.start();
+
+        return watcher;
+    }
+
     private final Path root;
 
 }
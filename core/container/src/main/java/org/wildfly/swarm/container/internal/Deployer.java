@@ -31,5 +31,7 @@ public interface Deployer {
 
     void deploy(Collection<Path> paths) throws DeploymentException;
 
+    void deploy(Path path, String asName) throws DeploymentException;
+
     Archive<?> createDefaultDeployment();
 }
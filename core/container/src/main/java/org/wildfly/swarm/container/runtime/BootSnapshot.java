@@ -0,0 +1,202 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.container.runtime;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.jboss.dmr.ModelNode;
+import org.wildfly.swarm.spi.api.Fraction;
+import org.wildfly.swarm.spi.api.config.ConfigView;
+
+/**
+ * Pre-computed DMR boot operations, persisted between boots.
+ *
+ * <p>The operations produced by the {@link org.wildfly.swarm.container.runtime.marshal.DMRMarshaller}
+ * depend upon the installed fractions, the operations marshalled from runtime state, the configuration
+ * and any XML configuration.
+ * A snapshot records them alongside a key hashed from those inputs, so that a later boot with identical
+ * inputs can reuse the operations rather than marshalling them again.</p>
+ *
+ * <p>The key is computed once customizers have run, as customizers and the application's
+ * <code>main()</code> may change fraction state, and customizers may have other side effects,
+ * so they run on every boot regardless of any snapshot.</p>
+ */
+public class BootSnapshot {
+
+    private static final int MAGIC = 0x53574253;
+
+    private static final int VERSION = 3;
+
+    public BootSnapshot(File file) {
+        this.file = file;
+    }
+
+    public File getFile() {
+        return this.file;
+    }
+
+    /**
+     * Compute the key identifying the inputs of the boot operations.
+     *
+     * <p>Properties within the <code>jboss.</code> and <code>java.</code> namespaces are
+     * not part of the key, as they are never marshalled into the operations themselves.
+     * XML configuration is hashed as read, rather than parsed.</p>
+     *
+     * @param configView The configuration.
+     * @param fractions  The installed fractions, once customized.
+     * @param state      The operations marshalled from the state of fractions, custom marshallers,
+     *                   interfaces and socket-binding groups.
+     * @param xmlConfigs Any XML configuration.
+     * @return The key, as a hex-encoded digest.
+     * @see org.wildfly.swarm.container.runtime.marshal.DMRMarshaller#marshalState()
+     */
+    public static String key(ConfigView configView, Iterable<Fraction> fractions, Iterable<ModelNode> state, Iterable<URL> xmlConfigs)
+            throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+
+        update(digest, "version", String.valueOf(VERSION));
+
+        Set<String> sortedFractions = new TreeSet<>();
+        for (Fraction each : fractions) {
+            Package pkg = each.getClass().getPackage();
+            sortedFractions.add(each.getClass().getName() + ":" + (pkg == null ? null : pkg.getImplementationVersion()));
+        }
+        for (String each : sortedFractions) {
+            update(digest, "fraction", each);
+        }
+
+        for (ModelNode each : state) {
+            update(digest, "dmr", each.toString());
+        }
+
+        Properties properties = configView.asProperties();
+        for (String each : new TreeSet<>(properties.stringPropertyNames())) {
+            if (each.startsWith("jboss.") || each.startsWith("java.")) {
+                continue;
+            }
+            update(digest, each, properties.getProperty(each));
+        }
+
+        for (URL each : xmlConfigs) {
+            update(digest, "xml", each.toExternalForm());
+            try (InputStream in = each.openStream()) {
+                byte[] buf = new byte[8192];
+                int len;
+                while ((len = in.read(buf)) >= 0) {
+                    digest.update(buf, 0, len);
+                }
+            }
+        }
+
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest()) {
+            key.append(Character.forDigit((b >> 4) & 0xF, 16));
+            key.append(Character.forDigit(b & 0xF, 16));
+        }
+        return key.toString();
+    }
+
+    /**
+     * Load the boot operations, if previously stored with the same key.
+     *
+     * @param key The current key.
+     * @return The operations, or <code>null</code> if no matching snapshot exists.
+     */
+    public List<ModelNode> load(String key) throws IOException {
+        if (!this.file.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(this.file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(key)) {
+                return null;
+            }
+            int count = in.readInt();
+            List<ModelNode> operations = new ArrayList<>(count);
+            for (int i = 0; i < count; ++i) {
+                ModelNode node = new ModelNode();
+                node.readExternal(in);
+                operations.add(node);
+            }
+            return operations;
+        }
+    }
+
+    /**
+     * Store the boot operations under a key.
+     *
+     * <p>The snapshot is written to a temporary file and moved into place, so concurrent
+     * boots never observe a partially-written snapshot.</p>
+     *
+     * @param key        The current key.
+     * @param operations The operations.
+     */
+    public void store(String key, List<ModelNode> operations) throws IOException {
+        File dir = this.file.getAbsoluteFile().getParentFile();
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Unable to create directory: " + dir);
+        }
+        File tmp = File.createTempFile(this.file.getName(), ".tmp", dir);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(key);
+                out.writeInt(operations.size());
+                for (ModelNode each : operations) {
+                    each.writeExternal(out);
+                }
+            }
+            Files.move(tmp.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
+    }
+
+    private static void update(MessageDigest digest, String name, String value) {
+        digest.update(name.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+    }
+
+    private final File file;
+}
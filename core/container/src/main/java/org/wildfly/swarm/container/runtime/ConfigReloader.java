@@ -0,0 +1,204 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.container.runtime;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.dmr.ModelNode;
+import org.wildfly.swarm.config.runtime.invocation.Marshaller;
+import org.wildfly.swarm.container.config.ConfigViewImpl;
+import org.wildfly.swarm.container.config.FilesystemConfigLocator;
+import org.wildfly.swarm.internal.SwarmConfigMessages;
+import org.wildfly.swarm.spi.api.Fraction;
+import org.wildfly.swarm.spi.api.annotations.MarshalDMR;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ADD;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ATTRIBUTES;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.FAILURE_DESCRIPTION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NAME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_RESOURCE_DESCRIPTION_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESTART_NONE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESTART_REQUIRED;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESULT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUCCESS;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.VALUE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.WRITE_ATTRIBUTE_OPERATION;
+
+/**
+ * Applies changes to configuration files to a running server.
+ *
+ * <p>When a watched file changes, it is reloaded into the {@link ConfigViewImpl}, and the
+ * reloadable configurables are resolved again.  The fractions are then marshalled before and
+ * after the change, and each changed attribute of an existing resource is written through the
+ * {@link ModelControllerClient}, provided the management model reports it as not requiring a
+ * restart.</p>
+ */
+public class ConfigReloader implements Closeable {
+
+    public ConfigReloader(ConfigViewImpl configView, ConfigurableManager configurableManager, Iterable<Fraction> fractions, ModelControllerClient client) {
+        this.configView = configView;
+        this.configurableManager = configurableManager;
+        this.fractions = fractions;
+        this.client = client;
+    }
+
+    public void start() throws IOException {
+        this.watch = FilesystemConfigLocator.watch(this.configView.sources(), this::reload);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.watch != null) {
+            this.watch.close();
+            this.watch = null;
+        }
+    }
+
+    public synchronized void reload(URL source) {
+        try {
+            List<ModelNode> before = marshal();
+            if (!this.configView.reload(source)) {
+                return;
+            }
+            this.configView.activate();
+            SwarmConfigMessages.MESSAGES.reloadedConfiguration(source.toExternalForm());
+
+            List<ConfigurableHandle> changed = this.configurableManager.reload();
+            if (changed.isEmpty()) {
+                return;
+            }
+            for (ConfigurableHandle each : changed) {
+                SwarmConfigMessages.MESSAGES.reloadedConfigurable(each.key().name());
+            }
+
+            for (ModelNode each : writeOperations(before, marshal())) {
+                apply(each);
+            }
+        } catch (Exception e) {
+            SwarmConfigMessages.MESSAGES.errorReloadingConfiguration(source.toExternalForm(), e);
+        }
+    }
+
+    protected List<ModelNode> marshal() throws Exception {
+        List<ModelNode> list = new ArrayList<>();
+        for (Fraction each : this.fractions) {
+            if (each.getClass().isAnnotationPresent(MarshalDMR.class)) {
+                list.addAll(Marshaller.marshal(each));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Compute the <code>write-attribute</code> operations turning one set of <code>add</code>
+     * operations into another.
+     *
+     * <p>Resources added by the later set are reported as requiring a restart, rather than added.</p>
+     *
+     * @param before The operations before the change.
+     * @param after  The operations after the change.
+     * @return The operations.
+     */
+    static List<ModelNode> writeOperations(List<ModelNode> before, List<ModelNode> after) {
+        Map<ModelNode, ModelNode> existing = new HashMap<>();
+        for (ModelNode each : before) {
+            if (each.get(OP).asString().equals(ADD)) {
+                existing.put(each.get(OP_ADDR), each);
+            }
+        }
+
+        List<ModelNode> operations = new ArrayList<>();
+        for (ModelNode each : after) {
+            if (!each.get(OP).asString().equals(ADD)) {
+                continue;
+            }
+            ModelNode address = each.get(OP_ADDR);
+            ModelNode previous = existing.get(address);
+            if (previous == null) {
+                SwarmConfigMessages.MESSAGES.reloadRequiresRestart(ADD, address.asString());
+                continue;
+            }
+            Set<String> attributes = new LinkedHashSet<>();
+            attributes.addAll(attributesOf(previous));
+            attributes.addAll(attributesOf(each));
+            for (String attribute : attributes) {
+                ModelNode value = each.has(attribute) ? each.get(attribute) : new ModelNode();
+                ModelNode previousValue = previous.has(attribute) ? previous.get(attribute) : new ModelNode();
+                if (!value.equals(previousValue)) {
+                    ModelNode write = new ModelNode();
+                    write.get(OP).set(WRITE_ATTRIBUTE_OPERATION);
+                    write.get(OP_ADDR).set(address);
+                    write.get(NAME).set(attribute);
+                    write.get(VALUE).set(value);
+                    operations.add(write);
+                }
+            }
+        }
+        return operations;
+    }
+
+    private static Set<String> attributesOf(ModelNode operation) {
+        Set<String> attributes = new LinkedHashSet<>(operation.keys());
+        attributes.remove(OP);
+        attributes.remove(OP_ADDR);
+        return attributes;
+    }
+
+    private void apply(ModelNode write) throws IOException {
+        String attribute = write.get(NAME).asString();
+        ModelNode address = write.get(OP_ADDR);
+
+        ModelNode describe = new ModelNode();
+        describe.get(OP).set(READ_RESOURCE_DESCRIPTION_OPERATION);
+        describe.get(OP_ADDR).set(address);
+        ModelNode description = this.client.execute(describe);
+        ModelNode restartRequired = description.get(RESULT, ATTRIBUTES, attribute, RESTART_REQUIRED);
+
+        if (!description.get(OUTCOME).asString().equals(SUCCESS)
+                || !restartRequired.isDefined()
+                || !restartRequired.asString().equals(RESTART_NONE)) {
+            SwarmConfigMessages.MESSAGES.reloadRequiresRestart(attribute, address.asString());
+            return;
+        }
+
+        ModelNode result = this.client.execute(write);
+        if (!result.get(OUTCOME).asString().equals(SUCCESS)) {
+            SwarmConfigMessages.MESSAGES.errorApplyingReloadedConfiguration(write.asString(), result.get(FAILURE_DESCRIPTION).asString());
+        }
+    }
+
+    private final ConfigViewImpl configView;
+
+    private final ConfigurableManager configurableManager;
+
+    private final Iterable<Fraction> fractions;
+
+    private final ModelControllerClient client;
+
+    private Closeable watch;
+}
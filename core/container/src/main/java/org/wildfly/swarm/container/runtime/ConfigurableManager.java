@@ -27,8 +27,10 @@ import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -41,6 +43,7 @@ import org.wildfly.swarm.container.runtime.cdi.DeploymentContext;
 import org.wildfly.swarm.internal.SwarmConfigMessages;
 import org.wildfly.swarm.spi.api.Defaultable;
 import org.wildfly.swarm.spi.api.Fraction;
+import org.wildfly.swarm.spi.api.SwarmProperties;
 import org.wildfly.swarm.spi.api.annotations.Configurable;
 import org.wildfly.swarm.spi.api.annotations.Configurables;
 import org.wildfly.swarm.spi.api.config.ConfigKey;
@@ -48,6 +51,7 @@ import org.wildfly.swarm.spi.api.config.ConfigView;
 import org.wildfly.swarm.spi.api.config.Converter;
 import org.wildfly.swarm.spi.api.config.Resolver;
 import org.wildfly.swarm.spi.api.config.SimpleKey;
+import org.wildfly.swarm.spi.runtime.ConfigurableDescriptor;
 
 /**
  * @author Bob McWhirter
@@ -58,6 +62,8 @@ public class ConfigurableManager implements AutoCloseable {
 
     private static final String ACCEPT = "accept";
 
+    private static final String DEFAULT_RELOAD_KEYS = "swarm.logging";
+
     private static final Set<String> BLACKLISTED_FIELDS = new HashSet<String>() {{
         add("pcs");
         add("key");
@@ -90,6 +96,17 @@ public class ConfigurableManager implements AutoCloseable {
         add(Defaultable.class);
     }};
 
+    private static final Map<String, Class<?>> PRIMITIVES = new HashMap<String, Class<?>>() {{
+        put("boolean", Boolean.TYPE);
+        put("byte", Byte.TYPE);
+        put("char", Character.TYPE);
+        put("short", Short.TYPE);
+        put("int", Integer.TYPE);
+        put("long", Long.TYPE);
+        put("float", Float.TYPE);
+        put("double", Double.TYPE);
+    }};
+
     private static Logger LOG = Logger.getLogger("org.wildfly.swarm.config");
 
     private final List<ConfigurableHandle> configurables = new ArrayList<>();
@@ -190,7 +207,8 @@ public class ConfigurableManager implements AutoCloseable {
 
     private Converter<Map> mapConverter(ConfigKey key) {
         return (ignored) -> {
-            Map<String, Object> map = new HashMap<>();
+            // keep the configured order, for maps whose entries are tried in turn
+            Map<String, Object> map = new LinkedHashMap<>();
             List<SimpleKey> subKeys = this.configView.simpleSubkeys(key);
 
             for (SimpleKey subKey : subKeys) {
@@ -216,6 +234,35 @@ public class ConfigurableManager implements AutoCloseable {
         };
     }
 
+    /**
+     * Resolve the reloadable configurables again, following a change to the configuration.
+     *
+     * <p>Only configurables under one of the keys listed by {@link SwarmProperties#CONFIG_RELOAD_KEYS}
+     * are reloadable. Values removed from the configuration are left as they are.</p>
+     *
+     * @return The configurables whose value changed.
+     */
+    public List<ConfigurableHandle> reload() throws Exception {
+        List<ConfigKey> reloadable = new ArrayList<>();
+        for (String each : this.configView.resolve(SwarmProperties.CONFIG_RELOAD_KEYS).withDefault(DEFAULT_RELOAD_KEYS).getValue().split(",")) {
+            if (!each.trim().isEmpty()) {
+                reloadable.add(ConfigKey.parse(each.trim()));
+            }
+        }
+
+        List<ConfigurableHandle> changed = new ArrayList<>();
+        for (ConfigurableHandle each : new ArrayList<>(this.configurables)) {
+            if (reloadable.stream().noneMatch(e -> each.key().isChildOf(e))) {
+                continue;
+            }
+            Object before = each.currentValue();
+            if (configure(each) && !Objects.equals(before, each.currentValue())) {
+                changed.add(each);
+            }
+        }
+        return changed;
+    }
+
     public void rescan() throws Exception {
         this.rescanning = true;
         try {
@@ -313,12 +360,120 @@ public class ConfigurableManager implements AutoCloseable {
             return;
         }
         this.seenObjects.add(prefix);
-        scan(prefix, instance, instance.getClass(), implicit);
+        List<DescribedMember> described = null;
+        if (implicit && instance instanceof Fraction) {
+            described = describedMembers(instance.getClass());
+        }
+        if (described != null) {
+            scan(prefix, instance, described);
+        } else {
+            scan(prefix, instance, instance.getClass(), implicit);
+        }
         if (implicit) {
             scanSubresources(prefix, instance);
         }
     }
 
+    protected void scan(ConfigKey prefix, Object instance, List<DescribedMember> members) throws Exception {
+        for (DescribedMember each : members) {
+            if (each.method != null) {
+                if (!this.rescanning) {
+                    configure(prefix.append(ConfigKey.of(each.keys[0])), instance, each.method);
+                }
+                continue;
+            }
+            List<ConfigKey> names = new ArrayList<>();
+            for (String key : each.keys) {
+                names.add(handleDeploymentConfiguration(each.absolute ? ConfigKey.parse(key) : prefix.append(ConfigKey.of(key))));
+            }
+            configure(instance, each.field, names);
+        }
+    }
+
+    /**
+     * Retrieve the members described by the build-time generated descriptor of a fraction.
+     *
+     * @param type The fraction class.
+     * @return The members, or {@code null} if the fraction has no usable descriptor.
+     */
+    private List<DescribedMember> describedMembers(Class<?> type) {
+        if (this.described.containsKey(type)) {
+            return this.described.get(type);
+        }
+        List<DescribedMember> members = null;
+        ConfigurableDescriptor descriptor = ConfigurableDescriptor.of(type);
+        if (descriptor != null) {
+            members = bind(type, descriptor);
+        }
+        this.described.put(type, members);
+        return members;
+    }
+
+    private List<DescribedMember> bind(Class<?> type, ConfigurableDescriptor descriptor) {
+        List<DescribedMember> members = new ArrayList<>();
+        for (ConfigurableDescriptor.Member each : descriptor.members()) {
+            Class<?> declaringClass = type;
+            while (declaringClass != null && !declaringClass.getName().equals(each.getDeclaringClass())) {
+                declaringClass = declaringClass.getSuperclass();
+            }
+            if (declaringClass == null) {
+                // descriptor does not match the runtime class hierarchy
+                return null;
+            }
+            if (each.isMethod()) {
+                Method method = describedMethod(declaringClass, each);
+                if (method == null) {
+                    return null;
+                }
+                members.add(new DescribedMember(each, null, method));
+            } else {
+                Field field;
+                try {
+                    field = declaringClass.getDeclaredField(each.getName());
+                } catch (NoSuchFieldException e) {
+                    return null;
+                }
+                if (isBlacklisted(field) || !isConfigurableType(field.getType())) {
+                    return null;
+                }
+                members.add(new DescribedMember(each, field, null));
+            }
+        }
+        return members;
+    }
+
+    private Method describedMethod(Class<?> declaringClass, ConfigurableDescriptor.Member member) {
+        Method method = null;
+        try {
+            Class<?>[] parameterTypes = new Class<?>[member.getParameterCount()];
+            String[] names = member.getParameterTypes();
+            for (int i = 0; i < names.length; ++i) {
+                parameterTypes[i] = classFor(names[i], declaringClass.getClassLoader());
+            }
+            method = declaringClass.getDeclaredMethod(member.getName(), parameterTypes);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            // descriptor parameter types do not resolve, match by name and arity below
+        }
+        if (method != null && method.isAnnotationPresent(Configurable.class)) {
+            return method;
+        }
+        for (Method candidate : declaringClass.getDeclaredMethods()) {
+            if (candidate.getName().equals(member.getName()) && candidate.getParameterCount() == member.getParameterCount()
+                    && candidate.isAnnotationPresent(Configurable.class)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static Class<?> classFor(String name, ClassLoader cl) throws ClassNotFoundException {
+        Class<?> primitive = PRIMITIVES.get(name);
+        if (primitive != null) {
+            return primitive;
+        }
+        return Class.forName(name, false, cl);
+    }
+
     protected void scan(ConfigKey prefix, Object instance, Class<?> curClass, boolean implicit) throws Exception {
         if (curClass == null || curClass == Object.class || isBlacklisted(curClass)) {
             return;
@@ -332,20 +487,7 @@ public class ConfigurableManager implements AutoCloseable {
                 }
                 if (implicit || field.getAnnotation(Configurable.class) != null || field.getAnnotation(Configurables.class) != null) {
                     if (isConfigurableType(field.getType())) {
-                        List<ConfigKey> names = namesFor(prefix, field);
-
-                        boolean configured = false;
-
-                        for (ConfigKey name : names) {
-                            if (!seen(name)) {
-                                ConfigurableHandle configurable = new ObjectBackedConfigurableHandle(name, instance, field);
-                                this.configurables.add(configurable);
-                                configured = configure(configurable);
-                            }
-                            if (configured) {
-                                break;
-                            }
-                        }
+                        configure(instance, field, namesFor(prefix, field));
                     }
                 }
             }
@@ -355,29 +497,7 @@ public class ConfigurableManager implements AutoCloseable {
             Method[] methods = curClass.getDeclaredMethods();
             for (Method method : methods) {
                 if (method.isAnnotationPresent(Configurable.class)) {
-                    ConfigKey subPrefix = prefix.append(nameFor(method));
-                    if (method.getParameterCount() == 1) {
-                        // If doesn't exist, only create it if there's some
-                        // configuration keys that imply we want it.
-                        if (this.configView.hasKeyOrSubkeys(subPrefix)) {
-                            Object lambda = createLambda(subPrefix, method);
-                            if (lambda != null) {
-                                method.invoke(instance, lambda);
-                            }
-                        }
-                    } else if (method.getParameterCount() == 2) {
-                        List<SimpleKey> keysWithConfiguration = this.configView.simpleSubkeys(subPrefix);
-                        if (!keysWithConfiguration.isEmpty()) {
-                            for (SimpleKey key : keysWithConfiguration) {
-                                ConfigKey itemPrefix = subPrefix.append(key);
-                                Object lambda = createLambda(itemPrefix, method);
-                                if (lambda != null) {
-                                    method.invoke(instance, key.name(), lambda);
-                                }
-                            }
-                        }
-
-                    }
+                    configure(prefix.append(nameFor(method)), instance, method);
                 }
             }
         }
@@ -385,6 +505,47 @@ public class ConfigurableManager implements AutoCloseable {
         scan(prefix, instance, curClass.getSuperclass(), implicit);
     }
 
+    private void configure(Object instance, Field field, List<ConfigKey> names) throws Exception {
+        boolean configured = false;
+
+        for (ConfigKey name : names) {
+            if (!seen(name)) {
+                ConfigurableHandle configurable = new ObjectBackedConfigurableHandle(name, instance, field);
+                this.configurables.add(configurable);
+                this.configurableKeys.add(name);
+                configured = configure(configurable);
+            }
+            if (configured) {
+                break;
+            }
+        }
+    }
+
+    private void configure(ConfigKey subPrefix, Object instance, Method method) throws Exception {
+        if (method.getParameterCount() == 1) {
+            // If doesn't exist, only create it if there's some
+            // configuration keys that imply we want it.
+            if (this.configView.hasKeyOrSubkeys(subPrefix)) {
+                Object lambda = createLambda(subPrefix, method);
+                if (lambda != null) {
+                    method.invoke(instance, lambda);
+                }
+            }
+        } else if (method.getParameterCount() == 2) {
+            List<SimpleKey> keysWithConfiguration = this.configView.simpleSubkeys(subPrefix);
+            if (!keysWithConfiguration.isEmpty()) {
+                for (SimpleKey key : keysWithConfiguration) {
+                    ConfigKey itemPrefix = subPrefix.append(key);
+                    Object lambda = createLambda(itemPrefix, method);
+                    if (lambda != null) {
+                        method.invoke(instance, key.name(), lambda);
+                    }
+                }
+            }
+
+        }
+    }
+
     private boolean seen(ConfigKey name) {
         if (name == null) {
             return false;
@@ -394,7 +555,7 @@ public class ConfigurableManager implements AutoCloseable {
             // this is a deployment-activated context.
             return false;
         }
-        return this.seenObjects.contains(name) || this.configurables.stream().anyMatch(e -> e.key().equals(name));
+        return this.seenObjects.contains(name) || this.configurableKeys.contains(name);
     }
 
     private boolean isConfigurableType(Class<?> type) {
@@ -802,12 +963,34 @@ public class ConfigurableManager implements AutoCloseable {
     public void close() {
         this.seenObjects.clear();
         this.configurables.clear();
+        this.configurableKeys.clear();
         this.deferred.clear();
     }
 
     private Set<ConfigKey> seenObjects = new HashSet<>();
 
+    private final Set<ConfigKey> configurableKeys = new HashSet<>();
+
+    private final Map<Class<?>, List<DescribedMember>> described = new HashMap<>();
+
     private final DeploymentContext deploymentContext;
 
     private boolean rescanning;
+
+    protected static final class DescribedMember {
+        DescribedMember(ConfigurableDescriptor.Member member, Field field, Method method) {
+            this.keys = member.getKeys();
+            this.absolute = member.isAbsolute();
+            this.field = field;
+            this.method = method;
+        }
+
+        private final String[] keys;
+
+        private final boolean absolute;
+
+        private final Field field;
+
+        private final Method method;
+    }
 }
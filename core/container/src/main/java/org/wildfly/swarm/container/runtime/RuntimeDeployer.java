@@ -261,24 +261,9 @@ public class RuntimeDeployer implements Deployer {
                 }
             }
 
-            byte[] hash = this.contentRepository.addContent(deployment.as(ZipExporter.class).exportAsInputStream());
-
-            final ModelNode deploymentAdd = new ModelNode();
-
-            deploymentAdd.get(OP).set(ADD);
-            deploymentAdd.get(OP_ADDR).set("deployment", deployment.getName());
-            deploymentAdd.get(RUNTIME_NAME).set(deployment.getName());
-            deploymentAdd.get(ENABLED).set(true);
-            deploymentAdd.get(PERSISTENT).set(true);
-            ModelNode content = deploymentAdd.get(CONTENT).add();
-            content.get(HASH).set(hash);
-
-            int deploymentTimeout = Integer.getInteger(SwarmProperties.DEPLOYMENT_TIMEOUT, 300);
-
-            final ModelNode opHeaders = new ModelNode();
-            opHeaders.get(BLOCKING_TIMEOUT).set(deploymentTimeout);
-            deploymentAdd.get(OPERATION_HEADERS).set(opHeaders);
+            byte[] hash = this.contentRepository.addContent(deployment);
 
+            final ModelNode deploymentAdd = deploymentAdd(deployment.getName(), hash);
 
             BootstrapLogger.logger("org.wildfly.swarm.runtime.deployer")
                     .info("deploying " + deployment.getName());
@@ -302,6 +287,57 @@ public class RuntimeDeployer implements Deployer {
         }
     }
 
+    /**
+     * Deploy a file or exploded directory as-is.
+     *
+     * <p>The content is neither copied nor re-archived, and is not offered to any
+     * {@link DeploymentProcessor}, so must already be complete.</p>
+     *
+     * @param path   The file or exploded directory.
+     * @param asName The name of the deployment, including its type suffix.
+     * @throws DeploymentException if an error occurs.
+     */
+    @Override
+    public void deploy(Path path, String asName) throws DeploymentException {
+        try (AutoCloseable deploymentTimer = Performance.time("deployment: " + asName)) {
+            byte[] hash = this.contentRepository.addContent(path);
+
+            BootstrapLogger.logger("org.wildfly.swarm.runtime.deployer")
+                    .info("deploying " + asName);
+            System.setProperty(SwarmInternalProperties.CURRENT_DEPLOYMENT, asName);
+
+            ModelNode result = client.execute(deploymentAdd(asName, hash));
+            if (result.get("outcome").asString().equals("success")) {
+                return;
+            }
+            throw new DeploymentException(SwarmMessages.MESSAGES.deploymentFailed(result.get("failure-description").asString()));
+        } catch (DeploymentException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new DeploymentException(e);
+        }
+    }
+
+    private ModelNode deploymentAdd(String name, byte[] hash) {
+        final ModelNode deploymentAdd = new ModelNode();
+
+        deploymentAdd.get(OP).set(ADD);
+        deploymentAdd.get(OP_ADDR).set("deployment", name);
+        deploymentAdd.get(RUNTIME_NAME).set(name);
+        deploymentAdd.get(ENABLED).set(true);
+        deploymentAdd.get(PERSISTENT).set(true);
+        ModelNode content = deploymentAdd.get(CONTENT).add();
+        content.get(HASH).set(hash);
+
+        int deploymentTimeout = Integer.getInteger(SwarmProperties.DEPLOYMENT_TIMEOUT, 300);
+
+        final ModelNode opHeaders = new ModelNode();
+        opHeaders.get(BLOCKING_TIMEOUT).set(deploymentTimeout);
+        deploymentAdd.get(OPERATION_HEADERS).set(opHeaders);
+
+        return deploymentAdd;
+    }
+
     @SuppressWarnings("unused")
     @PreDestroy
     void stop() {
@@ -18,6 +18,7 @@ package org.wildfly.swarm.container.runtime;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -49,6 +50,7 @@ import org.jboss.msc.value.ImmediateValue;
 import org.jboss.shrinkwrap.api.Archive;
 import org.wildfly.swarm.bootstrap.performance.Performance;
 import org.wildfly.swarm.bootstrap.util.TempFileManager;
+import org.wildfly.swarm.container.config.ConfigViewImpl;
 import org.wildfly.swarm.container.internal.Deployer;
 import org.wildfly.swarm.container.internal.Server;
 import org.wildfly.swarm.container.runtime.deployments.DefaultDeploymentCreator;
@@ -59,10 +61,15 @@ import org.wildfly.swarm.container.runtime.wildfly.SwarmContentRepository;
 import org.wildfly.swarm.container.runtime.wildfly.UUIDFactory;
 import org.wildfly.swarm.container.runtime.xmlconfig.BootstrapConfiguration;
 import org.wildfly.swarm.container.runtime.xmlconfig.BootstrapPersister;
+import org.wildfly.swarm.container.runtime.xmlconfig.XMLConfig;
 import org.wildfly.swarm.internal.SwarmMessages;
 import org.wildfly.swarm.internal.wildfly.SelfContainedContainer;
 import org.wildfly.swarm.spi.api.Customizer;
+import org.wildfly.swarm.spi.api.Fraction;
+import org.wildfly.swarm.spi.api.SwarmProperties;
 import org.wildfly.swarm.spi.api.UserSpaceExtensionFactory;
+import org.wildfly.swarm.spi.api.config.ConfigView;
+import org.wildfly.swarm.spi.api.config.Resolver;
 import org.wildfly.swarm.spi.runtime.annotations.Post;
 import org.wildfly.swarm.spi.runtime.annotations.Pre;
 
@@ -111,6 +118,17 @@ public class RuntimeServer implements Server {
     @Inject
     private UsageCreator usageCreator;
 
+    @Inject
+    private ConfigView configView;
+
+    @Inject
+    @Any
+    private Instance<Fraction> fractions;
+
+    @Inject
+    @XMLConfig
+    private Instance<URL> xmlConfig;
+
     public RuntimeServer() {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             if (containerStarted) {
@@ -185,8 +203,36 @@ public class RuntimeServer implements Server {
             this.configurableManager.log();
         }
 
-        try (AutoCloseable handle = Performance.time("marshall DMR")) {
-            this.dmrMarshaller.marshal(bootstrapOperations);
+        // only marshalling is replaced by a snapshot, as customizers may have side effects
+        BootSnapshot snapshot = bootSnapshot();
+        String snapshotKey = null;
+        List<ModelNode> snapshotOperations = null;
+
+        if (snapshot != null) {
+            try (AutoCloseable handle = Performance.time("load boot snapshot")) {
+                snapshotKey = BootSnapshot.key(this.configView, this.fractions, this.dmrMarshaller.marshalState(), this.xmlConfig);
+                snapshotOperations = snapshot.load(snapshotKey);
+            } catch (IOException e) {
+                SwarmMessages.MESSAGES.bootSnapshotFailed(snapshot.getFile().getPath(), e);
+            }
+        }
+
+        if (snapshotOperations != null) {
+            SwarmMessages.MESSAGES.usingBootSnapshot(snapshot.getFile().getPath());
+            bootstrapOperations.addAll(snapshotOperations);
+        } else {
+            try (AutoCloseable handle = Performance.time("marshall DMR")) {
+                this.dmrMarshaller.marshal(bootstrapOperations);
+            }
+
+            if (snapshotKey != null) {
+                try (AutoCloseable handle = Performance.time("store boot snapshot")) {
+                    snapshot.store(snapshotKey, bootstrapOperations);
+                    SwarmMessages.MESSAGES.bootSnapshotWritten(snapshot.getFile().getPath());
+                } catch (IOException e) {
+                    SwarmMessages.MESSAGES.bootSnapshotFailed(snapshot.getFile().getPath(), e);
+                }
+            }
         }
 
         SwarmMessages.MESSAGES.wildflyBootstrap(bootstrapOperations.toString());
@@ -239,6 +285,12 @@ public class RuntimeServer implements Server {
                 this.client = controller.createClient(executor);
             }
 
+            if (this.configView instanceof ConfigViewImpl
+                    && this.configView.resolve(SwarmProperties.CONFIG_RELOAD).as(Boolean.class).withDefault(false).getValue()) {
+                this.configReloader = new ConfigReloader((ConfigViewImpl) this.configView, this.configurableManager, this.fractions, this.client);
+                this.configReloader.start();
+            }
+
             RuntimeDeployer deployer = this.deployer.get();
 
             try (AutoCloseable installDeployer = Performance.time("Installing deployer")) {
@@ -265,6 +317,14 @@ public class RuntimeServer implements Server {
         }
     }
 
+    private BootSnapshot bootSnapshot() {
+        Resolver<String> location = this.configView.resolve(SwarmProperties.BOOT_SNAPSHOT);
+        if (!location.hasValue()) {
+            return null;
+        }
+        return new BootSnapshot(new File(location.getValue()));
+    }
+
     private void configureUserSpaceExtensions() {
         this.userSpaceExtensionFactories.forEach(factory -> {
             try {
@@ -276,6 +336,10 @@ public class RuntimeServer implements Server {
     }
 
     public void stop() throws Exception {
+        if (this.configReloader != null) {
+            this.configReloader.close();
+            this.configReloader = null;
+        }
         this.container.stop();
         awaitContainerTermination();
         this.containerStarted = false;
@@ -308,7 +372,10 @@ public class RuntimeServer implements Server {
             SwarmMessages.MESSAGES.usage(message);
         }
 
-        this.configurableManager.close();
+        // reloading resolves the configurables again, so must keep hold of them
+        if (this.configReloader == null) {
+            this.configurableManager.close();
+        }
     }
 
     private SelfContainedContainer container;
@@ -323,4 +390,6 @@ public class RuntimeServer implements Server {
     private NetworkConfigurer networkConfigurer;
 
     private ModelControllerClient client;
+
+    private ConfigReloader configReloader;
 }
@@ -162,6 +162,17 @@ public class ServerBootstrapImpl implements ServerBootstrap {
             });
         } finally {
             SwarmMetricsMessages.MESSAGES.bootPerformance(Performance.dump());
+            exportProfile();
+        }
+    }
+
+    protected void exportProfile() {
+        try {
+            if (Performance.exportIfRequested()) {
+                SwarmMetricsMessages.MESSAGES.bootProfileWritten(System.getProperty(Performance.OUTPUT_PROPERTY));
+            }
+        } catch (IOException e) {
+            SwarmMetricsMessages.MESSAGES.bootProfileFailed(e);
         }
     }
 
@@ -15,6 +15,7 @@
  */
 package org.wildfly.swarm.container.runtime.marshal;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.enterprise.context.ApplicationScoped;
@@ -55,6 +56,24 @@ public class DMRMarshaller implements ConfigurationMarshaller {
     private SocketBindingGroupMarshaller socketBindingGroupMarshaller;
 
 
+    /**
+     * Marshal the operations derived from runtime state rather than read from a source: the state of fractions,
+     * custom marshallers, interfaces and socket-binding groups.
+     *
+     * <p>Used to key a {@link org.wildfly.swarm.container.runtime.BootSnapshot}. The operations of each fraction
+     * are kept, and reused by a following {@link #marshal(List)}; custom marshallers are invoked again.</p>
+     *
+     * @return The operations, ignoring any XML configuration.
+     */
+    public List<ModelNode> marshalState() {
+        List<ModelNode> list = new ArrayList<>();
+        this.subsystemMarshaller.marshal(list);
+        this.customMarshallers.forEach(e -> e.marshal(list));
+        this.interfaceMarshaller.marshal(list);
+        this.socketBindingGroupMarshaller.marshal(list);
+        return list;
+    }
+
     public void marshal(List<ModelNode> list) {
         try {
             try (AutoCloseable handle = Performance.time("marshal XML")) {
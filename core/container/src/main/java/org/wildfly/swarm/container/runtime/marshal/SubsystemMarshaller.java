@@ -15,8 +15,9 @@
  */
 package org.wildfly.swarm.container.runtime.marshal;
 
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.inject.Any;
@@ -54,15 +55,9 @@ public class SubsystemMarshaller implements ConfigurationMarshaller {
             MarshalDMR anno = each.getClass().getAnnotation(MarshalDMR.class);
 
             if (anno != null) {
-                try {
-                    try (AutoCloseable handle = Performance.time("marshall " + each.getClass().getSimpleName())) {
-                        LinkedList<ModelNode> subList = Marshaller.marshal(each);
-                        if (!isAlreadyConfigured(subList, list)) {
-                            list.addAll(subList);
-                        }
-                    }
-                } catch (Exception e) {
-                    throw new RuntimeException(e);
+                List<ModelNode> subList = marshal(each);
+                if (!isAlreadyConfigured(subList, list)) {
+                    list.addAll(subList);
                 }
             } else {
                 WildFlySubsystem subsysAnno = each.getClass().getAnnotation(WildFlySubsystem.class);
@@ -80,4 +75,25 @@ public class SubsystemMarshaller implements ConfigurationMarshaller {
         }
 
     }
+
+    /**
+     * Marshal the state of a fraction annotated with {@link MarshalDMR}.
+     *
+     * <p>Fractions are marshalled once customized, when their state no longer changes, so the operations
+     * of each fraction are kept and reused by later calls, such as the boot following a boot snapshot key.</p>
+     *
+     * @param fraction The fraction.
+     * @return The operations.
+     */
+    List<ModelNode> marshal(Fraction fraction) {
+        return this.marshalled.computeIfAbsent(fraction, (each) -> {
+            try (AutoCloseable handle = Performance.time("marshall " + each.getClass().getSimpleName())) {
+                return Marshaller.marshal(each);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private final Map<Fraction, List<ModelNode>> marshalled = new IdentityHashMap<>();
 }
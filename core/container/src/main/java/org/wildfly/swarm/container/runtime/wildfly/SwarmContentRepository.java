@@ -37,11 +37,11 @@ package org.wildfly.swarm.container.runtime.wildfly;
  * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
  */
 
-import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.DigestOutputStream;
@@ -49,8 +49,12 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.enterprise.context.ApplicationScoped;
 
@@ -62,18 +66,29 @@ import org.jboss.msc.service.ServiceTarget;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
+import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.exporter.ZipStoredExporter;
 import org.jboss.vfs.VFS;
 import org.jboss.vfs.VirtualFile;
 
 /**
  * A content-repository capable of providing a static bit of content.
  *
+ * <p>Content is indexed by its SHA-1 hash, so adding identical content again, such
+ * as when redeploying an unchanged archive, reuses the existing copy.  Files and
+ * exploded directories may also be added in place, without being copied at all.</p>
+ *
  * @author Bob McWhirter
  */
 @ApplicationScoped
 public class SwarmContentRepository implements ContentRepository, Service<ContentRepository> {
 
-    private Map<String, Path> index = new HashMap<>();
+    private final Map<String, Path> index = new ConcurrentHashMap<>();
+
+    /**
+     * Content written by this repository, as opposed to content added in place.
+     */
+    private final Set<Path> owned = ConcurrentHashMap.newKeySet();
 
     /**
      * Install the service.
@@ -86,25 +101,93 @@ public class SwarmContentRepository implements ContentRepository, Service<Conten
 
     @Override
     public byte[] addContent(InputStream stream) throws IOException {
+        return store(out -> {
+            byte[] bytes = new byte[8192];
+            int read;
+            while ((read = stream.read(bytes)) > -1) {
+                out.write(bytes, 0, read);
+            }
+        });
+    }
+
+    /**
+     * Add an archive, exported directly into the repository.
+     *
+     * <p>The content is only ever read locally, so entries are stored rather than
+     * deflated.</p>
+     *
+     * @param archive The archive.
+     * @return The SHA-1 hash of the content.
+     */
+    public byte[] addContent(Archive<?> archive) throws IOException {
+        return store(out -> archive.as(ZipStoredExporter.class).exportTo(out));
+    }
+
+    /**
+     * Add a file or an exploded directory in place.
+     *
+     * <p>The content is hashed but not copied, and is never removed by the repository.
+     * A directory is hashed over the relative path and content of each file within it.</p>
+     *
+     * @param path The file or directory.
+     * @return The SHA-1 hash of the content.
+     */
+    public byte[] addContent(Path path) throws IOException {
+        MessageDigest digest = newDigest();
+        if (Files.isDirectory(path)) {
+            List<Path> files;
+            try (Stream<Path> walk = Files.walk(path)) {
+                files = walk.filter(Files::isRegularFile)
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
+            for (Path each : files) {
+                digest.update(path.relativize(each).toString().replace(File.separatorChar, '/').getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest(digest, each);
+            }
+        } else {
+            digest(digest, path);
+        }
+        byte[] sha1Bytes = digest.digest();
+        this.index.putIfAbsent(toKey(sha1Bytes), path);
+        return sha1Bytes;
+    }
+
+    private byte[] store(ContentWriter writer) throws IOException {
+        MessageDigest digest = newDigest();
+        Path tmp = File.createTempFile("content", ".tmp").toPath();
         try {
-            MessageDigest messageDigest = MessageDigest.getInstance("SHA-1");
-            byte[] sha1Bytes;
-            Path tmp = File.createTempFile("content", ".tmp").toPath();
-            try (OutputStream fos = Files.newOutputStream(tmp)) {
-                messageDigest.reset();
-                DigestOutputStream dos = new DigestOutputStream(fos, messageDigest);
-                BufferedInputStream bis = new BufferedInputStream(stream);
-                byte[] bytes = new byte[8192];
-                int read;
-                while ((read = bis.read(bytes)) > -1) {
-                    dos.write(bytes, 0, read);
-                }
-                fos.flush();
-                sha1Bytes = messageDigest.digest();
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(tmp), digest)) {
+                writer.write(out);
             }
+            byte[] sha1Bytes = digest.digest();
             String key = toKey(sha1Bytes);
-            this.index.put(key, tmp);
+            if (this.index.putIfAbsent(key, tmp) == null) {
+                this.owned.add(tmp);
+                tmp = null;
+            }
             return sha1Bytes;
+        } finally {
+            if (tmp != null) {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+
+    private static void digest(MessageDigest digest, Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] bytes = new byte[8192];
+            int read;
+            while ((read = in.read(bytes)) > -1) {
+                digest.update(bytes, 0, read);
+            }
+        }
+    }
+
+    private static MessageDigest newDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-1");
         } catch (NoSuchAlgorithmException e) {
             throw new IOException(e);
         }
@@ -129,10 +212,10 @@ public class SwarmContentRepository implements ContentRepository, Service<Conten
     }
 
     public static String toKey(byte[] hash) {
-        StringBuilder str = new StringBuilder();
-        for (int i = 0; i < hash.length; ++i) {
-            int bit = Math.abs(hash[i]);
-            str.append(Integer.toHexString(bit));
+        StringBuilder str = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            str.append(Character.forDigit((b >> 4) & 0xF, 16));
+            str.append(Character.forDigit(b & 0xF, 16));
         }
         return str.toString();
     }
@@ -149,13 +232,15 @@ public class SwarmContentRepository implements ContentRepository, Service<Conten
 
     public void removeAllContent() throws IOException {
         IOException exception = null;
-        for (Path path: this.index.values()) {
+        this.index.clear();
+        for (Path path : this.owned) {
             try {
                 Files.delete(path);
             } catch (IOException e) {
                 exception = e;
             }
         }
+        this.owned.clear();
 
         if (exception != null) {
             throw exception;
@@ -183,4 +268,8 @@ public class SwarmContentRepository implements ContentRepository, Service<Conten
         return this;
     }
 
+    @FunctionalInterface
+    private interface ContentWriter {
+        void write(OutputStream out) throws IOException;
+    }
 }
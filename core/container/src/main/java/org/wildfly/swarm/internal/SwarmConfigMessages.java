@@ -58,4 +58,24 @@ public interface SwarmConfigMessages extends BasicLogger {
     @Message(id = 7, value = "Error create extension %s from module %s.")
     void errorCreatingExtension(String extensionClassName, String extensionModuleName, @Cause Throwable cause);
 
+    @LogMessage(level = Logger.Level.INFO)
+    @Message(id = 8, value = "Reloaded configuration from %s")
+    void reloadedConfiguration(String location);
+
+    @LogMessage(level = Logger.Level.INFO)
+    @Message(id = 9, value = "Reloaded configuration value: %s")
+    void reloadedConfigurable(String key);
+
+    @LogMessage(level = Logger.Level.WARN)
+    @Message(id = 10, value = "Change to %s at %s requires a restart to take effect")
+    void reloadRequiresRestart(String attribute, String address);
+
+    @LogMessage(level = Logger.Level.ERROR)
+    @Message(id = 11, value = "Error reloading configuration from %s.")
+    void errorReloadingConfiguration(String location, @Cause Throwable cause);
+
+    @LogMessage(level = Logger.Level.ERROR)
+    @Message(id = 12, value = "Error applying reloaded configuration %s: %s")
+    void errorApplyingReloadedConfiguration(String operation, String failure);
+
 }
@@ -153,6 +153,18 @@ public interface SwarmMessages extends BasicLogger {
     @Message(id = 31, value = "Registered archive-preparer: %s")
     void registeredArchivePreparer(String preparer);
 
+    @LogMessage(level = Logger.Level.DEBUG)
+    @Message(id = 32, value = "Using boot snapshot: %s")
+    void usingBootSnapshot(String path);
+
+    @LogMessage(level = Logger.Level.DEBUG)
+    @Message(id = 33, value = "Wrote boot snapshot: %s")
+    void bootSnapshotWritten(String path);
+
+    @LogMessage(level = Logger.Level.WARN)
+    @Message(id = 34, value = "Unable to use boot snapshot: %s")
+    void bootSnapshotFailed(String path, @Cause Throwable cause);
+
 
     // ------------------------------------------------------------------------
     // ------------------------------------------------------------------------
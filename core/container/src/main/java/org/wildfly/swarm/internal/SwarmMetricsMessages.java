@@ -17,6 +17,7 @@ package org.wildfly.swarm.internal;
 
 import org.jboss.logging.BasicLogger;
 import org.jboss.logging.Logger;
+import org.jboss.logging.annotations.Cause;
 import org.jboss.logging.annotations.LogMessage;
 import org.jboss.logging.annotations.Message;
 import org.jboss.logging.annotations.MessageLogger;
@@ -33,4 +34,12 @@ public interface SwarmMetricsMessages extends BasicLogger {
     @Message(id = 1, value = "Boot performance:\n%s")
     void bootPerformance(String metrics);
 
+    @LogMessage(level = Logger.Level.INFO)
+    @Message(id = 2, value = "Boot profile written to %s")
+    void bootProfileWritten(String file);
+
+    @LogMessage(level = Logger.Level.WARN)
+    @Message(id = 3, value = "Unable to write boot profile")
+    void bootProfileFailed(@Cause Throwable t);
+
 }
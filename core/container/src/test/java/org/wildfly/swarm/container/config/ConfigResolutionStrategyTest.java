@@ -19,6 +19,7 @@ import java.util.Properties;
 
 import org.junit.Test;
 import org.wildfly.swarm.spi.api.config.ConfigKey;
+import org.wildfly.swarm.spi.api.config.SimpleKey;
 
 import static org.fest.assertions.Assertions.assertThat;
 
@@ -122,5 +123,45 @@ public class ConfigResolutionStrategyTest {
         assertThat(props.getProperty("swarm.data-sources.ExampleDS.driver-name")).isEqualTo("cooper");
     }
 
+    @Test
+    public void testResolutionFollowsModification() {
+        Properties props = new Properties();
+
+        ConfigNode config = new ConfigNode() {{
+            recursiveChild("swarm.http.port", "8080");
+        }};
+
+        ConfigResolutionStrategy strategy = new ConfigResolutionStrategy(props);
+        strategy.add(config);
+        strategy.activate();
 
+        assertThat(strategy.valueOf(ConfigKey.parse("swarm.http.port"))).isEqualTo("8080");
+        assertThat(strategy.valueOf(ConfigKey.parse("swarm.https.port"))).isNull();
+
+        strategy.withProperty("swarm.http.port", "8081");
+        config.recursiveChild("swarm.https.port", "8443");
+
+        assertThat(strategy.valueOf(ConfigKey.parse("swarm.http.port"))).isEqualTo("8081");
+        assertThat(strategy.valueOf(ConfigKey.parse("swarm.https.port"))).isEqualTo("8443");
+        assertThat(strategy.simpleSubkeysOf(ConfigKey.parse("swarm"))).hasSize(2);
+        assertThat(strategy.hasKeyOrSubkeys(ConfigKey.parse("swarm.https"))).isTrue();
+        assertThat(strategy.hasKeyOrSubkeys(ConfigKey.parse("swarm.ajp"))).isFalse();
+    }
+
+    @Test
+    public void testDottedSegments() {
+        Properties props = new Properties();
+
+        ConfigNode config = new ConfigNode() {{
+            recursiveChild("swarm.deployment.[myapp.war].context", "/myapp");
+        }};
+
+        ConfigResolutionStrategy strategy = new ConfigResolutionStrategy(props);
+        strategy.add(config);
+        strategy.activate();
+
+        assertThat(strategy.valueOf(ConfigKey.parse("swarm.deployment.[myapp.war].context"))).isEqualTo("/myapp");
+        assertThat(strategy.valueOf(ConfigKey.parse("swarm.deployment.myapp.war.context"))).isNull();
+        assertThat(strategy.simpleSubkeysOf(ConfigKey.parse("swarm.deployment"))).containsOnly(new SimpleKey("myapp.war"));
+    }
 }
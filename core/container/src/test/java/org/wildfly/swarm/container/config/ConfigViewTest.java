@@ -15,6 +15,10 @@
  */
 package org.wildfly.swarm.container.config;
 
+import java.io.File;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Properties;
 
 import org.junit.Test;
@@ -198,4 +202,34 @@ public class ConfigViewTest {
         assertThat(view.valueOf(ConfigKey.parse("company.owners.0"))).isEqualTo("bobCloud");
         assertThat(view.valueOf(ConfigKey.parse("company.owners.1"))).isEqualTo("melissaProduction");
     }
+
+    @Test
+    public void testReload() throws Exception {
+        File file = File.createTempFile("project-defaults", ".yml");
+        file.deleteOnExit();
+        Files.write(file.toPath(), "cheese: cheddar\namount: 42\n".getBytes(StandardCharsets.UTF_8));
+        URL url = file.toURI().toURL();
+
+        Properties properties = new Properties();
+        ConfigViewImpl view = new ConfigViewImpl();
+        view.withProperties(properties);
+        view.register("defaults", ConfigViewFactory.loadNode(url), url);
+        view.withProfile("defaults");
+        view.activate();
+
+        assertThat(view.valueOf(ConfigKey.parse("cheese"))).isEqualTo("cheddar");
+        assertThat(view.sources()).containsOnly(url);
+        assertThat(properties.getProperty("amount")).isEqualTo("42");
+
+        Files.write(file.toPath(), "cheese: brie\n".getBytes(StandardCharsets.UTF_8));
+        assertThat(view.reload(url)).isTrue();
+        view.activate();
+
+        assertThat(view.valueOf(ConfigKey.parse("cheese"))).isEqualTo("brie");
+        assertThat(view.valueOf(ConfigKey.parse("amount"))).isNull();
+        assertThat(properties.getProperty("cheese")).isEqualTo("brie");
+        assertThat(properties.containsKey("amount")).isFalse();
+
+        assertThat(view.reload(new File(file.getParentFile(), "missing.yml").toURI().toURL())).isFalse();
+    }
 }
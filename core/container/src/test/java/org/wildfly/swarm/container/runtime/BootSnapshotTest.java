@@ -0,0 +1,131 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.container.runtime;
+
+import java.io.File;
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Properties;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ValueExpression;
+import org.junit.Test;
+import org.wildfly.swarm.bootstrap.util.TempFileManager;
+import org.wildfly.swarm.config.runtime.invocation.Marshaller;
+import org.wildfly.swarm.container.config.ConfigViewFactory;
+import org.wildfly.swarm.spi.api.Customizer;
+import org.wildfly.swarm.spi.api.Fraction;
+import org.wildfly.swarm.spi.api.config.ConfigView;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class BootSnapshotTest {
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        BootSnapshot snapshot = new BootSnapshot(new File(TempFileManager.INSTANCE.newTempDirectory("snapshot", null), "boot.snapshot"));
+
+        ModelNode op = new ModelNode();
+        op.get("operation").set("add");
+        op.get("address").add("system-property", "foo");
+        op.get("value").set("bar");
+
+        assertThat(snapshot.load("abc")).isNull();
+
+        snapshot.store("abc", Collections.singletonList(op));
+
+        List<ModelNode> loaded = snapshot.load("abc");
+        assertThat(loaded).hasSize(1);
+        assertThat(loaded.get(0)).isEqualTo(op);
+
+        assertThat(snapshot.load("def")).isNull();
+    }
+
+    @Test
+    public void testKeyFollowsConfiguration() throws Exception {
+        String key = key("swarm.http.port", "8080", "jboss.server.management.uuid", "one");
+
+        assertThat(key).matches("[0-9a-f]{40}");
+        assertThat(key("swarm.http.port", "8080", "jboss.server.management.uuid", "two")).isEqualTo(key);
+        assertThat(key("swarm.http.port", "8081", "jboss.server.management.uuid", "one")).isNotEqualTo(key);
+    }
+
+    @Test
+    public void testKeyFollowsCustomizedFractionState() throws Exception {
+        BootSnapshot snapshot = new BootSnapshot(new File(TempFileManager.INSTANCE.newTempDirectory("snapshot", null), "boot.snapshot"));
+        ConfigView configView = new ConfigViewFactory(new Properties(), new HashMap<>()).get(true);
+        TestFraction fraction = new TestFraction();
+        Customizer customizer = new TempDirCustomizer(fraction);
+
+        customizer.customize();
+        String first = BootSnapshot.key(configView, Collections.<Fraction>singletonList(fraction), Marshaller.marshal(fraction), Collections.<URL>emptyList());
+        snapshot.store(first, Collections.singletonList(new ModelNode()));
+
+        // the next boot customizes the fraction afresh, so the stored operations must not be replayed
+        customizer.customize();
+        String second = BootSnapshot.key(configView, Collections.<Fraction>singletonList(fraction), Marshaller.marshal(fraction), Collections.<URL>emptyList());
+
+        assertThat(second).isNotEqualTo(first);
+        assertThat(snapshot.load(second)).isNull();
+        assertThat(snapshot.load(first)).hasSize(1);
+    }
+
+    @Test
+    public void testKeyFollowsSocketBindings() throws Exception {
+        ConfigView configView = new ConfigViewFactory(new Properties(), new HashMap<>()).get(true);
+
+        String key = BootSnapshot.key(configView, Collections.<Fraction>emptyList(), Collections.singletonList(socketBinding("http", "8080")),
+                                      Collections.<URL>emptyList());
+
+        assertThat(BootSnapshot.key(configView, Collections.<Fraction>emptyList(), Collections.singletonList(socketBinding("http", "8080")),
+                                    Collections.<URL>emptyList())).isEqualTo(key);
+        assertThat(BootSnapshot.key(configView, Collections.<Fraction>emptyList(), Collections.singletonList(socketBinding("http", "8081")),
+                                    Collections.<URL>emptyList())).isNotEqualTo(key);
+    }
+
+    private static String key(String... nameValues) throws Exception {
+        Properties props = new Properties();
+        for (int i = 0; i < nameValues.length; i += 2) {
+            props.setProperty(nameValues[i], nameValues[i + 1]);
+        }
+        ConfigView configView = new ConfigViewFactory(props, new HashMap<>()).get(true);
+        return BootSnapshot.key(configView, Collections.<Fraction>emptyList(), Collections.<ModelNode>emptyList(), Collections.<URL>emptyList());
+    }
+
+    private static ModelNode socketBinding(String name, String port) {
+        ModelNode op = new ModelNode();
+        op.get("operation").set("add");
+        op.get("address").add("socket-binding-group", "standard-sockets").add("socket-binding", name);
+        op.get("port").set(new ValueExpression(port));
+        return op;
+    }
+
+    private static class TempDirCustomizer implements Customizer {
+
+        TempDirCustomizer(TestFraction fraction) {
+            this.fraction = fraction;
+        }
+
+        @Override
+        public void customize() throws Exception {
+            this.fraction.configDir(TempFileManager.INSTANCE.newTempDirectory("customized", ".d").getAbsolutePath());
+        }
+
+        private final TestFraction fraction;
+    }
+}
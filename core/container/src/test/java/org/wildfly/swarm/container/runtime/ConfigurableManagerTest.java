@@ -15,20 +15,27 @@
  */
 package org.wildfly.swarm.container.runtime;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.function.Consumer;
 
 import org.jboss.shrinkwrap.api.Archive;
 import org.jboss.shrinkwrap.api.ShrinkWrap;
 import org.jboss.shrinkwrap.api.spec.JavaArchive;
 import org.junit.Test;
+import org.wildfly.swarm.container.config.ConfigNode;
 import org.wildfly.swarm.container.config.ConfigViewFactory;
+import org.wildfly.swarm.container.config.ConfigViewImpl;
 import org.wildfly.swarm.container.runtime.cdi.DeploymentContext;
 import org.wildfly.swarm.container.runtime.cdi.DeploymentContextImpl;
 import org.wildfly.swarm.spi.api.Defaultable;
+import org.wildfly.swarm.spi.api.Fraction;
+import org.wildfly.swarm.spi.api.SwarmProperties;
 import org.wildfly.swarm.spi.api.annotations.Configurable;
 import org.wildfly.swarm.spi.api.config.ConfigView;
+import org.wildfly.swarm.spi.runtime.ConfigurableDescriptor;
 
 import static org.fest.assertions.Assertions.*;
 
@@ -113,6 +120,109 @@ public class ConfigurableManagerTest {
         }
     }
 
+    @Test
+    public void testReloadOnlyAllowedKeys() throws Exception {
+        Properties props = new Properties();
+        Map<String, String> env = new HashMap<>();
+        ConfigViewFactory factory = new ConfigViewFactory(props, env);
+        factory.withProperty("swarm.logging.level", "INFO");
+        factory.withProperty("swarm.http.port", "8080");
+        ConfigViewImpl configView = factory.get(true);
+        ConfigurableManager manager = new ConfigurableManager(configView, new DeploymentContextImpl());
+
+        ReloadComponent component = new ReloadComponent();
+        manager.scan(component);
+        assertThat(component.level.get()).isEqualTo("INFO");
+        assertThat(component.port.get()).isEqualTo("8080");
+
+        configView.withProperty("swarm.logging.level", "DEBUG");
+        configView.withProperty("swarm.http.port", "8081");
+
+        assertThat(manager.reload()).hasSize(1);
+        assertThat(component.level.get()).isEqualTo("DEBUG");
+        assertThat(component.port.get()).isEqualTo("8080");
+
+        configView.withProperty(SwarmProperties.CONFIG_RELOAD_KEYS, "swarm.logging, swarm.http");
+
+        assertThat(manager.reload()).hasSize(1);
+        assertThat(component.port.get()).isEqualTo("8081");
+    }
+
+    @Test
+    public void testMapKeepsConfiguredOrder() throws Exception {
+        ConfigNode defaults = new ConfigNode();
+        for (int i = 9; i >= 0; --i) {
+            defaults.recursiveChild("swarm.ordered.entries.key" + i, "value" + i);
+        }
+        ConfigViewImpl configView = new ConfigViewFactory(new Properties(), new HashMap<>()).get(true);
+        configView.withDefaults(defaults);
+        ConfigurableManager manager = new ConfigurableManager(configView, new DeploymentContextImpl());
+
+        MapComponent component = new MapComponent();
+        manager.scan(component);
+        assertThat(new ArrayList<>(component.entries.keySet())).containsExactly(
+                "key9", "key8", "key7", "key6", "key5", "key4", "key3", "key2", "key1", "key0");
+    }
+
+    @Test
+    public void testDescriptorSelectsIndexedMethod() throws Exception {
+        Properties props = new Properties();
+        Map<String, String> env = new HashMap<>();
+        ConfigViewFactory factory = new ConfigViewFactory(props, env);
+        factory.withProperty("swarm.indexed.name", "indexed");
+        factory.withProperty("swarm.indexed.widget.color", "red");
+        ConfigViewImpl configView = factory.get(true);
+        ConfigurableManager manager = new ConfigurableManager(configView, new DeploymentContextImpl());
+
+        IndexedFraction fraction = new IndexedFraction();
+        manager.scan(fraction);
+        assertThat(fraction.name.get()).isEqualTo("indexed");
+        assertThat(fraction.widget).isNotNull();
+        assertThat(fraction.widget.color.get()).isEqualTo("red");
+    }
+
+    public static class IndexedFraction implements Fraction<IndexedFraction> {
+        public Defaultable<String> name = Defaultable.string("default");
+
+        public Widget widget;
+
+        @Configurable
+        public void widget(Runnable config) {
+            throw new IllegalStateException("not the described overload");
+        }
+
+        @Configurable
+        public void widget(Consumer<Widget> config) {
+            Widget widget = new Widget();
+            config.accept(widget);
+            this.widget = widget;
+        }
+    }
+
+    public static class IndexedFraction_Configurables extends ConfigurableDescriptor {
+        public IndexedFraction_Configurables() {
+            field(IndexedFraction.class.getName(), "name", false, "name");
+            method(IndexedFraction.class.getName(), "widget", "widget", Consumer.class.getName());
+        }
+    }
+
+    public static class Widget {
+        public Defaultable<String> color = Defaultable.string("blue");
+    }
+
+    public static class MapComponent {
+        @Configurable("swarm.ordered.entries")
+        public Map<String, String> entries = new HashMap<>();
+    }
+
+    public static class ReloadComponent {
+        @Configurable("swarm.logging.level")
+        public Defaultable<String> level = Defaultable.string("WARN");
+
+        @Configurable("swarm.http.port")
+        public Defaultable<String> port = Defaultable.string("8080");
+    }
+
     public static class Component {
         @Configurable("swarm.deployment.*.context")
         @Configurable("swarm.http.context")
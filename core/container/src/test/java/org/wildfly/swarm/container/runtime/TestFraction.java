@@ -0,0 +1,44 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.container.runtime;
+
+import org.wildfly.swarm.config.runtime.Address;
+import org.wildfly.swarm.config.runtime.ModelNodeBinding;
+import org.wildfly.swarm.config.runtime.ResourceType;
+import org.wildfly.swarm.spi.api.Fraction;
+import org.wildfly.swarm.spi.api.annotations.MarshalDMR;
+
+@MarshalDMR
+@Address("/subsystem=test")
+@ResourceType("subsystem")
+public class TestFraction implements Fraction<TestFraction> {
+
+    public String getKey() {
+        return "test";
+    }
+
+    @ModelNodeBinding(detypedName = "config-dir")
+    public String configDir() {
+        return this.configDir;
+    }
+
+    public TestFraction configDir(String configDir) {
+        this.configDir = configDir;
+        return this;
+    }
+
+    private String configDir;
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.container.runtime.wildfly;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+
+import org.junit.Test;
+import org.wildfly.swarm.bootstrap.util.TempFileManager;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class SwarmContentRepositoryTest {
+
+    @Test
+    public void testKeyIsHex() throws Exception {
+        byte[] hash = MessageDigest.getInstance("SHA-1").digest("abc".getBytes(StandardCharsets.UTF_8));
+        assertThat(SwarmContentRepository.toKey(hash)).isEqualTo("a9993e364706816aba3e25717850c26c9cd0d89d");
+    }
+
+    @Test
+    public void testIdenticalContentIsStoredOnce() throws Exception {
+        SwarmContentRepository repository = new SwarmContentRepository();
+
+        byte[] first = repository.addContent(new ByteArrayInputStream("content".getBytes(StandardCharsets.UTF_8)));
+        byte[] second = repository.addContent(new ByteArrayInputStream("content".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(repository.hasContent(first)).isTrue();
+
+        repository.removeAllContent();
+        assertThat(repository.hasContent(first)).isFalse();
+    }
+
+    @Test
+    public void testExplodedDirectoryIsUsedInPlace() throws Exception {
+        File dir = TempFileManager.INSTANCE.newTempDirectory("exploded", ".war");
+        Path index = dir.toPath().resolve("index.html");
+        Files.write(index, "hello".getBytes(StandardCharsets.UTF_8));
+
+        SwarmContentRepository repository = new SwarmContentRepository();
+        byte[] hash = repository.addContent(dir.toPath());
+        assertThat(repository.hasContent(hash)).isTrue();
+        assertThat(repository.addContent(dir.toPath())).isEqualTo(hash);
+
+        Files.write(index, "goodbye".getBytes(StandardCharsets.UTF_8));
+        assertThat(repository.addContent(dir.toPath())).isNotEqualTo(hash);
+
+        repository.removeAllContent();
+        assertThat(Files.exists(index)).isTrue();
+    }
+}
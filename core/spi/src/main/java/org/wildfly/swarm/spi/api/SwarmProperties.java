@@ -85,6 +85,25 @@ public interface SwarmProperties {
      */
     String DEBUG_BOOTSTRAP = "swarm.debug.bootstrap";
 
+    /**
+     * A file in which to keep a snapshot of the boot operations. If provided, a boot with
+     * the same fractions and configuration reuses the snapshot rather than running the
+     * customizers and marshalling the configuration again.
+     */
+    String BOOT_SNAPSHOT = "swarm.boot.snapshot";
+
+    /**
+     * If true, configuration files are watched, and changes to attributes which do not
+     * require a restart are applied to the running server. Defaults to <code>false</code>
+     */
+    String CONFIG_RELOAD = "swarm.config.reload";
+
+    /**
+     * Comma-separated configuration keys which may be reloaded, along with the keys beneath them,
+     * when {@link #CONFIG_RELOAD} is enabled. Defaults to <code>swarm.logging</code>
+     */
+    String CONFIG_RELOAD_KEYS = "swarm.config.reload.keys";
+
     /**
      * The environment this process is running on (eg. openshift)
      */
@@ -0,0 +1,368 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.spi.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+import org.wildfly.swarm.spi.runtime.ConfigurableDescriptor;
+
+/**
+ * Generates a {@link ConfigurableDescriptor} for each concrete fraction being compiled.
+ *
+ * <p>The rules mirror the reflective scan performed by the container's configurable
+ * manager, which remains in use for any fraction lacking a descriptor.</p>
+ *
+ * <p>The processor is discoverable by anything compiling against this module, so it stays idle unless
+ * enabled with {@code -A}{@value #ENABLED}{@code =true}, as the fraction build does.</p>
+ */
+@SupportedOptions(ConfigurableDescriptorProcessor.ENABLED)
+public class ConfigurableDescriptorProcessor extends AbstractProcessor {
+
+    public static final String ENABLED = "swarm.configurable.index";
+
+    private static final String FRACTION = "org.wildfly.swarm.spi.api.Fraction";
+
+    private static final String CONFIGURABLE = "org.wildfly.swarm.spi.api.annotations.Configurable";
+
+    private static final String CONFIGURABLES = "org.wildfly.swarm.spi.api.annotations.Configurables";
+
+    private static final String VALUE = "value";
+
+    private static final Set<String> BLACKLISTED_FIELDS = new HashSet<>(Arrays.asList("pcs", "key", "subresources"));
+
+    private static final Set<String> BLACKLISTED_INTERFACES = new HashSet<>(Arrays.asList("java.util.List", "java.util.Map"));
+
+    private static final String PROPERTIES = "java.util.Properties";
+
+    private static final Set<String> CONFIGURABLE_VALUE_TYPES = new HashSet<>(Arrays.asList(
+            "java.lang.Boolean",
+            "java.lang.Short",
+            "java.lang.Integer",
+            "java.lang.Long",
+            "java.lang.Float",
+            "java.lang.String",
+            "java.util.List",
+            "java.util.Map",
+            "org.wildfly.swarm.spi.api.Defaultable"
+    ));
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        if (!Boolean.parseBoolean(this.processingEnv.getOptions().get(ENABLED))) {
+            // claiming no annotation types keeps the compiler from ever invoking this processor
+            return Collections.emptySet();
+        }
+        return Collections.singleton("*");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement fraction = this.processingEnv.getElementUtils().getTypeElement(FRACTION);
+        if (fraction == null) {
+            return false;
+        }
+        TypeMirror fractionType = this.processingEnv.getTypeUtils().erasure(fraction.asType());
+
+        List<TypeElement> types = new ArrayList<>();
+        for (Element each : roundEnv.getRootElements()) {
+            collectTypes(each, types);
+        }
+
+        for (TypeElement each : types) {
+            if (each.getKind() != ElementKind.CLASS || each.getModifiers().contains(Modifier.ABSTRACT)) {
+                continue;
+            }
+            if (!this.processingEnv.getTypeUtils().isAssignable(this.processingEnv.getTypeUtils().erasure(each.asType()), fractionType)) {
+                continue;
+            }
+            try {
+                generate(each);
+            } catch (IOException e) {
+                this.processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                                                              "Unable to generate configurable descriptor: " + e.getMessage(), each);
+            }
+        }
+
+        return false;
+    }
+
+    private void collectTypes(Element element, List<TypeElement> types) {
+        if (element instanceof TypeElement) {
+            types.add((TypeElement) element);
+            for (TypeElement each : ElementFilter.typesIn(element.getEnclosedElements())) {
+                collectTypes(each, types);
+            }
+        }
+    }
+
+    private void generate(TypeElement type) throws IOException {
+        String binaryName = this.processingEnv.getElementUtils().getBinaryName(type).toString();
+        if (!this.generated.add(binaryName)) {
+            return;
+        }
+
+        PackageElement pkg = this.processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + ConfigurableDescriptor.SUFFIX;
+
+        StringBuilder body = new StringBuilder();
+        for (TypeElement cur = type; cur != null && !isTerminal(cur); cur = superclassOf(cur)) {
+            String declaringClass = this.processingEnv.getElementUtils().getBinaryName(cur).toString();
+            for (VariableElement field : ElementFilter.fieldsIn(cur.getEnclosedElements())) {
+                appendField(body, declaringClass, field);
+            }
+            for (ExecutableElement method : ElementFilter.methodsIn(cur.getEnclosedElements())) {
+                if (findAnnotation(method, CONFIGURABLE) != null) {
+                    appendMethod(body, declaringClass, method);
+                }
+            }
+        }
+
+        try (Writer out = this.processingEnv.getFiler().createSourceFile(packageName.isEmpty() ? simpleName : packageName + "." + simpleName, type).openWriter()) {
+            if (!packageName.isEmpty()) {
+                out.write("package " + packageName + ";\n\n");
+            }
+            out.write("public final class " + simpleName + " extends " + ConfigurableDescriptor.class.getName() + " {\n\n");
+            out.write("    public " + simpleName + "() {\n");
+            out.write(body.toString());
+            out.write("    }\n");
+            out.write("}\n");
+        }
+    }
+
+    private void appendField(StringBuilder body, String declaringClass, VariableElement field) {
+        if (field.getModifiers().contains(Modifier.STATIC)) {
+            return;
+        }
+        String name = field.getSimpleName().toString();
+        if (BLACKLISTED_FIELDS.contains(name) || !isConfigurableType(field.asType())) {
+            return;
+        }
+
+        List<String> keys = new ArrayList<>();
+        boolean annotated = false;
+
+        AnnotationMirror plural = findAnnotation(field, CONFIGURABLES);
+        AnnotationMirror single = findAnnotation(field, CONFIGURABLE);
+        if (plural != null) {
+            annotated = true;
+            Object values = valueOf(plural, VALUE);
+            if (values instanceof List) {
+                for (Object each : (List<?>) values) {
+                    addAbsoluteKey(keys, (AnnotationMirror) ((AnnotationValue) each).getValue());
+                }
+            }
+        } else if (single != null) {
+            annotated = true;
+            addAbsoluteKey(keys, single);
+        } else {
+            keys.add(dashed(name));
+        }
+
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        body.append("        field(").append(literal(declaringClass)).append(", ")
+                .append(literal(name)).append(", ")
+                .append(annotated);
+        for (String each : keys) {
+            body.append(", ").append(literal(each));
+        }
+        body.append(");\n");
+    }
+
+    private void appendMethod(StringBuilder body, String declaringClass, ExecutableElement method) {
+        String name = method.getSimpleName().toString();
+        String key = dashed(name) + (method.getParameters().size() == 2 ? "s" : "");
+        body.append("        method(").append(literal(declaringClass)).append(", ")
+                .append(literal(name)).append(", ")
+                .append(literal(key));
+        for (VariableElement each : method.getParameters()) {
+            body.append(", ").append(literal(runtimeName(each.asType())));
+        }
+        body.append(");\n");
+    }
+
+    /**
+     * The name {@link Class#getName()} reports for the erasure of a parameter type.
+     */
+    private String runtimeName(TypeMirror type) {
+        TypeMirror erased = this.processingEnv.getTypeUtils().erasure(type);
+        switch (erased.getKind()) {
+            case ARRAY:
+                return "[" + descriptorOf(((ArrayType) erased).getComponentType());
+            case DECLARED:
+                return this.processingEnv.getElementUtils().getBinaryName((TypeElement) ((DeclaredType) erased).asElement()).toString();
+            default:
+                return erased.toString();
+        }
+    }
+
+    private String descriptorOf(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "Z";
+            case BYTE:
+                return "B";
+            case CHAR:
+                return "C";
+            case SHORT:
+                return "S";
+            case INT:
+                return "I";
+            case LONG:
+                return "J";
+            case FLOAT:
+                return "F";
+            case DOUBLE:
+                return "D";
+            case ARRAY:
+                return "[" + descriptorOf(((ArrayType) type).getComponentType());
+            default:
+                return "L" + runtimeName(type) + ";";
+        }
+    }
+
+    private void addAbsoluteKey(List<String> keys, AnnotationMirror configurable) {
+        // only an explicit value yields a key; a simpleName alone is ignored at runtime
+        Object value = valueOf(configurable, VALUE);
+        if (value != null && !value.toString().isEmpty()) {
+            keys.add(value.toString());
+        }
+    }
+
+    private boolean isConfigurableType(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+            case SHORT:
+            case INT:
+            case LONG:
+            case FLOAT:
+                return true;
+            case DECLARED:
+                TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+                if (isBlacklisted(element)) {
+                    return false;
+                }
+                return element.getKind() == ElementKind.ENUM
+                        || CONFIGURABLE_VALUE_TYPES.contains(element.getQualifiedName().toString());
+            default:
+                return false;
+        }
+    }
+
+    private boolean isTerminal(TypeElement type) {
+        return type.getQualifiedName().contentEquals("java.lang.Object") || isBlacklisted(type);
+    }
+
+    private boolean isBlacklisted(TypeElement type) {
+        if (type.getQualifiedName().contentEquals(PROPERTIES)) {
+            return true;
+        }
+        for (TypeMirror each : type.getInterfaces()) {
+            if (each.getKind() == TypeKind.DECLARED
+                    && BLACKLISTED_INTERFACES.contains(((TypeElement) ((DeclaredType) each).asElement()).getQualifiedName().toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private TypeElement superclassOf(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return (TypeElement) ((DeclaredType) superclass).asElement();
+    }
+
+    private AnnotationMirror findAnnotation(Element element, String annotationType) {
+        for (AnnotationMirror each : element.getAnnotationMirrors()) {
+            if (((TypeElement) each.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationType)) {
+                return each;
+            }
+        }
+        return null;
+    }
+
+    private Object valueOf(AnnotationMirror annotation, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> each
+                : this.processingEnv.getElementUtils().getElementValuesWithDefaults(annotation).entrySet()) {
+            if (each.getKey().getSimpleName().contentEquals(name)) {
+                return each.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    static String dashed(String name) {
+        StringBuilder str = new StringBuilder();
+        for (char c : name.toCharArray()) {
+            if (Character.isUpperCase(c)) {
+                str.append("-");
+            }
+            str.append(Character.toLowerCase(c));
+        }
+        return str.toString();
+    }
+
+    private static String literal(String value) {
+        StringBuilder str = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                str.append('\\');
+            }
+            str.append(c);
+        }
+        return str.append('"').toString();
+    }
+
+    private final Set<String> generated = new HashSet<>();
+}
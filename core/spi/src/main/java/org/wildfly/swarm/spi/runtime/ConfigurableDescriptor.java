@@ -0,0 +1,136 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.spi.runtime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Build-time description of the configurable members of a fraction.
+ *
+ * <p>Descriptors are generated by the {@link org.wildfly.swarm.spi.processor.ConfigurableDescriptorProcessor}
+ * as a class named after the fraction with the {@link #SUFFIX} appended.  Members are listed in the
+ * order they would be discovered by walking the class hierarchy, with configuration keys already derived
+ * from member names and {@link org.wildfly.swarm.spi.api.annotations.Configurable} annotations.</p>
+ */
+public abstract class ConfigurableDescriptor {
+
+    public static final String SUFFIX = "_Configurables";
+
+    protected ConfigurableDescriptor() {
+    }
+
+    /**
+     * Locate the generated descriptor for a class.
+     *
+     * @param type The class.
+     * @return The descriptor, or {@code null} if none was generated.
+     */
+    public static ConfigurableDescriptor of(Class<?> type) {
+        ClassLoader cl = type.getClassLoader();
+        if (cl == null) {
+            return null;
+        }
+        try {
+            return (ConfigurableDescriptor) Class.forName(type.getName() + SUFFIX, true, cl).getConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException | LinkageError e) {
+            return null;
+        }
+    }
+
+    public List<Member> members() {
+        return Collections.unmodifiableList(this.members);
+    }
+
+    /**
+     * Describe a configurable field.
+     *
+     * @param declaringClass The name of the declaring class.
+     * @param name           The field name.
+     * @param absolute       Whether the keys are absolute, rather than relative to the fraction.
+     * @param keys           The keys, in order of preference.
+     */
+    protected void field(String declaringClass, String name, boolean absolute, String... keys) {
+        this.members.add(new Member(declaringClass, name, null, absolute, keys));
+    }
+
+    /**
+     * Describe a configurable subresource factory method.
+     *
+     * @param declaringClass The name of the declaring class.
+     * @param name           The method name.
+     * @param key            The key, relative to the fraction.
+     * @param parameterTypes The names of the erased parameter types, as given by {@link Class#getName()}.
+     */
+    protected void method(String declaringClass, String name, String key, String... parameterTypes) {
+        this.members.add(new Member(declaringClass, name, parameterTypes, false, key));
+    }
+
+    private final List<Member> members = new ArrayList<>();
+
+    public static final class Member {
+
+        Member(String declaringClass, String name, String[] parameterTypes, boolean absolute, String... keys) {
+            this.declaringClass = declaringClass;
+            this.name = name;
+            this.parameterTypes = parameterTypes;
+            this.absolute = absolute;
+            this.keys = keys;
+        }
+
+        public String getDeclaringClass() {
+            return this.declaringClass;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public boolean isMethod() {
+            return this.parameterTypes != null;
+        }
+
+        public int getParameterCount() {
+            return isMethod() ? this.parameterTypes.length : -1;
+        }
+
+        /**
+         * @return The names of the erased parameter types of a method, or {@code null} for a field.
+         */
+        public String[] getParameterTypes() {
+            return isMethod() ? this.parameterTypes.clone() : null;
+        }
+
+        public boolean isAbsolute() {
+            return this.absolute;
+        }
+
+        public String[] getKeys() {
+            return this.keys.clone();
+        }
+
+        private final String declaringClass;
+
+        private final String name;
+
+        private final String[] parameterTypes;
+
+        private final boolean absolute;
+
+        private final String[] keys;
+    }
+}
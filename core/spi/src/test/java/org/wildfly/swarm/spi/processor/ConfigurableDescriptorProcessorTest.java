@@ -0,0 +1,139 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.spi.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.Test;
+import org.wildfly.swarm.spi.api.Fraction;
+import org.wildfly.swarm.spi.runtime.ConfigurableDescriptor;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ConfigurableDescriptorProcessorTest {
+
+    @Test
+    public void testDescriptorMirrorsReflectiveScan() throws Exception {
+        File dir = Files.createTempDirectory("descriptor").toFile();
+        List<File> sources = new ArrayList<>();
+        sources.add(source(dir, "BaseThing",
+                           "public class BaseThing {",
+                           "    private static int ignored;",
+                           "    private String baseName;",
+                           "    private java.util.Properties props;",
+                           "}"));
+        sources.add(source(dir, "ThingFraction",
+                           "import org.wildfly.swarm.spi.api.annotations.Configurable;",
+                           "public class ThingFraction extends BaseThing implements org.wildfly.swarm.spi.api.Fraction<ThingFraction> {",
+                           "    private Integer httpPort;",
+                           "    @Configurable(\"swarm.thing.alias\")",
+                           "    private String aliased;",
+                           "    @Configurable(simpleName = \"simple\")",
+                           "    private String simpleOnly;",
+                           "    private Object notConfigurable;",
+                           "    @Configurable",
+                           "    public void widget(java.util.function.Consumer<Object> config) {",
+                           "    }",
+                           "    @Configurable",
+                           "    public void gadget(String childKey, int[] sizes) {",
+                           "    }",
+                           "}"));
+
+        compile(dir, sources, "-A" + ConfigurableDescriptorProcessor.ENABLED + "=true");
+
+        try (URLClassLoader cl = new URLClassLoader(new URL[]{dir.toURI().toURL()}, getClass().getClassLoader())) {
+            ConfigurableDescriptor descriptor = ConfigurableDescriptor.of(cl.loadClass("test.ThingFraction"));
+            assertThat(descriptor).isNotNull();
+
+            List<String> members = new ArrayList<>();
+            for (ConfigurableDescriptor.Member each : descriptor.members()) {
+                members.add(each.getDeclaringClass() + "#" + each.getName() + ":" + (each.isMethod() ? String.join(",", each.getParameterTypes()) : "-")
+                                    + ":" + each.isAbsolute() + ":" + String.join(",", each.getKeys()));
+            }
+
+            assertThat(members).containsExactly(
+                    "test.ThingFraction#httpPort:-:false:http-port",
+                    "test.ThingFraction#aliased:-:true:swarm.thing.alias",
+                    "test.ThingFraction#widget:java.util.function.Consumer:false:widget",
+                    "test.ThingFraction#gadget:java.lang.String,[I:false:gadgets",
+                    "test.BaseThing#baseName:-:false:base-name"
+            );
+
+            assertThat(ConfigurableDescriptor.of(cl.loadClass("test.BaseThing"))).isNull();
+        }
+    }
+
+    @Test
+    public void testIdleUnlessEnabled() throws Exception {
+        File dir = Files.createTempDirectory("descriptor").toFile();
+        List<File> sources = Collections.singletonList(
+                source(dir, "IdleFraction",
+                       "public class IdleFraction implements org.wildfly.swarm.spi.api.Fraction<IdleFraction> {",
+                       "    private Integer httpPort;",
+                       "}"));
+
+        compile(dir, sources);
+
+        try (URLClassLoader cl = new URLClassLoader(new URL[]{dir.toURI().toURL()}, getClass().getClassLoader())) {
+            assertThat(ConfigurableDescriptor.of(cl.loadClass("test.IdleFraction"))).isNull();
+        }
+    }
+
+    @Test
+    public void testDashed() {
+        assertThat(ConfigurableDescriptorProcessor.dashed("httpPort")).isEqualTo("http-port");
+        assertThat(ConfigurableDescriptorProcessor.dashed("name")).isEqualTo("name");
+    }
+
+    private static void compile(File dir, List<File> sources, String... options) throws Exception {
+        List<String> args = new ArrayList<>(Arrays.asList("-d", dir.getAbsolutePath(), "-classpath", classpath()));
+        args.addAll(Arrays.asList(options));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, args,
+                                                                 null, fileManager.getJavaFileObjectsFromFiles(sources));
+            task.setProcessors(Collections.singletonList(new ConfigurableDescriptorProcessor()));
+            assertThat(task.call()).isTrue();
+        }
+    }
+
+    private static File source(File dir, String name, String... lines) throws IOException {
+        File file = new File(dir, "test/" + name + ".java");
+        file.getParentFile().mkdirs();
+        List<String> content = new ArrayList<>();
+        content.add("package test;");
+        content.addAll(Arrays.asList(lines));
+        Files.write(file.toPath(), content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static String classpath() throws Exception {
+        return new File(Fraction.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getAbsolutePath();
+    }
+}
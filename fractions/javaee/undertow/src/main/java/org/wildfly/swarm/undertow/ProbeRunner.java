@@ -0,0 +1,130 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.undertow;
+
+import java.io.Closeable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import javax.enterprise.inject.Vetoed;
+
+/**
+ * Runs probes, such as health checks, in parallel on a bounded pool of daemon threads.
+ *
+ * <p>A probe which throws, which cannot be queued as the pool is saturated, or which does not
+ * respond within the timeout, is given to a fallback instead.  The fallback receives the exception
+ * thrown, a {@link RejectedExecutionException} or a {@link TimeoutException} respectively.  A probe
+ * timing out is interrupted, but may keep its thread for as long as it ignores interruption.</p>
+ */
+@Vetoed
+public class ProbeRunner implements Closeable {
+
+    /**
+     * Create a runner.
+     *
+     * @param name          The prefix of the names of its threads.
+     * @param threads       The maximum number of probes running at once.
+     * @param queueCapacity The maximum number of probes waiting for a thread.
+     * @param timeout       The milliseconds after which a probe is given to its fallback, or 0 for none.
+     */
+    public ProbeRunner(String name, int threads, int queueCapacity, long timeout) {
+        int poolSize = Math.max(1, threads);
+        this.timeout = timeout;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                                               new ArrayBlockingQueue<>(queueCapacity), daemon(name));
+        this.executor.allowCoreThreadTimeOut(true);
+        this.scheduler = new ScheduledThreadPoolExecutor(1, daemon(name + "-timer"));
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Run a probe.
+     *
+     * @param probe    The probe.
+     * @param fallback The result of a probe which failed, was rejected or timed out.
+     * @param <T>      The type of result.
+     * @return The result.
+     */
+    public <T> CompletableFuture<T> run(Callable<T> probe, Function<Throwable, T> fallback) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        Future<?> task;
+        try {
+            task = this.executor.submit(() -> {
+                try {
+                    result.complete(probe.call());
+                } catch (Throwable t) {
+                    result.complete(fallback.apply(t));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.complete(fallback.apply(e));
+            return result;
+        }
+
+        if (this.timeout > 0) {
+            ScheduledFuture<?> expiry = this.scheduler.schedule(() -> {
+                if (!result.isDone() && result.complete(fallback.apply(new TimeoutException()))) {
+                    task.cancel(true);
+                }
+            }, this.timeout, TimeUnit.MILLISECONDS);
+            result.whenComplete((r, t) -> expiry.cancel(false));
+        }
+        return result;
+    }
+
+    /**
+     * Run a task repeatedly on the timer thread, such as to refresh the results of probes.
+     *
+     * @param task  The task, which should hand off any blocking work to {@link #run(Callable, Function)}.
+     * @param delay The milliseconds between the end of one run and the start of the next.
+     */
+    public void repeat(Runnable task, long delay) {
+        this.scheduler.scheduleWithFixedDelay(task, 0, delay, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        this.scheduler.shutdownNow();
+        this.executor.shutdownNow();
+    }
+
+    private static ThreadFactory daemon(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private final long timeout;
+
+    private final ThreadPoolExecutor executor;
+
+    private final ScheduledThreadPoolExecutor scheduler;
+}
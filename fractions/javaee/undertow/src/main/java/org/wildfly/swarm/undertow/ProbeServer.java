@@ -0,0 +1,111 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.undertow;
+
+import org.wildfly.swarm.config.undertow.Server;
+import org.wildfly.swarm.config.undertow.server.Host;
+import org.wildfly.swarm.io.IOFraction;
+import org.wildfly.swarm.spi.api.SocketBinding;
+import org.wildfly.swarm.spi.api.SocketBindingGroup;
+
+import static org.wildfly.swarm.undertow.UndertowProperties.DEFAULT_HOST;
+import static org.wildfly.swarm.undertow.UndertowProperties.DEFAULT_SERVER;
+
+/**
+ * A dedicated Undertow server for probe and monitoring endpoints.
+ *
+ * <p>Fractions serving endpoints such as <code>/health</code> or <code>/metrics</code> may
+ * reference their filters from the {@link #HOST} of this server, rather than from the default
+ * host, so that probes are accepted on a separate socket binding and handled by a small worker
+ * of their own, instead of competing with application requests for the default worker.</p>
+ *
+ * <p>No deployment is ever bound to the server, so probes are not subject to the global request
+ * limit of the <code>request-controller</code> subsystem.</p>
+ */
+public final class ProbeServer {
+
+    public static final String SERVER = "probe-server";
+
+    public static final String HOST = "probe-host";
+
+    public static final String WORKER = "probe";
+
+    public static final int IO_THREADS = 1;
+
+    public static final int TASK_MAX_THREADS = 4;
+
+    private ProbeServer() {
+    }
+
+    /**
+     * Install the server if a probe port is configured, and locate the host probe endpoints are served from.
+     *
+     * @param undertow The undertow fraction.
+     * @param io       The IO fraction.
+     * @param group    The socket-binding group.
+     * @param port     The probe port configured by a fraction, or {@code null} if none.
+     * @return The {@link #HOST} of the server if installed, otherwise the default host of the default server.
+     */
+    public static Host installIfConfigured(UndertowFraction undertow, IOFraction io, SocketBindingGroup group, Integer port) {
+        if (port == null) {
+            return undertow.subresources().server(DEFAULT_SERVER).subresources().host(DEFAULT_HOST);
+        }
+        install(undertow, io, group, port);
+        return undertow.subresources().server(SERVER).subresources().host(HOST);
+    }
+
+    /**
+     * Install the server, listening on a port.
+     *
+     * <p>May be called repeatedly, by several fractions.  Each distinct port adds a listener
+     * to the same server, sharing its host and worker.</p>
+     *
+     * @param undertow The undertow fraction.
+     * @param io       The IO fraction.
+     * @param group    The socket-binding group.
+     * @param port     The port to listen on.
+     */
+    public static void install(UndertowFraction undertow, IOFraction io, SocketBindingGroup group, int port) {
+        if (io.subresources().worker(WORKER) == null) {
+            io.worker(WORKER, (worker) -> {
+                worker.ioThreads(IO_THREADS);
+                worker.taskMaxThreads(TASK_MAX_THREADS);
+            });
+        }
+
+        String binding = SERVER + "-" + port;
+        if (group.socketBinding(binding) == null) {
+            group.socketBinding(
+                    new SocketBinding(binding)
+                            .port(port));
+        }
+
+        if (undertow.subresources().server(SERVER) == null) {
+            undertow.server(SERVER, (server) -> {
+                server.defaultHost(HOST);
+                server.host(HOST);
+            });
+        }
+
+        Server server = undertow.subresources().server(SERVER);
+        if (server.subresources().httpListener(binding) == null) {
+            server.httpListener(binding, (listener) -> {
+                listener.socketBinding(binding);
+                listener.worker(WORKER);
+            });
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.undertow;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ProbeRunnerTest {
+
+    @Test
+    public void testProbeResult() throws Exception {
+        try (ProbeRunner runner = new ProbeRunner("test-probe", 1, 1, 1000)) {
+            assertThat(runner.run(() -> "UP", Throwable::toString).get(5, TimeUnit.SECONDS)).isEqualTo("UP");
+            assertThat(runner.run(() -> {
+                throw new IllegalStateException("no database");
+            }, Throwable::getMessage).get(5, TimeUnit.SECONDS)).isEqualTo("no database");
+        }
+    }
+
+    @Test
+    public void testSaturatedProbeIsRejected() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        try (ProbeRunner runner = new ProbeRunner("test-probe", 1, 1, 0)) {
+            CompletableFuture<String> running = runner.run(() -> {
+                release.await();
+                return "UP";
+            }, Throwable::toString);
+            CompletableFuture<String> queued = runner.run(() -> "UP", Throwable::toString);
+            CompletableFuture<String> rejected = runner.run(() -> "UP", t -> t instanceof RejectedExecutionException ? "rejected" : "failed");
+
+            assertThat(rejected.get(5, TimeUnit.SECONDS)).isEqualTo("rejected");
+            release.countDown();
+            assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("UP");
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("UP");
+        }
+    }
+
+    @Test
+    public void testSlowProbeTimesOutAndIsInterrupted() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try (ProbeRunner runner = new ProbeRunner("test-probe", 1, 1, 100)) {
+            CompletableFuture<String> result = runner.run(() -> {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return "UP";
+            }, t -> t instanceof TimeoutException ? "timeout" : "failed");
+
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("timeout");
+            assertThat(interrupted.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+}
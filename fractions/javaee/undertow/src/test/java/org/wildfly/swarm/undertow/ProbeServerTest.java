@@ -0,0 +1,74 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.undertow;
+
+import org.junit.Test;
+import org.wildfly.swarm.config.undertow.Server;
+import org.wildfly.swarm.config.undertow.server.Host;
+import org.wildfly.swarm.io.IOFraction;
+import org.wildfly.swarm.spi.api.SocketBindingGroup;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ProbeServerTest {
+
+    @Test
+    public void testDefaultHostWithoutPort() {
+        UndertowFraction undertow = UndertowFraction.createDefaultFraction();
+        IOFraction io = new IOFraction().applyDefaults();
+        SocketBindingGroup group = new SocketBindingGroup("standard-sockets", "public", "0");
+
+        Host host = ProbeServer.installIfConfigured(undertow, io, group, null);
+
+        assertThat(host).isNotNull();
+        assertThat(host.getKey()).isEqualTo("default-host");
+        assertThat(undertow.subresources().server(ProbeServer.SERVER)).isNull();
+        assertThat(io.subresources().worker(ProbeServer.WORKER)).isNull();
+        assertThat(group.socketBindings()).isEmpty();
+    }
+
+    @Test
+    public void testProbeHostWithPort() {
+        UndertowFraction undertow = UndertowFraction.createDefaultFraction();
+        IOFraction io = new IOFraction().applyDefaults();
+        SocketBindingGroup group = new SocketBindingGroup("standard-sockets", "public", "0");
+
+        Host host = ProbeServer.installIfConfigured(undertow, io, group, 9990);
+
+        assertThat(host).isNotNull();
+        assertThat(host.getKey()).isEqualTo(ProbeServer.HOST);
+        assertThat(io.subresources().worker(ProbeServer.WORKER)).isNotNull();
+        assertThat(group.socketBinding("probe-server-9990").portExpression()).isEqualTo("9990");
+
+        Server server = undertow.subresources().server(ProbeServer.SERVER);
+        assertThat(server.subresources().httpListener("probe-server-9990")).isNotNull();
+    }
+
+    @Test
+    public void testRepeatedInstallSharesServer() {
+        UndertowFraction undertow = UndertowFraction.createDefaultFraction();
+        IOFraction io = new IOFraction().applyDefaults();
+        SocketBindingGroup group = new SocketBindingGroup("standard-sockets", "public", "0");
+
+        Host first = ProbeServer.installIfConfigured(undertow, io, group, 9990);
+        Host second = ProbeServer.installIfConfigured(undertow, io, group, 9990);
+        ProbeServer.installIfConfigured(undertow, io, group, 9991);
+
+        assertThat(second).isSameAs(first);
+        assertThat(group.socketBindings()).hasSize(2);
+        assertThat(undertow.subresources().server(ProbeServer.SERVER).subresources().httpListeners()).hasSize(2);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The work-stealing executor shared by asynchronous operations, with bounded compensation and a bounded queue.
+ *
+ * <p>As asynchronous methods may block, attempts run as managed blockers, and the pool adds a thread to make up for each blocked worker. On Java 8
+ * a <code>ForkJoinPool</code> cannot bound these compensation threads, so at most <code>maxThreads</code> beyond the parallelism of the pool are
+ * allowed; further attempts block their worker without compensation, and the pool runs fewer tasks concurrently in the meantime.</p>
+ *
+ * <p>Tasks {@linkplain #execute(Runnable) executed} are rejected once <code>maxQueuedTasks</code> of them are pending, queued or running. Tasks
+ * dispatched by a {@link BulkheadLimiter} are bounded by the bulkhead itself, and are not counted.</p>
+ */
+class AsyncExecutor implements Executor {
+
+    /**
+     * @param pool           The pool.
+     * @param maxThreads     The maximum number of threads of the pool, including compensation threads.
+     * @param maxQueuedTasks The maximum number of pending tasks.
+     */
+    AsyncExecutor(ForkJoinPool pool, int maxThreads, int maxQueuedTasks) {
+        this.pool = pool;
+        this.compensations = new Semaphore(Math.max(0, maxThreads - pool.getParallelism()));
+        this.maxQueuedTasks = maxQueuedTasks;
+    }
+
+    /**
+     * Run a task on the pool.
+     *
+     * @param task The task.
+     * @throws RejectedExecutionException if the queue is full, or the pool is shut down
+     */
+    @Override
+    public void execute(Runnable task) {
+        if (queuedTasks.incrementAndGet() > maxQueuedTasks) {
+            queuedTasks.decrementAndGet();
+            throw new RejectedExecutionException("Asynchronous fault tolerance queue is full: " + maxQueuedTasks);
+        }
+        try {
+            pool.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    queuedTasks.decrementAndGet();
+                }
+            });
+        } catch (RuntimeException e) {
+            queuedTasks.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the pool, to which a {@link BulkheadLimiter} dispatches its tasks
+     */
+    Executor getPool() {
+        return pool;
+    }
+
+    /**
+     * Block the current worker, compensated by another thread of the pool if the limit allows.
+     *
+     * @param blocker The blocker.
+     * @throws InterruptedException if interrupted while blocking
+     */
+    void managedBlock(ForkJoinPool.ManagedBlocker blocker) throws InterruptedException {
+        if (!compensations.tryAcquire()) {
+            while (!blocker.isReleasable() && !blocker.block()) {
+                // Not done yet
+            }
+            return;
+        }
+        try {
+            ForkJoinPool.managedBlock(blocker);
+        } finally {
+            compensations.release();
+        }
+    }
+
+    int getQueuedTasks() {
+        return queuedTasks.get();
+    }
+
+    void shutdownNow() {
+        pool.shutdownNow();
+    }
+
+    private final ForkJoinPool pool;
+
+    private final Semaphore compensations;
+
+    private final int maxQueuedTasks;
+
+    private final AtomicInteger queuedTasks = new AtomicInteger();
+
+}
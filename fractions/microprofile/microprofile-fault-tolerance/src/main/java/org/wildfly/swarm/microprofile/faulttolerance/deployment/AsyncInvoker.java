@@ -0,0 +1,295 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.interceptor.InvocationContext;
+
+import org.eclipse.microprofile.faulttolerance.exceptions.BulkheadException;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.config.RetryConfig;
+
+/**
+ * Implements {@link org.eclipse.microprofile.faulttolerance.Asynchronous}, and retries and fallbacks of <code>CompletionStage</code>-returning
+ * methods, without holding a thread between attempts.
+ *
+ * <p>Every attempt invokes the rest of the chain once. For an asynchronous operation, each attempt runs on the shared executor and waits for the
+ * future returned by the method, holding a concurrent execution of the {@link BulkheadLimiter}, if any; attempts waiting for one are queued rather than
+ * holding a thread. As the method may block, attempts are managed blockers of the {@link AsyncExecutor}, and an attempt the executor rejects fails
+ * with its <code>RejectedExecutionException</code>. Otherwise the first attempt runs on the calling thread, and the outcome of the returned stage is
+ * observed. A failed attempt to be retried is rescheduled on the shared timer, after the jittered delay of the {@link RetryContext}, and no thread is parked
+ * in the meantime. Once retries are exhausted, or the {@link RetryBudget} of the operation is, the fallback, if any, is invoked.</p>
+ *
+ * <p>The returned future implements both <code>Future</code> and <code>CompletionStage</code>.</p>
+ */
+class AsyncInvoker implements Invoker {
+
+    /**
+     * @param next         The rest of the chain.
+     * @param bulkhead     The bulkhead of an asynchronous operation, or <code>null</code> if it has none.
+     * @param retry        The retry config, or <code>null</code> if the operation is not retried.
+     * @param budget       The retry budget of the operation.
+     * @param fallback     The fallback, or <code>null</code> if the operation has none.
+     * @param executor     The shared executor.
+     * @param timer        The shared timer.
+     * @param asynchronous <code>true</code> for an <code>@Asynchronous</code> operation, <code>false</code> for a method returning a
+     *                     <code>CompletionStage</code>.
+     * @param metrics      The metrics of the operation.
+     */
+    AsyncInvoker(Invoker next, BulkheadLimiter bulkhead, RetryConfig retry, RetryBudget budget, FallbackInvoker fallback, AsyncExecutor executor,
+                 ScheduledExecutorService timer, boolean asynchronous, OperationMetrics metrics) {
+        this.next = next;
+        this.bulkhead = bulkhead;
+        this.retry = retry;
+        this.budget = budget;
+        this.fallback = fallback;
+        this.executor = executor;
+        this.timer = timer;
+        this.asynchronous = asynchronous;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object invoke(InvocationContext ic) throws Exception {
+        Execution execution = new Execution(ic);
+        execution.whenComplete((value, error) -> metrics.invoked(error != null));
+        if (asynchronous) {
+            execution.submit();
+        } else {
+            execution.attempt();
+        }
+        return execution;
+    }
+
+    private static Object unwrap(Object res) throws Exception {
+        if (!(res instanceof Future)) {
+            throw new IllegalStateException("A result of an @Asynchronous call must be Future: " + res);
+        }
+        try {
+            return ((Future<?>) res).get();
+        } catch (ExecutionException e) {
+            throw (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+        }
+    }
+
+    private final Invoker next;
+
+    private final BulkheadLimiter bulkhead;
+
+    private final RetryConfig retry;
+
+    private final RetryBudget budget;
+
+    private final FallbackInvoker fallback;
+
+    private final AsyncExecutor executor;
+
+    private final ScheduledExecutorService timer;
+
+    private final boolean asynchronous;
+
+    private final OperationMetrics metrics;
+
+    /**
+     * A single invocation of the operation, completed by its last attempt or its fallback.
+     */
+    private final class Execution extends CompletableFuture<Object> implements Runnable, ForkJoinPool.ManagedBlocker {
+
+        Execution(InvocationContext ic) {
+            this.ic = ic;
+            this.tccl = Thread.currentThread().getContextClassLoader();
+            this.retryContext = retry != null ? new RetryContext(retry) : null;
+        }
+
+        @Override
+        public void run() {
+            Thread thread = Thread.currentThread();
+            ClassLoader previous = thread.getContextClassLoader();
+            thread.setContextClassLoader(tccl);
+            synchronized (this) {
+                runner = thread;
+            }
+            try {
+                executor.managedBlock(this);
+            } catch (InterruptedException e) {
+                failed(e);
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                }
+                if (isCancelled()) {
+                    // Do not leak the interrupt of a cancellation to the next task of the thread
+                    Thread.interrupted();
+                }
+                thread.setContextClassLoader(previous);
+            }
+        }
+
+        @Override
+        public boolean block() {
+            attempt();
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return false;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            Future<?> delayed = this.delayed;
+            if (delayed != null) {
+                delayed.cancel(false);
+            }
+            if (mayInterruptIfRunning) {
+                synchronized (this) {
+                    if (runner != null) {
+                        runner.interrupt();
+                    }
+                }
+            }
+            return cancelled;
+        }
+
+        void submit() {
+            if (bulkhead == null) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    failed(e);
+                }
+                return;
+            }
+            try {
+                bulkhead.execute(this);
+                metrics.bulkheadAccepted();
+            } catch (BulkheadException e) {
+                metrics.bulkheadRejected();
+                failed(e);
+            }
+        }
+
+        void attempt() {
+            if (isDone()) {
+                // Cancelled in the meantime
+                return;
+            }
+            if (asynchronous) {
+                try {
+                    succeeded(unwrap(next.invoke(ic)));
+                } catch (Throwable e) {
+                    failed(e);
+                }
+                return;
+            }
+            CompletionStage<?> stage;
+            try {
+                stage = (CompletionStage<?>) next.invoke(ic);
+            } catch (Throwable e) {
+                failed(e);
+                return;
+            }
+            if (stage == null) {
+                succeeded(null);
+            } else {
+                stage.whenComplete(this::attempted);
+            }
+        }
+
+        private void attempted(Object value, Throwable error) {
+            if (error == null) {
+                succeeded(value);
+            } else {
+                failed(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        }
+
+        private void succeeded(Object value) {
+            if (retryContext != null) {
+                metrics.retryCompleted(true, retried);
+            }
+            complete(value);
+        }
+
+        private void failed(Throwable error) {
+            if (isDone() || !(error instanceof Exception)) {
+                completeExceptionally(error);
+                return;
+            }
+            if (retryContext != null) {
+                retryContext.doRetry();
+                if (retryContext.shouldRetryOn((Exception) error, System.nanoTime()) && budget.tryAcquire()) {
+                    metrics.retried();
+                    retried = true;
+                    long delay = retryContext.nextDelay();
+                    if (delay > 0) {
+                        delayed = timer.schedule(this::submit, delay, TimeUnit.MILLISECONDS);
+                    } else {
+                        submit();
+                    }
+                    return;
+                }
+                metrics.retryCompleted(false, retried);
+            }
+            if (fallback == null) {
+                completeExceptionally(error);
+                return;
+            }
+            try {
+                Object res = fallback.fallback(ic);
+                if (asynchronous) {
+                    complete(unwrap(res));
+                } else if (res == null) {
+                    complete(null);
+                } else {
+                    ((CompletionStage<?>) res).whenComplete((value, e) -> {
+                        if (e == null) {
+                            complete(value);
+                        } else {
+                            completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                        }
+                    });
+                }
+            } catch (Throwable e) {
+                completeExceptionally(e);
+            }
+        }
+
+        private final InvocationContext ic;
+
+        private final ClassLoader tccl;
+
+        private final RetryContext retryContext;
+
+        private volatile Future<?> delayed;
+
+        private Thread runner;
+
+        private volatile boolean retried;
+
+    }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import javax.interceptor.InvocationContext;
+
+import org.eclipse.microprofile.faulttolerance.exceptions.BulkheadException;
+
+/**
+ * Implements {@link org.eclipse.microprofile.faulttolerance.Bulkhead} for synchronous operations, rejecting invocations beyond the concurrency
+ * limit of the {@link BulkheadLimiter} at once.
+ *
+ * <p>Asynchronous operations are queued by the {@link AsyncInvoker} instead.</p>
+ */
+class BulkheadInvoker implements Invoker {
+
+    BulkheadInvoker(Invoker next, BulkheadLimiter bulkhead, OperationMetrics metrics) {
+        this.next = next;
+        this.bulkhead = bulkhead;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object invoke(InvocationContext ic) throws Exception {
+        if (!bulkhead.tryAcquire()) {
+            metrics.bulkheadRejected();
+            throw new BulkheadException("Bulkhead is full: " + bulkhead.getName());
+        }
+        metrics.bulkheadAccepted();
+        try {
+            return next.invoke(ic);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    private final Invoker next;
+
+    private final BulkheadLimiter bulkhead;
+
+    private final OperationMetrics metrics;
+
+}
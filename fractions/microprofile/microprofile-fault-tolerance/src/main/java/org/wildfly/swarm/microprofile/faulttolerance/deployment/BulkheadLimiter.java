@@ -0,0 +1,149 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.microprofile.faulttolerance.exceptions.BulkheadException;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.config.BulkheadConfig;
+
+/**
+ * The bulkhead of a single fault tolerance operation: a concurrency limit enforced by a counter, and a bounded queue of tasks waiting for it.
+ *
+ * <p>Waiting tasks are held in the queue, not by a thread; a task is dispatched to the shared executor once a concurrent execution completes. Every
+ * operation thus needs no thread of its own, however many operations there are.</p>
+ */
+class BulkheadLimiter {
+
+    /**
+     * @param config   The bulkhead config.
+     * @param executor The executor tasks are dispatched to, or <code>null</code> for a synchronous operation.
+     */
+    BulkheadLimiter(BulkheadConfig config, Executor executor) {
+        this.maxConcurrentExecutions = config.get(BulkheadConfig.VALUE);
+        this.maxWaiting = executor != null ? config.get(BulkheadConfig.WAITING_TASK_QUEUE) : 0;
+        this.executor = executor;
+        this.name = config.getMethodInfo();
+    }
+
+    /**
+     * Acquire a concurrent execution for the calling thread.
+     *
+     * @return <code>true</code> if acquired, and {@link #release()} must be called once the execution completes
+     */
+    boolean tryAcquire() {
+        while (true) {
+            int current = concurrentExecutions.get();
+            if (current >= maxConcurrentExecutions) {
+                return false;
+            }
+            if (concurrentExecutions.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release() {
+        concurrentExecutions.decrementAndGet();
+        drain();
+    }
+
+    /**
+     * Run a task on the executor once a concurrent execution is available.
+     *
+     * @param task The task.
+     * @throws BulkheadException if the waiting queue is full
+     */
+    void execute(Runnable task) {
+        if (waiting.get() == 0 && tryAcquire()) {
+            dispatch(task);
+            return;
+        }
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            throw new BulkheadException("Bulkhead queue is full: " + name);
+        }
+        queue.offer(task);
+        drain();
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getConcurrentExecutions() {
+        return concurrentExecutions.get();
+    }
+
+    int getWaitingQueuePopulation() {
+        return waiting.get();
+    }
+
+    /**
+     * @return the ratio of concurrent executions to the concurrency limit
+     */
+    double getUtilization() {
+        return (double) concurrentExecutions.get() / maxConcurrentExecutions;
+    }
+
+    private void drain() {
+        // Whoever enqueues a task or releases an execution drains the queue afterwards, so no task is left waiting for an execution
+        // that is available
+        while (!queue.isEmpty() && tryAcquire()) {
+            Runnable task = queue.poll();
+            if (task == null) {
+                // Taken by a concurrent drain
+                concurrentExecutions.decrementAndGet();
+                continue;
+            }
+            waiting.decrementAndGet();
+            dispatch(task);
+        }
+    }
+
+    private void dispatch(Runnable task) {
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    release();
+                }
+            });
+        } catch (RuntimeException e) {
+            concurrentExecutions.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private final int maxConcurrentExecutions;
+
+    private final int maxWaiting;
+
+    private final Executor executor;
+
+    private final String name;
+
+    private final AtomicInteger concurrentExecutions = new AtomicInteger();
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+
+}
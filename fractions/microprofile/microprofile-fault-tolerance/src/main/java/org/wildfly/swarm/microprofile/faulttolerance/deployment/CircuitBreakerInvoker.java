@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import javax.interceptor.InvocationContext;
+
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.config.CircuitBreakerConfig;
+
+/**
+ * Implements {@link org.eclipse.microprofile.faulttolerance.CircuitBreaker} with the {@link SynchronousCircuitBreaker} of the operation.
+ *
+ * <p>Only exceptions assignable to one of {@link CircuitBreakerConfig#FAIL_ON} count as failures; any other outcome counts as a success.</p>
+ */
+class CircuitBreakerInvoker implements Invoker {
+
+    CircuitBreakerInvoker(Invoker next, SynchronousCircuitBreaker circuitBreaker, CircuitBreakerConfig config, String name, OperationMetrics metrics) {
+        this.next = next;
+        this.circuitBreaker = circuitBreaker;
+        this.failOn = config.get(CircuitBreakerConfig.FAIL_ON);
+        this.name = name;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object invoke(InvocationContext ic) throws Exception {
+        if (!circuitBreaker.attemptExecution()) {
+            metrics.circuitBreakerPrevented();
+            throw new CircuitBreakerOpenException(name);
+        }
+        Object res;
+        try {
+            res = next.invoke(ic);
+        } catch (Exception e) {
+            if (isFailure(e)) {
+                metrics.circuitBreakerFailed(circuitBreaker.executionFailed());
+            } else {
+                succeeded();
+            }
+            throw e;
+        }
+        succeeded();
+        return res;
+    }
+
+    private void succeeded() {
+        circuitBreaker.executionSucceeded();
+        metrics.circuitBreakerSucceeded();
+    }
+
+    private boolean isFailure(Exception e) {
+        for (Class<?> each : failOn) {
+            if (each.isInstance(e)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final Invoker next;
+
+    private final SynchronousCircuitBreaker circuitBreaker;
+
+    private final Class<?>[] failOn;
+
+    private final String name;
+
+    private final OperationMetrics metrics;
+
+}
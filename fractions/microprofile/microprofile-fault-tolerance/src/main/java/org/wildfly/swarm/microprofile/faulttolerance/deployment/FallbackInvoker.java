@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.security.PrivilegedActionException;
+
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.Unmanaged;
+import javax.interceptor.InvocationContext;
+
+import org.eclipse.microprofile.faulttolerance.Fallback;
+import org.eclipse.microprofile.faulttolerance.FallbackHandler;
+import org.eclipse.microprofile.faulttolerance.exceptions.FaultToleranceException;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.config.FallbackConfig;
+
+/**
+ * Implements {@link Fallback} by invoking the fallback handler or method when the rest of the chain fails.
+ *
+ * <p>The {@link AsyncInvoker} creates an instance without a chain, and invokes {@link #fallback(InvocationContext)} itself.</p>
+ */
+class FallbackInvoker implements Invoker {
+
+    FallbackInvoker(Invoker next, FallbackConfig config, Method method, BeanManager beanManager, OperationMetrics metrics) {
+        this.next = next;
+        this.metrics = metrics;
+        if (!config.get(FallbackConfig.VALUE).equals(Fallback.DEFAULT.class)) {
+            this.unmanaged = new Unmanaged<>(beanManager, config.get(FallbackConfig.VALUE));
+            this.fallbackMethod = null;
+        } else {
+            this.unmanaged = null;
+            try {
+                this.fallbackMethod = SecurityActions.getDeclaredMethod(method.getDeclaringClass(), config.get(FallbackConfig.FALLBACK_METHOD),
+                                                                        method.getParameterTypes());
+                SecurityActions.setAccessible(this.fallbackMethod);
+            } catch (NoSuchMethodException | PrivilegedActionException e) {
+                throw new FaultToleranceException("Could not obtain fallback method", e);
+            }
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the config names a fallback handler or method
+     */
+    static boolean isDefined(FallbackConfig config) {
+        return !config.get(FallbackConfig.VALUE).equals(Fallback.DEFAULT.class) || !"".equals(config.get(FallbackConfig.FALLBACK_METHOD));
+    }
+
+    @Override
+    public Object invoke(InvocationContext ic) throws Exception {
+        try {
+            return next.invoke(ic);
+        } catch (Exception e) {
+            return fallback(ic);
+        }
+    }
+
+    Object fallback(InvocationContext ic) throws Exception {
+        metrics.fallbackCalled();
+        if (unmanaged != null) {
+            Unmanaged.UnmanagedInstance<FallbackHandler<?>> unmanagedInstance = unmanaged.newInstance();
+            FallbackHandler<?> handler = unmanagedInstance.produce().inject().postConstruct().get();
+            try {
+                return handler.handle(new ExecutionContextWithInvocationContext(ic));
+            } finally {
+                // The instance exists to service a single invocation only
+                unmanagedInstance.preDestroy().dispose();
+            }
+        }
+        try {
+            return fallbackMethod.invoke(ic.getTarget(), ic.getParameters());
+        } catch (InvocationTargetException e) {
+            throw (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+        } catch (IllegalAccessException e) {
+            throw new FaultToleranceException("Error during fallback method invocation", e);
+        }
+    }
+
+    private final Invoker next;
+
+    private final Unmanaged<FallbackHandler<?>> unmanaged;
+
+    private final Method fallbackMethod;
+
+    private final OperationMetrics metrics;
+
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.inject.spi.BeanManager;
+import javax.interceptor.InvocationContext;
+
+import org.jboss.logging.Logger;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.config.FaultToleranceOperation;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.config.RetryConfig;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.config.TimeoutConfig;
+
+/**
+ * The native fault tolerance engine, used by the {@link FaultToleranceInterceptor} in place of Hystrix.
+ *
+ * <p>For every fault tolerance operation, a chain of {@link Invoker}s is built once from its {@link FaultToleranceOperation} metadata, in the order
+ * <code>@Asynchronous</code>, <code>@Fallback</code>, <code>@Retry</code>, <code>@CircuitBreaker</code>, <code>@Timeout</code>, <code>@Bulkhead</code>.
+ * Asynchronous operations share a single work-stealing {@link AsyncExecutor}, whose threads and queue are bounded, and timeouts and retry delays of
+ * asynchronous operations a single timer thread.
+ * No operation owns a thread pool: the concurrency of an operation is limited by its {@link BulkheadLimiter}, whose waiting tasks are queued rather than
+ * holding threads.</p>
+ *
+ * <p>Asynchronous operations, and operations returning a <code>CompletionStage</code>, are retried and fall back through the {@link AsyncInvoker},
+ * which reschedules attempts rather than sleeping. Every retried operation owns a {@link RetryBudget}.</p>
+ *
+ * <p>If the MicroProfile Metrics API is available, and an application metric registry is produced, each operation publishes its
+ * {@link OperationMetrics}.</p>
+ */
+class FaultToleranceEngine {
+
+    private static final Logger LOGGER = Logger.getLogger(FaultToleranceEngine.class);
+
+    private static final String METRIC_REGISTRY = "org.eclipse.microprofile.metrics.MetricRegistry";
+
+    FaultToleranceEngine(HystrixExtension extension, BeanManager beanManager, boolean nonFallBackEnable, boolean metricsEnabled, double retryBudget,
+                         int retryBudgetBurst, int asyncMaxThreads, int asyncMaxQueuedTasks) {
+        this.extension = extension;
+        this.beanManager = beanManager;
+        this.nonFallBackEnable = nonFallBackEnable;
+        this.metricsEnabled = metricsEnabled && isMetricsApiAvailable();
+        this.retryBudget = retryBudget;
+        this.retryBudgetBurst = retryBudgetBurst;
+        this.executor = new AsyncExecutor(new ForkJoinPool(Runtime.getRuntime().availableProcessors(), forkJoinWorkerThreadFactory("async"), null, true),
+                                          asyncMaxThreads, asyncMaxQueuedTasks);
+        this.timer = new ScheduledThreadPoolExecutor(1, threadFactory("timer"));
+        this.timer.setRemoveOnCancelPolicy(true);
+    }
+
+    Invoker getInvoker(Method method) {
+        Invoker invoker = invokers.get(method);
+        if (invoker == null) {
+            invoker = invokers.computeIfAbsent(method, this::createInvoker);
+        }
+        return invoker;
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+        timer.shutdownNow();
+    }
+
+    private Invoker createInvoker(Method method) {
+        FaultToleranceOperation operation = extension.getFaultToleranceOperation(method.toGenericString());
+        if (operation == null) {
+            // This is not a bean method - create metadata on the fly
+            operation = FaultToleranceOperation.of(method);
+            operation.validate();
+        }
+        LOGGER.debugf("Building policy chain for %s", operation);
+        OperationMetrics metrics = metricsEnabled && beanManager != null ? RegistryOperationMetrics.of(beanManager, operation, method) : OperationMetrics.NONE;
+
+        Invoker invoker = InvocationContext::proceed;
+        BulkheadLimiter bulkhead = null;
+        if (nonFallBackEnable) {
+            if (operation.hasBulkhead()) {
+                if (operation.isAsync()) {
+                    // Queued by the AsyncInvoker
+                    bulkhead = new BulkheadLimiter(operation.getBulkhead(), executor.getPool());
+                    metrics.register(bulkhead);
+                } else {
+                    BulkheadLimiter limiter = new BulkheadLimiter(operation.getBulkhead(), null);
+                    metrics.register(limiter);
+                    invoker = new BulkheadInvoker(invoker, limiter, metrics);
+                }
+            }
+            if (operation.hasTimeout()) {
+                long timeout = Duration.of(operation.getTimeout().get(TimeoutConfig.VALUE), operation.getTimeout().get(TimeoutConfig.UNIT)).toNanos();
+                if (timeout > 0) {
+                    invoker = new TimeoutInvoker(invoker, timeout, timer, metrics);
+                }
+            }
+            if (operation.hasCircuitBreaker()) {
+                SynchronousCircuitBreaker circuitBreaker = new SynchronousCircuitBreaker(operation.getCircuitBreaker());
+                metrics.register(circuitBreaker);
+                invoker = new CircuitBreakerInvoker(invoker, circuitBreaker, operation.getCircuitBreaker(), method.getName(), metrics);
+            }
+        }
+        RetryConfig retry = nonFallBackEnable && operation.hasRetry() ? operation.getRetry() : null;
+        RetryBudget budget = retry != null && retryBudget > 0 ? new RetryBudget(retryBudget, retryBudgetBurst) : RetryBudget.UNLIMITED;
+        boolean fallback = operation.hasFallback() && FallbackInvoker.isDefined(operation.getFallback());
+
+        if (operation.isAsync() || (isCompletionStage(method.getReturnType()) && (retry != null || fallback))) {
+            return new AsyncInvoker(invoker, bulkhead, retry, budget,
+                                    fallback ? new FallbackInvoker(null, operation.getFallback(), method, beanManager, metrics) : null, executor, timer,
+                                    operation.isAsync(), metrics);
+        }
+        if (retry != null) {
+            invoker = new RetryInvoker(invoker, retry, budget, metrics);
+        }
+        if (fallback) {
+            invoker = new FallbackInvoker(invoker, operation.getFallback(), method, beanManager, metrics);
+        }
+        return metrics != OperationMetrics.NONE ? new MetricsInvoker(invoker, metrics) : invoker;
+    }
+
+    private static boolean isMetricsApiAvailable() {
+        try {
+            Class.forName(METRIC_REGISTRY, false, FaultToleranceEngine.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            LOGGER.debugf("MicroProfile Metrics API not available, fault tolerance metrics are not published");
+            return false;
+        }
+    }
+
+    private static boolean isCompletionStage(Class<?> returnType) {
+        return CompletionStage.class.equals(returnType) || CompletableFuture.class.equals(returnType);
+    }
+
+    private static ForkJoinPool.ForkJoinWorkerThreadFactory forkJoinWorkerThreadFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return (pool) -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("fault-tolerance-" + name + "-" + count.incrementAndGet());
+            return thread;
+        };
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return (runnable) -> {
+            Thread thread = new Thread(runnable, "fault-tolerance-" + name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private final HystrixExtension extension;
+
+    private final BeanManager beanManager;
+
+    private final boolean nonFallBackEnable;
+
+    private final boolean metricsEnabled;
+
+    private final double retryBudget;
+
+    private final int retryBudgetBurst;
+
+    private final Map<Method, Invoker> invokers = new ConcurrentHashMap<>();
+
+    private final AsyncExecutor executor;
+
+    private final ScheduledThreadPoolExecutor timer;
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import javax.annotation.Priority;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.inject.Inject;
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.Interceptor;
+import javax.interceptor.InvocationContext;
+
+/**
+ * Interceptor of fault tolerance operations backed by the native {@link FaultToleranceEngine}, rather than by Hystrix.
+ *
+ * @see #ENGINE_KEY
+ */
+@Interceptor
+@HystrixCommandBinding
+@Priority(Interceptor.Priority.LIBRARY_AFTER + 1)
+public class FaultToleranceInterceptor {
+
+    /**
+     * This config property key selects the engine implementing fault tolerance operations: either {@link #HYSTRIX_ENGINE} (the default), or
+     * {@link #NATIVE_ENGINE}.
+     * <p>
+     * The native engine invokes operations through policy chains built once per method, without allocating a Hystrix command and
+     * its metrics streams for every invocation.
+     * </p>
+     */
+    public static final String ENGINE_KEY = "org_wildfly_swarm_microprofile_faulttolerance_engine";
+
+    public static final String HYSTRIX_ENGINE = "hystrix";
+
+    public static final String NATIVE_ENGINE = "native";
+
+    /**
+     * This config property key sets the retry budget of the native engine: the number of retries per second each retried operation may perform,
+     * across all of its invocations. Once a budget is exhausted, failures are not retried but handled as if retries were exhausted. By default,
+     * retries are not limited.
+     */
+    public static final String RETRY_BUDGET_KEY = "org_wildfly_swarm_microprofile_faulttolerance_retryBudget";
+
+    /**
+     * This config property key sets the number of retries an operation may perform in a burst, on top of its {@link #RETRY_BUDGET_KEY}. The
+     * default value is {@value #DEFAULT_RETRY_BUDGET_BURST}.
+     */
+    public static final String RETRY_BUDGET_BURST_KEY = "org_wildfly_swarm_microprofile_faulttolerance_retryBudgetBurst";
+
+    public static final int DEFAULT_RETRY_BUDGET_BURST = 10;
+
+    /**
+     * This config property key sets the maximum number of threads of the work-stealing executor of the native engine, including the threads it
+     * adds while asynchronous methods block. Beyond this limit, blocking methods hold their thread without compensation. The default value is
+     * {@value #DEFAULT_ASYNC_MAX_THREADS}.
+     */
+    public static final String ASYNC_MAX_THREADS_KEY = "org_wildfly_swarm_microprofile_faulttolerance_asyncMaxThreads";
+
+    public static final int DEFAULT_ASYNC_MAX_THREADS = 100;
+
+    /**
+     * This config property key sets the maximum number of pending invocations of asynchronous operations without a <code>@Bulkhead</code>, queued
+     * or running. Further invocations fail with a <code>RejectedExecutionException</code>. The default value is
+     * {@value #DEFAULT_ASYNC_MAX_QUEUED_TASKS}.
+     */
+    public static final String ASYNC_MAX_QUEUED_TASKS_KEY = "org_wildfly_swarm_microprofile_faulttolerance_asyncMaxQueuedTasks";
+
+    public static final int DEFAULT_ASYNC_MAX_QUEUED_TASKS = 10000;
+
+    /**
+     * This config property key disables the metrics of the native engine, published to the MicroProfile Metrics application registry if
+     * available. Metrics are enabled by default.
+     */
+    public static final String METRICS_ENABLED_KEY = "MP_Fault_Tolerance_Metrics_Enabled";
+
+    @Inject
+    public FaultToleranceInterceptor(BeanManager beanManager) {
+        this.engine = beanManager.getExtension(HystrixExtension.class).getEngine();
+    }
+
+    @AroundInvoke
+    public Object interceptCommand(InvocationContext ic) throws Exception {
+        return engine.getInvoker(ic.getMethod()).invoke(ic);
+    }
+
+    private final FaultToleranceEngine engine;
+
+}
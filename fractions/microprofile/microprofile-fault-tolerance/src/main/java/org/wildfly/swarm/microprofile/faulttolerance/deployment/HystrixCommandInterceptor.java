@@ -76,7 +76,7 @@ public class HystrixCommandInterceptor {
      * <a href="https://github.com/Netflix/Hystrix/wiki/Configuration#metrics.healthSnapshot.intervalInMilliseconds">Hystrix configuration</a>
      * </p>
      * <p>
-     * In general, application developers are encouraged to disable this feature on high-volume circuits and in production environments.
+     * The synchronous circuit breaker takes no lock, so it is suitable for high-volume circuits as well.
      * </p>
      */
     public static final String SYNC_CIRCUIT_BREAKER_KEY = "org_wildfly_swarm_microprofile_faulttolerance_syncCircuitBreaker";
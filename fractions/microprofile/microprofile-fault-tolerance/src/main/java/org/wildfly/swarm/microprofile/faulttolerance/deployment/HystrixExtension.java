@@ -30,9 +30,12 @@ import javax.enterprise.inject.spi.AnnotatedMethod;
 import javax.enterprise.inject.spi.AnnotatedType;
 import javax.enterprise.inject.spi.BeanManager;
 import javax.enterprise.inject.spi.BeforeBeanDiscovery;
+import javax.enterprise.inject.spi.BeforeShutdown;
 import javax.enterprise.inject.spi.Extension;
 import javax.enterprise.inject.spi.ProcessManagedBean;
 
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.ConfigProvider;
 import org.eclipse.microprofile.faulttolerance.Asynchronous;
 import org.eclipse.microprofile.faulttolerance.Bulkhead;
 import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
@@ -54,6 +57,11 @@ public class HystrixExtension implements Extension {
      */
     private final ConcurrentMap<String, FaultToleranceOperation> faultToleranceOperations = new ConcurrentHashMap<>();
 
+    /**
+     * The native engine, if selected.
+     */
+    private volatile FaultToleranceEngine engine;
+
     void registerInterceptorBindings(@Observes BeforeBeanDiscovery bbd, BeanManager bm) {
         LOGGER.info("MicroProfile: Fault Tolerance activated");
         bbd.addInterceptorBinding(new HystrixInterceptorBindingAnnotatedType<>(bm.createAnnotatedType(CircuitBreaker.class)));
@@ -63,9 +71,28 @@ public class HystrixExtension implements Extension {
         bbd.addInterceptorBinding(new HystrixInterceptorBindingAnnotatedType<>(bm.createAnnotatedType(Fallback.class)));
         bbd.addInterceptorBinding(new HystrixInterceptorBindingAnnotatedType<>(bm.createAnnotatedType(Bulkhead.class)));
 
-        // Add AnnotatedType for HystrixCommandInterceptor
+        // Add AnnotatedType for the interceptor of the selected engine
         // It seems that fraction deployment module cannot be picked up as a CDI bean archive - see also SWARM-1725
-        bbd.addAnnotatedType(bm.createAnnotatedType(HystrixCommandInterceptor.class), HystrixCommandInterceptor.class.getName());
+        Config config = ConfigProvider.getConfig();
+        String engineName = config.getOptionalValue(FaultToleranceInterceptor.ENGINE_KEY, String.class).orElse(FaultToleranceInterceptor.HYSTRIX_ENGINE);
+        if (FaultToleranceInterceptor.NATIVE_ENGINE.equals(engineName)) {
+            LOGGER.info("MicroProfile: Fault Tolerance native engine selected");
+            engine = new FaultToleranceEngine(this, bm, config.getOptionalValue("MP_Fault_Tolerance_NonFallback_Enabled", Boolean.class).orElse(true),
+                                              config.getOptionalValue(FaultToleranceInterceptor.METRICS_ENABLED_KEY, Boolean.class).orElse(true),
+                                              config.getOptionalValue(FaultToleranceInterceptor.RETRY_BUDGET_KEY, Double.class).orElse(0.0),
+                                              config.getOptionalValue(FaultToleranceInterceptor.RETRY_BUDGET_BURST_KEY, Integer.class)
+                                                      .orElse(FaultToleranceInterceptor.DEFAULT_RETRY_BUDGET_BURST),
+                                              config.getOptionalValue(FaultToleranceInterceptor.ASYNC_MAX_THREADS_KEY, Integer.class)
+                                                      .orElse(FaultToleranceInterceptor.DEFAULT_ASYNC_MAX_THREADS),
+                                              config.getOptionalValue(FaultToleranceInterceptor.ASYNC_MAX_QUEUED_TASKS_KEY, Integer.class)
+                                                      .orElse(FaultToleranceInterceptor.DEFAULT_ASYNC_MAX_QUEUED_TASKS));
+            bbd.addAnnotatedType(bm.createAnnotatedType(FaultToleranceInterceptor.class), FaultToleranceInterceptor.class.getName());
+        } else {
+            if (!FaultToleranceInterceptor.HYSTRIX_ENGINE.equals(engineName)) {
+                LOGGER.warnf("Unknown fault tolerance engine %s, using %s", engineName, FaultToleranceInterceptor.HYSTRIX_ENGINE);
+            }
+            bbd.addAnnotatedType(bm.createAnnotatedType(HystrixCommandInterceptor.class), HystrixCommandInterceptor.class.getName());
+        }
     }
 
     /**
@@ -93,6 +120,16 @@ public class HystrixExtension implements Extension {
         return faultToleranceOperations.get(methodKey);
     }
 
+    FaultToleranceEngine getEngine() {
+        return engine;
+    }
+
+    void shutdownEngine(@Observes BeforeShutdown event) {
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
     public static class HystrixInterceptorBindingAnnotatedType<T extends Annotation> implements AnnotatedType<T> {
 
         public HystrixInterceptorBindingAnnotatedType(AnnotatedType<T> delegate) {
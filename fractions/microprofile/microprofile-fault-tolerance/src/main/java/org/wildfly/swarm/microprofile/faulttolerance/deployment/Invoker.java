@@ -0,0 +1,31 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import javax.interceptor.InvocationContext;
+
+/**
+ * A step of the policy chain built by the {@link FaultToleranceEngine} for a fault tolerance operation.
+ *
+ * <p>Each step holds the state of its policy for the operation, so an invocation allocates
+ * no command object, and is simply passed down the chain.</p>
+ */
+@FunctionalInterface
+interface Invoker {
+
+    Object invoke(InvocationContext ic) throws Exception;
+
+}
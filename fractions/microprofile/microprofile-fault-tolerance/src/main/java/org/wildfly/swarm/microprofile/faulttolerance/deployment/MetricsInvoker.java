@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import javax.interceptor.InvocationContext;
+
+/**
+ * Counts the invocations of a synchronous operation, and those which failed.
+ *
+ * <p>The {@link AsyncInvoker} counts the invocations of the other operations once they complete.</p>
+ */
+class MetricsInvoker implements Invoker {
+
+    MetricsInvoker(Invoker next, OperationMetrics metrics) {
+        this.next = next;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object invoke(InvocationContext ic) throws Exception {
+        Object res;
+        try {
+            res = next.invoke(ic);
+        } catch (Exception e) {
+            metrics.invoked(true);
+            throw e;
+        }
+        metrics.invoked(false);
+        return res;
+    }
+
+    private final Invoker next;
+
+    private final OperationMetrics metrics;
+
+}
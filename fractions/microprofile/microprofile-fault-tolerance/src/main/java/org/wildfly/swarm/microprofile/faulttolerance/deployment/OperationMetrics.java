@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+/**
+ * Records the metrics of a single fault tolerance operation of the {@link FaultToleranceEngine}.
+ *
+ * <p>Every metric is resolved once, when the policy chain is built, so that recording an outcome is no more than a few atomic increments. The
+ * methods of {@link #NONE} record nothing, and are used when no metric registry is available.</p>
+ *
+ * @see RegistryOperationMetrics
+ */
+interface OperationMetrics {
+
+    OperationMetrics NONE = new OperationMetrics() {
+    };
+
+    default void invoked(boolean failed) {
+    }
+
+    default void retried() {
+    }
+
+    /**
+     * @param succeeded Whether the last attempt succeeded.
+     * @param retried   Whether any attempt was retried.
+     */
+    default void retryCompleted(boolean succeeded, boolean retried) {
+    }
+
+    default void timeoutCompleted(long durationNanos, boolean timedOut) {
+    }
+
+    default void circuitBreakerSucceeded() {
+    }
+
+    default void circuitBreakerFailed(boolean opened) {
+    }
+
+    default void circuitBreakerPrevented() {
+    }
+
+    default void bulkheadAccepted() {
+    }
+
+    default void bulkheadRejected() {
+    }
+
+    default void fallbackCalled() {
+    }
+
+    /**
+     * Publish the state of the circuit breaker of the operation.
+     */
+    default void register(SynchronousCircuitBreaker circuitBreaker) {
+    }
+
+    /**
+     * Publish the state of the bulkhead of the operation.
+     */
+    default void register(BulkheadLimiter bulkhead) {
+    }
+
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+
+import javax.enterprise.inject.AmbiguousResolutionException;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.Histogram;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.jboss.logging.Logger;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.SynchronousCircuitBreaker.Status;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.config.FaultToleranceOperation;
+
+/**
+ * Publishes the metrics of a fault tolerance operation to the MicroProfile Metrics application registry, as the
+ * <code>ft.&lt;class&gt;.&lt;method&gt;.*</code> family.
+ *
+ * <p>Only the metrics of the policies the operation declares are registered. This class refers to the MicroProfile Metrics API, which is an
+ * optional dependency: it must not be loaded unless the API is available.</p>
+ */
+class RegistryOperationMetrics implements OperationMetrics {
+
+    private static final Logger LOGGER = Logger.getLogger(RegistryOperationMetrics.class);
+
+    private static final String PREFIX = "ft.";
+
+    RegistryOperationMetrics(MetricRegistry registry, FaultToleranceOperation operation, Method method) {
+        this.registry = registry;
+        this.prefix = PREFIX + method.getDeclaringClass().getName() + "." + method.getName() + ".";
+
+        this.invocations = counter("invocations.total");
+        this.failedInvocations = counter("invocations.failed.total");
+        if (operation.hasRetry()) {
+            this.retries = counter("retry.retries.total");
+            this.succeededNotRetried = counter("retry.callsSucceededNotRetried.total");
+            this.succeededRetried = counter("retry.callsSucceededRetried.total");
+            this.retryFailed = counter("retry.callsFailed.total");
+        } else {
+            this.retries = this.succeededNotRetried = this.succeededRetried = this.retryFailed = null;
+        }
+        if (operation.hasTimeout()) {
+            this.executionDuration = registry.histogram(new Metadata(prefix + "timeout.executionDuration", MetricType.HISTOGRAM, MetricUnits.NANOSECONDS));
+            this.timedOut = counter("timeout.callsTimedOut.total");
+            this.notTimedOut = counter("timeout.callsNotTimedOut.total");
+        } else {
+            this.executionDuration = null;
+            this.timedOut = this.notTimedOut = null;
+        }
+        if (operation.hasCircuitBreaker()) {
+            this.circuitBreakerSucceeded = counter("circuitbreaker.callsSucceeded.total");
+            this.circuitBreakerFailed = counter("circuitbreaker.callsFailed.total");
+            this.circuitBreakerPrevented = counter("circuitbreaker.callsPrevented.total");
+            this.circuitBreakerOpened = counter("circuitbreaker.opened.total");
+        } else {
+            this.circuitBreakerSucceeded = this.circuitBreakerFailed = this.circuitBreakerPrevented = this.circuitBreakerOpened = null;
+        }
+        if (operation.hasBulkhead()) {
+            this.bulkheadAccepted = counter("bulkhead.callsAccepted.total");
+            this.bulkheadRejected = counter("bulkhead.callsRejected.total");
+        } else {
+            this.bulkheadAccepted = this.bulkheadRejected = null;
+        }
+        this.fallbackCalls = operation.hasFallback() ? counter("fallback.calls.total") : null;
+    }
+
+    /**
+     * Resolve the application registry produced by the MicroProfile Metrics fraction.
+     *
+     * @return the metrics of the operation, or {@link OperationMetrics#NONE} if there is no registry
+     */
+    static OperationMetrics of(BeanManager beanManager, FaultToleranceOperation operation, Method method) {
+        Set<Bean<?>> beans = beanManager.getBeans(MetricRegistry.class);
+        if (beans.isEmpty()) {
+            return NONE;
+        }
+        MetricRegistry registry;
+        try {
+            Bean<?> bean = beanManager.resolve(beans);
+            registry = (MetricRegistry) beanManager.getReference(bean, MetricRegistry.class, beanManager.createCreationalContext(bean));
+        } catch (AmbiguousResolutionException e) {
+            LOGGER.warnf("Unable to resolve the application metric registry, metrics of %s are not published", operation);
+            return NONE;
+        }
+        return new RegistryOperationMetrics(registry, operation, method);
+    }
+
+    @Override
+    public void invoked(boolean failed) {
+        invocations.inc();
+        if (failed) {
+            failedInvocations.inc();
+        }
+    }
+
+    @Override
+    public void retried() {
+        retries.inc();
+    }
+
+    @Override
+    public void retryCompleted(boolean succeeded, boolean retried) {
+        if (!succeeded) {
+            retryFailed.inc();
+        } else if (retried) {
+            succeededRetried.inc();
+        } else {
+            succeededNotRetried.inc();
+        }
+    }
+
+    @Override
+    public void timeoutCompleted(long durationNanos, boolean timedOut) {
+        executionDuration.update(durationNanos);
+        if (timedOut) {
+            this.timedOut.inc();
+        } else {
+            notTimedOut.inc();
+        }
+    }
+
+    @Override
+    public void circuitBreakerSucceeded() {
+        circuitBreakerSucceeded.inc();
+    }
+
+    @Override
+    public void circuitBreakerFailed(boolean opened) {
+        circuitBreakerFailed.inc();
+        if (opened) {
+            circuitBreakerOpened.inc();
+        }
+    }
+
+    @Override
+    public void circuitBreakerPrevented() {
+        circuitBreakerPrevented.inc();
+    }
+
+    @Override
+    public void bulkheadAccepted() {
+        bulkheadAccepted.inc();
+    }
+
+    @Override
+    public void bulkheadRejected() {
+        bulkheadRejected.inc();
+    }
+
+    @Override
+    public void fallbackCalled() {
+        fallbackCalls.inc();
+    }
+
+    @Override
+    public void register(SynchronousCircuitBreaker circuitBreaker) {
+        gauge("circuitbreaker.open.total", MetricUnits.NANOSECONDS, () -> circuitBreaker.getStatusNanos(Status.OPEN));
+        gauge("circuitbreaker.halfOpen.total", MetricUnits.NANOSECONDS, () -> circuitBreaker.getStatusNanos(Status.HALF_OPEN));
+        gauge("circuitbreaker.closed.total", MetricUnits.NANOSECONDS, () -> circuitBreaker.getStatusNanos(Status.CLOSED));
+    }
+
+    @Override
+    public void register(BulkheadLimiter bulkhead) {
+        gauge("bulkhead.concurrentExecutions", MetricUnits.NONE, bulkhead::getConcurrentExecutions);
+        gauge("bulkhead.waitingQueue.population", MetricUnits.NONE, bulkhead::getWaitingQueuePopulation);
+        gauge("bulkhead.utilization", MetricUnits.NONE, bulkhead::getUtilization);
+    }
+
+    private Counter counter(String name) {
+        return registry.counter(new Metadata(prefix + name, MetricType.COUNTER));
+    }
+
+    private <T> void gauge(String name, String unit, Gauge<T> gauge) {
+        // Replace any gauge of a previous engine, so that the state of the current one is published
+        registry.remove(prefix + name);
+        registry.register(prefix + name, gauge, new Metadata(prefix + name, MetricType.GAUGE, unit));
+    }
+
+    private final MetricRegistry registry;
+
+    private final String prefix;
+
+    private final Counter invocations;
+
+    private final Counter failedInvocations;
+
+    private final Counter retries;
+
+    private final Counter succeededNotRetried;
+
+    private final Counter succeededRetried;
+
+    private final Counter retryFailed;
+
+    private final Histogram executionDuration;
+
+    private final Counter timedOut;
+
+    private final Counter notTimedOut;
+
+    private final Counter circuitBreakerSucceeded;
+
+    private final Counter circuitBreakerFailed;
+
+    private final Counter circuitBreakerPrevented;
+
+    private final Counter circuitBreakerOpened;
+
+    private final Counter bulkheadAccepted;
+
+    private final Counter bulkheadRejected;
+
+    private final Counter fallbackCalls;
+
+}
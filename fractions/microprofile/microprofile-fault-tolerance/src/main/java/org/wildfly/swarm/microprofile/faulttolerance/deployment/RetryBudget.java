@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket limiting the rate of retries of a fault tolerance operation, across all of its invocations.
+ *
+ * <p>The bucket is implemented as a generic cell rate algorithm: a single CAS on the theoretical arrival time of the next retry, without any
+ * refill task. When the budget is exhausted, a failed attempt is not retried, and its exception is handled as if retries were exhausted.</p>
+ *
+ * @see FaultToleranceInterceptor#RETRY_BUDGET_KEY
+ */
+class RetryBudget {
+
+    static final RetryBudget UNLIMITED = new RetryBudget(0, 0);
+
+    /**
+     * @param perSecond The number of retries per second the bucket is refilled with, or 0 for no limit.
+     * @param burst     The capacity of the bucket.
+     */
+    RetryBudget(double perSecond, int burst) {
+        this.interval = perSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / perSecond) : 0;
+        this.tolerance = this.interval * Math.max(burst, 1);
+        this.theoreticalArrival = new AtomicLong(System.nanoTime() - this.tolerance);
+    }
+
+    /**
+     * @return <code>true</code> if a retry may be performed
+     */
+    boolean tryAcquire() {
+        if (interval == 0) {
+            return true;
+        }
+        long now = System.nanoTime();
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = Math.max(current - now, 0) + interval;
+            if (next > tolerance) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(current, now + next)) {
+                return true;
+            }
+        }
+    }
+
+    private final long interval;
+
+    private final long tolerance;
+
+    private final AtomicLong theoreticalArrival;
+
+}
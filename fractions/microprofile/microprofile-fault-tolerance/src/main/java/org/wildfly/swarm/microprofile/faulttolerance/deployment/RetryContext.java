@@ -17,6 +17,7 @@ package org.wildfly.swarm.microprofile.faulttolerance.deployment;
 
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -79,13 +80,24 @@ class RetryContext {
     }
 
     void delayIfNeeded() throws InterruptedException {
-        if (delay > 0) {
-            long jitterBase = config.getJitter();
-            long jitter = (long) (Math.random() * ((jitterBase * 2) + 1)) - jitterBase; // random number between -jitter and +jitter
-            TimeUnit.MILLISECONDS.sleep(delay + Duration.of(jitter, config.getJitterDelayUnit()).toMillis());
+        long nextDelay = nextDelay();
+        if (nextDelay > 0) {
+            TimeUnit.MILLISECONDS.sleep(nextDelay);
         }
     }
 
+    /**
+     * @return the delay before the next attempt in milliseconds, including a random jitter
+     */
+    long nextDelay() {
+        if (delay <= 0) {
+            return 0;
+        }
+        long jitterBase = config.getJitter();
+        long jitter = ThreadLocalRandom.current().nextLong(-jitterBase, jitterBase + 1); // random number between -jitter and +jitter
+        return Math.max(0, delay + Duration.of(jitter, config.getJitterDelayUnit()).toMillis());
+    }
+
     @Override
     public String toString() {
         return "RetryContext [remainingAttempts=" + remainingAttempts + ", start=" + start + "]";
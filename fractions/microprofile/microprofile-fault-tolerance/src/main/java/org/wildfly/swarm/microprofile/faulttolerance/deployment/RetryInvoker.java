@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import javax.interceptor.InvocationContext;
+
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.config.RetryConfig;
+
+/**
+ * Implements {@link org.eclipse.microprofile.faulttolerance.Retry} by invoking the rest of the chain again, on the calling thread.
+ *
+ * <p>Used for synchronous operations only; the {@link AsyncInvoker} retries the others without sleeping between attempts.</p>
+ */
+class RetryInvoker implements Invoker {
+
+    RetryInvoker(Invoker next, RetryConfig config, RetryBudget budget, OperationMetrics metrics) {
+        this.next = next;
+        this.config = config;
+        this.budget = budget;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object invoke(InvocationContext ic) throws Exception {
+        RetryContext retryContext = new RetryContext(config);
+        boolean retried = false;
+        while (true) {
+            Object res;
+            try {
+                res = next.invoke(ic);
+            } catch (Exception e) {
+                retryContext.doRetry();
+                if (!retryContext.shouldRetryOn(e, System.nanoTime()) || !budget.tryAcquire()) {
+                    metrics.retryCompleted(false, retried);
+                    throw e;
+                }
+                metrics.retried();
+                retried = true;
+                retryContext.delayIfNeeded();
+                continue;
+            }
+            metrics.retryCompleted(true, retried);
+            return res;
+        }
+    }
+
+    private final Invoker next;
+
+    private final RetryConfig config;
+
+    private final RetryBudget budget;
+
+    private final OperationMetrics metrics;
+
+}
@@ -19,10 +19,12 @@ import static org.wildfly.swarm.microprofile.faulttolerance.deployment.Synchrono
 import static org.wildfly.swarm.microprofile.faulttolerance.deployment.SynchronousCircuitBreaker.Status.HALF_OPEN;
 import static org.wildfly.swarm.microprofile.faulttolerance.deployment.SynchronousCircuitBreaker.Status.OPEN;
 
-import java.time.Instant;
+import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.jboss.logging.Logger;
@@ -33,6 +35,11 @@ import com.netflix.hystrix.HystrixCircuitBreaker;
 /**
  * This is an implementation of the HystrixCircuitBreaker that is expected to be used synchronously by the HystrixCommand implementation to track the state of
  * the circuit. This is needed for the current TCK tests as monitoring circuit state in a background thread does not work with the TCK expectations.
+ * <p>
+ * The circuit is held in an immutable {@link State}, replaced by compare-and-set on every transition, so that no lock is ever taken. While CLOSED, the
+ * outcomes of the last <code>requestVolumeThreshold</code> executions are recorded in a fixed-size ring buffer, and the circuit opens once the ratio of
+ * failures within a full window reaches <code>failureRatio</code>. Each state has counters of its own, so a transition never needs to reset them.
+ * </p>
  *
  * @see HystrixCommandInterceptor#SYNC_CIRCUIT_BREAKER_KEY
  */
@@ -45,13 +52,12 @@ class SynchronousCircuitBreaker implements HystrixCircuitBreaker {
     }
 
     SynchronousCircuitBreaker(CircuitBreakerConfig config) {
-        this.config = config;
-        this.status = new AtomicReference<>(CLOSED);
-        this.circuitOpenedAt = new AtomicLong(-1);
-        this.successCount = new AtomicInteger(0);
-        this.failureCount = new AtomicInteger(0);
-        this.halfOpenAttempts = new AtomicInteger(0);
+        this.requestVolumeThreshold = config.get(CircuitBreakerConfig.REQUEST_VOLUME_THRESHOLD);
+        this.failureRatio = config.get(CircuitBreakerConfig.FAILURE_RATIO);
+        this.successThreshold = config.get(CircuitBreakerConfig.SUCCESS_THRESHOLD, Integer.class);
+        this.delayNanos = Duration.of(config.get(CircuitBreakerConfig.DELAY), config.<ChronoUnit>get(CircuitBreakerConfig.DELAY_UNIT)).toNanos();
         this.id = config.getMethodInfo();
+        this.state = new AtomicReference<>(closed());
     }
 
     @Override
@@ -65,139 +71,200 @@ class SynchronousCircuitBreaker implements HystrixCircuitBreaker {
     }
 
     @Override
-    public synchronized boolean isOpen() {
-        return circuitOpenedAt.get() >= 0;
+    public boolean isOpen() {
+        return state.get().status != CLOSED;
+    }
+
+    Status getStatus() {
+        return state.get().status;
+    }
+
+    /**
+     * @return the total time the circuit has spent in the given status so far, in nanoseconds
+     */
+    long getStatusNanos(Status status) {
+        State current = state.get();
+        long total = statusNanos.get(status.ordinal());
+        return current.status == status ? total + System.nanoTime() - current.since : total;
     }
 
     @Override
-    public synchronized boolean allowRequest() {
+    public boolean allowRequest() {
         // Allow next request if:
         // 1. circuit is CLOSED
         // 2. circuit is OPEN and specified delay passed
         // 3. circuit is HALF_OPEN and next attempt is allowed
-        switch (status.get()) {
+        State current = state.get();
+        switch (current.status) {
             case CLOSED:
                 return true;
             case HALF_OPEN:
-                return isHalfOpenAttemptAllowed();
+                return current.counter.get() < successThreshold;
             case OPEN:
-                return isAfterDelay();
+                return isAfterDelay(current);
             default:
                 return false;
         }
     }
 
     @Override
-    public synchronized boolean attemptExecution() {
+    public boolean attemptExecution() {
         // Allow next execution if:
         // 1. circuit is CLOSED
         // 2. circuit is HALF_OPEN and next attempt is allowed
         // 3. circuit is OPEN and specified delay passed - transition to HALF_OPEN
-        switch (status.get()) {
-            case CLOSED:
-                return true;
-            case HALF_OPEN:
-                if (isHalfOpenAttemptAllowed()) {
-                    halfOpenAttempts.incrementAndGet();
-                    return true;
-                }
-                return false;
-            case OPEN:
-                if (isAfterDelay()) {
-                    LOGGER.debugf("OPEN >> HALF_OPEN [id:%s]", id);
-                    status.set(HALF_OPEN);
-                    halfOpenAttempts.set(1);
-                    resetCounts();
+        while (true) {
+            State current = state.get();
+            switch (current.status) {
+                case CLOSED:
                     return true;
-                }
-                return false;
-            default:
-                return false;
+                case HALF_OPEN:
+                    return acquireHalfOpenAttempt(current);
+                case OPEN:
+                    if (!isAfterDelay(current)) {
+                        return false;
+                    }
+                    // The transition itself is the first attempt
+                    if (transition(current, halfOpen())) {
+                        return true;
+                    }
+                    // Lost the race, look at the new state
+                    break;
+                default:
+                    return false;
+            }
         }
     }
 
-    synchronized void executionSucceeded() {
-        successCount.incrementAndGet();
-        // Transition to CLOSED if HALF_OPEN and successThreshold reached
-        if (HALF_OPEN == status.get() && isSuccessThresholdReached()) {
-            LOGGER.debugf("HALF_OPEN >> CLOSED [id:%s]", id);
-            status.set(CLOSED);
-            circuitOpenedAt.set(-1);
-            resetCounts();
+    void executionSucceeded() {
+        State current = state.get();
+        if (CLOSED == current.status) {
+            current.record(SUCCESS);
+        } else if (HALF_OPEN == current.status && current.successes.incrementAndGet() >= successThreshold) {
+            // Transition to CLOSED if HALF_OPEN and successThreshold reached
+            transition(current, closed());
         }
     }
 
-    synchronized void executionFailed() {
-        failureCount.incrementAndGet();
+    /**
+     * @return <code>true</code> if the failure opened the circuit
+     */
+    boolean executionFailed() {
         // Transition to OPEN if HALF_OPEN
         // Transition to OPEN if CLOSED and failure threshold reached
-        Status current = status.get();
-        if (HALF_OPEN == current || (CLOSED == current && isFailureThresholdReached())) {
-            LOGGER.debugf("%s >> OPEN [id:%s]", current, id);
-            status.set(OPEN);
-            circuitOpenedAt.set(System.currentTimeMillis());
-            resetCounts();
+        State current = state.get();
+        if (HALF_OPEN == current.status || (CLOSED == current.status && current.record(FAILURE))) {
+            return transition(current, open());
         }
+        return false;
     }
 
-    private boolean isAfterDelay() {
-        long openedAt = circuitOpenedAt.get();
-        long delay = config.get(CircuitBreakerConfig.DELAY);
-        if (delay == 0) {
+    private boolean transition(State from, State to) {
+        if (state.compareAndSet(from, to)) {
+            statusNanos.addAndGet(from.status.ordinal(), to.since - from.since);
+            LOGGER.debugf("%s >> %s [id:%s]", from.status, to.status, id);
             return true;
         }
-        ChronoUnit delayUnit = config.get(CircuitBreakerConfig.DELAY_UNIT);
-        long elapsed;
-        if (delayUnit.equals(ChronoUnit.MILLIS)) {
-            elapsed = System.currentTimeMillis() - openedAt;
-        } else {
-            Instant start = Instant.ofEpochMilli(openedAt);
-            Instant now = Instant.now();
-            elapsed = delayUnit.between(start, now);
-        }
-        return elapsed >= delay;
+        return false;
     }
 
-    private boolean isFailureThresholdReached() {
-        int requestCount = getRequestCount();
-        int requestVolumeThreshold = config.get(CircuitBreakerConfig.REQUEST_VOLUME_THRESHOLD);
-        if (requestCount < requestVolumeThreshold) {
-            return false;
-        }
-        double failureCheck = failureCount.get() / requestCount;
-        double failureRatio = config.get(CircuitBreakerConfig.FAILURE_RATIO);
-        return (failureCheck >= failureRatio) || (failureRatio <= 0 && failureCheck == 1);
+    private boolean acquireHalfOpenAttempt(State current) {
+        int attempts;
+        do {
+            attempts = current.counter.get();
+            if (attempts >= successThreshold) {
+                return false;
+            }
+        } while (!current.counter.compareAndSet(attempts, attempts + 1));
+        return true;
     }
 
-    private boolean isSuccessThresholdReached() {
-        return successCount.get() >= config.get(CircuitBreakerConfig.SUCCESS_THRESHOLD, Integer.class);
+    private boolean isAfterDelay(State current) {
+        return delayNanos == 0 || System.nanoTime() - current.since >= delayNanos;
     }
 
-    private boolean isHalfOpenAttemptAllowed() {
-        return halfOpenAttempts.get() < config.get(CircuitBreakerConfig.SUCCESS_THRESHOLD, Integer.class);
+    private State closed() {
+        return new State(CLOSED, new AtomicIntegerArray(requestVolumeThreshold), new AtomicLong(), new AtomicInteger(), null);
     }
 
-    private int getRequestCount() {
-        return successCount.get() + failureCount.get();
+    private State open() {
+        return new State(OPEN, null, null, null, null);
     }
 
-    private void resetCounts() {
-        successCount.set(0);
-        failureCount.set(0);
+    private State halfOpen() {
+        return new State(HALF_OPEN, null, null, new AtomicInteger(1), new AtomicInteger());
     }
 
-    private final AtomicReference<Status> status;
+    private static final int SUCCESS = 1;
 
-    private final AtomicLong circuitOpenedAt;
+    private static final int FAILURE = 2;
 
-    private final CircuitBreakerConfig config;
+    private final AtomicReference<State> state;
 
-    private final AtomicInteger successCount;
+    private final AtomicLongArray statusNanos = new AtomicLongArray(Status.values().length);
 
-    private final AtomicInteger failureCount;
+    private final int requestVolumeThreshold;
 
-    private final AtomicInteger halfOpenAttempts;
+    private final double failureRatio;
+
+    private final int successThreshold;
+
+    private final long delayNanos;
 
     private final String id;
 
-}
\ No newline at end of file
+    /**
+     * A state of the circuit, along with the counters meaningful in that state only.
+     */
+    private final class State {
+
+        State(Status status, AtomicIntegerArray window, AtomicLong recorded, AtomicInteger counter, AtomicInteger successes) {
+            this.status = status;
+            this.since = System.nanoTime();
+            this.window = window;
+            this.recorded = recorded;
+            this.counter = counter;
+            this.successes = successes;
+        }
+
+        /**
+         * Record the outcome of an execution in the rolling window of a CLOSED circuit.
+         *
+         * @return <code>true</code> if the window is full, and the failure ratio has been reached
+         */
+        boolean record(int outcome) {
+            long index = recorded.getAndIncrement();
+            int previous = window.getAndSet((int) (index % requestVolumeThreshold), outcome);
+            // counter holds the number of failures within the window
+            int failures;
+            if (outcome == FAILURE && previous != FAILURE) {
+                failures = counter.incrementAndGet();
+            } else if (outcome != FAILURE && previous == FAILURE) {
+                failures = counter.decrementAndGet();
+            } else {
+                failures = counter.get();
+            }
+            return outcome == FAILURE
+                    && index + 1 >= requestVolumeThreshold
+                    && (double) failures / requestVolumeThreshold >= failureRatio;
+        }
+
+        private final Status status;
+
+        private final long since;
+
+        // CLOSED: the outcomes of the last requestVolumeThreshold executions
+        private final AtomicIntegerArray window;
+
+        // CLOSED: the number of outcomes recorded so far
+        private final AtomicLong recorded;
+
+        // CLOSED: the number of failures within the window, HALF_OPEN: the number of attempts
+        private final AtomicInteger counter;
+
+        // HALF_OPEN: the number of successful attempts
+        private final AtomicInteger successes;
+
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.interceptor.InvocationContext;
+
+import org.eclipse.microprofile.faulttolerance.exceptions.TimeoutException;
+
+/**
+ * Implements {@link org.eclipse.microprofile.faulttolerance.Timeout} on the invoking thread.
+ *
+ * <p>A task scheduled on the shared timer interrupts the invoking thread once the timeout elapses. The outcome of an invocation
+ * which timed out is replaced by a {@link TimeoutException}, and the interrupt is cleared before returning to the caller.</p>
+ *
+ * <p>The invocation is not abandoned: a method which does not respond to the interrupt, such as one blocked in non-interruptible I/O or
+ * swallowing <code>InterruptedException</code>, holds the caller until it returns, past its timeout. Only then is the
+ * {@link TimeoutException} thrown.</p>
+ */
+class TimeoutInvoker implements Invoker {
+
+    TimeoutInvoker(Invoker next, long timeoutNanos, ScheduledExecutorService timer, OperationMetrics metrics) {
+        this.next = next;
+        this.timeoutNanos = timeoutNanos;
+        this.timer = timer;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Object invoke(InvocationContext ic) throws Exception {
+        Watch watch = new Watch(Thread.currentThread());
+        long start = System.nanoTime();
+        ScheduledFuture<?> future = timer.schedule(watch, timeoutNanos, TimeUnit.NANOSECONDS);
+        Object res;
+        try {
+            res = next.invoke(ic);
+        } catch (Exception e) {
+            if (finish(watch, start)) {
+                throw e;
+            }
+            throw new TimeoutException(e);
+        } finally {
+            future.cancel(false);
+        }
+        if (!finish(watch, start)) {
+            throw new TimeoutException("Timeout elapsed: " + ic.getMethod());
+        }
+        return res;
+    }
+
+    private boolean finish(Watch watch, long start) {
+        boolean finished = watch.finish();
+        metrics.timeoutCompleted(System.nanoTime() - start, !finished);
+        return finished;
+    }
+
+    private final Invoker next;
+
+    private final long timeoutNanos;
+
+    private final ScheduledExecutorService timer;
+
+    private final OperationMetrics metrics;
+
+    private static class Watch extends AtomicInteger implements Runnable {
+
+        private static final int RUNNING = 0;
+
+        private static final int FINISHED = 1;
+
+        private static final int TIMING_OUT = 2;
+
+        private static final int TIMED_OUT = 3;
+
+        private static final long serialVersionUID = 1L;
+
+        Watch(Thread thread) {
+            this.thread = thread;
+        }
+
+        @Override
+        public void run() {
+            if (compareAndSet(RUNNING, TIMING_OUT)) {
+                thread.interrupt();
+                set(TIMED_OUT);
+            }
+        }
+
+        /**
+         * @return <code>true</code> if the invocation finished in time, <code>false</code> if it timed out
+         */
+        boolean finish() {
+            if (compareAndSet(RUNNING, FINISHED) || get() == FINISHED) {
+                return true;
+            }
+            while (get() == TIMING_OUT) {
+                Thread.yield();
+            }
+            // the interrupt was meant for the invocation only
+            Thread.interrupted();
+            return false;
+        }
+
+        private final Thread thread;
+
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class AsyncExecutorTest {
+
+    @Test
+    public void testFullQueueRejects() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            AsyncExecutor executor = new AsyncExecutor(pool, 1, 2);
+            CountDownLatch latch = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(3);
+            Runnable task = () -> {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            };
+
+            executor.execute(task);
+            executor.execute(task);
+            try {
+                executor.execute(task);
+                fail("Expected RejectedExecutionException");
+            } catch (RejectedExecutionException expected) {
+            }
+            assertEquals(2, executor.getQueuedTasks());
+
+            latch.countDown();
+            while (executor.getQueuedTasks() > 0) {
+                Thread.sleep(10);
+            }
+            executor.execute(task);
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCompensationIsBounded() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try {
+            AsyncExecutor executor = new AsyncExecutor(pool, 2, 100);
+            CountDownLatch latch = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(4);
+            AtomicInteger started = new AtomicInteger();
+            ForkJoinPool.ManagedBlocker blocker = new ForkJoinPool.ManagedBlocker() {
+                @Override
+                public boolean block() throws InterruptedException {
+                    latch.await();
+                    return true;
+                }
+
+                @Override
+                public boolean isReleasable() {
+                    return latch.getCount() == 0;
+                }
+            };
+            Runnable task = () -> {
+                started.incrementAndGet();
+                try {
+                    executor.managedBlock(blocker);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            };
+
+            for (int i = 0; i < 4; i++) {
+                executor.execute(task);
+            }
+            Thread.sleep(200);
+
+            // One worker, plus a single compensation thread
+            assertEquals(2, started.get());
+            assertTrue(pool.getPoolSize() <= 2);
+
+            latch.countDown();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.microprofile.faulttolerance.Bulkhead;
+import org.eclipse.microprofile.faulttolerance.exceptions.BulkheadException;
+import org.junit.Test;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.config.BulkheadConfig;
+
+public class BulkheadLimiterTest {
+
+    @Test
+    public void testSynchronousLimit() throws Exception {
+        BulkheadLimiter bulkhead = new BulkheadLimiter(config(), null);
+
+        assertTrue(bulkhead.tryAcquire());
+        assertTrue(bulkhead.tryAcquire());
+        assertFalse(bulkhead.tryAcquire());
+        assertEquals(1.0, bulkhead.getUtilization(), 0.0);
+
+        bulkhead.release();
+        assertTrue(bulkhead.tryAcquire());
+    }
+
+    @Test
+    public void testWaitingTasksAreQueued() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            BulkheadLimiter bulkhead = new BulkheadLimiter(config(), executor);
+            CountDownLatch latch = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(4);
+            AtomicInteger concurrent = new AtomicInteger();
+            AtomicInteger maxConcurrent = new AtomicInteger();
+            Runnable task = () -> {
+                maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                concurrent.decrementAndGet();
+                done.countDown();
+            };
+
+            for (int i = 0; i < 4; i++) {
+                bulkhead.execute(task);
+            }
+            try {
+                bulkhead.execute(task);
+                fail("Task should be rejected");
+            } catch (BulkheadException expected) {
+            }
+            assertEquals(2, bulkhead.getWaitingQueuePopulation());
+
+            latch.countDown();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(2, maxConcurrent.get());
+            assertEquals(0, bulkhead.getWaitingQueuePopulation());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private BulkheadConfig config() throws NoSuchMethodException {
+        return new BulkheadConfig(BulkheadLimiterTest.class.getDeclaredMethod("limited"));
+    }
+
+    @Bulkhead(value = 2, waitingTaskQueue = 2)
+    void limited() {
+    }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.interceptor.InvocationContext;
+
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import org.eclipse.microprofile.faulttolerance.Retry;
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
+import org.junit.Test;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.SynchronousCircuitBreaker.Status;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.config.CircuitBreakerConfig;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.config.RetryConfig;
+
+public class OperationMetricsTest {
+
+    @Test
+    public void testRetryMetrics() throws Exception {
+        RecordingMetrics metrics = new RecordingMetrics();
+        Invoker invoker = new MetricsInvoker(new RetryInvoker(ic -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new IllegalStateException();
+            }
+            return "ok";
+        }, new RetryConfig(method("retried")), RetryBudget.UNLIMITED, metrics), metrics);
+
+        assertEquals("ok", invoker.invoke(invocationContext()));
+        assertEquals(1, metrics.invocations.get());
+        assertEquals(0, metrics.failedInvocations.get());
+        assertEquals(2, metrics.retries.get());
+        assertEquals(1, metrics.succeededRetried.get());
+    }
+
+    @Test
+    public void testCircuitBreakerMetrics() throws Exception {
+        RecordingMetrics metrics = new RecordingMetrics();
+        CircuitBreakerConfig config = new CircuitBreakerConfig(method("guarded"));
+        SynchronousCircuitBreaker circuitBreaker = new SynchronousCircuitBreaker(config);
+        Invoker invoker = new CircuitBreakerInvoker(ic -> {
+            throw new IllegalStateException();
+        }, circuitBreaker, config, "guarded", metrics);
+
+        for (int i = 0; i < 3; i++) {
+            try {
+                invoker.invoke(invocationContext());
+                fail("Invocation should fail");
+            } catch (IllegalStateException | CircuitBreakerOpenException expected) {
+            }
+        }
+        assertEquals(2, metrics.circuitBreakerFailed.get());
+        assertEquals(1, metrics.circuitBreakerOpened.get());
+        assertEquals(1, metrics.circuitBreakerPrevented.get());
+        assertEquals(Status.OPEN, circuitBreaker.getStatus());
+        assertTrue(circuitBreaker.getStatusNanos(Status.OPEN) > 0);
+    }
+
+    private Method method(String name) throws NoSuchMethodException {
+        return OperationMetricsTest.class.getDeclaredMethod(name);
+    }
+
+    private InvocationContext invocationContext() {
+        return new InvocationContext() {
+
+            @Override
+            public Object getTarget() {
+                return OperationMetricsTest.this;
+            }
+
+            @Override
+            public Object getTimer() {
+                return null;
+            }
+
+            @Override
+            public Method getMethod() {
+                return null;
+            }
+
+            @Override
+            public Object[] getParameters() {
+                return new Object[0];
+            }
+
+            @Override
+            public void setParameters(Object[] params) {
+            }
+
+            @Override
+            public Map<String, Object> getContextData() {
+                return null;
+            }
+
+            @Override
+            public Object proceed() throws Exception {
+                return null;
+            }
+        };
+    }
+
+    @Retry(maxRetries = 3, jitter = 0)
+    void retried() {
+    }
+
+    @CircuitBreaker(requestVolumeThreshold = 2, delay = 60000)
+    void guarded() {
+    }
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private static class RecordingMetrics implements OperationMetrics {
+
+        @Override
+        public void invoked(boolean failed) {
+            invocations.incrementAndGet();
+            if (failed) {
+                failedInvocations.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void retried() {
+            retries.incrementAndGet();
+        }
+
+        @Override
+        public void retryCompleted(boolean succeeded, boolean retried) {
+            if (succeeded && retried) {
+                succeededRetried.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void circuitBreakerFailed(boolean opened) {
+            circuitBreakerFailed.incrementAndGet();
+            if (opened) {
+                circuitBreakerOpened.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void circuitBreakerPrevented() {
+            circuitBreakerPrevented.incrementAndGet();
+        }
+
+        private final AtomicInteger invocations = new AtomicInteger();
+
+        private final AtomicInteger failedInvocations = new AtomicInteger();
+
+        private final AtomicInteger retries = new AtomicInteger();
+
+        private final AtomicInteger succeededRetried = new AtomicInteger();
+
+        private final AtomicInteger circuitBreakerFailed = new AtomicInteger();
+
+        private final AtomicInteger circuitBreakerOpened = new AtomicInteger();
+
+        private final AtomicInteger circuitBreakerPrevented = new AtomicInteger();
+
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import org.junit.Test;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.SynchronousCircuitBreaker.Status;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.config.CircuitBreakerConfig;
+
+public class SynchronousCircuitBreakerTest {
+
+    @Test
+    public void testOpensOnFailureRatioOfRollingWindow() throws Exception {
+        SynchronousCircuitBreaker breaker = breaker("rolling");
+
+        // successes beyond the window are forgotten
+        for (int i = 0; i < 10; i++) {
+            assertTrue(breaker.attemptExecution());
+            breaker.executionSucceeded();
+        }
+        assertTrue(breaker.attemptExecution());
+        breaker.executionFailed();
+        assertEquals(Status.CLOSED, breaker.getStatus());
+        assertTrue(breaker.attemptExecution());
+        breaker.executionFailed();
+
+        assertEquals(Status.OPEN, breaker.getStatus());
+        assertTrue(breaker.isOpen());
+        assertFalse(breaker.allowRequest());
+        assertFalse(breaker.attemptExecution());
+    }
+
+    @Test
+    public void testClosesAfterSuccessThreshold() throws Exception {
+        SynchronousCircuitBreaker breaker = open(breaker("rolling"));
+        TimeUnit.MILLISECONDS.sleep(150);
+
+        // two attempts are allowed while HALF_OPEN
+        assertTrue(breaker.attemptExecution());
+        assertEquals(Status.HALF_OPEN, breaker.getStatus());
+        assertTrue(breaker.attemptExecution());
+        assertFalse(breaker.attemptExecution());
+
+        breaker.executionSucceeded();
+        assertEquals(Status.HALF_OPEN, breaker.getStatus());
+        breaker.executionSucceeded();
+        assertEquals(Status.CLOSED, breaker.getStatus());
+        assertFalse(breaker.isOpen());
+    }
+
+    @Test
+    public void testReopensOnHalfOpenFailure() throws Exception {
+        SynchronousCircuitBreaker breaker = open(breaker("rolling"));
+        TimeUnit.MILLISECONDS.sleep(150);
+
+        assertTrue(breaker.attemptExecution());
+        breaker.executionFailed();
+        assertEquals(Status.OPEN, breaker.getStatus());
+        assertFalse(breaker.attemptExecution());
+    }
+
+    private SynchronousCircuitBreaker open(SynchronousCircuitBreaker breaker) {
+        for (int i = 0; i < 4; i++) {
+            breaker.attemptExecution();
+            breaker.executionFailed();
+        }
+        assertEquals(Status.OPEN, breaker.getStatus());
+        return breaker;
+    }
+
+    private SynchronousCircuitBreaker breaker(String methodName) throws NoSuchMethodException {
+        return new SynchronousCircuitBreaker(new CircuitBreakerConfig(SynchronousCircuitBreakerTest.class.getDeclaredMethod(methodName)));
+    }
+
+    @CircuitBreaker(requestVolumeThreshold = 4, failureRatio = 0.5, delay = 100, successThreshold = 2)
+    void rolling() {
+    }
+
+}
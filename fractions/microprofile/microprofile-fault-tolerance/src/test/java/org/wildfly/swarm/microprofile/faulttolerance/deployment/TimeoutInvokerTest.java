@@ -0,0 +1,125 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.interceptor.InvocationContext;
+
+import org.eclipse.microprofile.faulttolerance.exceptions.TimeoutException;
+import org.junit.After;
+import org.junit.Test;
+
+public class TimeoutInvokerTest {
+
+    @After
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    @Test
+    public void testInterruptibleInvocationTimesOut() throws Exception {
+        Invoker invoker = new TimeoutInvoker(ic -> {
+            Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+            return "late";
+        }, TimeUnit.MILLISECONDS.toNanos(50), timer, OperationMetrics.NONE);
+
+        long start = System.nanoTime();
+        try {
+            invoker.invoke(invocationContext());
+            fail("Expected TimeoutException");
+        } catch (TimeoutException expected) {
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    public void testInvocationIgnoringInterruptRunsPastTimeout() throws Exception {
+        long duration = TimeUnit.MILLISECONDS.toNanos(300);
+        Invoker invoker = new TimeoutInvoker(ic -> {
+            long deadline = System.nanoTime() + duration;
+            while (System.nanoTime() < deadline) {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException ignored) {
+                    // Swallowed, as by a method not responding to interrupts
+                }
+            }
+            return "late";
+        }, TimeUnit.MILLISECONDS.toNanos(50), timer, OperationMetrics.NONE);
+
+        long start = System.nanoTime();
+        try {
+            invoker.invoke(invocationContext());
+            fail("Expected TimeoutException");
+        } catch (TimeoutException expected) {
+        }
+        // The caller is held until the method returns, not released at the timeout
+        assertTrue(System.nanoTime() - start >= duration);
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    private InvocationContext invocationContext() {
+        return new InvocationContext() {
+
+            @Override
+            public Object getTarget() {
+                return TimeoutInvokerTest.this;
+            }
+
+            @Override
+            public Object getTimer() {
+                return null;
+            }
+
+            @Override
+            public Method getMethod() {
+                return null;
+            }
+
+            @Override
+            public Object[] getParameters() {
+                return new Object[0];
+            }
+
+            @Override
+            public void setParameters(Object[] params) {
+            }
+
+            @Override
+            public Map<String, Object> getContextData() {
+                return null;
+            }
+
+            @Override
+            public Object proceed() throws Exception {
+                return null;
+            }
+        };
+    }
+
+    private final ScheduledExecutorService timer = new ScheduledThreadPoolExecutor(1);
+
+}
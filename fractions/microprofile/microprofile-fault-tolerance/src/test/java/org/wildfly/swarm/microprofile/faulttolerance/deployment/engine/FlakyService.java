@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment.engine;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.eclipse.microprofile.faulttolerance.Asynchronous;
+import org.eclipse.microprofile.faulttolerance.Bulkhead;
+import org.eclipse.microprofile.faulttolerance.CircuitBreaker;
+import org.eclipse.microprofile.faulttolerance.Fallback;
+import org.eclipse.microprofile.faulttolerance.Retry;
+import org.eclipse.microprofile.faulttolerance.Timeout;
+
+@ApplicationScoped
+public class FlakyService {
+
+    static final long DELAY = 400;
+
+    @Retry(maxRetries = 2, jitter = 0)
+    @Fallback(fallbackMethod = "fallback")
+    public String retried() {
+        retriedCount.incrementAndGet();
+        throw new IllegalStateException("Service call failed!");
+    }
+
+    public String fallback() {
+        return "fallback";
+    }
+
+    @CircuitBreaker(requestVolumeThreshold = 2, delay = DELAY)
+    public String ping(boolean fail) {
+        if (fail) {
+            throw new IllegalStateException("Service call failed!");
+        }
+        return "pong";
+    }
+
+    @Timeout(100)
+    public String slow() throws InterruptedException {
+        Thread.sleep(5000);
+        return "slow";
+    }
+
+    @Asynchronous
+    @Bulkhead(value = 1, waitingTaskQueue = 1)
+    public Future<String> await(CountDownLatch latch) throws InterruptedException {
+        latch.await();
+        return CompletableFuture.completedFuture(Thread.currentThread().getName());
+    }
+
+    @Retry(maxRetries = 3, delay = DELAY, jitter = 0)
+    public CompletionStage<String> eventually() {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        if (eventuallyCount.incrementAndGet() < 3) {
+            result.completeExceptionally(new IllegalStateException("Service call failed!"));
+        } else {
+            result.complete(Thread.currentThread().getName());
+        }
+        return result;
+    }
+
+    int getRetriedCount() {
+        return retriedCount.get();
+    }
+
+    private final AtomicInteger retriedCount = new AtomicInteger();
+
+    private final AtomicInteger eventuallyCount = new AtomicInteger();
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.faulttolerance.deployment.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+
+import org.eclipse.microprofile.faulttolerance.exceptions.BulkheadException;
+import org.eclipse.microprofile.faulttolerance.exceptions.CircuitBreakerOpenException;
+import org.eclipse.microprofile.faulttolerance.exceptions.TimeoutException;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.FaultToleranceInterceptor;
+import org.wildfly.swarm.microprofile.faulttolerance.deployment.TestArchive;
+
+@RunWith(Arquillian.class)
+public class NativeEngineTest {
+
+    @Deployment
+    public static JavaArchive createTestArchive() {
+        return TestArchive.createBase("NativeEngineTest.jar")
+                .addPackage(NativeEngineTest.class.getPackage())
+                .addAsManifestResource(new StringAsset(FaultToleranceInterceptor.ENGINE_KEY + "=" + FaultToleranceInterceptor.NATIVE_ENGINE),
+                                       "microprofile-config.properties");
+    }
+
+    @Inject
+    FlakyService service;
+
+    @Test
+    public void testRetryThenFallback() {
+        assertEquals("fallback", service.retried());
+        assertEquals(3, service.getRetriedCount());
+    }
+
+    @Test
+    public void testCircuitBreaker() throws InterruptedException {
+        // CLOSED
+        assertPing(false, true);
+        assertPing(false, true);
+        // OPEN
+        assertPing(true, false);
+        TimeUnit.MILLISECONDS.sleep(FlakyService.DELAY);
+        // HALF-OPEN, then CLOSED
+        assertEquals("pong", service.ping(false));
+        assertEquals("pong", service.ping(false));
+    }
+
+    @Test
+    public void testTimeout() throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            service.slow();
+            fail("Invocation should time out");
+        } catch (TimeoutException expected) {
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    public void testAsynchronousBulkhead() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        Future<String> running = service.await(latch);
+        TimeUnit.MILLISECONDS.sleep(100);
+        Future<String> waiting = service.await(latch);
+        TimeUnit.MILLISECONDS.sleep(100);
+        Future<String> rejected = service.await(latch);
+        try {
+            rejected.get();
+            fail("Invocation should be rejected");
+        } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof BulkheadException);
+        }
+        latch.countDown();
+        assertTrue(running.get().startsWith("fault-tolerance-async-"));
+        assertTrue(waiting.get().startsWith("fault-tolerance-async-"));
+    }
+
+    @Test
+    public void testCompletionStageRetriedWithoutBlocking() throws Exception {
+        long start = System.nanoTime();
+        CompletableFuture<String> result = service.eventually().toCompletableFuture();
+        // The delays between attempts do not hold the calling thread
+        assertFalse(result.isDone());
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(FlakyService.DELAY));
+        assertTrue(result.get().startsWith("fault-tolerance-async-"));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(2 * FlakyService.DELAY));
+    }
+
+    private void assertPing(boolean open, boolean fail) {
+        try {
+            service.ping(fail);
+            fail("Invocation should fail");
+        } catch (CircuitBreakerOpenException e) {
+            assertTrue("Circuit breaker must not be open", open);
+        } catch (IllegalStateException e) {
+            assertFalse("Circuit breaker must be open", open);
+        }
+    }
+}
@@ -15,8 +15,11 @@
  */
 package org.wildfly.swarm.microprofile.health;
 
+import org.wildfly.swarm.config.runtime.AttributeDocumentation;
+import org.wildfly.swarm.spi.api.Defaultable;
 import org.wildfly.swarm.spi.api.Fraction;
 import org.wildfly.swarm.spi.api.Module;
+import org.wildfly.swarm.spi.api.annotations.Configurable;
 import org.wildfly.swarm.spi.api.annotations.DeploymentModule;
 
 import java.util.Optional;
@@ -29,10 +32,26 @@ import java.util.Optional;
 @DeploymentModule(name = "org.wildfly.swarm.microprofile.health")
 @DeploymentModule(name = "org.wildfly.swarm.microprofile.health", slot = "deployment", export = true, metaInf = DeploymentModule.MetaInfDisposition.IMPORT)
 @DeploymentModule(name = "org.eclipse.microprofile.health", services = Module.ServiceHandling.IMPORT, export = true)
+@Configurable("swarm.microprofile.health")
 public class HealthFraction implements Fraction<HealthFraction> {
 
     private Optional<String> securityRealm = Optional.empty();
 
+    @AttributeDocumentation("Maximum number of health checks running at once")
+    private Defaultable<Integer> checkThreads = Defaultable.integer(4);
+
+    @AttributeDocumentation("Milliseconds after which a health check not responding is reported as DOWN")
+    private Defaultable<Long> checkTimeout = Defaultable.longInteger(2000);
+
+    @AttributeDocumentation("Milliseconds for which the results of the health checks are reused, or 0 to run them for every request")
+    private Defaultable<Long> cacheTtl = Defaultable.longInteger(0);
+
+    @AttributeDocumentation("Whether the health checks are run every cache TTL in the background, so that requests never wait for them")
+    private Defaultable<Boolean> backgroundRefresh = Defaultable.bool(false);
+
+    @AttributeDocumentation("Port of a dedicated listener, with a worker of its own, serving the health endpoints instead of the default listener")
+    private Integer probePort;
+
     public HealthFraction securityRealm(String realmName) {
         this.securityRealm = Optional.of(realmName);
         return this;
@@ -41,4 +60,49 @@ public class HealthFraction implements Fraction<HealthFraction> {
     public Optional<String> securityRealm() {
         return this.securityRealm;
     }
+
+    public HealthFraction checkThreads(int threads) {
+        this.checkThreads.set(threads);
+        return this;
+    }
+
+    public int checkThreads() {
+        return this.checkThreads.get();
+    }
+
+    public HealthFraction checkTimeout(long millis) {
+        this.checkTimeout.set(millis);
+        return this;
+    }
+
+    public long checkTimeout() {
+        return this.checkTimeout.get();
+    }
+
+    public HealthFraction cacheTtl(long millis) {
+        this.cacheTtl.set(millis);
+        return this;
+    }
+
+    public long cacheTtl() {
+        return this.cacheTtl.get();
+    }
+
+    public HealthFraction backgroundRefresh(boolean backgroundRefresh) {
+        this.backgroundRefresh.set(backgroundRefresh);
+        return this;
+    }
+
+    public boolean backgroundRefresh() {
+        return this.backgroundRefresh.get();
+    }
+
+    public HealthFraction probePort(int port) {
+        this.probePort = port;
+        return this;
+    }
+
+    public Integer probePort() {
+        return this.probePort;
+    }
 }
@@ -18,10 +18,12 @@ package org.wildfly.swarm.microprofile.health.api;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import javax.naming.InitialContext;
 import javax.naming.NamingException;
 
+import org.eclipse.microprofile.health.HealthCheckResponse;
 import org.jboss.as.domain.management.SecurityRealm;
 import org.jboss.dmr.ModelNode;
 import org.wildfly.swarm.microprofile.health.HealthMetaData;
@@ -57,6 +59,12 @@ public interface Monitor {
 
     Set<Object> getHealthDelegates();
 
+    /**
+     * Run the health delegates, without blocking the caller.
+     * @return the responses, in the order of the delegates
+     */
+    CompletableFuture<List<HealthCheckResponse>> checkHealth();
+
     Optional<SecurityRealm> getSecurityRealm();
 
     /**
@@ -19,6 +19,7 @@ import org.eclipse.microprofile.health.Health;
 import org.eclipse.microprofile.health.HealthCheck;
 import org.jboss.logging.Logger;
 import org.wildfly.swarm.microprofile.health.api.Monitor;
+import org.wildfly.swarm.microprofile.health.runtime.RequestContextHealthCheck;
 
 import javax.enterprise.event.Observes;
 import javax.enterprise.inject.spi.AfterDeploymentValidation;
@@ -67,20 +68,20 @@ public class HealthExtension implements Extension {
     /**
      * Instantiates <em>unmanaged instances</em> of HealthCheckProcedure and
      * handle manually their CDI creation lifecycle.
-     * Add them to the {@link Monitor}.
+     * Add them to the {@link Monitor}, each to be called within a request context of its own.
      */
     private void afterDeploymentValidation(@Observes final AfterDeploymentValidation abd, BeanManager beanManager) {
         try {
             for (AnnotatedType delegate : delegates) {
                 Unmanaged<HealthCheck> unmanagedHealthCheck = new Unmanaged<HealthCheck>(beanManager, delegate.getJavaClass());
                 Unmanaged.UnmanagedInstance<HealthCheck> healthCheckInstance = unmanagedHealthCheck.newInstance();
-                HealthCheck healthCheck =  healthCheckInstance.produce().inject().postConstruct().get();
+                RequestContextHealthCheck healthCheck = RequestContextHealthCheck.of(healthCheckInstance.produce().inject().postConstruct().get(), beanManager);
                 healthChecks.add(healthCheck);
                 healthCheckInstances.add(healthCheckInstance);
 
                 monitor.registerHealthBean(healthCheck);
 
-                log.info(">> Added health bean impl " + healthCheck);
+                log.info(">> Added health bean impl " + healthCheck.getDelegate());
             }
 
             // we don't need the references anymore
@@ -0,0 +1,228 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.health.runtime;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import javax.enterprise.inject.Vetoed;
+
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.wildfly.swarm.undertow.ProbeRunner;
+
+/**
+ * Runs health checks in parallel on a {@link ProbeRunner}.
+ *
+ * <p>A check not responding within the timeout is reported as <code>DOWN</code>, with the timeout and
+ * elapsed time as its data, and its thread is interrupted.  A check which throws, or which cannot be
+ * queued as the pool is saturated, is likewise reported as <code>DOWN</code>.</p>
+ *
+ * <p>Concurrent callers share a single run of the checks.  With a cache TTL, results are reused
+ * until they expire.  With background refresh, checks are run every TTL regardless of callers, who
+ * are always given the last results without waiting.</p>
+ *
+ * <p>Threads are only created by {@link #start()}, and released by {@link #close()}, after which the
+ * runner may be started again.  Checks called while the runner is not started are reported as
+ * <code>DOWN</code>.</p>
+ */
+@Vetoed
+public class HealthCheckRunner implements Closeable {
+
+    private static final int QUEUE_CAPACITY = 128;
+
+    /**
+     * Create a runner.
+     *
+     * @param checks            The health checks to run.
+     * @param threads           The maximum number of checks running at once.
+     * @param timeout           The milliseconds after which a check is reported as <code>DOWN</code>.
+     * @param cacheTtl          The milliseconds results are reused for, or 0 to run the checks for every caller.
+     * @param backgroundRefresh Whether the checks are run every <code>cacheTtl</code> regardless of callers.
+     */
+    public HealthCheckRunner(Supplier<? extends Collection<?>> checks, int threads, long timeout, long cacheTtl, boolean backgroundRefresh) {
+        this.checks = checks;
+        this.threads = threads;
+        this.timeout = timeout;
+        this.cacheTtl = cacheTtl;
+        this.backgroundRefresh = backgroundRefresh && cacheTtl > 0;
+    }
+
+    /**
+     * Create the threads running the checks, and begin refreshing results in the background, if enabled.
+     */
+    public synchronized void start() {
+        if (this.runner != null) {
+            return;
+        }
+        this.results = null;
+        this.runner = new ProbeRunner("health-check", this.threads, QUEUE_CAPACITY, this.timeout);
+        if (this.backgroundRefresh) {
+            this.runner.repeat(this::refresh, this.cacheTtl);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (this.runner != null) {
+            this.runner.close();
+            this.runner = null;
+            this.inflight = null;
+        }
+    }
+
+    /**
+     * Obtain the results of the health checks.
+     *
+     * @return The responses, in the order of the checks.
+     */
+    public CompletableFuture<List<HealthCheckResponse>> call() {
+        Results results = this.results;
+        if (results != null && (this.backgroundRefresh || System.nanoTime() - results.computed < TimeUnit.MILLISECONDS.toNanos(this.cacheTtl))) {
+            return CompletableFuture.completedFuture(results.responses);
+        }
+        return refresh();
+    }
+
+    private synchronized CompletableFuture<List<HealthCheckResponse>> refresh() {
+        if (this.inflight != null) {
+            return this.inflight;
+        }
+
+        long computed = System.nanoTime();
+        List<CompletableFuture<HealthCheckResponse>> futures = new ArrayList<>();
+        for (Object each : this.checks.get()) {
+            futures.add(run((HealthCheck) each));
+        }
+
+        CompletableFuture<List<HealthCheckResponse>> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()]))
+                .thenApply(ignored -> {
+                    List<HealthCheckResponse> responses = new ArrayList<>(futures.size());
+                    for (CompletableFuture<HealthCheckResponse> each : futures) {
+                        responses.add(each.join());
+                    }
+                    return Collections.unmodifiableList(responses);
+                });
+        this.inflight = all;
+        all.whenComplete((responses, error) -> completed(computed, responses));
+        return all;
+    }
+
+    private synchronized void completed(long computed, List<HealthCheckResponse> responses) {
+        this.inflight = null;
+        if (responses != null) {
+            this.results = new Results(computed, responses);
+        }
+    }
+
+    private CompletableFuture<HealthCheckResponse> run(HealthCheck check) {
+        long start = System.nanoTime();
+        if (this.runner == null) {
+            return CompletableFuture.completedFuture(down(check, "error", "not started", start));
+        }
+        return this.runner.run(() -> {
+            HealthCheckResponse response = check.call();
+            return response != null ? response : down(check, "error", "no response", start);
+        }, t -> {
+            if (t instanceof TimeoutException) {
+                return down(check, "timeout", this.timeout, start);
+            }
+            return down(check, "error", t instanceof RejectedExecutionException ? "rejected" : t.toString(), start);
+        });
+    }
+
+    private static HealthCheckResponse down(HealthCheck check, String key, Object value, long start) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put(key, value);
+        data.put("elapsed", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return new Down(nameOf(check), data);
+    }
+
+    static String nameOf(Object check) {
+        if (check instanceof RequestContextHealthCheck) {
+            return nameOf(((RequestContextHealthCheck) check).getDelegate());
+        }
+        String name = check.getClass().getSimpleName();
+        int proxy = name.indexOf('$');
+        return proxy > 0 ? name.substring(0, proxy) : name;
+    }
+
+    private final Supplier<? extends Collection<?>> checks;
+
+    private final int threads;
+
+    private final long timeout;
+
+    private final long cacheTtl;
+
+    private final boolean backgroundRefresh;
+
+    private ProbeRunner runner;
+
+    private volatile Results results;
+
+    private CompletableFuture<List<HealthCheckResponse>> inflight;
+
+    private static final class Results {
+
+        Results(long computed, List<HealthCheckResponse> responses) {
+            this.computed = computed;
+            this.responses = responses;
+        }
+
+        private final long computed;
+
+        private final List<HealthCheckResponse> responses;
+    }
+
+    private static final class Down extends HealthCheckResponse {
+
+        Down(String name, Map<String, Object> data) {
+            this.name = name;
+            this.data = data;
+        }
+
+        @Override
+        public String getName() {
+            return this.name;
+        }
+
+        @Override
+        public State getState() {
+            return State.DOWN;
+        }
+
+        @Override
+        public Optional<Map<String, Object>> getData() {
+            return Optional.of(this.data);
+        }
+
+        private final String name;
+
+        private final Map<String, Object> data;
+    }
+}
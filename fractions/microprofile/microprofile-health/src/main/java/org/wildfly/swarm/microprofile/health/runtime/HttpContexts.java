@@ -16,7 +16,6 @@
 package org.wildfly.swarm.microprofile.health.runtime;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -32,7 +31,7 @@ import io.undertow.server.HttpServerExchange;
 import io.undertow.util.AttachmentKey;
 import io.undertow.util.Headers;
 import io.undertow.util.HttpString;
-import org.eclipse.microprofile.health.HealthCheck;
+import io.undertow.util.SameThreadExecutor;
 import org.eclipse.microprofile.health.HealthCheckResponse;
 import org.jboss.logging.Logger;
 import org.wildfly.swarm.microprofile.health.api.Monitor;
@@ -119,12 +118,21 @@ public class HttpContexts implements HttpHandler {
             return;
         }
 
-        List<org.eclipse.microprofile.health.HealthCheckResponse> responses = new ArrayList<>();
+        // the checks run on their own threads, so neither block the IO thread nor wait for a worker
+        exchange.dispatch(SameThreadExecutor.INSTANCE, () -> {
+            monitor.checkHealth().whenComplete((responses, error) -> {
+                if (error != null) {
+                    LOG.error("Failed to run health checks", error);
+                    exchange.setStatusCode(500);
+                    exchange.endExchange();
+                } else {
+                    respond(exchange, responses);
+                }
+            });
+        });
+    }
 
-        for (Object procedure : procedures) {
-            org.eclipse.microprofile.health.HealthCheckResponse status = ((HealthCheck)procedure).call();
-            responses.add(status);
-        }
+    private void respond(HttpServerExchange exchange, List<HealthCheckResponse> responses) {
 
         StringBuffer sb = new StringBuffer(LCURL);
         sb.append("\"checks\": [\n");
@@ -20,6 +20,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutorService;
@@ -27,6 +28,7 @@ import java.util.concurrent.Executors;
 
 import javax.enterprise.inject.Vetoed;
 
+import org.eclipse.microprofile.health.HealthCheckResponse;
 import org.jboss.as.controller.ModelController;
 import org.jboss.as.controller.client.ModelControllerClient;
 import org.jboss.as.domain.management.SecurityRealm;
@@ -64,8 +66,9 @@ public class MonitorService implements Monitor, Service<MonitorService> {
 
     public static final ServiceName SERVICE_NAME = ServiceName.of("swarm", "health");
 
-    public MonitorService(Optional<String> securityRealm) {
+    public MonitorService(Optional<String> securityRealm, int checkThreads, long checkTimeout, long cacheTtl, boolean backgroundRefresh) {
         this.securityRealm = securityRealm;
+        this.checkRunner = new HealthCheckRunner(this::getHealthDelegates, checkThreads, checkTimeout, cacheTtl, backgroundRefresh);
     }
 
     @Override
@@ -82,6 +85,8 @@ public class MonitorService implements Monitor, Service<MonitorService> {
         if (!securityRealm.isPresent()) {
             LOG.warn("You are running the monitoring endpoints without any security realm configuration!");
         }
+
+        checkRunner.start();
     }
 
     @Override
@@ -89,6 +94,7 @@ public class MonitorService implements Monitor, Service<MonitorService> {
         if (executorService != null) {
             executorService.shutdownNow();
         }
+        checkRunner.close();
     }
 
     @Override
@@ -170,14 +176,14 @@ public class MonitorService implements Monitor, Service<MonitorService> {
 
     @Override
     public void registerHealthBean(Object healthCheck) {
-        LOG.info("Adding health bean: " + healthCheck.getClass().getName());
+        LOG.info("Adding health bean: " + HealthCheckRunner.nameOf(healthCheck));
         this.beans.add(healthCheck);
     }
 
     @Override
     public void unregisterHealthBean(Object healthCheck) {
         this.beans.remove(healthCheck);
-        LOG.info("Removed health bean: " + healthCheck.getClass().getName());
+        LOG.info("Removed health bean: " + HealthCheckRunner.nameOf(healthCheck));
     }
 
     @Override
@@ -190,6 +196,11 @@ public class MonitorService implements Monitor, Service<MonitorService> {
         return this.beans;
     }
 
+    @Override
+    public CompletableFuture<List<HealthCheckResponse>> checkHealth() {
+        return this.checkRunner.call();
+    }
+
     @Override
     public Optional<SecurityRealm> getSecurityRealm() {
 
@@ -233,6 +244,8 @@ public class MonitorService implements Monitor, Service<MonitorService> {
 
     private final Optional<String> securityRealm;
 
+    private final HealthCheckRunner checkRunner;
+
     private ExecutorService executorService;
 
     private ServerEnvironment serverEnvironment;
@@ -0,0 +1,82 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.health.runtime;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.enterprise.inject.Vetoed;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.jboss.weld.context.bound.BoundLiteral;
+import org.jboss.weld.context.bound.BoundRequestContext;
+
+/**
+ * Calls a health check within a request context of its own.
+ *
+ * <p>Checks run on threads of the {@link HealthCheckRunner} rather than within a request, so request
+ * scoped beans they use would otherwise be unavailable.  The context is destroyed after each call.</p>
+ */
+@Vetoed
+public class RequestContextHealthCheck implements HealthCheck {
+
+    public RequestContextHealthCheck(HealthCheck delegate, BoundRequestContext requestContext) {
+        this.delegate = delegate;
+        this.requestContext = requestContext;
+    }
+
+    /**
+     * Wrap a health check of a deployment.
+     *
+     * @param delegate    The health check.
+     * @param beanManager The bean manager of the deployment.
+     * @return The wrapped health check.
+     */
+    public static RequestContextHealthCheck of(HealthCheck delegate, BeanManager beanManager) {
+        Bean<?> contextBean = beanManager.resolve(beanManager.getBeans(BoundRequestContext.class, BoundLiteral.INSTANCE));
+        BoundRequestContext requestContext = (BoundRequestContext) beanManager.getReference(contextBean, BoundRequestContext.class,
+                                                                                            beanManager.createCreationalContext(contextBean));
+        return new RequestContextHealthCheck(delegate, requestContext);
+    }
+
+    public HealthCheck getDelegate() {
+        return this.delegate;
+    }
+
+    @Override
+    public HealthCheckResponse call() {
+        Map<String, Object> storage = new HashMap<>();
+        this.requestContext.associate(storage);
+        this.requestContext.activate();
+        try {
+            return this.delegate.call();
+        } finally {
+            try {
+                this.requestContext.invalidate();
+                this.requestContext.deactivate();
+            } finally {
+                this.requestContext.dissociate(storage);
+            }
+        }
+    }
+
+    private final HealthCheck delegate;
+
+    private final BoundRequestContext requestContext;
+}
@@ -0,0 +1,198 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.health;
+
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.jboss.weld.context.bound.BoundRequestContext;
+import org.junit.Assert;
+import org.junit.Test;
+import org.wildfly.swarm.microprofile.health.runtime.HealthCheckRunner;
+import org.wildfly.swarm.microprofile.health.runtime.RequestContextHealthCheck;
+
+public class HealthCheckRunnerTest {
+
+    @Test
+    public void testChecksRunInParallelInOrder() throws Exception {
+        List<HealthCheck> checks = Arrays.asList(sleeping("a", 300), sleeping("b", 300), sleeping("c", 300));
+        try (HealthCheckRunner runner = new HealthCheckRunner(() -> checks, 3, 5000, 0, false)) {
+            runner.start();
+            long start = System.nanoTime();
+            List<HealthCheckResponse> responses = runner.call().get(5, TimeUnit.SECONDS);
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            Assert.assertTrue("Expected checks to overlap, took " + elapsed + "ms", elapsed < 800);
+            Assert.assertEquals(3, responses.size());
+            Assert.assertEquals("a", responses.get(0).getName());
+            Assert.assertEquals("b", responses.get(1).getName());
+            Assert.assertEquals("c", responses.get(2).getName());
+        }
+    }
+
+    @Test
+    public void testSlowCheckTimesOut() throws Exception {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        HealthCheck slow = () -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return up("slow");
+        };
+        List<HealthCheck> checks = Arrays.asList(slow, sleeping("fast", 0));
+        try (HealthCheckRunner runner = new HealthCheckRunner(() -> checks, 2, 100, 0, false)) {
+            runner.start();
+            List<HealthCheckResponse> responses = runner.call().get(5, TimeUnit.SECONDS);
+
+            Assert.assertEquals(HealthCheckResponse.State.DOWN, responses.get(0).getState());
+            Map<String, Object> data = responses.get(0).getData().get();
+            Assert.assertEquals(100L, data.get("timeout"));
+            Assert.assertTrue((Long) data.get("elapsed") >= 100);
+            Assert.assertEquals(HealthCheckResponse.State.UP, responses.get(1).getState());
+            Assert.assertTrue("Expected the slow check to be interrupted", interrupted.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testFailingCheckIsDown() throws Exception {
+        HealthCheck failing = () -> {
+            throw new IllegalStateException("no database");
+        };
+        try (HealthCheckRunner runner = new HealthCheckRunner(() -> Collections.singletonList(failing), 1, 1000, 0, false)) {
+            runner.start();
+            HealthCheckResponse response = runner.call().get(5, TimeUnit.SECONDS).get(0);
+            Assert.assertEquals(HealthCheckResponse.State.DOWN, response.getState());
+            Assert.assertTrue(response.getData().get().get("error").toString().contains("no database"));
+        }
+    }
+
+    @Test
+    public void testResultsAreCachedForTtl() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        HealthCheck counting = () -> up("counting-" + calls.incrementAndGet());
+        try (HealthCheckRunner runner = new HealthCheckRunner(() -> Collections.singletonList(counting), 1, 1000, 10_000, false)) {
+            runner.start();
+            Assert.assertEquals("counting-1", runner.call().get(5, TimeUnit.SECONDS).get(0).getName());
+            Assert.assertEquals("counting-1", runner.call().get(5, TimeUnit.SECONDS).get(0).getName());
+            Assert.assertEquals(1, calls.get());
+        }
+        try (HealthCheckRunner runner = new HealthCheckRunner(() -> Collections.singletonList(counting), 1, 1000, 0, false)) {
+            runner.start();
+            runner.call().get(5, TimeUnit.SECONDS);
+            runner.call().get(5, TimeUnit.SECONDS);
+            Assert.assertEquals(3, calls.get());
+        }
+    }
+
+    @Test
+    public void testBackgroundRefreshAnswersImmediately() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        HealthCheck counting = () -> {
+            calls.incrementAndGet();
+            return sleeping("counting", 50).call();
+        };
+        try (HealthCheckRunner runner = new HealthCheckRunner(() -> Collections.singletonList(counting), 1, 1000, 100, true)) {
+            runner.start();
+            runner.call().get(5, TimeUnit.SECONDS);
+            Thread.sleep(500);
+
+            CompletableFuture<List<HealthCheckResponse>> result = runner.call();
+            Assert.assertTrue(result.isDone());
+            Assert.assertEquals("counting", result.get().get(0).getName());
+            Assert.assertTrue("Expected repeated refreshes, got " + calls.get(), calls.get() >= 3);
+        }
+    }
+
+    @Test
+    public void testStartsAgainAfterClose() throws Exception {
+        HealthCheckRunner runner = new HealthCheckRunner(() -> Collections.singletonList(sleeping("a", 0)), 1, 1000, 0, false);
+        Assert.assertEquals(HealthCheckResponse.State.DOWN, runner.call().get(5, TimeUnit.SECONDS).get(0).getState());
+
+        runner.start();
+        Assert.assertEquals(HealthCheckResponse.State.UP, runner.call().get(5, TimeUnit.SECONDS).get(0).getState());
+        runner.close();
+        Assert.assertEquals(HealthCheckResponse.State.DOWN, runner.call().get(5, TimeUnit.SECONDS).get(0).getState());
+
+        runner.start();
+        try {
+            Assert.assertEquals(HealthCheckResponse.State.UP, runner.call().get(5, TimeUnit.SECONDS).get(0).getState());
+        } finally {
+            runner.close();
+        }
+    }
+
+    @Test
+    public void testChecksRunWithinRequestContext() throws Exception {
+        List<String> calls = new CopyOnWriteArrayList<>();
+        BoundRequestContext context = (BoundRequestContext) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{BoundRequestContext.class},
+                                                                                   (proxy, method, args) -> {
+                                                                                       calls.add(method.getName());
+                                                                                       return method.getName().equals("dissociate");
+                                                                                   });
+        HealthCheck check = new RequestContextHealthCheck(() -> {
+            calls.add("call");
+            return up("scoped");
+        }, context);
+        try (HealthCheckRunner runner = new HealthCheckRunner(() -> Collections.singletonList(check), 1, 1000, 0, false)) {
+            runner.start();
+            Assert.assertEquals("scoped", runner.call().get(5, TimeUnit.SECONDS).get(0).getName());
+        }
+        Assert.assertEquals(Arrays.asList("associate", "activate", "call", "invalidate", "deactivate", "dissociate"), calls);
+    }
+
+    private static HealthCheck sleeping(String name, long millis) {
+        return () -> {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return up(name);
+        };
+    }
+
+    private static HealthCheckResponse up(String name) {
+        return new HealthCheckResponse() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public State getState() {
+                return State.UP;
+            }
+
+            @Override
+            public Optional<Map<String, Object>> getData() {
+                return Optional.empty();
+            }
+        };
+    }
+}
@@ -16,6 +16,13 @@
  */
 package org.wildfly.swarm.microprofile.metrics;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.wildfly.swarm.config.runtime.AttributeDocumentation;
+import org.wildfly.swarm.spi.api.Defaultable;
 import org.wildfly.swarm.spi.api.Fraction;
 import org.wildfly.swarm.spi.api.annotations.Configurable;
 import org.wildfly.swarm.spi.api.annotations.DeploymentModule;
@@ -26,4 +33,152 @@ import org.wildfly.swarm.spi.api.annotations.DeploymentModule;
 @DeploymentModule(name = "org.wildfly.swarm.microprofile.metrics", slot = "deployment", export = true, metaInf = DeploymentModule.MetaInfDisposition.IMPORT)
 @Configurable("swarm.microprofile.metrics")
 public class MicroprofileMetricsFraction implements Fraction<MicroprofileMetricsFraction> {
+
+    public static final int HTTP_MAX_ROUTES = 100;
+
+    public static final String HTTP_BUCKETS = "0.005,0.01,0.025,0.05,0.1,0.25,0.5,1,2.5,5,10";
+
+    @AttributeDocumentation("Reservoir backing histograms and timers: `exponentially-decaying` (default) or `striped`")
+    private Defaultable<String> reservoir = Defaultable.string("exponentially-decaying");
+
+    @AttributeDocumentation("Reservoir backing particular histograms and timers, keyed by a regular expression matching the metric name, the first matching expression applying")
+    private Map<String, String> reservoirs = new LinkedHashMap<>();
+
+    @AttributeDocumentation("Bucket upper bounds of particular histograms and timers, keyed by a regular expression matching the metric name, the first matching expression applying: a comma-separated list in the base unit of the metric, or `exponential:start,factor,count`")
+    private Map<String, String> buckets = new LinkedHashMap<>();
+
+    @AttributeDocumentation("URL metrics are periodically pushed to: a Prometheus pushgateway grouping key such as `http://host:9091/metrics/job/name`, `statsd://host:port` or `graphite://host:port`")
+    private String pushUrl;
+
+    @AttributeDocumentation("Milliseconds between pushes of metrics")
+    private Defaultable<Long> pushInterval = Defaultable.longInteger(10_000);
+
+    @AttributeDocumentation("Number of snapshots of metrics buffered while the push target is slow or unreachable, after which the oldest are dropped")
+    private Defaultable<Integer> pushBuffer = Defaultable.integer(8);
+
+    @AttributeDocumentation("Milliseconds for which values read from MBeans for base and vendor metrics are reused, or 0 to always read afresh")
+    private Defaultable<Long> jmxCacheTtl = Defaultable.longInteger(1000);
+
+    @AttributeDocumentation("Whether latency, throughput and bytes of every request served by Undertow are recorded per route into the vendor registry")
+    private Defaultable<Boolean> httpMetrics = Defaultable.bool(false);
+
+    @AttributeDocumentation("Route templates requests are attributed to, in order of precedence, such as `/orders/{id}` or `/static/*`")
+    private List<String> httpRoutes = new ArrayList<>();
+
+    @AttributeDocumentation("Maximum number of routes derived from the first path segment of served requests matching no route template, beyond which requests are attributed to the route `other`. Responses with status 404 derive no route")
+    private Defaultable<Integer> httpMaxRoutes = Defaultable.integer(HTTP_MAX_ROUTES);
+
+    @AttributeDocumentation("Bucket upper bounds, in seconds, of the latency of requests: a comma-separated list or `exponential:start,factor,count`")
+    private Defaultable<String> httpBuckets = Defaultable.string(HTTP_BUCKETS);
+
+    @AttributeDocumentation("Port of a dedicated listener, with a worker of its own, serving the metrics endpoint instead of the default listener")
+    private Integer probePort;
+
+    public MicroprofileMetricsFraction reservoir(String reservoir) {
+        this.reservoir.set(reservoir);
+        return this;
+    }
+
+    public String reservoir() {
+        return this.reservoir.get();
+    }
+
+    public MicroprofileMetricsFraction reservoir(String namePattern, String reservoir) {
+        this.reservoirs.put(namePattern, reservoir);
+        return this;
+    }
+
+    public Map<String, String> reservoirs() {
+        return this.reservoirs;
+    }
+
+    public MicroprofileMetricsFraction buckets(String namePattern, String bounds) {
+        this.buckets.put(namePattern, bounds);
+        return this;
+    }
+
+    public Map<String, String> buckets() {
+        return this.buckets;
+    }
+
+    public MicroprofileMetricsFraction jmxCacheTtl(long millis) {
+        this.jmxCacheTtl.set(millis);
+        return this;
+    }
+
+    public long jmxCacheTtl() {
+        return this.jmxCacheTtl.get();
+    }
+
+    public MicroprofileMetricsFraction pushUrl(String url) {
+        this.pushUrl = url;
+        return this;
+    }
+
+    public String pushUrl() {
+        return this.pushUrl;
+    }
+
+    public MicroprofileMetricsFraction pushInterval(long millis) {
+        this.pushInterval.set(millis);
+        return this;
+    }
+
+    public long pushInterval() {
+        return this.pushInterval.get();
+    }
+
+    public MicroprofileMetricsFraction pushBuffer(int snapshots) {
+        this.pushBuffer.set(snapshots);
+        return this;
+    }
+
+    public int pushBuffer() {
+        return this.pushBuffer.get();
+    }
+
+    public MicroprofileMetricsFraction httpMetrics(boolean enabled) {
+        this.httpMetrics.set(enabled);
+        return this;
+    }
+
+    public boolean httpMetrics() {
+        return this.httpMetrics.get();
+    }
+
+    public MicroprofileMetricsFraction httpRoute(String template) {
+        this.httpRoutes.add(template);
+        return this;
+    }
+
+    public List<String> httpRoutes() {
+        return this.httpRoutes;
+    }
+
+    public MicroprofileMetricsFraction httpMaxRoutes(int maxRoutes) {
+        this.httpMaxRoutes.set(maxRoutes);
+        return this;
+    }
+
+    public int httpMaxRoutes() {
+        return this.httpMaxRoutes.get();
+    }
+
+    public MicroprofileMetricsFraction httpBuckets(String bounds) {
+        this.httpBuckets.set(bounds);
+        return this;
+    }
+
+    public String httpBuckets() {
+        return this.httpBuckets.get();
+    }
+
+    public MicroprofileMetricsFraction probePort(int port) {
+        this.probePort = port;
+        return this;
+    }
+
+    public Integer probePort() {
+        return this.probePort;
+    }
 }
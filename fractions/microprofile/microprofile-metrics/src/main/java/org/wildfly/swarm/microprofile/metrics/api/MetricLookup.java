@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.metrics.api;
+
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.Metric;
+
+/**
+ * A registry able to look up a single metric or its metadata, without copying its contents.
+ */
+public interface MetricLookup {
+
+    /**
+     * Look up a metric.
+     *
+     * @param name The name of the metric.
+     * @return The metric, or {@code null} if none is registered under the name.
+     */
+    Metric getMetric(String name);
+
+    /**
+     * Look up the metadata of a metric.
+     *
+     * @param name The name of the metric.
+     * @return The metadata, or {@code null} if no metric is registered under the name.
+     */
+    Metadata getMetadata(String name);
+
+    /**
+     * The number of metrics removed so far.
+     *
+     * <p>A metric resolved at an earlier generation may since have been removed, and replaced.</p>
+     *
+     * @return The generation.
+     */
+    long generation();
+}
@@ -41,6 +41,8 @@ import org.jboss.logging.Logger;
 
     private static final Logger LOGGER = Logger.getLogger(CountedInterceptor.class);
 
+    private static final MetricHandles<CountedHandle> COUNTERS = new MetricHandles<>();
+
     private final Bean<?> bean;
 
     private final MetricRegistry registry;
@@ -70,21 +72,41 @@ import org.jboss.logging.Logger;
     }
 
     private <E extends Member & AnnotatedElement> Object countedCallable(InvocationContext context, E element) throws Exception {
-        MetricResolver.Of<Counted> counted = resolver.counted(bean.getBeanClass(), element);
-        String name = counted.metricName();
-        Counter counter = (Counter) registry.getCounters().get(name);
-        if (counter == null) {
-            throw new IllegalStateException("No counter with name [" + name + "] found in registry [" + registry + "]");
+        CountedHandle counted = COUNTERS.get(registry, bean.getBeanClass(), element);
+        if (counted == null) {
+            long generation = MetricHandles.generation(registry);
+            MetricResolver.Of<Counted> resolved = resolver.counted(bean.getBeanClass(), element);
+            String name = resolved.metricName();
+            Counter counter = (Counter) MetricHandles.lookup(registry, name);
+            if (counter == null) {
+                throw new IllegalStateException("No counter with name [" + name + "] found in registry [" + registry + "]");
+            }
+            counted = COUNTERS.put(bean.getBeanClass(), element, generation, new CountedHandle(name, counter, resolved.metricAnnotation().monotonic()));
         }
-        LOGGER.debugf("Increment counter [metricName: %s]", name);
-        counter.inc();
+        LOGGER.debugf("Increment counter [metricName: %s]", counted.name);
+        counted.counter.inc();
         try {
             return context.proceed();
         } finally {
-            if (!counted.metricAnnotation().monotonic()) {
-                LOGGER.debugf("Decrement counter [metricName: %s]", name);
-                counter.dec();
+            if (!counted.monotonic) {
+                LOGGER.debugf("Decrement counter [metricName: %s]", counted.name);
+                counted.counter.dec();
             }
         }
     }
+
+    private static final class CountedHandle {
+
+        private CountedHandle(String name, Counter counter, boolean monotonic) {
+            this.name = name;
+            this.counter = counter;
+            this.monotonic = monotonic;
+        }
+
+        private final String name;
+
+        private final Counter counter;
+
+        private final boolean monotonic;
+    }
 }
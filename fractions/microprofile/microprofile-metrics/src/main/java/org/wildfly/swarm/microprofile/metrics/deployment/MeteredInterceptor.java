@@ -40,6 +40,8 @@ import java.lang.reflect.Member;
 @Priority(Interceptor.Priority.LIBRARY_BEFORE + 10)
 /* packaged-private */ class MeteredInterceptor {
 
+    private static final MetricHandles<Meter> METERS = new MetricHandles<>();
+
     private final Bean<?> bean;
 
     private final MetricRegistry registry;
@@ -69,10 +71,15 @@ import java.lang.reflect.Member;
     }
 
     private <E extends Member & AnnotatedElement> Object meteredCallable(InvocationContext context, E element) throws Exception {
-        String name = resolver.metered(bean.getBeanClass(), element).metricName();
-        Meter meter = (Meter) registry.getMetrics().get(name);
+        Meter meter = METERS.get(registry, bean.getBeanClass(), element);
         if (meter == null) {
-            throw new IllegalStateException("No meter with name [" + name + "] found in registry [" + registry + "]");
+            long generation = MetricHandles.generation(registry);
+            String name = resolver.metered(bean.getBeanClass(), element).metricName();
+            meter = (Meter) MetricHandles.lookup(registry, name);
+            if (meter == null) {
+                throw new IllegalStateException("No meter with name [" + name + "] found in registry [" + registry + "]");
+            }
+            meter = METERS.put(bean.getBeanClass(), element, generation, meter);
         }
 
         meter.mark();
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.metrics.deployment;
+
+import java.lang.reflect.Member;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.enterprise.inject.Vetoed;
+
+import org.eclipse.microprofile.metrics.Metric;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.wildfly.swarm.microprofile.metrics.api.MetricLookup;
+
+/**
+ * The metrics resolved by an interceptor, per intercepted bean class and member.
+ *
+ * <p>Interceptor instances are created per intercepted bean instance, so the handles are
+ * held per bean class instead, and resolved only on the first invocation of each member.
+ * A handle is resolved again once a metric has been removed from the registry, as the
+ * metric it refers to may have been replaced.</p>
+ */
+@Vetoed
+/* package-private */ final class MetricHandles<H> {
+
+    /**
+     * Look up a handle.
+     *
+     * @param registry   The registry the handle was resolved against.
+     * @param beanClass  The intercepted bean class.
+     * @param member     The intercepted member.
+     * @return The handle, or {@code null} if it is not resolved yet, or may be stale.
+     */
+    H get(MetricRegistry registry, Class<?> beanClass, Member member) {
+        Handle<H> handle = this.handles.get(beanClass).get(member);
+        if (handle == null || handle.generation == UNKNOWN || handle.generation != generation(registry)) {
+            return null;
+        }
+        return handle.value;
+    }
+
+    /**
+     * Hold a handle.
+     *
+     * @param beanClass  The intercepted bean class.
+     * @param member     The intercepted member.
+     * @param generation The {@link #generation(MetricRegistry) generation} of the registry, from before the metric was looked up.
+     * @param handle     The handle.
+     * @return The handle.
+     */
+    H put(Class<?> beanClass, Member member, long generation, H handle) {
+        this.handles.get(beanClass).put(member, new Handle<>(generation, handle));
+        return handle;
+    }
+
+    static long generation(MetricRegistry registry) {
+        if (registry instanceof MetricLookup) {
+            return ((MetricLookup) registry).generation();
+        }
+        return UNKNOWN;
+    }
+
+    static Metric lookup(MetricRegistry registry, String name) {
+        if (registry instanceof MetricLookup) {
+            return ((MetricLookup) registry).getMetric(name);
+        }
+        return registry.getMetrics().get(name);
+    }
+
+    private static final long UNKNOWN = -1;
+
+    private final ClassValue<ConcurrentMap<Member, Handle<H>>> handles = new ClassValue<ConcurrentMap<Member, Handle<H>>>() {
+        @Override
+        protected ConcurrentMap<Member, Handle<H>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private static final class Handle<H> {
+
+        private Handle(long generation, H value) {
+            this.generation = generation;
+            this.value = value;
+        }
+
+        private final long generation;
+
+        private final H value;
+    }
+}
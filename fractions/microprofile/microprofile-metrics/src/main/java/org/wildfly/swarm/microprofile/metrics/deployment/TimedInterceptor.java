@@ -40,6 +40,8 @@ import java.lang.reflect.Member;
 @Priority(Interceptor.Priority.LIBRARY_BEFORE + 10)
 /* package-private */ class TimedInterceptor {
 
+    private static final MetricHandles<Timer> TIMERS = new MetricHandles<>();
+
     private final Bean<?> bean;
 
     private final MetricRegistry registry;
@@ -69,10 +71,15 @@ import java.lang.reflect.Member;
     }
 
     private <E extends Member & AnnotatedElement> Object timedCallable(InvocationContext context, E element) throws Exception {
-        String name = resolver.timed(bean.getBeanClass(), element).metricName();
-        Timer timer = (Timer) registry.getMetrics().get(name);
+        Timer timer = TIMERS.get(registry, bean.getBeanClass(), element);
         if (timer == null) {
-            throw new IllegalStateException("No timer with name [" + name + "] found in registry [" + registry + "]");
+            long generation = MetricHandles.generation(registry);
+            String name = resolver.timed(bean.getBeanClass(), element).metricName();
+            timer = (Timer) MetricHandles.lookup(registry, name);
+            if (timer == null) {
+                throw new IllegalStateException("No timer with name [" + name + "] found in registry [" + registry + "]");
+            }
+            timer = TIMERS.put(bean.getBeanClass(), element, generation, timer);
         }
 
         Timer.Context time = timer.time();
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.metrics.runtime;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.undertow.server.Connectors;
+import io.undertow.server.ExchangeCompletionListener;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.HttpServerExchange;
+
+/**
+ * Records the {@link HttpRouteMetrics} of every request served by the host.
+ *
+ * <p>Latency is measured from the request start time Undertow records, which is set here when the
+ * listener does not record it.  Completion is observed through one listener per route, so that no
+ * state is allocated per request.</p>
+ */
+public class HttpMetricsHandler implements HttpHandler {
+
+    public HttpMetricsHandler(HttpHandler next) {
+        this.next = next;
+    }
+
+    @Override
+    public void handleRequest(HttpServerExchange exchange) throws Exception {
+        HttpRouteMetrics metrics = HttpRouteMetrics.instance();
+        HttpRouteMetrics.Route route = metrics.route(exchange.getRequestPath());
+        ExchangeCompletionListener completion = this.completions.get(route);
+        if (completion == null) {
+            completion = this.completions.computeIfAbsent(route, r -> new Completion(metrics, r));
+        }
+
+        if (exchange.getRequestStartTime() == -1) {
+            Connectors.setRequestStartTime(exchange);
+        }
+        route.begin();
+        exchange.addExchangeCompleteListener(completion);
+        this.next.handleRequest(exchange);
+    }
+
+    private final HttpHandler next;
+
+    private final Map<HttpRouteMetrics.Route, ExchangeCompletionListener> completions = new ConcurrentHashMap<>();
+
+    private static final class Completion implements ExchangeCompletionListener {
+
+        Completion(HttpRouteMetrics metrics, HttpRouteMetrics.Route route) {
+            this.metrics = metrics;
+            this.route = route;
+        }
+
+        @Override
+        public void exchangeEvent(HttpServerExchange exchange, NextListener nextListener) {
+            try {
+                int status = exchange.getStatusCode();
+                this.route.end(status, exchange.getResponseBytesSent(), System.nanoTime() - exchange.getRequestStartTime());
+                if (this.route.isOther()) {
+                    this.metrics.served(exchange.getRequestPath(), status);
+                }
+            } finally {
+                nextListener.proceed();
+            }
+        }
+
+        private final HttpRouteMetrics metrics;
+
+        private final HttpRouteMetrics.Route route;
+    }
+}
@@ -0,0 +1,436 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.metrics.runtime;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.Metric;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.wildfly.swarm.microprofile.metrics.MicroprofileMetricsFraction;
+import org.wildfly.swarm.microprofile.metrics.runtime.app.BucketedReservoir;
+import org.wildfly.swarm.microprofile.metrics.runtime.app.CounterImpl;
+import org.wildfly.swarm.microprofile.metrics.runtime.app.TimerImpl;
+import org.wildfly.swarm.microprofile.metrics.runtime.exporters.PrometheusUnit;
+
+/**
+ * Per-route metrics of the requests served by Undertow.
+ *
+ * <p>A request path is attributed to the first configured route template it matches, such as
+ * <code>/orders/{id}</code>, where a <code>{...}</code> segment matches any single segment and a
+ * trailing <code>*</code> matches any remainder.  A path matching no template is attributed to the
+ * {@link #OTHER} route, until a request to it has been {@link #served(String, int) served}.  A route
+ * named after its first segment, such as <code>/static/*</code>, then receives the subsequent requests,
+ * until the maximum number of such routes is reached.  Requests answered with <code>404 Not Found</code>,
+ * and segments other than plain names, derive no route, so that clients scanning for paths can
+ * neither exhaust the routes nor choose the tags of metrics.</p>
+ *
+ * <p>Each route registers into the registry a gauge of requests in flight, and for each status class
+ * a timer of latencies and a counter of response bytes.  As the registry identifies metrics by name
+ * alone, the route and status class are part of each name, as well as its <code>route</code> and
+ * <code>status</code> tags.  Timers count latencies into fixed buckets, so that, once a route and
+ * status class have been seen, recording a request neither allocates nor locks.</p>
+ */
+public class HttpRouteMetrics {
+
+    public static final String OTHER = "other";
+
+    private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    private static final int NOT_FOUND = 404;
+
+    private static final int MAX_SEGMENT_LENGTH = 64;
+
+    private static volatile HttpRouteMetrics instance;
+
+    /**
+     * Create route metrics.
+     *
+     * @param registry  The registry the metrics of each route are registered into.
+     * @param templates The route templates, in order of precedence.
+     * @param maxRoutes The maximum number of routes derived from paths matching no template.
+     * @param buckets   The upper bounds of the latency buckets in seconds, as accepted for the <code>buckets</code> of the fraction.
+     * @throws IllegalArgumentException if a template or the buckets are malformed.
+     */
+    public HttpRouteMetrics(MetricRegistry registry, List<String> templates, int maxRoutes, String buckets) {
+        this.registry = registry;
+        this.maxRoutes = Math.max(0, maxRoutes);
+
+        double scale = PrometheusUnit.scaleToBase(MetricUnits.NANOSECONDS, 1.0);
+        this.bounds = ReservoirSelector.parseBuckets(buckets);
+        for (int i = 0; i < this.bounds.length; ++i) {
+            this.bounds[i] /= scale;
+        }
+
+        this.templates = new Template[templates.size()];
+        for (int i = 0; i < this.templates.length; ++i) {
+            this.templates[i] = new Template(templates.get(i));
+        }
+        this.templated = new Route[this.templates.length];
+        for (int i = 0; i < this.templates.length; ++i) {
+            this.templated[i] = new Route(this.templates[i].template, null);
+        }
+        this.other = new Route(OTHER, null);
+    }
+
+    /**
+     * The route metrics recorded by the Undertow handler.
+     *
+     * @return The configured route metrics, or otherwise defaults registering into the vendor registry.
+     */
+    public static HttpRouteMetrics instance() {
+        HttpRouteMetrics metrics = instance;
+        if (metrics == null) {
+            synchronized (HttpRouteMetrics.class) {
+                metrics = instance;
+                if (metrics == null) {
+                    metrics = new HttpRouteMetrics(MetricRegistryFactory.getVendorRegistry(), new ArrayList<>(),
+                                                   MicroprofileMetricsFraction.HTTP_MAX_ROUTES, MicroprofileMetricsFraction.HTTP_BUCKETS);
+                    instance = metrics;
+                }
+            }
+        }
+        return metrics;
+    }
+
+    public static void configure(HttpRouteMetrics metrics) {
+        instance = metrics;
+    }
+
+    /**
+     * Locate the route of a request path, without allocating.
+     *
+     * @param path The request path.
+     * @return The route, or the {@link #OTHER} route if the path matches no template or derived route.
+     */
+    public Route route(String path) {
+        for (int i = 0; i < this.templates.length; ++i) {
+            if (this.templates[i].matches(path)) {
+                return this.templated[i];
+            }
+        }
+
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = firstSegmentEnd(path, start);
+        Route route = find(this.derived, path, start, end);
+        return route != null ? route : this.other;
+    }
+
+    /**
+     * Derive a route from the first segment of a path attributed to the {@link #OTHER} route,
+     * once a request to it has been served.
+     *
+     * @param path   The request path.
+     * @param status The response status code.
+     */
+    public void served(String path, int status) {
+        if (status == NOT_FOUND || this.derived.length >= this.maxRoutes) {
+            return;
+        }
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = firstSegmentEnd(path, start);
+        if (end - start > MAX_SEGMENT_LENGTH || find(this.derived, path, start, end) != null) {
+            return;
+        }
+        for (int i = start; i < end; ++i) {
+            if (!isNameChar(path.charAt(i))) {
+                return;
+            }
+        }
+        derive(path, start, end);
+    }
+
+    /**
+     * The number of routes derived from paths matching no template.
+     *
+     * @return The number of derived routes.
+     */
+    public int derivedRoutes() {
+        return this.derived.length;
+    }
+
+    private static int firstSegmentEnd(String path, int start) {
+        int end = path.indexOf('/', start);
+        return end < 0 ? path.length() : end;
+    }
+
+    private static boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_' || c == '.' || c == '~';
+    }
+
+    private static Route find(Route[] routes, String path, int start, int end) {
+        int len = end - start;
+        for (Route each : routes) {
+            if (each.segment.length() == len && path.regionMatches(start, each.segment, 0, len)) {
+                return each;
+            }
+        }
+        return null;
+    }
+
+    private synchronized void derive(String path, int start, int end) {
+        if (this.derived.length >= this.maxRoutes || find(this.derived, path, start, end) != null) {
+            return;
+        }
+        String segment = path.substring(start, end);
+        Route route = new Route(segment.isEmpty() ? "/" : "/" + segment + "/*", segment);
+        Route[] derived = new Route[this.derived.length + 1];
+        System.arraycopy(this.derived, 0, derived, 0, this.derived.length);
+        derived[this.derived.length] = route;
+        this.derived = derived;
+    }
+
+    private synchronized String uniqueKey(String template) {
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < template.length(); ++i) {
+            char c = template.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+                key.append(c);
+            } else if (key.length() > 0 && key.charAt(key.length() - 1) != '_') {
+                key.append('_');
+            }
+        }
+        if (key.length() > 0 && key.charAt(key.length() - 1) == '_') {
+            key.setLength(key.length() - 1);
+        }
+        if (key.length() == 0) {
+            key.append("root");
+        }
+        String unique = key.toString();
+        for (int i = 2; !this.keys.add(unique); ++i) {
+            unique = key + "_" + i;
+        }
+        return unique;
+    }
+
+    /**
+     * Register a metric, or take over the one already registered under its name, such as by an earlier
+     * instance recording the same routes, so that its values carry on.
+     *
+     * @throws IllegalStateException if a metric of another kind is registered under the name.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends Metric> T register(String name, T metric, MetricType type, String unit, String description, String... tags) {
+        Metric existing = this.registry.getMetrics().get(name);
+        if (existing == null) {
+            Metadata metadata = new Metadata(name, name, description, type, unit);
+            for (String each : tags) {
+                metadata.addTag(each);
+            }
+            try {
+                return this.registry.register(name, metric, metadata);
+            } catch (IllegalArgumentException e) {
+                // registered concurrently
+                existing = this.registry.getMetrics().get(name);
+                if (existing == null) {
+                    throw e;
+                }
+            }
+        }
+        if (!metric.getClass().isInstance(existing)) {
+            throw new IllegalStateException("Metric " + name + " is already registered as " + existing.getClass().getName()
+                                                    + " rather than as a " + type);
+        }
+        return (T) existing;
+    }
+
+    private final MetricRegistry registry;
+
+    private final int maxRoutes;
+
+    private final double[] bounds;
+
+    private final Template[] templates;
+
+    private final Route[] templated;
+
+    private final Route other;
+
+    private final Set<String> keys = new HashSet<>();
+
+    private volatile Route[] derived = new Route[0];
+
+    public final class Route {
+
+        Route(String template, String segment) {
+            this.template = template;
+            this.segment = segment;
+            this.key = uniqueKey(template);
+            this.active = register("http.server.active." + this.key, new ActiveGauge(), MetricType.GAUGE, MetricUnits.NONE,
+                                   "Requests in flight", "route=" + template).active;
+        }
+
+        public String getTemplate() {
+            return this.template;
+        }
+
+        /**
+         * Whether this is the {@link #OTHER} route, of paths matching no template or derived route.
+         *
+         * @return {@code true} if this is the other route, otherwise {@code false}.
+         */
+        public boolean isOther() {
+            return this == other;
+        }
+
+        public long getActive() {
+            return this.active.sum();
+        }
+
+        /**
+         * Record the start of a request.
+         */
+        public void begin() {
+            this.active.increment();
+        }
+
+        /**
+         * Record the completion of a request.
+         *
+         * @param status The response status code.
+         * @param bytes  The number of response bytes sent.
+         * @param nanos  The latency of the request, in nanoseconds.
+         */
+        public void end(int status, long bytes, long nanos) {
+            this.active.decrement();
+            int index = Math.min(Math.max(status / 100, 1), STATUS_CLASSES.length) - 1;
+            Status recorder = this.statuses.get(index);
+            if (recorder == null) {
+                recorder = status(index);
+            }
+            recorder.latency.update(nanos, TimeUnit.NANOSECONDS);
+            if (bytes > 0) {
+                recorder.bytes.inc(bytes);
+            }
+        }
+
+        private synchronized Status status(int index) {
+            Status recorder = this.statuses.get(index);
+            if (recorder == null) {
+                recorder = new Status(this.template, this.key, STATUS_CLASSES[index]);
+                this.statuses.set(index, recorder);
+            }
+            return recorder;
+        }
+
+        private final String template;
+
+        private final String segment;
+
+        private final String key;
+
+        private final LongAdder active;
+
+        private final AtomicReferenceArray<Status> statuses = new AtomicReferenceArray<>(STATUS_CLASSES.length);
+    }
+
+    private static final class ActiveGauge implements Gauge<Long> {
+
+        @Override
+        public Long getValue() {
+            return this.active.sum();
+        }
+
+        private final LongAdder active = new LongAdder();
+    }
+
+    private final class Status {
+
+        Status(String template, String key, String statusClass) {
+            this.latency = register("http.server.requests." + key + "." + statusClass, new TimerImpl(new BucketedReservoir(bounds)),
+                                    MetricType.TIMER, MetricUnits.NANOSECONDS, "Latency of requests",
+                                    "route=" + template, "status=" + statusClass);
+            this.bytes = register("http.server.response.bytes." + key + "." + statusClass, new CounterImpl(),
+                                  MetricType.COUNTER, MetricUnits.BYTES, "Bytes sent in responses",
+                                  "route=" + template, "status=" + statusClass);
+        }
+
+        private final TimerImpl latency;
+
+        private final CounterImpl bytes;
+    }
+
+    private static final class Template {
+
+        Template(String template) {
+            String trimmed = template.trim();
+            String path = trimmed.startsWith("/") ? trimmed.substring(1) : trimmed;
+            if (path.endsWith("/")) {
+                path = path.substring(0, path.length() - 1);
+            }
+            String[] segments = path.isEmpty() ? new String[0] : path.split("/");
+            boolean rest = segments.length > 0 && segments[segments.length - 1].equals("*");
+            int count = rest ? segments.length - 1 : segments.length;
+
+            this.template = "/" + path;
+            this.segments = new String[count];
+            this.parameters = new boolean[count];
+            this.rest = rest;
+            for (int i = 0; i < count; ++i) {
+                String each = segments[i];
+                if (each.isEmpty() || each.contains("*")) {
+                    throw new IllegalArgumentException("Malformed route template '" + template + "'");
+                }
+                this.parameters[i] = each.startsWith("{") && each.endsWith("}");
+                this.segments[i] = each;
+            }
+        }
+
+        boolean matches(String path) {
+            int len = path.length();
+            int pos = path.startsWith("/") ? 1 : 0;
+            for (int i = 0; i < this.segments.length; ++i) {
+                if (pos >= len) {
+                    return false;
+                }
+                int end = path.indexOf('/', pos);
+                if (end < 0) {
+                    end = len;
+                }
+                if (this.parameters[i]) {
+                    if (end == pos) {
+                        return false;
+                    }
+                } else {
+                    String segment = this.segments[i];
+                    if (end - pos != segment.length() || !path.regionMatches(pos, segment, 0, segment.length())) {
+                        return false;
+                    }
+                }
+                pos = end + 1;
+            }
+            return this.rest || pos >= len;
+        }
+
+        private final String template;
+
+        private final String[] segments;
+
+        private final boolean[] parameters;
+
+        private final boolean rest;
+    }
+}
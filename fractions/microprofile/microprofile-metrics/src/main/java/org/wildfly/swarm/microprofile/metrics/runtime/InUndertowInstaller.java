@@ -17,13 +17,22 @@
 package org.wildfly.swarm.microprofile.metrics.runtime;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Any;
 import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
+import javax.inject.Named;
 
+import org.wildfly.swarm.io.IOFraction;
+import org.wildfly.swarm.microprofile.metrics.MicroprofileMetricsFraction;
 import org.wildfly.swarm.spi.api.Customizer;
+import org.wildfly.swarm.spi.api.SocketBindingGroup;
 import org.wildfly.swarm.spi.runtime.annotations.Post;
+import org.wildfly.swarm.undertow.ProbeServer;
 import org.wildfly.swarm.undertow.UndertowFraction;
 
+import static org.wildfly.swarm.undertow.UndertowProperties.DEFAULT_HOST;
+import static org.wildfly.swarm.undertow.UndertowProperties.DEFAULT_SERVER;
+
 /**
  * Install the http handler for MicroProfile Metrics.
  * Could perhaps be turned into a real (JAX-RS) WebApp later(?)
@@ -37,6 +46,17 @@ public class InUndertowInstaller implements Customizer {
     @Inject
     Instance<UndertowFraction> undertowFractionInstance;
 
+    @Inject
+    @Any
+    Instance<MicroprofileMetricsFraction> fractionInstance;
+
+    @Inject
+    IOFraction io;
+
+    @Inject
+    @Named("standard-sockets")
+    SocketBindingGroup group;
+
     public void customize() {
         if (!undertowFractionInstance.isUnsatisfied()) {
             UndertowFraction undertow = undertowFractionInstance.get();
@@ -50,11 +70,27 @@ public class InUndertowInstaller implements Customizer {
                         customFilter.className("org.wildfly.swarm.microprofile.metrics.runtime.MetricsHttpHandler");
                     });
 
-            undertow.subresources().server("default-server")
-                    .subresources().host("default-host")
+            Integer probePort = fractionInstance.isUnsatisfied() ? null : fractionInstance.get().probePort();
+            ProbeServer.installIfConfigured(undertow, io, group, probePort)
                     .filterRef("wfs-mp-metrics", f -> {
                         f.priority(101);
                     });
+
+            if (!fractionInstance.isUnsatisfied() && fractionInstance.get().httpMetrics()) {
+                undertow.subresources().filterConfiguration()
+                        .customFilter("wfs-mp-metrics-http", customFilter -> {
+                            customFilter.module("org.wildfly.swarm.microprofile.metrics:runtime");
+                            customFilter.className("org.wildfly.swarm.microprofile.metrics.runtime.HttpMetricsHandler");
+                        });
+
+                // outermost, so the latency includes every other filter;
+                // always on the default host, as it measures application traffic
+                undertow.subresources().server(DEFAULT_SERVER)
+                        .subresources().host(DEFAULT_HOST)
+                        .filterRef("wfs-mp-metrics-http", f -> {
+                            f.priority(102);
+                        });
+            }
         } else {
             throw new RuntimeException("The monitor fraction requires the undertow fraction!");
         }
@@ -20,40 +20,63 @@ import org.eclipse.microprofile.metrics.Metadata;
 import org.eclipse.microprofile.metrics.MetricRegistry;
 import org.jboss.logging.Logger;
 
+import javax.management.Attribute;
+import javax.management.JMException;
 import javax.management.MBeanServer;
 import javax.management.MalformedObjectNameException;
 import javax.management.ObjectName;
 import javax.management.openmbean.CompositeData;
 import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * Reads metric values from the platform MBeanServer.
+ *
+ * <p>Expressions are parsed once into {@link MBeanAttribute} handles.  All attributes handled for the
+ * same MBean are read together by a single <code>getAttributes</code> call, and the values kept for
+ * the configured time-to-live, so that the metrics of one MBean within a scrape, or concurrent scrapes,
+ * cost a single read.  A time-to-live of zero reads each attribute individually, every time.</p>
+ *
  * @author hrupp
  */
 public class JmxWorker {
 
+    public static final long DEFAULT_CACHE_TTL = 1000;
+
     private static final String PLACEHOLDER = "%s";
-    private static MBeanServer mbs;
-    private static JmxWorker worker;
+    private static MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+    private static JmxWorker worker = new JmxWorker();
     private static Logger LOG = Logger.getLogger("org.wildfly.swarm.microprofile.metrics");
 
+    private final ConcurrentMap<String, MBeanAttribute> attributes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ObjectName, MBeanReader> readers = new ConcurrentHashMap<>();
+    private volatile long cacheTtlNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_CACHE_TTL);
+
     private JmxWorker() { /* singleton */ }
 
 
     public static JmxWorker instance() {
-        if (worker == null) {
-            worker = new JmxWorker();
-            mbs = ManagementFactory.getPlatformMBeanServer();
-        }
-
         return worker;
     }
 
+    /**
+     * Set how long values read from an MBean are reused.
+     *
+     * @param millis The time-to-live, in milliseconds, or zero to always read afresh.
+     */
+    public void setCacheTtl(long millis) {
+        this.cacheTtlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+    }
+
     public Map<String, Double> getMetrics(MetricRegistry.Type scope) {
 
         Map<String, Metadata> metadataMap = MetricRegistryFactory.get(scope).getMetadata();
@@ -78,10 +101,27 @@ public class JmxWorker {
      * @return The value of the Mbean attribute
      */
     public Number getValue(String mbeanExpression) {
+        return attribute(mbeanExpression).getValue();
+    }
+
+    /**
+     * Obtain the handle of an MBean attribute.
+     *
+     * @param mbeanExpression The expression, of the form <code>objectName/attribute</code>, optionally
+     *                        followed by <code>#item</code> to select an item of composite data.
+     * @return The handle.
+     */
+    public MBeanAttribute attribute(String mbeanExpression) {
 
         if (mbeanExpression == null) {
             throw new IllegalArgumentException("MBean Expression is null");
         }
+
+        MBeanAttribute attribute = this.attributes.get(mbeanExpression);
+        if (attribute != null) {
+            return attribute;
+        }
+
         if (!mbeanExpression.contains("/")) {
             throw new IllegalArgumentException(mbeanExpression);
         }
@@ -96,22 +136,20 @@ public class JmxWorker {
             attName = attName.substring(0, hashIndex);
         }
 
+        ObjectName objectName;
         try {
-            ObjectName objectName = new ObjectName(mbean);
-            Object attribute = mbs.getAttribute(objectName, attName);
-            if (attribute instanceof Number) {
-                return (Number) attribute;
-            } else if (attribute instanceof CompositeData) {
-                CompositeData compositeData = (CompositeData) attribute;
-                return (Number) compositeData.get(subItem);
-            } else {
-                throw new IllegalArgumentException(mbeanExpression);
-            }
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+            objectName = new ObjectName(mbean);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException(mbeanExpression, e);
         }
-    }
 
+        MBeanReader reader = this.readers.computeIfAbsent(objectName, MBeanReader::new);
+        reader.add(attName);
+
+        attribute = new MBeanAttribute(mbeanExpression, reader, attName, subItem);
+        MBeanAttribute existing = this.attributes.putIfAbsent(mbeanExpression, attribute);
+        return existing != null ? existing : attribute;
+    }
 
     /**
      * We need to expand entries that are marked with the <b>multi</b> flag
@@ -183,4 +221,96 @@ public class JmxWorker {
         }
         return keyHolder;
     }
+
+    /**
+     * A pre-parsed attribute, or item of an attribute, of an MBean.
+     */
+    public static final class MBeanAttribute {
+
+        MBeanAttribute(String expression, MBeanReader reader, String name, String subItem) {
+            this.expression = expression;
+            this.reader = reader;
+            this.name = name;
+            this.subItem = subItem;
+        }
+
+        public Number getValue() {
+            Object attribute;
+            try {
+                attribute = this.reader.read(this.name, worker.cacheTtlNanos);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            if (attribute instanceof Number) {
+                return (Number) attribute;
+            } else if (attribute instanceof CompositeData) {
+                CompositeData compositeData = (CompositeData) attribute;
+                return (Number) compositeData.get(this.subItem);
+            } else {
+                throw new IllegalArgumentException(this.expression);
+            }
+        }
+
+        private final String expression;
+
+        private final MBeanReader reader;
+
+        private final String name;
+
+        private final String subItem;
+    }
+
+    /**
+     * Reads, and retains for a while, all handled attributes of one MBean.
+     */
+    private static final class MBeanReader {
+
+        MBeanReader(ObjectName objectName) {
+            this.objectName = objectName;
+        }
+
+        synchronized void add(String attribute) {
+            if (!Arrays.asList(this.names).contains(attribute)) {
+                String[] names = Arrays.copyOf(this.names, this.names.length + 1);
+                names[names.length - 1] = attribute;
+                this.names = names;
+                this.values = null;
+            }
+        }
+
+        Object read(String attribute, long ttlNanos) throws JMException {
+            if (ttlNanos <= 0) {
+                return mbs.getAttribute(this.objectName, attribute);
+            }
+
+            Map<String, Object> values = this.values;
+            if (values == null || System.nanoTime() - this.readAt >= ttlNanos) {
+                synchronized (this) {
+                    values = this.values;
+                    if (values == null || System.nanoTime() - this.readAt >= ttlNanos) {
+                        values = new HashMap<>();
+                        for (Attribute each : mbs.getAttributes(this.objectName, this.names).asList()) {
+                            values.put(each.getName(), each.getValue());
+                        }
+                        this.readAt = System.nanoTime();
+                        this.values = values;
+                    }
+                }
+            }
+
+            if (!values.containsKey(attribute)) {
+                // getAttributes() silently omits attributes it failed to read; report why
+                return mbs.getAttribute(this.objectName, attribute);
+            }
+            return values.get(attribute);
+        }
+
+        private final ObjectName objectName;
+
+        private volatile String[] names = new String[0];
+
+        private volatile Map<String, Object> values;
+
+        private volatile long readAt;
+    }
 }
@@ -28,8 +28,24 @@ public class MetricRegistryFactory {
 
     private static final Map<MetricRegistry.Type, MetricRegistry> registries = new HashMap<>();
 
+    private static volatile ReservoirSelector reservoirSelector = ReservoirSelector.DEFAULT;
+
     private MetricRegistryFactory() { /* Singleton */ }
 
+    /**
+     * Set how the reservoirs of histograms and timers are selected, in every registry.
+     *
+     * @param selector The selector.
+     */
+    public static void setReservoirSelector(ReservoirSelector selector) {
+        synchronized (registries) {
+            reservoirSelector = selector;
+            for (MetricRegistry each : registries.values()) {
+                ((MetricsRegistryImpl) each).setReservoirSelector(selector);
+            }
+        }
+    }
+
     //  @Produces
 //  @Default
 //  @RegistryType(type = MetricRegistry.Type.APPLICATION)
@@ -57,7 +73,8 @@ public class MetricRegistryFactory {
         synchronized (registries) {
             if (registries.get(type) == null) {
 
-                MetricRegistry result = new MetricsRegistryImpl();
+                MetricsRegistryImpl result = new MetricsRegistryImpl();
+                result.setReservoirSelector(reservoirSelector);
                 registries.put(type, result);
             }
         }
@@ -21,15 +21,16 @@ import io.undertow.server.HttpServerExchange;
 import io.undertow.util.HeaderValues;
 import io.undertow.util.Headers;
 import io.undertow.util.HttpString;
-import org.eclipse.microprofile.metrics.Metric;
 import org.eclipse.microprofile.metrics.MetricRegistry;
 import org.jboss.logging.Logger;
+import org.xnio.IoUtils;
+import org.wildfly.swarm.microprofile.metrics.api.MetricLookup;
 import org.wildfly.swarm.microprofile.metrics.runtime.exporters.Exporter;
 import org.wildfly.swarm.microprofile.metrics.runtime.exporters.JsonExporter;
 import org.wildfly.swarm.microprofile.metrics.runtime.exporters.PrometheusExporter;
 import org.wildfly.swarm.microprofile.metrics.runtime.exporters.JsonMetadataExporter;
 
-import java.util.Map;
+import java.io.IOException;
 import java.util.concurrent.CountDownLatch;
 
 /**
@@ -81,19 +82,24 @@ public class MetricsHttpHandler implements HttpHandler {
             scopePath = scopePath.substring(0, scopePath.length() - 1);
         }
 
-        StringBuilder sb;
+        if (exporter instanceof PrometheusExporter && exchange.isInIoThread()) {
+            // the text format is streamed, which blocks
+            exchange.dispatch(this);
+            return;
+        }
+
+        MetricRegistry.Type scope = null;
+        String attribute = null;
 
         if (scopePath.isEmpty()) {
             // All metrics
 
-            sb = exporter.exportAllScopes();
-
         } else if (scopePath.contains("/")) {
             // One metric in a scope
 
-            String attribute = scopePath.substring(scopePath.indexOf('/') + 1);
+            attribute = scopePath.substring(scopePath.indexOf('/') + 1);
 
-            MetricRegistry.Type scope = getScopeFromPath(exchange, scopePath.substring(0, scopePath.indexOf('/')));
+            scope = getScopeFromPath(exchange, scopePath.substring(0, scopePath.indexOf('/')));
             if (scope == null) {
                 exchange.setStatusCode(404);
                 exchange.setReasonPhrase("Scope " + scopePath + " not found");
@@ -101,11 +107,11 @@ public class MetricsHttpHandler implements HttpHandler {
             }
 
             MetricRegistry registry = MetricRegistryFactory.get(scope);
-            Map<String, Metric> metricValuesMap = registry.getMetrics();
+            boolean exists = registry instanceof MetricLookup
+                    ? ((MetricLookup) registry).getMetric(attribute) != null
+                    : registry.getMetrics().containsKey(attribute);
 
-            if (metricValuesMap.containsKey(attribute)) {
-                sb = exporter.exportOneMetric(scope, attribute);
-            } else {
+            if (!exists) {
                 exchange.setStatusCode(404);
                 exchange.setReasonPhrase("Metric " + scopePath + " not found");
                 return;
@@ -113,7 +119,7 @@ public class MetricsHttpHandler implements HttpHandler {
         } else {
             // A single scope
 
-            MetricRegistry.Type scope = getScopeFromPath(exchange, scopePath);
+            scope = getScopeFromPath(exchange, scopePath);
             if (scope == null) {
                 exchange.setStatusCode(404);
                 exchange.setReasonPhrase("Scope " + scopePath + " not found");
@@ -125,13 +131,50 @@ public class MetricsHttpHandler implements HttpHandler {
                 exchange.setStatusCode(204);
                 exchange.setReasonPhrase("No data in scope " + scopePath);
             }
-
-            sb = exporter.exportOneScope(scope);
         }
 
         exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, exporter.getContentType());
         provideCorsHeaders(exchange);
         exchange.getResponseHeaders().put(new HttpString("Access-Control-Max-Age"), "1209600");
+
+        if (exchange.getStatusCode() == 204) {
+            return;
+        }
+
+        if (exporter instanceof PrometheusExporter) {
+            PrometheusExporter prometheus = (PrometheusExporter) exporter;
+            exchange.startBlocking();
+            PooledBufferWriter out = new PooledBufferWriter(exchange);
+            try {
+                if (scope == null) {
+                    prometheus.exportAllScopes(out);
+                } else if (attribute != null) {
+                    prometheus.exportOneMetric(scope, attribute, out);
+                } else {
+                    prometheus.exportOneScope(scope, out);
+                }
+                out.close();
+            } catch (IOException | RuntimeException e) {
+                LOG.warn("Unable to export metrics for " + requestPath, e);
+                if (out.discard()) {
+                    exchange.setStatusCode(500);
+                    exchange.setReasonPhrase("Unable to export metrics");
+                } else {
+                    // the status line is sent already, so abort the response rather than complete a truncated one
+                    IoUtils.safeClose(exchange.getConnection());
+                }
+            }
+            return;
+        }
+
+        StringBuilder sb;
+        if (scope == null) {
+            sb = exporter.exportAllScopes();
+        } else if (attribute != null) {
+            sb = exporter.exportOneMetric(scope, attribute);
+        } else {
+            sb = exporter.exportOneScope(scope);
+        }
         exchange.getResponseSender().send(sb.toString());
 
     }
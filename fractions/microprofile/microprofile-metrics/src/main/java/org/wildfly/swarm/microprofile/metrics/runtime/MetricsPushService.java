@@ -0,0 +1,85 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.metrics.runtime;
+
+import java.io.IOException;
+
+import org.jboss.logging.Logger;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+import org.wildfly.swarm.microprofile.metrics.runtime.push.PushReporter;
+import org.wildfly.swarm.microprofile.metrics.runtime.push.PushTarget;
+
+/**
+ * Pushes metrics to a configured target, for processes which may not live long enough to be scraped.
+ */
+public class MetricsPushService implements Service<MetricsPushService> {
+
+    private static Logger LOG = Logger.getLogger("org.wildfly.swarm.microprofile.metrics");
+
+    public static final ServiceName SERVICE_NAME = MetricsService.SERVICE_NAME.append("push");
+
+    public MetricsPushService(String url, long interval, int capacity) {
+        this.url = url;
+        this.interval = interval;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void start(StartContext context) throws StartException {
+        try {
+            this.reporter = new PushReporter(PushTarget.of(this.url), this.interval, this.capacity);
+        } catch (IllegalArgumentException e) {
+            throw new StartException(e);
+        }
+        this.reporter.start();
+        LOG.info("Pushing metrics to " + this.url + " every " + this.interval + "ms");
+    }
+
+    @Override
+    public void stop(StopContext context) {
+        PushReporter reporter = this.reporter;
+        this.reporter = null;
+        // the final push waits on the target for a bounded time, off the thread stopping services
+        context.asynchronous();
+        context.execute(() -> {
+            try {
+                reporter.close();
+            } catch (IOException e) {
+                LOG.warn("Unable to close metrics push target " + this.url, e);
+            } finally {
+                context.complete();
+            }
+        });
+    }
+
+    @Override
+    public MetricsPushService getValue() throws IllegalStateException, IllegalArgumentException {
+        return this;
+    }
+
+    private final String url;
+
+    private final long interval;
+
+    private final int capacity;
+
+    private PushReporter reporter;
+}
@@ -22,6 +22,7 @@ import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.enterprise.inject.Vetoed;
 
@@ -36,8 +37,8 @@ import org.eclipse.microprofile.metrics.MetricRegistry;
 import org.eclipse.microprofile.metrics.MetricType;
 import org.eclipse.microprofile.metrics.Timer;
 import org.jboss.logging.Logger;
+import org.wildfly.swarm.microprofile.metrics.api.MetricLookup;
 import org.wildfly.swarm.microprofile.metrics.runtime.app.CounterImpl;
-import org.wildfly.swarm.microprofile.metrics.runtime.app.ExponentiallyDecayingReservoir;
 import org.wildfly.swarm.microprofile.metrics.runtime.app.HistogramImpl;
 import org.wildfly.swarm.microprofile.metrics.runtime.app.MeterImpl;
 import org.wildfly.swarm.microprofile.metrics.runtime.app.TimerImpl;
@@ -46,12 +47,23 @@ import org.wildfly.swarm.microprofile.metrics.runtime.app.TimerImpl;
  * @author hrupp
  */
 @Vetoed
-public class MetricsRegistryImpl extends MetricRegistry {
+public class MetricsRegistryImpl extends MetricRegistry implements MetricLookup {
 
     private static final Logger LOGGER = Logger.getLogger(MetricsRegistryImpl.class);
 
-    private Map<String, Metadata> metadataMap = new java.util.HashMap<>();
+    private Map<String, Metadata> metadataMap = new ConcurrentHashMap<>();
     private Map<String, Metric> metricMap = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile ReservoirSelector reservoirSelector = ReservoirSelector.DEFAULT;
+
+    /**
+     * Set how the reservoirs of histograms and timers created from now on are selected.
+     *
+     * @param reservoirSelector The selector.
+     */
+    public void setReservoirSelector(ReservoirSelector reservoirSelector) {
+        this.reservoirSelector = reservoirSelector;
+    }
 
     @Override
     public <T extends Metric> T register(String name, T metric) throws IllegalArgumentException {
@@ -144,10 +156,10 @@ public class MetricsRegistryImpl extends MetricRegistry {
                     m = new MeterImpl();
                     break;
                 case HISTOGRAM:
-                    m = new HistogramImpl(new ExponentiallyDecayingReservoir());
+                    m = new HistogramImpl(reservoirSelector.reservoirFor(name, metadata.getUnit()));
                     break;
                 case TIMER:
-                    m = new TimerImpl(new ExponentiallyDecayingReservoir());
+                    m = new TimerImpl(reservoirSelector.reservoirFor(name, metadata.getUnit()));
                     break;
                 case INVALID:
                 default:
@@ -175,6 +187,7 @@ public class MetricsRegistryImpl extends MetricRegistry {
             LOGGER.infof("Remove metric [name: %s]", metricName);
             metricMap.remove(metricName);
             metadataMap.remove(metricName);
+            generation.incrementAndGet();
             return true;
         }
         return false;
@@ -246,6 +259,11 @@ public class MetricsRegistryImpl extends MetricRegistry {
         return getMetrics(MetricType.TIMER, metricFilter);
     }
 
+    @Override
+    public Metric getMetric(String name) {
+        return metricMap.get(name);
+    }
+
     @Override
     public Map<String, Metric> getMetrics() {
 
@@ -266,8 +284,18 @@ public class MetricsRegistryImpl extends MetricRegistry {
         return out;
     }
 
+    @Override
+    public Metadata getMetadata(String name) {
+        return metadataMap.get(name);
+    }
+
     @Override
     public Map<String, Metadata> getMetadata() {
         return new HashMap<>(metadataMap);
     }
+
+    @Override
+    public long generation() {
+        return generation.get();
+    }
 }
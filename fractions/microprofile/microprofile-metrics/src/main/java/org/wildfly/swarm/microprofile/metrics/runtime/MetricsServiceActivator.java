@@ -52,6 +52,17 @@ public class MetricsServiceActivator implements ServiceActivator {
     @Override
     public void activate(ServiceActivatorContext serviceActivatorContext) throws ServiceRegistryException {
 
+        MicroprofileMetricsFraction fraction = null;
+        if (!fractionInstance.isUnsatisfied()) {
+            fraction = fractionInstance.get();
+            MetricRegistryFactory.setReservoirSelector(new ReservoirSelector(fraction.reservoir(), fraction.reservoirs(), fraction.buckets()));
+            JmxWorker.instance().setCacheTtl(fraction.jmxCacheTtl());
+            if (fraction.httpMetrics()) {
+                HttpRouteMetrics.configure(new HttpRouteMetrics(MetricRegistryFactory.getVendorRegistry(),
+                                                                fraction.httpRoutes(), fraction.httpMaxRoutes(), fraction.httpBuckets()));
+            }
+        }
+
         ServiceTarget target = serviceActivatorContext.getServiceTarget();
 
         MetricsService service = new MetricsService();
@@ -66,6 +77,14 @@ public class MetricsServiceActivator implements ServiceActivator {
         serviceBuilder.setInitialMode(ServiceController.Mode.ACTIVE)
                 .install();
 
+        if (fraction != null && fraction.pushUrl() != null) {
+            MetricsPushService pushService = new MetricsPushService(fraction.pushUrl(), fraction.pushInterval(), fraction.pushBuffer());
+            target.addService(MetricsPushService.SERVICE_NAME, pushService)
+                    .addDependency(MetricsService.SERVICE_NAME)
+                    .setInitialMode(ServiceController.Mode.ACTIVE)
+                    .install();
+        }
+
         BinderService binderService = new BinderService(SWARM_MP_METRICS, null, true);
 
         target.addService(ContextNames.buildServiceName(ContextNames.JBOSS_CONTEXT_SERVICE_NAME, SWARM_MP_METRICS), binderService)
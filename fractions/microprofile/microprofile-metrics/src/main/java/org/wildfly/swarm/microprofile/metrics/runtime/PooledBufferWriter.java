@@ -0,0 +1,164 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.metrics.runtime;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import io.undertow.connector.PooledByteBuffer;
+import io.undertow.io.BufferWritableOutputStream;
+import io.undertow.io.UndertowOutputStream;
+import io.undertow.server.HttpServerExchange;
+
+/**
+ * Encodes text as UTF-8 directly into a buffer borrowed from the connection's pool,
+ * writing the buffer to the response each time it fills.
+ *
+ * <p>The exchange must be in blocking mode. Until the response is started, the text written may be
+ * {@linkplain #discard() discarded}, so that another response may be sent instead.</p>
+ */
+class PooledBufferWriter implements Appendable, Closeable {
+
+    PooledBufferWriter(HttpServerExchange exchange) {
+        this.exchange = exchange;
+        this.out = exchange.getOutputStream();
+        this.pooled = exchange.getConnection().getByteBufferPool().allocate();
+        this.buffer = this.pooled.getBuffer();
+        this.buffer.clear();
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) throws IOException {
+        return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) throws IOException {
+        for (int i = start; i < end; ++i) {
+            append(csq.charAt(i));
+        }
+        return this;
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+        if (this.buffer.remaining() < 4) {
+            flushBuffer();
+        }
+        if (this.highSurrogate != 0) {
+            char high = this.highSurrogate;
+            this.highSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int cp = Character.toCodePoint(high, c);
+                this.buffer.put((byte) (0xF0 | (cp >> 18)));
+                this.buffer.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                this.buffer.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                this.buffer.put((byte) (0x80 | (cp & 0x3F)));
+                return this;
+            }
+            this.buffer.put((byte) '?');
+        }
+        if (c < 0x80) {
+            this.buffer.put((byte) c);
+        } else if (c < 0x800) {
+            this.buffer.put((byte) (0xC0 | (c >> 6)));
+            this.buffer.put((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isHighSurrogate(c)) {
+            this.highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            this.buffer.put((byte) '?');
+        } else {
+            this.buffer.put((byte) (0xE0 | (c >> 12)));
+            this.buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+            this.buffer.put((byte) (0x80 | (c & 0x3F)));
+        }
+        return this;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.released) {
+            return;
+        }
+        try {
+            if (this.highSurrogate != 0) {
+                this.highSurrogate = 0;
+                this.buffer.put((byte) '?');
+            }
+            flushBuffer();
+            this.out.close();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Discard the text not yet sent, and release the buffer.
+     *
+     * @return <code>true</code> if none of the text was sent, so the response may still be replaced;
+     * <code>false</code> if the response is started already.
+     */
+    boolean discard() {
+        release();
+        if (!this.written) {
+            return true;
+        }
+        if (this.out instanceof UndertowOutputStream && !this.exchange.isResponseStarted()) {
+            ((UndertowOutputStream) this.out).resetBuffer();
+            return true;
+        }
+        return false;
+    }
+
+    private void release() {
+        if (!this.released) {
+            this.released = true;
+            this.pooled.close();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        this.buffer.flip();
+        if (this.buffer.hasRemaining()) {
+            this.written = true;
+            if (this.out instanceof BufferWritableOutputStream) {
+                ((BufferWritableOutputStream) this.out).write(this.buffer);
+            } else {
+                while (this.buffer.hasRemaining()) {
+                    this.out.write(this.buffer.get());
+                }
+            }
+        }
+        this.buffer.clear();
+    }
+
+    private final HttpServerExchange exchange;
+
+    private final OutputStream out;
+
+    private final PooledByteBuffer pooled;
+
+    private final ByteBuffer buffer;
+
+    private char highSurrogate;
+
+    private boolean written;
+
+    private boolean released;
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.metrics.runtime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.wildfly.swarm.microprofile.metrics.runtime.app.BucketedReservoir;
+import org.wildfly.swarm.microprofile.metrics.runtime.app.ExponentiallyDecayingReservoir;
+import org.wildfly.swarm.microprofile.metrics.runtime.app.Reservoir;
+import org.wildfly.swarm.microprofile.metrics.runtime.app.StripedReservoir;
+import org.wildfly.swarm.microprofile.metrics.runtime.exporters.PrometheusUnit;
+
+/**
+ * Selects the {@link Reservoir} backing each histogram and timer.
+ *
+ * <p>A metric whose name matches a pattern of the bucket boundaries counts its values into a
+ * {@link BucketedReservoir} of the first such pattern.  Otherwise, a metric uses the reservoir
+ * of the first pattern matching its name, or otherwise the default reservoir.</p>
+ *
+ * <p>Bucket boundaries are given in the base unit of the metric, such as seconds or bytes, either
+ * as a comma-separated list of upper bounds, or as <code>exponential:start,factor,count</code>.</p>
+ */
+public class ReservoirSelector {
+
+    public static final String EXPONENTIALLY_DECAYING = "exponentially-decaying";
+
+    public static final String STRIPED = "striped";
+
+    public static final ReservoirSelector DEFAULT = new ReservoirSelector(EXPONENTIALLY_DECAYING, Collections.emptyMap());
+
+    private static final String EXPONENTIAL = "exponential:";
+
+    /**
+     * Create a selector.
+     *
+     * @param defaultReservoir The reservoir of metrics matching no pattern.
+     * @param reservoirs       The reservoir of metrics matching each regular expression.
+     * @throws IllegalArgumentException if a reservoir is unknown.
+     */
+    public ReservoirSelector(String defaultReservoir, Map<String, String> reservoirs) {
+        this(defaultReservoir, reservoirs, Collections.emptyMap());
+    }
+
+    /**
+     * Create a selector.
+     *
+     * @param defaultReservoir The reservoir of metrics matching no pattern.
+     * @param reservoirs       The reservoir of metrics matching each regular expression.
+     * @param buckets          The bucket boundaries of metrics matching each regular expression.
+     * @throws IllegalArgumentException if a reservoir is unknown, or bucket boundaries are malformed.
+     */
+    public ReservoirSelector(String defaultReservoir, Map<String, String> reservoirs, Map<String, String> buckets) {
+        this.defaultReservoir = supplierOf(defaultReservoir);
+        for (Map.Entry<String, String> each : reservoirs.entrySet()) {
+            this.patterns.add(Pattern.compile(each.getKey()));
+            this.reservoirs.add(supplierOf(each.getValue()));
+        }
+        for (Map.Entry<String, String> each : buckets.entrySet()) {
+            this.bucketPatterns.add(Pattern.compile(each.getKey()));
+            this.buckets.add(parseBuckets(each.getValue()));
+        }
+    }
+
+    public Reservoir reservoirFor(String name) {
+        return reservoirFor(name, MetricUnits.NONE);
+    }
+
+    /**
+     * Select the reservoir of a metric.
+     *
+     * @param name The name of the metric.
+     * @param unit The unit of the values recorded.
+     * @return A new reservoir.
+     */
+    public Reservoir reservoirFor(String name, String unit) {
+        for (int i = 0; i < this.bucketPatterns.size(); ++i) {
+            if (this.bucketPatterns.get(i).matcher(name).matches()) {
+                double scale = PrometheusUnit.scaleToBase(unit == null ? MetricUnits.NONE : unit, 1.0);
+                double[] bounds = this.buckets.get(i).clone();
+                for (int j = 0; j < bounds.length; ++j) {
+                    bounds[j] /= scale;
+                }
+                return new BucketedReservoir(bounds);
+            }
+        }
+        for (int i = 0; i < this.patterns.size(); ++i) {
+            if (this.patterns.get(i).matcher(name).matches()) {
+                return this.reservoirs.get(i).get();
+            }
+        }
+        return this.defaultReservoir.get();
+    }
+
+    private static Supplier<Reservoir> supplierOf(String reservoir) {
+        switch (reservoir) {
+            case EXPONENTIALLY_DECAYING:
+                return ExponentiallyDecayingReservoir::new;
+            case STRIPED:
+                return StripedReservoir::new;
+            default:
+                throw new IllegalArgumentException("Unknown reservoir '" + reservoir + "', expected " + EXPONENTIALLY_DECAYING + " or " + STRIPED);
+        }
+    }
+
+    /**
+     * Parse bucket boundaries.
+     *
+     * @param spec Either a comma-separated list of upper bounds, or <code>exponential:start,factor,count</code>.
+     * @return The upper bounds.
+     * @throws IllegalArgumentException if the boundaries are malformed.
+     */
+    static double[] parseBuckets(String spec) {
+        try {
+            if (spec.startsWith(EXPONENTIAL)) {
+                String[] parts = spec.substring(EXPONENTIAL.length()).split(",");
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException("Expected " + EXPONENTIAL + "start,factor,count but got '" + spec + "'");
+                }
+                double start = Double.parseDouble(parts[0].trim());
+                double factor = Double.parseDouble(parts[1].trim());
+                int count = Integer.parseInt(parts[2].trim());
+                if (start <= 0 || factor <= 1 || count < 1) {
+                    throw new IllegalArgumentException("Exponential buckets need a positive start, a factor above 1 and a positive count: '" + spec + "'");
+                }
+                double[] bounds = new double[count];
+                for (int i = 0; i < count; ++i) {
+                    bounds[i] = start * Math.pow(factor, i);
+                }
+                return bounds;
+            }
+
+            String[] parts = spec.split(",");
+            double[] bounds = new double[parts.length];
+            for (int i = 0; i < parts.length; ++i) {
+                bounds[i] = Double.parseDouble(parts[i].trim());
+            }
+            return bounds;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed bucket boundaries '" + spec + "'", e);
+        }
+    }
+
+    private final Supplier<Reservoir> defaultReservoir;
+
+    private final List<Pattern> patterns = new ArrayList<>();
+
+    private final List<Supplier<Reservoir>> reservoirs = new ArrayList<>();
+
+    private final List<Pattern> bucketPatterns = new ArrayList<>();
+
+    private final List<double[]> buckets = new ArrayList<>();
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.metrics.runtime.app;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.microprofile.metrics.Snapshot;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A reservoir counting values into buckets of fixed upper bounds.
+ *
+ * <p>Rather than retaining values, each value increments the counter of the first bucket whose
+ * upper bound is not below it, or of a final unbounded bucket.  Recording is a binary search and
+ * uncontended increments, and never locks nor allocates.  Unlike sampled quantiles, bucket counts
+ * of several instances may be summed, and quantiles estimated from the total.</p>
+ *
+ * <p>The {@link Buckets snapshot} estimates quantiles by interpolating linearly within buckets.</p>
+ */
+public class BucketedReservoir implements Reservoir {
+
+    /**
+     * Creates a new {@link BucketedReservoir}.
+     *
+     * @param bounds the inclusive upper bounds of the buckets, in the unit of the recorded values
+     */
+    public BucketedReservoir(double[] bounds) {
+        double[] sorted = bounds.clone();
+        Arrays.sort(sorted);
+        for (int i = 1; i < sorted.length; ++i) {
+            if (sorted[i] == sorted[i - 1]) {
+                throw new IllegalArgumentException("Duplicate bucket bound " + sorted[i]);
+            }
+        }
+        this.bounds = sorted;
+        this.counts = new LongAdder[sorted.length + 1];
+        for (int i = 0; i < this.counts.length; ++i) {
+            this.counts[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public int size() {
+        long count = 0;
+        for (LongAdder each : this.counts) {
+            count += each.sum();
+        }
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void update(long value) {
+        int index = Arrays.binarySearch(this.bounds, value);
+        this.counts[index >= 0 ? index : -index - 1].increment();
+        this.sum.add(value);
+        this.min.accumulate(value);
+        this.max.accumulate(value);
+    }
+
+    @Override
+    public Buckets getSnapshot() {
+        long[] counts = new long[this.counts.length];
+        for (int i = 0; i < counts.length; ++i) {
+            counts[i] = this.counts[i].sum();
+        }
+        return new Buckets(this.bounds, counts, this.sum.sum(), this.min.get(), this.max.get());
+    }
+
+    private final double[] bounds;
+
+    private final LongAdder[] counts;
+
+    private final LongAdder sum = new LongAdder();
+
+    private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+
+    private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    /**
+     * The bucket counts of a {@link BucketedReservoir} at one instant.
+     */
+    public static final class Buckets extends Snapshot {
+
+        Buckets(double[] bounds, long[] counts, long sum, long min, long max) {
+            this.bounds = bounds;
+            this.counts = counts;
+            this.sum = sum;
+            long count = 0;
+            for (long each : counts) {
+                count += each;
+            }
+            this.count = count;
+            this.min = count == 0 ? 0 : min;
+            this.max = count == 0 ? 0 : max;
+        }
+
+        /**
+         * Returns the inclusive upper bounds of the buckets, excluding the final unbounded bucket.
+         *
+         * @return the upper bounds, ascending
+         */
+        public double[] getBounds() {
+            return this.bounds.clone();
+        }
+
+        /**
+         * Returns the number of values within each bucket, including the final unbounded bucket.
+         *
+         * @return the count of each bucket, not cumulative
+         */
+        public long[] getCounts() {
+            return this.counts.clone();
+        }
+
+        /**
+         * Returns the number of values recorded.
+         *
+         * @return the number of values
+         */
+        public long getCount() {
+            return this.count;
+        }
+
+        /**
+         * Returns the sum of the values recorded.
+         *
+         * @return the sum
+         */
+        public long getSum() {
+            return this.sum;
+        }
+
+        @Override
+        public double getValue(double quantile) {
+            if (quantile < 0.0 || quantile > 1.0 || Double.isNaN(quantile)) {
+                throw new IllegalArgumentException(quantile + " is not in [0..1]");
+            }
+            if (this.count == 0) {
+                return 0.0;
+            }
+
+            double rank = quantile * this.count;
+            long cumulative = 0;
+            for (int i = 0; i < this.counts.length; ++i) {
+                long n = this.counts[i];
+                if (n > 0 && cumulative + n >= rank) {
+                    double lower = Math.max(this.min, i == 0 ? this.min : this.bounds[i - 1]);
+                    double upper = Math.min(this.max, i == this.bounds.length ? this.max : this.bounds[i]);
+                    return lower + (upper - lower) * ((rank - cumulative) / n);
+                }
+                cumulative += n;
+            }
+            return this.max;
+        }
+
+        /**
+         * Returns a representative value of each non-empty bucket, rather than the values themselves.
+         *
+         * @return the representative values, ascending
+         */
+        @Override
+        public long[] getValues() {
+            long[] values = new long[this.counts.length];
+            int len = 0;
+            for (int i = 0; i < this.counts.length; ++i) {
+                if (this.counts[i] > 0) {
+                    values[len++] = (long) midpoint(i);
+                }
+            }
+            return Arrays.copyOf(values, len);
+        }
+
+        @Override
+        public int size() {
+            return (int) Math.min(this.count, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public long getMax() {
+            return this.max;
+        }
+
+        @Override
+        public double getMean() {
+            return this.count == 0 ? 0 : (double) this.sum / this.count;
+        }
+
+        @Override
+        public long getMin() {
+            return this.min;
+        }
+
+        /**
+         * Returns the standard deviation, estimated from the midpoints of the buckets.
+         *
+         * @return the estimated standard deviation
+         */
+        @Override
+        public double getStdDev() {
+            if (this.count <= 1) {
+                return 0;
+            }
+            double mean = getMean();
+            double variance = 0;
+            for (int i = 0; i < this.counts.length; ++i) {
+                if (this.counts[i] > 0) {
+                    double diff = midpoint(i) - mean;
+                    variance += this.counts[i] * diff * diff;
+                }
+            }
+            return Math.sqrt(variance / (this.count - 1));
+        }
+
+        @Override
+        public void dump(OutputStream output) {
+            try (PrintWriter out = new PrintWriter(new OutputStreamWriter(output, UTF_8))) {
+                for (int i = 0; i < this.counts.length; ++i) {
+                    out.printf("%s %d%n", i == this.bounds.length ? "+Inf" : Double.toString(this.bounds[i]), this.counts[i]);
+                }
+            }
+        }
+
+        private double midpoint(int bucket) {
+            double lower = Math.max(this.min, bucket == 0 ? this.min : this.bounds[bucket - 1]);
+            double upper = Math.min(this.max, bucket == this.bounds.length ? this.max : this.bounds[bucket]);
+            return (lower + upper) / 2;
+        }
+
+        private final double[] bounds;
+
+        private final long[] counts;
+
+        private final long count;
+
+        private final long sum;
+
+        private final long min;
+
+        private final long max;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.metrics.runtime.app;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.eclipse.microprofile.metrics.Snapshot;
+
+/**
+ * A reservoir of the most recent values, striped across threads.
+ *
+ * <p>Each stripe is a ring buffer of recent values, selected by the recording thread, so that
+ * recording threads rarely contend and never lock.  A stripe is allocated the first time a thread
+ * records into it, after which recording allocates nothing.  The stripes are merged into a
+ * {@link UniformSnapshot} only when a snapshot is taken.</p>
+ *
+ * <p>Unlike the {@link ExponentiallyDecayingReservoir}, values are not weighted by age: each
+ * stripe keeps its most recent values however old they are.</p>
+ */
+public class StripedReservoir implements Reservoir {
+
+    private static final int DEFAULT_SIZE = 1024;
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    /**
+     * Creates a new {@link StripedReservoir} keeping 1024 values per stripe, with a stripe for
+     * each available processor.
+     */
+    public StripedReservoir() {
+        this(DEFAULT_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new {@link StripedReservoir}.
+     *
+     * @param size    the number of values to keep per stripe, rounded down to a power of two
+     * @param stripes the number of stripes, rounded up to a power of two
+     */
+    public StripedReservoir(int size, int stripes) {
+        int count = stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new AtomicReferenceArray<>(count);
+        this.mask = count - 1;
+        this.stripeSize = Integer.highestOneBit(Math.max(1, size));
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < this.stripes.length(); ++i) {
+            Stripe stripe = this.stripes.get(i);
+            if (stripe != null) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public void update(long value) {
+        // Fibonacci hashing spreads sequentially-allocated thread ids across the stripes
+        long id = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        int index = (int) (id >>> 32) & this.mask;
+        Stripe stripe = this.stripes.get(index);
+        if (stripe == null) {
+            this.stripes.compareAndSet(index, null, new Stripe(this.stripeSize));
+            stripe = this.stripes.get(index);
+        }
+        stripe.update(value);
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+        long[] values = new long[size()];
+        int len = 0;
+        for (int i = 0; i < this.stripes.length(); ++i) {
+            Stripe stripe = this.stripes.get(i);
+            if (stripe != null) {
+                len = stripe.copyTo(values, len);
+            }
+        }
+        return new UniformSnapshot(len == values.length ? values : Arrays.copyOf(values, len));
+    }
+
+    private final AtomicReferenceArray<Stripe> stripes;
+
+    private final int mask;
+
+    private final int stripeSize;
+
+    private static final class Stripe {
+
+        Stripe(int size) {
+            this.values = new AtomicLongArray(size);
+            for (int i = 0; i < size; ++i) {
+                this.values.lazySet(i, EMPTY);
+            }
+            this.mask = size - 1;
+        }
+
+        void update(long value) {
+            int index = (int) (this.count.getAndIncrement() & this.mask);
+            this.values.lazySet(index, value);
+        }
+
+        int size() {
+            return (int) Math.min(this.count.get(), this.values.length());
+        }
+
+        int copyTo(long[] target, int offset) {
+            int len = offset;
+            int size = this.values.length();
+            for (int i = 0; i < size && len < target.length; ++i) {
+                long value = this.values.get(i);
+                // skip slots claimed but not yet written
+                if (value != EMPTY) {
+                    target[len++] = value;
+                }
+            }
+            return len;
+        }
+
+        private final AtomicLongArray values;
+
+        private final AtomicLong count = new AtomicLong();
+
+        private final int mask;
+    }
+}
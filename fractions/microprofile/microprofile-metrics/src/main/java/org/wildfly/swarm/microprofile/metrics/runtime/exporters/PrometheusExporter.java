@@ -27,19 +27,36 @@ import org.eclipse.microprofile.metrics.MetricType;
 import org.eclipse.microprofile.metrics.MetricUnits;
 import org.eclipse.microprofile.metrics.Snapshot;
 import org.jboss.logging.Logger;
+import org.wildfly.swarm.microprofile.metrics.api.MetricLookup;
 import org.wildfly.swarm.microprofile.metrics.runtime.MetricRegistryFactory;
-import org.wildfly.swarm.microprofile.metrics.runtime.Tag;
+import org.wildfly.swarm.microprofile.metrics.runtime.app.BucketedReservoir;
 import org.wildfly.swarm.microprofile.metrics.runtime.app.HistogramImpl;
 import org.wildfly.swarm.microprofile.metrics.runtime.app.MeterImpl;
 import org.wildfly.swarm.microprofile.metrics.runtime.app.TimerImpl;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Export data in Prometheus text format
  *
+ * <p>Output is written to any {@link Appendable}, so that a scrape may be streamed straight into
+ * response buffers.  Each registry is read once per scrape, and the names and tags of each metric
+ * are rendered once per {@link Metadata} and cached, leaving only the values to be formatted.
+ * As tags and units of a {@link Metadata} may be changed, they are compared on each scrape.</p>
+ *
+ * <p>Histograms and timers counting into a {@link BucketedReservoir} are exported as cumulative
+ * <code>_bucket</code> counters, which may be aggregated across instances, rather than as quantiles.</p>
+ *
  * @author Heiko W. Rupp
  */
 public class PrometheusExporter implements Exporter {
@@ -48,16 +65,31 @@ public class PrometheusExporter implements Exporter {
 
     private static final String LF = "\n";
     private static final String GAUGE = "gauge";
-    private static final String SPACE = " ";
+    private static final char SPACE = ' ';
     private static final String SUMMARY = "summary";
     private static final String USCORE = "_";
     private static final String COUNTER = "counter";
     private static final String QUANTILE = "quantile";
+    private static final String TYPE = "# TYPE ";
+    private static final String HISTOGRAM = "histogram";
+    private static final MathContext LE_PRECISION = new MathContext(12);
+
+    private static final Map<MetricRegistry.Type, ConcurrentMap<String, Rendered>> RENDERED = new EnumMap<>(MetricRegistry.Type.class);
+
+    static {
+        for (MetricRegistry.Type scope : MetricRegistry.Type.values()) {
+            RENDERED.put(scope, new ConcurrentHashMap<>());
+        }
+    }
 
     public StringBuilder exportOneScope(MetricRegistry.Type scope) {
 
         StringBuilder sb = new StringBuilder();
-        getEntriesForScope(scope, sb);
+        try {
+            exportOneScope(scope, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
 
         return sb;
     }
@@ -65,9 +97,10 @@ public class PrometheusExporter implements Exporter {
     @Override
     public StringBuilder exportAllScopes() {
         StringBuilder sb = new StringBuilder();
-
-        for (MetricRegistry.Type scope : MetricRegistry.Type.values()) {
-            getEntriesForScope(scope, sb);
+        try {
+            exportAllScopes(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
 
         return sb;
@@ -75,62 +108,82 @@ public class PrometheusExporter implements Exporter {
 
     @Override
     public StringBuilder exportOneMetric(MetricRegistry.Type scope, String metricName) {
-        MetricRegistry registry = MetricRegistryFactory.get(scope);
-        Map<String, Metric> metricMap = registry.getMetrics();
-
-        Metric m = metricMap.get(metricName);
-
-        Map<String, Metric> outMap = new HashMap<>(1);
-        outMap.put(metricName, m);
-
         StringBuilder sb = new StringBuilder();
-        exposeEntries(scope, sb, registry, outMap);
+        try {
+            exportOneMetric(scope, metricName, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
         return sb;
     }
 
+    public void exportOneScope(MetricRegistry.Type scope, Appendable out) throws IOException {
+        getEntriesForScope(scope, out);
+    }
+
+    public void exportAllScopes(Appendable out) throws IOException {
+        for (MetricRegistry.Type scope : MetricRegistry.Type.values()) {
+            getEntriesForScope(scope, out);
+        }
+    }
+
+    public void exportOneMetric(MetricRegistry.Type scope, String metricName, Appendable out) throws IOException {
+        MetricRegistry registry = MetricRegistryFactory.get(scope);
+        Metric m = registry instanceof MetricLookup
+                ? ((MetricLookup) registry).getMetric(metricName)
+                : registry.getMetrics().get(metricName);
+
+        exposeEntries(scope, out, registry, Collections.singletonMap(metricName, m));
+    }
 
     @Override
     public String getContentType() {
         return "text/plain";
     }
 
-    private void getEntriesForScope(MetricRegistry.Type scope, StringBuilder sb) {
+    private void getEntriesForScope(MetricRegistry.Type scope, Appendable out) throws IOException {
         MetricRegistry registry = MetricRegistryFactory.get(scope);
         Map<String, Metric> metricMap = registry.getMetrics();
 
-        exposeEntries(scope, sb, registry, metricMap);
+        exposeEntries(scope, out, registry, metricMap);
+
+        // forget metrics which have since been removed
+        ConcurrentMap<String, Rendered> rendered = RENDERED.get(scope);
+        if (rendered.size() > metricMap.size()) {
+            rendered.keySet().retainAll(metricMap.keySet());
+        }
     }
 
-    private void exposeEntries(MetricRegistry.Type scope, StringBuilder sb, MetricRegistry registry, Map<String, Metric> metricMap) {
+    private void exposeEntries(MetricRegistry.Type scope, Appendable out, MetricRegistry registry, Map<String, Metric> metricMap) throws IOException {
+        Map<String, Metadata> metadataMap = registry instanceof MetricLookup ? null : registry.getMetadata();
+
         for (Map.Entry<String, Metric> entry : metricMap.entrySet()) {
             String key = entry.getKey();
-            Metadata md = registry.getMetadata().get(key);
-
+            Metadata md = metadataMap == null ? ((MetricLookup) registry).getMetadata(key) : metadataMap.get(key);
+            if (md == null) {
+                // removed since the metrics were read
+                continue;
+            }
+            Rendered r = rendered(scope, key, md);
 
             Metric metric = entry.getValue();
 
             switch (md.getTypeRaw()) {
                 case GAUGE:
                 case COUNTER:
-                    key = getPrometheusMetricName(md, key);
-                    String suffix = null;
-                    if (!md.getUnit().equals(MetricUnits.NONE)) {
-                        suffix = "_" + PrometheusUnit.getBaseUnitAsPrometheusString(md.getUnit());
-                    }
-                    writeTypeLine(sb, scope, key, md, suffix, null);
-                    createSimpleValueLine(sb, scope, key, md, metric);
+                    createSimpleValueLines(out, r, key, md, metric);
                     break;
                 case METERED:
                     MeterImpl meter = (MeterImpl) metric;
-                    writeMeterValues(sb, scope, meter, md);
+                    writeMeterValues(out, meter, r);
                     break;
                 case TIMER:
                     TimerImpl timer = (TimerImpl) metric;
-                    writeTimerValues(sb, scope, timer, md);
+                    writeTimerValues(out, timer, r);
                     break;
                 case HISTOGRAM:
                     HistogramImpl histogram = (HistogramImpl) metric;
-                    writeHistogramValues(sb, scope, histogram, md);
+                    writeHistogramValues(out, histogram, r);
                     break;
                 default:
                     throw new IllegalArgumentException("Not supported: " + key);
@@ -139,150 +192,134 @@ public class PrometheusExporter implements Exporter {
         }
     }
 
-    private void writeTimerValues(StringBuilder sb, MetricRegistry.Type scope, TimerImpl timer, Metadata md) {
-
-        String unit = md.getUnit();
-        unit = PrometheusUnit.getBaseUnitAsPrometheusString(unit);
+    private Rendered rendered(MetricRegistry.Type scope, String key, Metadata md) {
+        ConcurrentMap<String, Rendered> cache = RENDERED.get(scope);
+        Rendered r = cache.get(key);
+        if (r == null || !r.isCurrent(md)) {
+            r = new Rendered(scope, key, md);
+            cache.put(key, r);
+        }
+        return r;
+    }
 
-        String theUnit = unit.equals("none") ? "" : USCORE + unit;
+    private void writeTimerValues(Appendable out, TimerImpl timer, Rendered r) throws IOException {
 
-        writeMeterRateValues(sb, scope, timer.getMeter(), md);
+        writeMeterRateValues(out, timer.getMeter(), r);
         Snapshot snapshot = timer.getSnapshot();
-        writeSnapshotBasics(sb, scope, md, snapshot, theUnit);
+        if (snapshot instanceof BucketedReservoir.Buckets) {
+            writeBuckets(out, r, r.timerSuffix, (BucketedReservoir.Buckets) snapshot);
+            return;
+        }
+        writeSnapshotBasics(out, r, snapshot);
 
-        String suffix = USCORE + PrometheusUnit.getBaseUnitAsPrometheusString(md.getUnit());
-        writeTypeLine(sb,scope,md.getName(),md, suffix,SUMMARY);
-        writeValueLine(sb,scope,suffix + "_count",timer.getCount(),md);
+        writeTypeLine(out, r.base, r.timerSuffix, SUMMARY);
+        writeValueLine(out, r, r.timerSuffix, "_count", timer.getCount());
 
-        writeSnapshotQuantiles(sb, scope, md, snapshot, theUnit);
+        writeSnapshotQuantiles(out, r, snapshot);
     }
 
-    private void writeHistogramValues(StringBuilder sb, MetricRegistry.Type scope, HistogramImpl histogram, Metadata md) {
+    private void writeHistogramValues(Appendable out, HistogramImpl histogram, Rendered r) throws IOException {
 
         Snapshot snapshot = histogram.getSnapshot();
-        String unit = md.getUnit();
-        unit = PrometheusUnit.getBaseUnitAsPrometheusString(unit);
-
-        String theUnit = unit.equals("none") ? "" : USCORE + unit;
+        if (snapshot instanceof BucketedReservoir.Buckets) {
+            writeBuckets(out, r, r.unitSuffix, (BucketedReservoir.Buckets) snapshot);
+            return;
+        }
 
-        writeSnapshotBasics(sb, scope, md, snapshot, theUnit);
-        writeTypeLine(sb,scope,md.getName(),md, theUnit,SUMMARY);
-        writeValueLine(sb,scope,theUnit + "_count",histogram.getCount(),md);
-        writeSnapshotQuantiles(sb, scope, md, snapshot, theUnit);
+        writeSnapshotBasics(out, r, snapshot);
+        writeTypeLine(out, r.base, r.unitSuffix, SUMMARY);
+        writeValueLine(out, r, r.unitSuffix, "_count", histogram.getCount());
+        writeSnapshotQuantiles(out, r, snapshot);
     }
 
 
-    private void writeSnapshotBasics(StringBuilder sb, MetricRegistry.Type scope, Metadata md, Snapshot snapshot, String unit) {
+    private void writeBuckets(Appendable out, Rendered r, String unitSuffix, BucketedReservoir.Buckets buckets) throws IOException {
+        writeTypeLine(out, r.base, unitSuffix, HISTOGRAM);
 
-        writeTypeAndValue(sb, scope, "_min" + unit, snapshot.getMin(), GAUGE, md);
-        writeTypeAndValue(sb, scope, "_max" + unit, snapshot.getMax(), GAUGE, md);
-        writeTypeAndValue(sb, scope, "_mean" + unit, snapshot.getMean(), GAUGE, md);
-        writeTypeAndValue(sb, scope, "_stddev" + unit, snapshot.getStdDev(), GAUGE, md);
-    }
+        String[] bucketTags = r.bucketTags(buckets);
+        long[] counts = buckets.getCounts();
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; ++i) {
+            cumulative += counts[i];
+            out.append(r.base).append(unitSuffix).append("_bucket").append(bucketTags[i]).append(SPACE);
+            appendValue(out, cumulative);
+            out.append(LF);
+        }
 
-    private void writeSnapshotQuantiles(StringBuilder sb, MetricRegistry.Type scope, Metadata md, Snapshot snapshot, String unit) {
-        writeValueLine(sb, scope, unit, snapshot.getMedian(), md, new Tag(QUANTILE, "0.5"));
-        writeValueLine(sb, scope, unit, snapshot.get75thPercentile(), md, new Tag(QUANTILE, "0.75"));
-        writeValueLine(sb, scope, unit, snapshot.get95thPercentile(), md, new Tag(QUANTILE, "0.95"));
-        writeValueLine(sb, scope, unit, snapshot.get98thPercentile(), md, new Tag(QUANTILE, "0.98"));
-        writeValueLine(sb, scope, unit, snapshot.get99thPercentile(), md, new Tag(QUANTILE, "0.99"));
-        writeValueLine(sb, scope, unit, snapshot.get999thPercentile(), md, new Tag(QUANTILE, "0.999"));
+        out.append(r.base).append(unitSuffix).append("_sum").append(r.tags).append(SPACE);
+        appendValue(out, PrometheusUnit.scaleToBase(r.unit, (double) buckets.getSum()));
+        out.append(LF);
+        out.append(r.base).append(unitSuffix).append("_count").append(r.tags).append(SPACE);
+        appendValue(out, buckets.getCount());
+        out.append(LF);
     }
 
-    private void writeMeterValues(StringBuilder sb, MetricRegistry.Type scope, Metered metric, Metadata md) {
-        writeTypeAndValue(sb, scope, "_total", metric.getCount(), COUNTER, md);
-        writeMeterRateValues(sb, scope, metric, md);
-    }
+    private void writeSnapshotBasics(Appendable out, Rendered r, Snapshot snapshot) throws IOException {
 
-    private void writeMeterRateValues(StringBuilder sb, MetricRegistry.Type scope, Metered metric, Metadata md) {
-        writeTypeAndValue(sb, scope, "_rate_per_second", metric.getMeanRate(), GAUGE, md);
-        writeTypeAndValue(sb, scope, "_one_min_rate_per_second", metric.getOneMinuteRate(), GAUGE, md);
-        writeTypeAndValue(sb, scope, "_five_min_rate_per_second", metric.getFiveMinuteRate(), GAUGE, md);
-        writeTypeAndValue(sb, scope, "_fifteen_min_rate_per_second", metric.getFifteenMinuteRate(), GAUGE, md);
+        writeTypeAndValue(out, r, "_min", snapshot.getMin(), GAUGE);
+        writeTypeAndValue(out, r, "_max", snapshot.getMax(), GAUGE);
+        writeTypeAndValue(out, r, "_mean", snapshot.getMean(), GAUGE);
+        writeTypeAndValue(out, r, "_stddev", snapshot.getStdDev(), GAUGE);
     }
 
-    private void writeTypeAndValue(StringBuilder sb, MetricRegistry.Type scope, String suffix, double valueRaw, String type, Metadata md) {
-        String key = md.getName();
-        writeTypeLine(sb, scope, key, md, suffix, type);
-        writeValueLine(sb, scope, suffix, valueRaw, md);
+    private void writeSnapshotQuantiles(Appendable out, Rendered r, Snapshot snapshot) throws IOException {
+        writeQuantileLine(out, r, "0.5", snapshot.getMedian());
+        writeQuantileLine(out, r, "0.75", snapshot.get75thPercentile());
+        writeQuantileLine(out, r, "0.95", snapshot.get95thPercentile());
+        writeQuantileLine(out, r, "0.98", snapshot.get98thPercentile());
+        writeQuantileLine(out, r, "0.99", snapshot.get99thPercentile());
+        writeQuantileLine(out, r, "0.999", snapshot.get999thPercentile());
     }
 
-    private void writeValueLine(StringBuilder sb, MetricRegistry.Type scope, String suffix, double valueRaw, Metadata md) {
-        writeValueLine(sb, scope, suffix, valueRaw, md, null);
+    private void writeMeterValues(Appendable out, Metered metric, Rendered r) throws IOException {
+        out.append(TYPE).append(r.base).append("_total").append(SPACE).append(COUNTER).append(LF);
+        writeValueLine(out, r, "_total", null, metric.getCount());
+        writeMeterRateValues(out, metric, r);
     }
 
-    private void writeValueLine(StringBuilder sb, MetricRegistry.Type scope, String suffix, double valueRaw, Metadata md, Tag extraTag) {
-        String name = md.getName();
-        name = getPrometheusMetricName(md, name);
-        fillBaseName(sb, scope, name);
-        if (suffix != null) {
-            sb.append(suffix);
-        }
-        // add tags
-
-        Map<String, String> tags = new HashMap<>(md.getTags());
-        if (extraTag != null) {
-            tags.put(extraTag.getKey(), extraTag.getValue());
-        }
-        if (!tags.isEmpty()) {
-            addTags(sb, tags);
-        }
+    private void writeMeterRateValues(Appendable out, Metered metric, Rendered r) throws IOException {
+        writeRateValue(out, r, "_rate_per_second", metric.getMeanRate());
+        writeRateValue(out, r, "_one_min_rate_per_second", metric.getOneMinuteRate());
+        writeRateValue(out, r, "_five_min_rate_per_second", metric.getFiveMinuteRate());
+        writeRateValue(out, r, "_fifteen_min_rate_per_second", metric.getFifteenMinuteRate());
+    }
 
-        sb.append(SPACE);
-        sb.append(PrometheusUnit.scaleToBase(md.getUnit(), valueRaw)).append(LF);
+    private void writeRateValue(Appendable out, Rendered r, String suffix, double valueRaw) throws IOException {
+        writeTypeLine(out, r.base, suffix, GAUGE);
+        writeValueLine(out, r, suffix, null, valueRaw);
+    }
 
+    private void writeTypeAndValue(Appendable out, Rendered r, String suffix, double valueRaw, String type) throws IOException {
+        out.append(TYPE).append(r.base).append(suffix).append(r.unitSuffix).append(SPACE).append(type).append(LF);
+        writeValueLine(out, r, suffix, r.unitSuffix, valueRaw);
     }
 
-    private void addTags(StringBuilder sb, Map<String, String> tags) {
-        Iterator<Map.Entry<String, String>> iter = tags.entrySet().iterator();
-        sb.append("{");
-        while (iter.hasNext()) {
-            Map.Entry<String, String> tag = iter.next();
-            sb.append(tag.getKey()).append("=\"").append(tag.getValue()).append("\"");
-            if (iter.hasNext()) {
-                sb.append(",");
-            }
+    private void writeValueLine(Appendable out, Rendered r, String suffix, String secondSuffix, double valueRaw) throws IOException {
+        out.append(r.base).append(suffix);
+        if (secondSuffix != null) {
+            out.append(secondSuffix);
         }
-        sb.append("}");
+        out.append(r.tags).append(SPACE);
+        appendValue(out, PrometheusUnit.scaleToBase(r.unit, valueRaw));
+        out.append(LF);
     }
 
-    private void fillBaseName(StringBuilder sb, MetricRegistry.Type scope, String key) {
-        sb.append(scope.getName().toLowerCase()).append(":").append(key);
+    private void writeQuantileLine(Appendable out, Rendered r, String quantile, double valueRaw) throws IOException {
+        out.append(r.base).append(r.unitSuffix).append(r.quantileTags).append(quantile).append("\"}").append(SPACE);
+        appendValue(out, PrometheusUnit.scaleToBase(r.unit, valueRaw));
+        out.append(LF);
     }
 
-    private void writeTypeLine(StringBuilder sb, MetricRegistry.Type scope, String key, Metadata md, String suffix, String typeOverride) {
-        sb.append("# TYPE ");
-        sb.append(scope.getName().toLowerCase());
-        sb.append(':').append(getPrometheusMetricName(md, key));
-        if (suffix != null) {
-            sb.append(suffix);
-        }
-        sb.append(SPACE);
-        if (typeOverride != null) {
-            sb.append(typeOverride);
-        } else if (md.getTypeRaw().equals(MetricType.TIMER)) {
-            sb.append(SUMMARY);
-        } else if (md.getTypeRaw().equals(MetricType.METERED)) {
-            sb.append(COUNTER);
-        } else {
-            sb.append(md.getType());
-        }
-        sb.append("\n");
+    private void writeTypeLine(Appendable out, String base, String suffix, String type) throws IOException {
+        out.append(TYPE).append(base).append(suffix).append(SPACE).append(type).append(LF);
     }
 
-    private void createSimpleValueLine(StringBuilder sb, MetricRegistry.Type scope, String key, Metadata md, Metric metric) {
+    private void createSimpleValueLines(Appendable out, Rendered r, String key, Metadata md, Metric metric) throws IOException {
 
-        // value line
-        fillBaseName(sb, scope, key);
-        if (!md.getUnit().equals(MetricUnits.NONE)) {
-            String unit = PrometheusUnit.getBaseUnitAsPrometheusString(md.getUnit());
-            sb.append("_").append(unit);
-        }
-        String tags = md.getTagsAsString();
-        if (tags != null && !tags.isEmpty()) {
-            sb.append('{').append(tags).append('}');
-        }
+        // type line
+        writeTypeLine(out, r.simpleTypeBase, r.simpleUnitSuffix, r.simpleType);
 
+        // value line
         Double valIn;
         if (md.getTypeRaw().equals(MetricType.GAUGE)) {
             Number value1 = (Number) ((Gauge) metric).getValue();
@@ -296,13 +333,36 @@ public class PrometheusExporter implements Exporter {
             valIn = (double) ((Counter) metric).getCount();
         }
 
-        Double value = PrometheusUnit.scaleToBase(md.getUnit(), valIn);
-        sb.append(SPACE).append(value).append("\n");
-
+        out.append(r.simpleBase).append(r.simpleUnitSuffix).append(r.tags).append(SPACE);
+        appendValue(out, PrometheusUnit.scaleToBase(r.unit, valIn));
+        out.append(LF);
     }
 
+    /**
+     * Append a value exactly as {@link Double#toString(double)} would, without allocating
+     * a string for the common case of small integral values.
+     */
+    private static void appendValue(Appendable out, double value) throws IOException {
+        long integral = (long) value;
+        if (integral == value && Math.abs(value) < 1e7 && (integral != 0 || Double.doubleToRawLongBits(value) == 0L)) {
+            if (integral < 0) {
+                out.append('-');
+                integral = -integral;
+            }
+            long divisor = 1;
+            while (divisor * 10 <= integral) {
+                divisor *= 10;
+            }
+            for (; divisor > 0; divisor /= 10) {
+                out.append((char) ('0' + (integral / divisor) % 10));
+            }
+            out.append(".0");
+        } else {
+            out.append(Double.toString(value));
+        }
+    }
 
-    private String getPrometheusMetricName(Metadata entry, String name) {
+    private static String getPrometheusMetricName(Metadata entry, String name) {
         String out = name.replace('-', '_').replace('.', '_').replace(' ', '_');
         out = decamelize(out);
         if (entry == null) {
@@ -314,8 +374,129 @@ public class PrometheusExporter implements Exporter {
         return out;
     }
 
-    private String decamelize(String in) {
+    private static String decamelize(String in) {
         return in.replaceAll("(.)(\\p{Upper})", "$1_$2").toLowerCase();
     }
 
+    /**
+     * Escape a label value as the text format requires, of backslashes, double quotes and line feeds.
+     */
+    private static void escapeTagValue(StringBuilder sb, String value) {
+        for (int i = 0; i < value.length(); ++i) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+    }
+
+    private static String renderTags(Map<String, String> tags, boolean open) {
+        if (tags.isEmpty() && !open) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder("{");
+        Iterator<Map.Entry<String, String>> iter = tags.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry<String, String> tag = iter.next();
+            sb.append(tag.getKey()).append("=\"");
+            escapeTagValue(sb, tag.getValue());
+            sb.append("\"");
+            if (iter.hasNext() || open) {
+                sb.append(",");
+            }
+        }
+        if (!open) {
+            sb.append("}");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The rendered names, units and tags of a metric, computed once per {@link Metadata} and its tags.
+     */
+    private static final class Rendered {
+
+        Rendered(MetricRegistry.Type scope, String key, Metadata md) {
+            String prefix = scope.getName().toLowerCase() + ":";
+            String unit = PrometheusUnit.getBaseUnitAsPrometheusString(md.getUnit());
+
+            this.metadata = md;
+            this.unit = md.getUnit();
+            this.tagValues = new LinkedHashMap<>(md.getTags());
+            this.base = prefix + getPrometheusMetricName(md, md.getName());
+            this.unitSuffix = unit.equals("none") ? "" : USCORE + unit;
+            this.timerSuffix = USCORE + unit;
+            this.tags = renderTags(this.tagValues, false);
+            this.quantileTags = renderTags(this.tagValues, true) + QUANTILE + "=\"";
+
+            String simpleName = getPrometheusMetricName(md, key);
+            this.simpleBase = prefix + simpleName;
+            this.simpleTypeBase = prefix + getPrometheusMetricName(md, simpleName);
+            this.simpleUnitSuffix = md.getUnit().equals(MetricUnits.NONE) ? "" : USCORE + unit;
+            this.simpleType = md.getType();
+        }
+
+        /**
+         * Whether this was rendered from the given metadata, in its current state.
+         */
+        boolean isCurrent(Metadata md) {
+            return this.metadata == md && this.unit.equals(md.getUnit()) && this.tagValues.equals(md.getTags());
+        }
+
+        /**
+         * The tags of each bucket, including the final unbounded bucket, rendered on first use.
+         */
+        String[] bucketTags(BucketedReservoir.Buckets buckets) {
+            String[] bucketTags = this.bucketTags;
+            if (bucketTags == null) {
+                double[] bounds = buckets.getBounds();
+                String open = renderTags(this.tagValues, true) + "le=\"";
+                bucketTags = new String[bounds.length + 1];
+                for (int i = 0; i < bounds.length; ++i) {
+                    // round away the error of scaling to the base unit
+                    double le = PrometheusUnit.scaleToBase(this.unit, bounds[i]);
+                    bucketTags[i] = open + BigDecimal.valueOf(le).round(LE_PRECISION).stripTrailingZeros().toPlainString() + "\"}";
+                }
+                bucketTags[bounds.length] = open + "+Inf\"}";
+                this.bucketTags = bucketTags;
+            }
+            return bucketTags;
+        }
+
+        private final Metadata metadata;
+
+        private final String unit;
+
+        private final Map<String, String> tagValues;
+
+        private final String base;
+
+        private final String unitSuffix;
+
+        private final String timerSuffix;
+
+        private final String tags;
+
+        private final String quantileTags;
+
+        private final String simpleBase;
+
+        private final String simpleTypeBase;
+
+        private final String simpleUnitSuffix;
+
+        private final String simpleType;
+
+        private volatile String[] bucketTags;
+    }
 }
@@ -26,6 +26,7 @@ import org.wildfly.swarm.microprofile.metrics.runtime.JmxWorker;
 public class MCounterImpl implements Counter {
     private static final String MUST_NOT_BE_CALLED = "Must not be called";
     private String mbeanExpression;
+    private volatile JmxWorker.MBeanAttribute attribute;
 
     public MCounterImpl(String mbeanExpression) {
         this.mbeanExpression = mbeanExpression;
@@ -53,6 +54,11 @@ public class MCounterImpl implements Counter {
 
     @Override
     public long getCount() {
-        return JmxWorker.instance().getValue(mbeanExpression).longValue();
+        JmxWorker.MBeanAttribute attribute = this.attribute;
+        if (attribute == null) {
+            attribute = JmxWorker.instance().attribute(mbeanExpression);
+            this.attribute = attribute;
+        }
+        return attribute.getValue().longValue();
     }
 }
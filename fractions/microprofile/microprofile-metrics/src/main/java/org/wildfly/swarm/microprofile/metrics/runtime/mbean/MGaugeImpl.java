@@ -28,6 +28,8 @@ public class MGaugeImpl implements Gauge {
 
     private String mBeanExpression;
 
+    private volatile JmxWorker.MBeanAttribute attribute;
+
     public MGaugeImpl(String mBeanExpression) {
 
         this.mBeanExpression = mBeanExpression;
@@ -35,6 +37,11 @@ public class MGaugeImpl implements Gauge {
 
     @Override
     public Number getValue() {
-        return JmxWorker.instance().getValue(mBeanExpression);
+        JmxWorker.MBeanAttribute attribute = this.attribute;
+        if (attribute == null) {
+            attribute = JmxWorker.instance().attribute(mBeanExpression);
+            this.attribute = attribute;
+        }
+        return attribute.getValue();
     }
 }
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.metrics.runtime.push;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Sends metrics to a Graphite plaintext listener over TCP.
+ *
+ * <p>Each batch is written over a single connection.  Tags are appended in the
+ * <code>name;key=value</code> form of tagged series.</p>
+ */
+class GraphiteTarget extends PushTarget {
+
+    private static final int TIMEOUT = 10_000;
+
+    GraphiteTarget(InetSocketAddress address) {
+        this.address = address;
+    }
+
+    @Override
+    public byte[] encode(String snapshot, long timestamp) {
+        String seconds = Long.toString(timestamp / 1000);
+        StringBuilder out = new StringBuilder();
+        forEachSample(snapshot, (name, tags, value) -> {
+            if (!isFinite(value)) {
+                return;
+            }
+            out.append(name.replace(':', '.'));
+            if (tags != null) {
+                forEachTag(tags, (k, v) -> out.append(';').append(k).append('=').append(sanitize(v)));
+            }
+            out.append(' ').append(value).append(' ').append(seconds).append('\n');
+        });
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void send(List<byte[]> payloads) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.connect(this.address, TIMEOUT);
+            socket.setSoTimeout(TIMEOUT);
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            for (byte[] payload : payloads) {
+                out.write(payload);
+            }
+            out.flush();
+        }
+    }
+
+    private static String sanitize(String value) {
+        return value.replace(';', '_').replace(' ', '_').replace('~', '_').replace('\n', '_');
+    }
+
+    private final InetSocketAddress address;
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.metrics.runtime.push;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jboss.logging.Logger;
+import org.wildfly.swarm.microprofile.metrics.runtime.exporters.PrometheusExporter;
+
+/**
+ * Periodically pushes a snapshot of every registry to a {@link PushTarget}.
+ *
+ * <p>Each interval, all scopes are exported once, encoded by the target, and queued.  A separate
+ * sender thread sends everything queued as one batch, so a slow target never delays taking
+ * snapshots.  The queue is bounded: while the target falls behind, the oldest snapshots are dropped
+ * in favour of newer ones.  A failed batch is queued again, ahead of newer snapshots, and sent once
+ * a further interval has passed.</p>
+ *
+ * <p>On {@link #close()}, a final snapshot is taken and everything queued sent, so that short-lived
+ * processes report their last values.  Closing waits a few seconds at most for the target to take them.</p>
+ */
+public class PushReporter implements Closeable {
+
+    private static Logger LOG = Logger.getLogger("org.wildfly.swarm.microprofile.metrics");
+
+    private static final long CLOSE_TIMEOUT = TimeUnit.SECONDS.toMillis(5);
+
+    /**
+     * Create a reporter.
+     *
+     * @param target   The target.
+     * @param interval The interval between snapshots, in milliseconds.
+     * @param capacity The number of encoded snapshots queued at most.
+     */
+    public PushReporter(PushTarget target, long interval, int capacity) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Push interval must be positive: " + interval);
+        }
+        this.target = target;
+        this.interval = interval;
+        this.queue = new LinkedBlockingDeque<>(Math.max(1, capacity));
+    }
+
+    public synchronized void start() {
+        if (this.scheduler != null) {
+            return;
+        }
+        this.sender = new Thread(this::sendLoop, "metrics-push");
+        this.sender.setDaemon(true);
+        this.sender.start();
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-push-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.scheduleAtFixedRate(this::report, this.interval, this.interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Take, encode and queue a snapshot now.
+     */
+    public void report() {
+        try {
+            StringBuilder snapshot = new StringBuilder();
+            this.exporter.exportAllScopes(snapshot);
+            enqueue(this.target.encode(snapshot.toString(), System.currentTimeMillis()));
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Unable to take a snapshot of metrics to push", e);
+        }
+    }
+
+    /**
+     * Returns the number of snapshots dropped since the target fell behind.
+     *
+     * @return the number of dropped snapshots
+     */
+    public long getDropped() {
+        return this.dropped.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        Thread sender;
+        synchronized (this) {
+            if (this.scheduler == null) {
+                this.target.close();
+                return;
+            }
+            this.scheduler.shutdownNow();
+            this.scheduler = null;
+            sender = this.sender;
+            this.sender = null;
+        }
+        try {
+            report();
+            sender.interrupt();
+            sender.join(CLOSE_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            this.target.close();
+        }
+    }
+
+    private void enqueue(byte[] payload) {
+        while (!this.queue.offerLast(payload)) {
+            if (this.queue.pollFirst() != null) {
+                this.dropped.increment();
+            }
+        }
+    }
+
+    private void requeue(List<byte[]> batch) {
+        for (int i = batch.size() - 1; i >= 0; --i) {
+            if (!this.queue.offerFirst(batch.get(i))) {
+                // newer snapshots take precedence over older ones
+                this.dropped.add(i + 1);
+                return;
+            }
+        }
+    }
+
+    private void sendLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<byte[]> batch = new ArrayList<>();
+            try {
+                batch.add(this.queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            this.queue.drainTo(batch);
+            if (!send(batch)) {
+                requeue(batch);
+                try {
+                    Thread.sleep(this.interval);
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+        }
+
+        List<byte[]> batch = new ArrayList<>();
+        this.queue.drainTo(batch);
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    private boolean send(List<byte[]> batch) {
+        try {
+            this.target.send(batch);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Unable to push metrics: " + e.getMessage());
+            LOG.debug("Unable to push metrics", e);
+            return false;
+        }
+    }
+
+    private final PrometheusExporter exporter = new PrometheusExporter();
+
+    private final PushTarget target;
+
+    private final long interval;
+
+    private final BlockingDeque<byte[]> queue;
+
+    private final LongAdder dropped = new LongAdder();
+
+    private ScheduledExecutorService scheduler;
+
+    private Thread sender;
+}
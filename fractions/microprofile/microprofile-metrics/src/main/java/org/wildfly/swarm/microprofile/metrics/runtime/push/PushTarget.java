@@ -0,0 +1,186 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.metrics.runtime.push;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.util.List;
+
+/**
+ * A destination metrics are pushed to.
+ *
+ * <p>A target encodes each snapshot, given in Prometheus text format, once into its own wire
+ * format.  Encoded snapshots are then sent in batches, so that a target which fell behind
+ * catches up in a single exchange.</p>
+ */
+public abstract class PushTarget implements Closeable {
+
+    public static final String STATSD = "statsd";
+
+    public static final String GRAPHITE = "graphite";
+
+    /**
+     * Create the target of a URL.
+     *
+     * <p>An <code>http</code> or <code>https</code> URL is that of a Prometheus pushgateway grouping key,
+     * such as <code>http://host:9091/metrics/job/name</code>.  A <code>statsd://host:port</code> URL is that
+     * of a StatsD daemon, and a <code>graphite://host:port</code> URL is that of a Graphite plaintext listener.</p>
+     *
+     * @param url The URL.
+     * @return The target.
+     * @throws IllegalArgumentException if the URL is malformed or of an unknown scheme.
+     */
+    public static PushTarget of(String url) {
+        URI uri = URI.create(url);
+        String scheme = uri.getScheme() == null ? "" : uri.getScheme();
+        try {
+            switch (scheme) {
+                case "http":
+                case "https":
+                    return new PushgatewayTarget(uri.toURL());
+                case STATSD:
+                    return new StatsdTarget(address(uri, 8125));
+                case GRAPHITE:
+                    return new GraphiteTarget(address(uri, 2003));
+                default:
+                    throw new IllegalArgumentException("Unknown push target '" + url + "', expected an http(s), " + STATSD + " or " + GRAPHITE + " URL");
+            }
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException(url, e);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to create push target '" + url + "'", e);
+        }
+    }
+
+    /**
+     * Encode a snapshot.
+     *
+     * @param snapshot  The snapshot, in Prometheus text format.
+     * @param timestamp The time of the snapshot, in milliseconds since the epoch.
+     * @return The payload to send.
+     */
+    public abstract byte[] encode(String snapshot, long timestamp);
+
+    /**
+     * Send encoded snapshots.
+     *
+     * @param payloads The payloads, oldest first.
+     * @throws IOException if the target could not be reached.
+     */
+    public abstract void send(List<byte[]> payloads) throws IOException;
+
+    @Override
+    public void close() throws IOException {
+    }
+
+    /**
+     * Walk the samples of a snapshot in Prometheus text format.
+     *
+     * @param snapshot The snapshot.
+     * @param consumer The consumer of each sample.
+     */
+    protected static void forEachSample(String snapshot, SampleConsumer consumer) {
+        int start = 0;
+        int len = snapshot.length();
+        while (start < len) {
+            int end = snapshot.indexOf('\n', start);
+            if (end < 0) {
+                end = len;
+            }
+            if (end > start && snapshot.charAt(start) != '#') {
+                int space = snapshot.lastIndexOf(' ', end - 1);
+                if (space > start) {
+                    String value = snapshot.substring(space + 1, end);
+                    int brace = snapshot.indexOf('{', start);
+                    if (brace < 0 || brace > space) {
+                        consumer.accept(snapshot.substring(start, space), null, value);
+                    } else {
+                        consumer.accept(snapshot.substring(start, brace), snapshot.substring(brace + 1, snapshot.lastIndexOf('}', space)), value);
+                    }
+                }
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Walk the tags of a sample, as given to a {@link SampleConsumer}.
+     *
+     * <p>Values are handed to the consumer unescaped, with <code>\\</code>, <code>\"</code> and
+     * <code>\n</code> turned back into the characters the exporter escaped.</p>
+     *
+     * @param tags     The tags, of the form <code>k1="v1",k2="v2"</code>.
+     * @param consumer The consumer of each key and value.
+     */
+    protected static void forEachTag(String tags, TagConsumer consumer) {
+        StringBuilder value = new StringBuilder();
+        int len = tags.length();
+        int pos = 0;
+        while (pos < len) {
+            int eq = tags.indexOf('=', pos);
+            if (eq < 0 || eq + 1 >= len || tags.charAt(eq + 1) != '"') {
+                return;
+            }
+            value.setLength(0);
+            int i = eq + 2;
+            for (; i < len && tags.charAt(i) != '"'; ++i) {
+                char c = tags.charAt(i);
+                if (c == '\\' && i + 1 < len) {
+                    c = tags.charAt(++i);
+                    if (c == 'n') {
+                        c = '\n';
+                    }
+                }
+                value.append(c);
+            }
+            if (i >= len) {
+                return;
+            }
+            consumer.accept(tags.substring(pos, eq), value.toString());
+            pos = i + 2;
+        }
+    }
+
+    protected static boolean isFinite(String value) {
+        return !value.equals("NaN") && !value.endsWith("Infinity") && !value.endsWith("Inf");
+    }
+
+    private static InetSocketAddress address(URI uri, int defaultPort) {
+        if (uri.getHost() == null) {
+            throw new IllegalArgumentException("No host in push target '" + uri + "'");
+        }
+        return new InetSocketAddress(uri.getHost(), uri.getPort() < 0 ? defaultPort : uri.getPort());
+    }
+
+    @FunctionalInterface
+    protected interface SampleConsumer {
+        /**
+         * @param name  The name of the sample.
+         * @param tags  The tags of the sample, or <code>null</code> if none.
+         * @param value The value of the sample.
+         */
+        void accept(String name, String tags, String value);
+    }
+
+    @FunctionalInterface
+    protected interface TagConsumer {
+        void accept(String key, String value);
+    }
+}
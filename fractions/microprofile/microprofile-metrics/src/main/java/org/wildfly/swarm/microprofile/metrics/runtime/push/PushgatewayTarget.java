@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.metrics.runtime.push;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Replaces the metrics of a Prometheus pushgateway grouping key.
+ *
+ * <p>As each push replaces the whole group, only the latest of a batch of snapshots is sent.</p>
+ */
+class PushgatewayTarget extends PushTarget {
+
+    private static final int TIMEOUT = 10_000;
+
+    PushgatewayTarget(URL url) {
+        this.url = url;
+    }
+
+    @Override
+    public byte[] encode(String snapshot, long timestamp) {
+        return snapshot.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void send(List<byte[]> payloads) throws IOException {
+        byte[] payload = payloads.get(payloads.size() - 1);
+
+        HttpURLConnection connection = (HttpURLConnection) this.url.openConnection();
+        try {
+            connection.setRequestMethod("PUT");
+            connection.setDoOutput(true);
+            connection.setConnectTimeout(TIMEOUT);
+            connection.setReadTimeout(TIMEOUT);
+            connection.setFixedLengthStreamingMode(payload.length);
+            connection.setRequestProperty("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(payload);
+            }
+            int status = connection.getResponseCode();
+            if (status / 100 != 2) {
+                throw new IOException("Pushgateway " + this.url + " responded " + status + " " + connection.getResponseMessage());
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private final URL url;
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.metrics.runtime.push;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Sends metrics to a StatsD daemon over UDP, as gauges.
+ *
+ * <p>Lines are packed into datagrams no larger than a typical network MTU allows, splitting only
+ * between lines.  Tags are appended in the DogStatsD <code>|#key:value</code> form.</p>
+ */
+class StatsdTarget extends PushTarget {
+
+    static final int MAX_PACKET = 1432;
+
+    StatsdTarget(InetSocketAddress address) throws IOException {
+        this.address = address;
+        this.socket = new DatagramSocket();
+    }
+
+    @Override
+    public byte[] encode(String snapshot, long timestamp) {
+        StringBuilder out = new StringBuilder();
+        forEachSample(snapshot, (name, tags, value) -> {
+            if (!isFinite(value)) {
+                return;
+            }
+            out.append(name.replace(':', '.')).append(':').append(value).append("|g");
+            if (tags != null) {
+                char[] separator = {'#'};
+                out.append('|');
+                forEachTag(tags, (k, v) -> {
+                    out.append(separator[0]).append(k).append(':').append(sanitize(v));
+                    separator[0] = ',';
+                });
+            }
+            out.append('\n');
+        });
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void send(List<byte[]> payloads) throws IOException {
+        for (byte[] payload : payloads) {
+            int start = 0;
+            while (start < payload.length) {
+                int end = Math.min(payload.length, start + MAX_PACKET);
+                if (end < payload.length) {
+                    // back up to the end of the last whole line
+                    int cut = end;
+                    while (cut > start && payload[cut - 1] != '\n') {
+                        --cut;
+                    }
+                    if (cut > start) {
+                        end = cut;
+                    }
+                }
+                this.socket.send(new DatagramPacket(payload, start, end - start, this.address));
+                start = end;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        this.socket.close();
+    }
+
+    private static String sanitize(String value) {
+        return value.replace('\n', '_').replace(',', '_').replace('|', '_').replace('#', '_');
+    }
+
+    private final InetSocketAddress address;
+
+    private final DatagramSocket socket;
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ *   Licensed under the Apache License, Version 2.0 (the "License");
+ *   you may not use this file except in compliance with the License.
+ *   You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *   Unless required by applicable law or agreed to in writing, software
+ *   distributed under the License is distributed on an "AS IS" BASIS,
+ *   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *   See the License for the specific language governing permissions and
+ *   limitations under the License.
+ */
+package org.wildfly.swarm.microprofile.metrics.deployment;
+
+import java.lang.reflect.Method;
+
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.junit.Test;
+import org.wildfly.swarm.microprofile.metrics.runtime.MetricRegistryFactory;
+
+public class MetricHandlesTest {
+
+    @Test
+    public void testHandleIsResolvedOnce() throws Exception {
+        MetricRegistry registry = MetricRegistryFactory.get(MetricRegistry.Type.APPLICATION);
+        Counter counter = registry.counter("handles-once");
+        try {
+            MetricHandles<Counter> handles = new MetricHandles<>();
+            Method member = getClass().getMethod("testHandleIsResolvedOnce");
+
+            assert handles.get(registry, getClass(), member) == null;
+            long generation = MetricHandles.generation(registry);
+            handles.put(getClass(), member, generation, (Counter) MetricHandles.lookup(registry, "handles-once"));
+
+            assert handles.get(registry, getClass(), member) == counter;
+        } finally {
+            registry.remove("handles-once");
+        }
+    }
+
+    @Test
+    public void testHandleIsResolvedAgainAfterRemove() throws Exception {
+        MetricRegistry registry = MetricRegistryFactory.get(MetricRegistry.Type.APPLICATION);
+        Counter original = registry.counter("handles-removed");
+        try {
+            MetricHandles<Counter> handles = new MetricHandles<>();
+            Method member = getClass().getMethod("testHandleIsResolvedAgainAfterRemove");
+            handles.put(getClass(), member, MetricHandles.generation(registry), original);
+
+            registry.remove("handles-removed");
+            Counter replacement = registry.counter("handles-removed");
+            assert replacement != original;
+
+            assert handles.get(registry, getClass(), member) == null;
+            long generation = MetricHandles.generation(registry);
+            handles.put(getClass(), member, generation, (Counter) MetricHandles.lookup(registry, "handles-removed"));
+
+            Counter resolved = handles.get(registry, getClass(), member);
+            resolved.inc();
+            assert resolved == replacement;
+            assert replacement.getCount() == 1;
+            assert original.getCount() == 0;
+        } finally {
+            registry.remove("handles-removed");
+        }
+    }
+}
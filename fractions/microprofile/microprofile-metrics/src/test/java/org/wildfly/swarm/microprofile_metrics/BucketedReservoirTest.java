@@ -0,0 +1,125 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile_metrics;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.junit.After;
+import org.junit.Test;
+import org.wildfly.swarm.microprofile.metrics.MicroprofileMetricsFraction;
+import org.wildfly.swarm.microprofile.metrics.runtime.MetricRegistryFactory;
+import org.wildfly.swarm.microprofile.metrics.runtime.ReservoirSelector;
+import org.wildfly.swarm.microprofile.metrics.runtime.app.BucketedReservoir;
+import org.wildfly.swarm.microprofile.metrics.runtime.exporters.PrometheusExporter;
+
+public class BucketedReservoirTest {
+
+    @After
+    public void cleanUp() {
+        MetricRegistryFactory.setReservoirSelector(ReservoirSelector.DEFAULT);
+        MetricRegistry registry = MetricRegistryFactory.get(MetricRegistry.Type.APPLICATION);
+        for (String each : registry.getNames()) {
+            registry.remove(each);
+        }
+    }
+
+    @Test
+    public void testValuesAreCountedIntoBuckets() {
+        BucketedReservoir reservoir = new BucketedReservoir(new double[]{10, 100, 1});
+        reservoir.update(1);
+        reservoir.update(5);
+        reservoir.update(10);
+        reservoir.update(50);
+        reservoir.update(1000);
+
+        BucketedReservoir.Buckets buckets = reservoir.getSnapshot();
+        assert buckets.getBounds()[0] == 1 && buckets.getBounds()[2] == 100;
+        long[] counts = buckets.getCounts();
+        assert counts.length == 4;
+        assert counts[0] == 1 && counts[1] == 2 && counts[2] == 1 && counts[3] == 1 : java.util.Arrays.toString(counts);
+        assert buckets.getCount() == 5;
+        assert buckets.getSum() == 1066;
+        assert buckets.getMin() == 1;
+        assert buckets.getMax() == 1000;
+        assert reservoir.size() == 5;
+    }
+
+    @Test
+    public void testQuantilesAreInterpolatedWithinBuckets() {
+        BucketedReservoir reservoir = new BucketedReservoir(new double[]{100, 200});
+        for (int i = 1; i <= 200; ++i) {
+            reservoir.update(i);
+        }
+        BucketedReservoir.Buckets buckets = reservoir.getSnapshot();
+        assert buckets.getMedian() == 100 : buckets.getMedian();
+        assert buckets.get75thPercentile() == 150 : buckets.get75thPercentile();
+        assert buckets.getValue(1.0) == 200;
+    }
+
+    @Test
+    public void testEmptySnapshot() {
+        BucketedReservoir.Buckets buckets = new BucketedReservoir(new double[]{1}).getSnapshot();
+        assert buckets.getCount() == 0;
+        assert buckets.getMin() == 0 && buckets.getMax() == 0;
+        assert buckets.getMedian() == 0;
+        assert buckets.getMean() == 0;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedBuckets() {
+        new ReservoirSelector(ReservoirSelector.EXPONENTIALLY_DECAYING, Collections.emptyMap(), Collections.singletonMap("x", "exponential:1,2"));
+    }
+
+    @Test
+    public void testFirstMatchingPatternApplies() {
+        MicroprofileMetricsFraction fraction = new MicroprofileMetricsFraction();
+        for (int i = 9; i >= 0; --i) {
+            fraction.buckets("size[0-" + i + "]", Integer.toString(i + 1));
+        }
+        MetricRegistryFactory.setReservoirSelector(new ReservoirSelector(ReservoirSelector.EXPONENTIALLY_DECAYING, fraction.reservoirs(), fraction.buckets()));
+        MetricRegistry registry = MetricRegistryFactory.get(MetricRegistry.Type.APPLICATION);
+        registry.histogram("size0").update(1);
+
+        String out = new PrometheusExporter().exportOneMetric(MetricRegistry.Type.APPLICATION, "size0").toString();
+        assert out.contains("application:size0_bucket{le=\"10\"} 1.0\n") : out;
+        assert !out.contains("le=\"1\"") : out;
+    }
+
+    @Test
+    public void testExponentialBucketsOfTimer() {
+        MetricRegistryFactory.setReservoirSelector(new ReservoirSelector(ReservoirSelector.EXPONENTIALLY_DECAYING, Collections.emptyMap(),
+                                                                         Collections.singletonMap("request.*", "exponential:0.001,10,3")));
+        MetricRegistry registry = MetricRegistryFactory.get(MetricRegistry.Type.APPLICATION);
+        registry.timer(new Metadata("requestTime", MetricType.TIMER, MetricUnits.NANOSECONDS)).update(5, TimeUnit.MILLISECONDS);
+        registry.timer(new Metadata("requestTime", MetricType.TIMER, MetricUnits.NANOSECONDS)).update(50, TimeUnit.MILLISECONDS);
+
+        String out = new PrometheusExporter().exportOneMetric(MetricRegistry.Type.APPLICATION, "requestTime").toString();
+        assert out.contains("# TYPE application:request_time_seconds histogram\n") : out;
+        assert out.contains("application:request_time_seconds_bucket{le=\"0.001\"} 0.0\n") : out;
+        assert out.contains("application:request_time_seconds_bucket{le=\"0.01\"} 1.0\n") : out;
+        assert out.contains("application:request_time_seconds_bucket{le=\"0.1\"} 2.0\n") : out;
+        assert out.contains("application:request_time_seconds_bucket{le=\"+Inf\"} 2.0\n") : out;
+        assert out.contains("application:request_time_seconds_sum 0.055\n") : out;
+        assert out.contains("application:request_time_seconds_count 2.0\n") : out;
+        assert !out.contains("quantile") : out;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile_metrics;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Timer;
+import org.junit.After;
+import org.junit.Test;
+import org.wildfly.swarm.microprofile.metrics.runtime.HttpRouteMetrics;
+import org.wildfly.swarm.microprofile.metrics.runtime.MetricRegistryFactory;
+import org.wildfly.swarm.microprofile.metrics.runtime.exporters.PrometheusExporter;
+
+public class HttpRouteMetricsTest {
+
+    @After
+    public void cleanUp() {
+        MetricRegistry registry = MetricRegistryFactory.getVendorRegistry();
+        for (String each : registry.getNames()) {
+            if (each.startsWith("http.server.")) {
+                registry.remove(each);
+            }
+        }
+    }
+
+    @Test
+    public void testPathsMatchTemplatesInOrder() {
+        HttpRouteMetrics metrics = metrics(10, "/orders/{id}", "/orders/{id}/items/*", "/static/*");
+
+        assert metrics.route("/orders/42").getTemplate().equals("/orders/{id}");
+        assert metrics.route("/orders/42/").getTemplate().equals("/orders/{id}");
+        assert metrics.route("/orders/42/items").getTemplate().equals("/orders/{id}/items/*");
+        assert metrics.route("/orders/42/items/7").getTemplate().equals("/orders/{id}/items/*");
+        assert metrics.route("/static").getTemplate().equals("/static/*");
+        assert metrics.route("/static/css/site.css").getTemplate().equals("/static/*");
+        assert metrics.route("/orders/42").getTemplate().equals("/orders/{id}");
+        assert metrics.derivedRoutes() == 0;
+    }
+
+    @Test
+    public void testUnmatchedPathsAreBoundedByFirstSegment() {
+        HttpRouteMetrics metrics = metrics(2, "/orders/{id}");
+
+        HttpRouteMetrics.Route other = metrics.route("/orders");
+        assert other.isOther();
+        metrics.served("/orders", 200);
+        metrics.served("/", 200);
+        assert metrics.route("/orders").getTemplate().equals("/orders/*");
+        assert metrics.route("/orders/42/items").getTemplate().equals("/orders/*");
+        assert metrics.route("/").getTemplate().equals("/");
+        assert metrics.derivedRoutes() == 2;
+
+        metrics.served("/customers/7", 200);
+        assert metrics.route("/customers/7") == other;
+        assert other.getTemplate().equals(HttpRouteMetrics.OTHER);
+        assert metrics.derivedRoutes() == 2;
+        assert metrics.route("/orders/1") == metrics.route("/orders/2");
+    }
+
+    @Test
+    public void testNotFoundDerivesNoRoute() {
+        HttpRouteMetrics metrics = metrics(2);
+
+        for (int i = 0; i < 10; ++i) {
+            metrics.served("/scan" + i + "/admin", 404);
+        }
+        assert metrics.derivedRoutes() == 0;
+
+        metrics.served("/orders/1", 200);
+        assert metrics.route("/orders/2").getTemplate().equals("/orders/*");
+        assert metrics.derivedRoutes() == 1;
+    }
+
+    @Test
+    public void testOnlyPlainSegmentsDeriveRoutes() {
+        HttpRouteMetrics metrics = metrics(10);
+
+        metrics.served("/a\"b/c", 200);
+        metrics.served("/key=value", 200);
+        metrics.served("/%0A", 200);
+        assert metrics.derivedRoutes() == 0;
+
+        metrics.served("/v1.2-beta_~x", 200);
+        assert metrics.route("/v1.2-beta_~x").getTemplate().equals("/v1.2-beta_~x/*");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRequestsAreRecordedPerRouteAndStatusClass() {
+        HttpRouteMetrics metrics = metrics(10, "/orders/{id}");
+        MetricRegistry registry = MetricRegistryFactory.getVendorRegistry();
+
+        HttpRouteMetrics.Route route = metrics.route("/orders/42");
+        route.begin();
+        route.begin();
+        Gauge<Long> active = (Gauge<Long>) registry.getMetrics().get("http.server.active.orders_id");
+        assert active.getValue() == 2;
+
+        route.end(200, 100, 20_000_000L);
+        route.end(404, 0, 1_000_000L);
+        assert active.getValue() == 0;
+
+        Timer ok = (Timer) registry.getMetrics().get("http.server.requests.orders_id.2xx");
+        Timer notFound = (Timer) registry.getMetrics().get("http.server.requests.orders_id.4xx");
+        Counter bytes = (Counter) registry.getMetrics().get("http.server.response.bytes.orders_id.2xx");
+        assert ok.getCount() == 1;
+        assert notFound.getCount() == 1;
+        assert bytes.getCount() == 100;
+        assert registry.getMetadata().get("http.server.requests.orders_id.2xx").getTags().get("route").equals("/orders/{id}");
+
+        String out = new PrometheusExporter().exportOneMetric(MetricRegistry.Type.VENDOR, "http.server.requests.orders_id.2xx").toString();
+        assert out.contains("# TYPE vendor:http_server_requests_orders_id_2xx_seconds histogram") : out;
+        assert out.contains("vendor:http_server_requests_orders_id_2xx_seconds_bucket{route=\"/orders/{id}\",status=\"2xx\",le=\"0.01\"} 0") : out;
+        assert out.contains("vendor:http_server_requests_orders_id_2xx_seconds_bucket{route=\"/orders/{id}\",status=\"2xx\",le=\"0.025\"} 1") : out;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMetricsAreTakenOverByNewInstance() {
+        HttpRouteMetrics.Route first = metrics(10, "/orders/{id}").route("/orders/42");
+        first.begin();
+        first.end(200, 100, 1_000_000L);
+
+        HttpRouteMetrics.Route second = metrics(10, "/orders/{id}").route("/orders/42");
+        second.begin();
+        second.end(200, 50, 1_000_000L);
+        second.begin();
+
+        MetricRegistry registry = MetricRegistryFactory.getVendorRegistry();
+        assert ((Gauge<Long>) registry.getMetrics().get("http.server.active.orders_id")).getValue() == 1;
+        assert ((Timer) registry.getMetrics().get("http.server.requests.orders_id.2xx")).getCount() == 2;
+        assert ((Counter) registry.getMetrics().get("http.server.response.bytes.orders_id.2xx")).getCount() == 150;
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMetricOfAnotherKindIsNotTakenOver() {
+        MetricRegistryFactory.getVendorRegistry().counter("http.server.active.orders_id");
+        metrics(10, "/orders/{id}");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedTemplate() {
+        metrics(10, "/orders/*/items");
+    }
+
+    private static HttpRouteMetrics metrics(int maxRoutes, String... templates) {
+        return new HttpRouteMetrics(MetricRegistryFactory.getVendorRegistry(), Arrays.asList(templates), maxRoutes, "0.001,0.01,0.025,0.1");
+    }
+}
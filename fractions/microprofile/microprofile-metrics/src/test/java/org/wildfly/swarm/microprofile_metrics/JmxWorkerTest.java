@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile_metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wildfly.swarm.microprofile.metrics.runtime.JmxWorker;
+
+public class JmxWorkerTest {
+
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    @Before
+    public void register() throws Exception {
+        // a distinct MBean per test, as the worker retains its values
+        this.name = "swarm.test:type=JmxWorkerTest,id=" + COUNTER.incrementAndGet();
+        this.bean = new CountingBean();
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this.bean, new ObjectName(this.name));
+    }
+
+    @After
+    public void unregister() throws Exception {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(this.name));
+        JmxWorker.instance().setCacheTtl(JmxWorker.DEFAULT_CACHE_TTL);
+    }
+
+    @Test
+    public void testAttributesOfOneMBeanAreReadTogether() {
+        JmxWorker.instance().setCacheTtl(60_000);
+        JmxWorker.MBeanAttribute a = JmxWorker.instance().attribute(this.name + "/A");
+        JmxWorker.MBeanAttribute b = JmxWorker.instance().attribute(this.name + "/B");
+
+        assert a.getValue().intValue() == 1;
+        assert b.getValue().intValue() == 2;
+        assert a.getValue().intValue() == 1;
+        assert this.bean.reads.get() == 1 : this.bean.reads.get();
+    }
+
+    @Test
+    public void testZeroTtlAlwaysReads() {
+        JmxWorker.instance().setCacheTtl(0);
+        JmxWorker.MBeanAttribute a = JmxWorker.instance().attribute(this.name + "/A");
+
+        a.getValue();
+        a.getValue();
+        assert this.bean.reads.get() == 2 : this.bean.reads.get();
+    }
+
+    @Test
+    public void testExpressionIsParsedOnce() {
+        assert JmxWorker.instance().attribute(this.name + "/A") == JmxWorker.instance().attribute(this.name + "/A");
+        assert JmxWorker.instance().getValue(this.name + "/B").intValue() == 2;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedExpression() {
+        JmxWorker.instance().attribute("no-attribute");
+    }
+
+    private String name;
+
+    private CountingBean bean;
+
+    public static class CountingBean implements DynamicMBean {
+
+        @Override
+        public Object getAttribute(String attribute) {
+            this.reads.incrementAndGet();
+            return value(attribute);
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            this.reads.incrementAndGet();
+            AttributeList list = new AttributeList();
+            for (String each : attributes) {
+                list.add(new Attribute(each, value(each)));
+            }
+            return list;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            return new MBeanInfo(CountingBean.class.getName(), null, new MBeanAttributeInfo[]{
+                    new MBeanAttributeInfo("A", "int", null, true, false, false),
+                    new MBeanAttributeInfo("B", "int", null, true, false, false),
+            }, null, null, null);
+        }
+
+        private Integer value(String attribute) {
+            return attribute.equals("A") ? 1 : 2;
+        }
+
+        final AtomicInteger reads = new AtomicInteger();
+    }
+}
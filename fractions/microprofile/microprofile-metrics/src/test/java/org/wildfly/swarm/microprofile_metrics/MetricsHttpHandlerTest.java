@@ -0,0 +1,104 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile_metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+
+import io.undertow.Undertow;
+import io.undertow.server.handlers.ResponseCodeHandler;
+import io.undertow.util.StatusCodes;
+import org.eclipse.microprofile.metrics.Gauge;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wildfly.swarm.microprofile.metrics.runtime.MetricRegistryFactory;
+import org.wildfly.swarm.microprofile.metrics.runtime.MetricsHttpHandler;
+
+public class MetricsHttpHandlerTest {
+
+    @Before
+    public void startServer() {
+        server = Undertow.builder()
+                .addHttpListener(0, "localhost")
+                .setHandler(new MetricsHttpHandler(ResponseCodeHandler.HANDLE_404))
+                .build();
+        server.start();
+        port = ((InetSocketAddress) server.getListenerInfo().get(0).getAddress()).getPort();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop();
+        for (MetricRegistry.Type each : MetricRegistry.Type.values()) {
+            MetricRegistry registry = MetricRegistryFactory.get(each);
+            for (String name : registry.getNames()) {
+                registry.remove(name);
+            }
+        }
+    }
+
+    @Test
+    public void testFailedExportIsNotOk() throws IOException {
+        MetricRegistryFactory.get(MetricRegistry.Type.APPLICATION).register("broken", (Gauge<Long>) () -> null);
+
+        HttpURLConnection connection = get("/metrics/application");
+        assert connection.getResponseCode() == StatusCodes.INTERNAL_SERVER_ERROR : connection.getResponseCode();
+    }
+
+    @Test
+    public void testFailedExportIsAbortedOnceStarted() throws IOException {
+        // application metrics are exported first, filling buffers before the broken vendor metric
+        MetricRegistry application = MetricRegistryFactory.get(MetricRegistry.Type.APPLICATION);
+        for (int i = 0; i < 2000; i++) {
+            application.counter("padding-counter-with-a-long-name-" + i).inc();
+        }
+        MetricRegistryFactory.get(MetricRegistry.Type.VENDOR).register("broken", (Gauge<Long>) () -> null);
+
+        HttpURLConnection connection = get("/metrics");
+        assert connection.getResponseCode() == StatusCodes.OK : connection.getResponseCode();
+        try (InputStream in = connection.getInputStream()) {
+            byte[] buf = new byte[8192];
+            while (in.read(buf) >= 0) {
+                // drain
+            }
+            assert false : "A truncated response must not complete";
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void testEmptyScopeHasNoContent() throws IOException {
+        HttpURLConnection connection = get("/metrics/vendor");
+        assert connection.getResponseCode() == StatusCodes.NO_CONTENT : connection.getResponseCode();
+    }
+
+    private HttpURLConnection get(String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http", "localhost", port, path).openConnection();
+        connection.setRequestProperty("Accept", "text/plain");
+        return connection;
+    }
+
+    private Undertow server;
+
+    private int port;
+
+}
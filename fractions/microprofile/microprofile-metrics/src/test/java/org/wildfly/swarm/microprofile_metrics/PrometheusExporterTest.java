@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile_metrics;
+
+import java.io.IOException;
+
+import org.eclipse.microprofile.metrics.Histogram;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.junit.After;
+import org.junit.Test;
+import org.wildfly.swarm.microprofile.metrics.runtime.MetricRegistryFactory;
+import org.wildfly.swarm.microprofile.metrics.runtime.exporters.PrometheusExporter;
+
+public class PrometheusExporterTest {
+
+    @After
+    public void cleanUp() {
+        MetricRegistry registry = MetricRegistryFactory.get(MetricRegistry.Type.APPLICATION);
+        for (String each : registry.getNames()) {
+            registry.remove(each);
+        }
+    }
+
+    @Test
+    public void testCounter() {
+        MetricRegistryFactory.get(MetricRegistry.Type.APPLICATION).counter("requestCount").inc(42);
+
+        String out = new PrometheusExporter().exportOneScope(MetricRegistry.Type.APPLICATION).toString();
+        assert out.equals("# TYPE application:request_count counter\napplication:request_count 42.0\n") : out;
+    }
+
+    @Test
+    public void testHistogramQuantiles() {
+        Histogram histogram = MetricRegistryFactory.get(MetricRegistry.Type.APPLICATION)
+                .histogram(new Metadata("payload", MetricType.HISTOGRAM, MetricUnits.KILOBYTES));
+        histogram.update(3);
+
+        String out = new PrometheusExporter().exportOneMetric(MetricRegistry.Type.APPLICATION, "payload").toString();
+        assert out.contains("# TYPE application:payload_bytes summary\n") : out;
+        assert out.contains("application:payload_bytes{quantile=\"0.5\"} 3000.0\n") : out;
+        assert out.contains("application:payload_max_bytes 3000.0\n") : out;
+    }
+
+    @Test
+    public void testStreamedOutputMatches() throws IOException {
+        MetricRegistryFactory.get(MetricRegistry.Type.APPLICATION).counter("streamed").inc();
+
+        PrometheusExporter exporter = new PrometheusExporter();
+        StringBuilder streamed = new StringBuilder();
+        exporter.exportOneScope(MetricRegistry.Type.APPLICATION, streamed);
+        assert streamed.toString().equals(exporter.exportOneScope(MetricRegistry.Type.APPLICATION).toString()) : streamed;
+    }
+
+    @Test
+    public void testReregisteredMetricIsRenderedAgain() {
+        MetricRegistry registry = MetricRegistryFactory.get(MetricRegistry.Type.APPLICATION);
+        registry.counter("renamed").inc();
+        new PrometheusExporter().exportOneScope(MetricRegistry.Type.APPLICATION);
+
+        registry.remove("renamed");
+        registry.counter(new Metadata("renamed", MetricType.COUNTER, MetricUnits.BYTES)).inc();
+
+        String out = new PrometheusExporter().exportOneScope(MetricRegistry.Type.APPLICATION).toString();
+        assert out.contains("application:renamed_bytes 1.0\n") : out;
+    }
+
+    @Test
+    public void testTagValuesAreEscaped() {
+        Metadata metadata = new Metadata("escaped", MetricType.COUNTER);
+        metadata.getTags().put("path", "a\\b\"c\nd");
+        MetricRegistryFactory.get(MetricRegistry.Type.APPLICATION).counter(metadata).inc();
+
+        String out = new PrometheusExporter().exportOneScope(MetricRegistry.Type.APPLICATION).toString();
+        assert out.contains("application:escaped{path=\"a\\\\b\\\"c\\nd\"} 1.0\n") : out;
+    }
+
+    @Test
+    public void testChangedTagsAreRenderedAgain() {
+        Metadata metadata = new Metadata("tagged", MetricType.COUNTER);
+        metadata.addTag("app=shop");
+        MetricRegistryFactory.get(MetricRegistry.Type.APPLICATION).counter(metadata).inc();
+
+        String out = new PrometheusExporter().exportOneScope(MetricRegistry.Type.APPLICATION).toString();
+        assert out.contains("application:tagged{app=\"shop\"} 1.0\n") : out;
+
+        metadata.addTag("region=eu");
+
+        out = new PrometheusExporter().exportOneScope(MetricRegistry.Type.APPLICATION).toString();
+        assert out.contains("application:tagged{app=\"shop\",region=\"eu\"} 1.0\n") : out;
+    }
+}
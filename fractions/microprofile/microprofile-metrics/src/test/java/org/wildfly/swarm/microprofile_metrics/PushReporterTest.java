@@ -0,0 +1,199 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile_metrics;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.sun.net.httpserver.HttpServer;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.wildfly.swarm.microprofile.metrics.runtime.MetricRegistryFactory;
+import org.wildfly.swarm.microprofile.metrics.runtime.push.PushReporter;
+import org.wildfly.swarm.microprofile.metrics.runtime.push.PushTarget;
+
+public class PushReporterTest {
+
+    @Before
+    public void register() {
+        MetricRegistryFactory.get(MetricRegistry.Type.APPLICATION).counter("pushedCount").inc(3);
+    }
+
+    @After
+    public void cleanUp() {
+        MetricRegistry registry = MetricRegistryFactory.get(MetricRegistry.Type.APPLICATION);
+        for (String each : registry.getNames()) {
+            registry.remove(each);
+        }
+    }
+
+    @Test
+    public void testStatsd() throws Exception {
+        MetricRegistry registry = MetricRegistryFactory.get(MetricRegistry.Type.APPLICATION);
+        for (int i = 0; i < 100; ++i) {
+            registry.counter("padding" + i).inc();
+        }
+
+        try (DatagramSocket server = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(5000);
+            PushReporter reporter = new PushReporter(PushTarget.of("statsd://127.0.0.1:" + server.getLocalPort()), 60_000, 4);
+            reporter.start();
+            reporter.report();
+
+            StringBuilder received = new StringBuilder();
+            int packets = 0;
+            while (received.indexOf("application.padding99:") < 0 || received.indexOf("application.pushed_count:") < 0) {
+                DatagramPacket packet = new DatagramPacket(new byte[2048], 2048);
+                server.receive(packet);
+                assert packet.getLength() <= 1432 : packet.getLength();
+                String text = new String(packet.getData(), 0, packet.getLength(), StandardCharsets.UTF_8);
+                assert text.endsWith("\n") : text;
+                received.append(text);
+                ++packets;
+            }
+            reporter.close();
+
+            assert packets > 1 : packets;
+            assert received.indexOf("application.pushed_count:3.0|g\n") >= 0 : received;
+        }
+    }
+
+    @Test
+    public void testGraphiteReceivesFinalSnapshotOnClose() throws Exception {
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(5000);
+            PushReporter reporter = new PushReporter(PushTarget.of("graphite://127.0.0.1:" + server.getLocalPort()), 60_000, 4);
+            reporter.start();
+            reporter.close();
+
+            try (Socket socket = server.accept()) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                String line;
+                boolean found = false;
+                while ((line = in.readLine()) != null) {
+                    found |= line.matches("application\\.pushed_count 3\\.0 \\d+");
+                }
+                assert found;
+            }
+        }
+    }
+
+    @Test
+    public void testPushgateway() throws Exception {
+        AtomicReference<String> body = new AtomicReference<>();
+        CountDownLatch received = new CountDownLatch(1);
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/metrics/job/test", exchange -> {
+            assert exchange.getRequestMethod().equals("PUT");
+            body.set(read(exchange.getRequestBody()));
+            exchange.sendResponseHeaders(202, -1);
+            exchange.close();
+            received.countDown();
+        });
+        server.start();
+        try {
+            PushReporter reporter = new PushReporter(PushTarget.of("http://127.0.0.1:" + server.getAddress().getPort() + "/metrics/job/test"), 60_000, 4);
+            reporter.start();
+            reporter.report();
+            assert received.await(5, TimeUnit.SECONDS);
+            reporter.close();
+        } finally {
+            server.stop(0);
+        }
+        assert body.get().contains("# TYPE application:pushed_count counter\napplication:pushed_count 3.0\n") : body.get();
+    }
+
+    @Test
+    public void testOldestSnapshotsAreDroppedWhileTargetIsSlow() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PushTarget slow = new PushTarget() {
+            @Override
+            public byte[] encode(String snapshot, long timestamp) {
+                return new byte[0];
+            }
+
+            @Override
+            public void send(List<byte[]> payloads) throws IOException {
+                sending.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+        };
+
+        PushReporter reporter = new PushReporter(slow, 60_000, 2);
+        reporter.start();
+        reporter.report();
+        assert sending.await(5, TimeUnit.SECONDS);
+
+        reporter.report();
+        reporter.report();
+        reporter.report();
+        assert reporter.getDropped() == 1 : reporter.getDropped();
+
+        release.countDown();
+        reporter.close();
+    }
+
+    @Test
+    public void testTagValuesAreUnescaped() throws Exception {
+        String snapshot = "application:escaped{path=\"a\\\\b\\\"c\\nd\",app=\"shop\"} 1.0\n";
+        try (PushTarget statsd = PushTarget.of("statsd://127.0.0.1:8125");
+             PushTarget graphite = PushTarget.of("graphite://127.0.0.1:2003")) {
+            String encoded = new String(statsd.encode(snapshot, 0), StandardCharsets.UTF_8);
+            assert encoded.equals("application.escaped:1.0|g|#path:a\\b\"c_d,app:shop\n") : encoded;
+
+            encoded = new String(graphite.encode(snapshot, 0), StandardCharsets.UTF_8);
+            assert encoded.equals("application.escaped;path=a\\b\"c_d;app=shop 1.0 0\n") : encoded;
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownScheme() {
+        PushTarget.of("ftp://localhost/metrics");
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        int len;
+        while ((len = in.read(buf)) >= 0) {
+            out.write(buf, 0, len);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017 Red Hat, Inc. and/or its affiliates
+ * and other contributors as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.microprofile_metrics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.microprofile.metrics.Snapshot;
+import org.junit.Test;
+import org.wildfly.swarm.microprofile.metrics.runtime.ReservoirSelector;
+import org.wildfly.swarm.microprofile.metrics.runtime.app.ExponentiallyDecayingReservoir;
+import org.wildfly.swarm.microprofile.metrics.runtime.app.StripedReservoir;
+
+public class StripedReservoirTest {
+
+    @Test
+    public void testSnapshotOfFewValues() {
+        StripedReservoir reservoir = new StripedReservoir(8, 4);
+        for (int i = 1; i <= 5; ++i) {
+            reservoir.update(i);
+        }
+        assert reservoir.size() == 5 : reservoir.size();
+
+        Snapshot snapshot = reservoir.getSnapshot();
+        assert snapshot.size() == 5;
+        assert snapshot.getMin() == 1;
+        assert snapshot.getMax() == 5;
+        assert snapshot.getMean() == 3.0 : snapshot.getMean();
+        assert snapshot.getMedian() == 3.0 : snapshot.getMedian();
+    }
+
+    @Test
+    public void testKeepsMostRecentValues() {
+        StripedReservoir reservoir = new StripedReservoir(8, 4);
+        for (int i = 0; i < 100; ++i) {
+            reservoir.update(i);
+        }
+        Snapshot snapshot = reservoir.getSnapshot();
+        assert snapshot.size() == 8 : snapshot.size();
+        assert snapshot.getMin() == 92 : snapshot.getMin();
+        assert snapshot.getMax() == 99 : snapshot.getMax();
+    }
+
+    @Test
+    public void testConcurrentUpdates() throws Exception {
+        StripedReservoir reservoir = new StripedReservoir(128, 8);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; ++t) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10000; ++i) {
+                    reservoir.update(42);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread each : threads) {
+            each.join();
+        }
+        Snapshot snapshot = reservoir.getSnapshot();
+        assert snapshot.size() > 0;
+        assert snapshot.size() <= 128 * 8;
+        assert snapshot.getMin() == 42;
+        assert snapshot.getMax() == 42;
+    }
+
+    @Test
+    public void testSelectorPatterns() {
+        Map<String, String> reservoirs = new LinkedHashMap<>();
+        reservoirs.put("app\\.hot\\..*", ReservoirSelector.STRIPED);
+        ReservoirSelector selector = new ReservoirSelector(ReservoirSelector.EXPONENTIALLY_DECAYING, reservoirs);
+
+        assert selector.reservoirFor("app.hot.requests") instanceof StripedReservoir;
+        assert selector.reservoirFor("app.cold.requests") instanceof ExponentiallyDecayingReservoir;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownReservoir() {
+        new ReservoirSelector("bogus", new HashMap<>());
+    }
+}
@@ -22,10 +22,20 @@ package org.wildfly.swarm.monitor;
 public class HealthMetaData {
     private final boolean isSecure;
     private final String webContext;
+    private final String deployment;
+    private final String className;
+    private final String methodName;
 
     public HealthMetaData(String webContext, boolean isSecure) {
+        this(webContext, isSecure, null, null, null);
+    }
+
+    public HealthMetaData(String webContext, boolean isSecure, String deployment, String className, String methodName) {
         this.webContext = webContext;
         this.isSecure = isSecure;
+        this.deployment = deployment;
+        this.className = className;
+        this.methodName = methodName;
     }
 
     public boolean isSecure() {
@@ -36,6 +46,21 @@ public class HealthMetaData {
         return webContext;
     }
 
+    /**
+     * @return the name of the deployment declaring the health method
+     */
+    public String getDeployment() {
+        return deployment;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
     public String toString() {
         return "[HealthMetaData: webContext=" + this.webContext + "; isSecure=" + this.isSecure + "]";
 
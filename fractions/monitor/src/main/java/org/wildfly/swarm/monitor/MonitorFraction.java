@@ -17,7 +17,9 @@ package org.wildfly.swarm.monitor;
 
 import java.util.Optional;
 
+import org.wildfly.swarm.config.runtime.AttributeDocumentation;
 import org.wildfly.swarm.spi.api.Fraction;
+import org.wildfly.swarm.spi.api.annotations.Configurable;
 import org.wildfly.swarm.spi.api.annotations.DeploymentModule;
 
 /**
@@ -26,10 +28,14 @@ import org.wildfly.swarm.spi.api.annotations.DeploymentModule;
 @DeploymentModule(name = "javax.ws.rs.api")
 @DeploymentModule(name = "org.jboss.dmr")
 @DeploymentModule(name = "org.wildfly.swarm.monitor")
+@Configurable("swarm.monitor")
 public class MonitorFraction implements Fraction<MonitorFraction> {
 
     private Optional<String> securityRealm = Optional.empty();
 
+    @AttributeDocumentation("Port of a dedicated listener, with a worker of its own, serving the monitoring endpoints instead of the default listener")
+    private Integer probePort;
+
     public MonitorFraction securityRealm(String realmName) {
         this.securityRealm = Optional.of(realmName);
         return this;
@@ -38,4 +44,13 @@ public class MonitorFraction implements Fraction<MonitorFraction> {
     public Optional<String> securityRealm() {
         return this.securityRealm;
     }
+
+    public MonitorFraction probePort(int port) {
+        this.probePort = port;
+        return this;
+    }
+
+    public Integer probePort() {
+        return this.probePort;
+    }
 }
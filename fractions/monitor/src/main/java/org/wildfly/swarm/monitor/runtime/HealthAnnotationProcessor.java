@@ -119,7 +119,8 @@ public class HealthAnnotationProcessor implements DeploymentProcessor {
                             throw new RuntimeException("@Health requires an explicit @Path annotation");
                         }
 
-                        HealthMetaData metaData = new HealthMetaData(sb.toString(), isSecure);
+                        HealthMetaData metaData = new HealthMetaData(sb.toString(), isSecure, archive.getName(),
+                                                                     classInfo.name().toString(), methodInfo.name());
                         Monitor.lookup().registerHealth(metaData);
                     }
                 }
@@ -0,0 +1,240 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.monitor.runtime;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.Vetoed;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.CDI;
+import javax.enterprise.inject.spi.InjectionTarget;
+import javax.ws.rs.core.Response;
+
+import org.jboss.logging.Logger;
+import org.jboss.weld.context.bound.BoundLiteral;
+import org.jboss.weld.context.bound.BoundRequestContext;
+import org.wildfly.swarm.monitor.HealthMetaData;
+
+/**
+ * Invokes a <code>@Health</code> method of a deployment directly, rather than through HTTP.
+ *
+ * <p>Upon first invocation, the class declaring the method is loaded from the deployment, and its
+ * method handle and bean resolved through CDI where available.  Each invocation then runs within a
+ * request context of its own, on a contextual reference to the bean, so that its scope is honoured
+ * and its dependent instances destroyed afterwards.  A class which is not a bean is instantiated and
+ * injected for each invocation, as JAX-RS would for each request, and destroyed afterwards.  Without
+ * CDI, it is simply instantiated for each invocation.</p>
+ *
+ * <p>A result which is a health status, either directly or as the entity of a JAX-RS response, is
+ * reported as its JSON with a status code of 200 when <code>UP</code> and 503 otherwise, as the health
+ * response filter would.  Anything else is reported as <code>DOWN</code>.</p>
+ *
+ * <p>As the method is not invoked within a JAX-RS request, any of its <code>@Context</code> injections
+ * remain unset.</p>
+ */
+@Vetoed
+class HealthDelegate {
+
+    private static Logger LOG = Logger.getLogger("org.wildfly.swarm.monitor.health");
+
+    HealthDelegate(HealthMetaData metaData, Function<String, ClassLoader> deploymentClassLoaders) {
+        this.metaData = metaData;
+        this.deploymentClassLoaders = deploymentClassLoaders;
+    }
+
+    HealthMetaData getMetaData() {
+        return this.metaData;
+    }
+
+    HealthResult invoke() {
+        Thread thread = Thread.currentThread();
+        ClassLoader tccl = thread.getContextClassLoader();
+        try {
+            Target<?> target = resolve();
+            thread.setContextClassLoader(target.classLoader);
+            return toResult(target.invoke());
+        } catch (Throwable t) {
+            LOG.error("Health check failed: " + this.metaData.getWebContext(), t);
+            return HealthResult.down(this.metaData.getWebContext(), 500);
+        } finally {
+            thread.setContextClassLoader(tccl);
+        }
+    }
+
+    private HealthResult toResult(Object result) throws ReflectiveOperationException {
+        Object entity = result;
+        if (result instanceof Response) {
+            entity = ((Response) result).getEntity();
+            if (entity == null) {
+                return HealthResult.down(this.metaData.getWebContext(), ((Response) result).getStatus());
+            }
+        }
+        if (entity == null) {
+            return HealthResult.down(this.metaData.getWebContext(), 204);
+        }
+
+        StatusAccessor accessor = this.accessor;
+        if (accessor == null || accessor.type != entity.getClass()) {
+            accessor = new StatusAccessor(entity.getClass());
+            this.accessor = accessor;
+        }
+        if (accessor.toJson == null) {
+            return HealthResult.down(this.metaData.getWebContext(), result instanceof Response ? ((Response) result).getStatus() : 200);
+        }
+        boolean up = "UP".equals(String.valueOf(accessor.getState.invoke(entity)));
+        return new HealthResult(up ? 200 : 503, (String) accessor.toJson.invoke(entity));
+    }
+
+    private synchronized Target<?> resolve() throws Exception {
+        if (this.target == null) {
+            ClassLoader classLoader = this.deploymentClassLoaders.apply(this.metaData.getDeployment());
+            Thread thread = Thread.currentThread();
+            ClassLoader tccl = thread.getContextClassLoader();
+            thread.setContextClassLoader(classLoader);
+            try {
+                Class<?> type = classLoader.loadClass(this.metaData.getClassName());
+                Method method = type.getMethod(this.metaData.getMethodName());
+                this.target = new Target<>(classLoader, type, MethodHandles.publicLookup().unreflect(method), beanManager());
+            } finally {
+                thread.setContextClassLoader(tccl);
+            }
+        }
+        return this.target;
+    }
+
+    private static BeanManager beanManager() {
+        try {
+            return CDI.current().getBeanManager();
+        } catch (IllegalStateException | NoClassDefFoundError e) {
+            return null;
+        }
+    }
+
+    private final HealthMetaData metaData;
+
+    private final Function<String, ClassLoader> deploymentClassLoaders;
+
+    private Target<?> target;
+
+    private volatile StatusAccessor accessor;
+
+    private static final class Target<T> {
+
+        Target(ClassLoader classLoader, Class<T> type, MethodHandle handle, BeanManager beanManager) {
+            this.classLoader = classLoader;
+            this.type = type;
+            this.handle = handle;
+            this.beanManager = beanManager;
+            if (beanManager == null) {
+                this.bean = null;
+                this.injectionTarget = null;
+                this.requestContext = null;
+            } else {
+                this.bean = beanManager.resolve(beanManager.getBeans(type));
+                this.injectionTarget = this.bean == null ? beanManager.createInjectionTarget(beanManager.createAnnotatedType(type)) : null;
+                Bean<?> contextBean = beanManager.resolve(beanManager.getBeans(BoundRequestContext.class, BoundLiteral.INSTANCE));
+                this.requestContext = (BoundRequestContext) beanManager.getReference(contextBean, BoundRequestContext.class,
+                                                                                     beanManager.createCreationalContext(contextBean));
+            }
+        }
+
+        Object invoke() throws Throwable {
+            if (this.beanManager == null) {
+                return this.handle.invoke(this.type.getConstructor().newInstance());
+            }
+            Map<String, Object> storage = new HashMap<>();
+            this.requestContext.associate(storage);
+            this.requestContext.activate();
+            try {
+                return this.bean != null ? invokeBean() : invokeNonContextual();
+            } finally {
+                try {
+                    this.requestContext.invalidate();
+                    this.requestContext.deactivate();
+                } finally {
+                    this.requestContext.dissociate(storage);
+                }
+            }
+        }
+
+        private Object invokeBean() throws Throwable {
+            CreationalContext<?> context = this.beanManager.createCreationalContext(this.bean);
+            try {
+                return this.handle.invoke(this.beanManager.getReference(this.bean, this.type, context));
+            } finally {
+                context.release();
+            }
+        }
+
+        private Object invokeNonContextual() throws Throwable {
+            CreationalContext<T> context = this.beanManager.createCreationalContext(null);
+            T instance = this.injectionTarget.produce(context);
+            try {
+                this.injectionTarget.inject(instance, context);
+                this.injectionTarget.postConstruct(instance);
+                return this.handle.invoke(instance);
+            } finally {
+                this.injectionTarget.preDestroy(instance);
+                this.injectionTarget.dispose(instance);
+                context.release();
+            }
+        }
+
+        private final ClassLoader classLoader;
+
+        private final Class<T> type;
+
+        private final MethodHandle handle;
+
+        private final BeanManager beanManager;
+
+        private final Bean<?> bean;
+
+        private final InjectionTarget<T> injectionTarget;
+
+        private final BoundRequestContext requestContext;
+    }
+
+    private static final class StatusAccessor {
+
+        StatusAccessor(Class<?> type) {
+            this.type = type;
+            Method toJson = null;
+            Method getState = null;
+            try {
+                toJson = type.getMethod("toJson");
+                getState = type.getMethod("getState");
+            } catch (NoSuchMethodException e) {
+                toJson = null;
+            }
+            this.toJson = toJson;
+            this.getState = getState;
+        }
+
+        private final Class<?> type;
+
+        private final Method toJson;
+
+        private final Method getState;
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.monitor.runtime;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.enterprise.inject.Vetoed;
+
+import org.wildfly.swarm.undertow.ProbeRunner;
+
+/**
+ * Invokes health delegates in parallel on a {@link ProbeRunner}.
+ *
+ * <p>A delegate not responding within the timeout is reported as <code>DOWN</code> with a status code
+ * of 504, and its thread interrupted.  One which cannot be queued as the pool is saturated is reported
+ * with a status code of 503.</p>
+ */
+@Vetoed
+class HealthInvoker implements Closeable {
+
+    private static final int QUEUE_CAPACITY = 64;
+
+    HealthInvoker(int threads, long timeout, TimeUnit unit) {
+        this.runner = new ProbeRunner("monitor-health", threads, QUEUE_CAPACITY, unit.toMillis(timeout));
+    }
+
+    /**
+     * Invoke health delegates.
+     *
+     * @param delegates The delegates.
+     * @return The results, in the order of the delegates.
+     */
+    CompletableFuture<List<HealthResult>> invoke(List<HealthDelegate> delegates) {
+        List<CompletableFuture<HealthResult>> futures = new ArrayList<>(delegates.size());
+        for (HealthDelegate each : delegates) {
+            futures.add(invoke(each));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()]))
+                .thenApply(ignored -> {
+                    List<HealthResult> results = new ArrayList<>(futures.size());
+                    for (CompletableFuture<HealthResult> each : futures) {
+                        results.add(each.join());
+                    }
+                    return results;
+                });
+    }
+
+    private CompletableFuture<HealthResult> invoke(HealthDelegate delegate) {
+        String id = delegate.getMetaData().getWebContext();
+        return this.runner.run(delegate::invoke, t -> {
+            if (t instanceof TimeoutException) {
+                return HealthResult.down(id, 504);
+            }
+            return HealthResult.down(id, t instanceof RejectedExecutionException ? 503 : 500);
+        });
+    }
+
+    @Override
+    public void close() {
+        this.runner.close();
+    }
+
+    private final ProbeRunner runner;
+}
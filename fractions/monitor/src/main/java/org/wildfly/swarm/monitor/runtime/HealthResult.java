@@ -0,0 +1,60 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.monitor.runtime;
+
+import javax.enterprise.inject.Vetoed;
+
+/**
+ * The outcome of invoking a single health delegate.
+ */
+@Vetoed
+public final class HealthResult {
+
+    public HealthResult(int status, String payload) {
+        this.status = status;
+        this.payload = payload;
+    }
+
+    /**
+     * A <code>DOWN</code> result, for a delegate which could not be invoked or did not respond.
+     *
+     * @param id     The web context of the delegate.
+     * @param status The status code reported.
+     * @return The result.
+     */
+    static HealthResult down(String id, int status) {
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"id\"").append(":\"").append(id).append("\",");
+        json.append("\"result\"").append(":\"").append("DOWN").append("\",");
+        json.append("\"data\"").append(":").append("{");
+        json.append("\"status-code\"").append(":").append(status);
+        json.append("}");
+        json.append("}");
+        return new HealthResult(status, json.toString());
+    }
+
+    public int getStatus() {
+        return this.status;
+    }
+
+    public String getPayload() {
+        return this.payload;
+    }
+
+    private final int status;
+
+    private final String payload;
+}
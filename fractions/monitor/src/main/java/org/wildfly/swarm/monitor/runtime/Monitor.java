@@ -17,6 +17,7 @@ package org.wildfly.swarm.monitor.runtime;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import javax.naming.InitialContext;
 import javax.naming.NamingException;
@@ -50,6 +51,12 @@ public interface Monitor {
 
     List<HealthMetaData> getHealthURIs();
 
+    /**
+     * Invoke the registered health endpoints directly, without blocking the caller.
+     * @return the results, in the order of {@link #getHealthURIs()}
+     */
+    CompletableFuture<List<HealthResult>> invokeHealth();
+
     Optional<SecurityRealm> getSecurityRealm();
 
     /**
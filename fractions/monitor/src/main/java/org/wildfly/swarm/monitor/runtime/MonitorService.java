@@ -19,9 +19,13 @@ import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import javax.enterprise.inject.Vetoed;
 
@@ -29,11 +33,17 @@ import org.jboss.as.controller.ModelController;
 import org.jboss.as.controller.client.ModelControllerClient;
 import org.jboss.as.domain.management.SecurityRealm;
 import org.jboss.as.server.ServerEnvironment;
+import org.jboss.as.server.deployment.Services;
+import org.jboss.as.server.moduleservice.ServiceModuleLoader;
 import org.jboss.dmr.ModelNode;
 import org.jboss.logging.Logger;
+import org.jboss.modules.ModuleLoadException;
 import org.jboss.msc.inject.Injector;
+import org.jboss.msc.service.AbstractServiceListener;
 import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.ServiceRegistry;
 import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
@@ -74,7 +84,9 @@ public class MonitorService implements Monitor, Service<MonitorService> {
     public void start(StartContext startContext) throws StartException {
         executorService = Executors.newSingleThreadExecutor();
         serverEnvironment = serverEnvironmentValue.getValue();
+        serviceRegistry = startContext.getController().getServiceContainer();
         controllerClient = modelControllerValue.getValue().createClient(executorService);
+        healthInvoker = new HealthInvoker(HEALTH_THREADS, getProbeTimeoutSeconds(), TimeUnit.SECONDS);
 
         if (!securityRealm.isPresent()) {
             LOG.warn("You are running the monitoring endpoints without any security realm configuration!");
@@ -86,6 +98,9 @@ public class MonitorService implements Monitor, Service<MonitorService> {
         if (executorService != null) {
             executorService.shutdownNow();
         }
+        if (healthInvoker != null) {
+            healthInvoker.close();
+        }
     }
 
     @Override
@@ -163,6 +178,7 @@ public class MonitorService implements Monitor, Service<MonitorService> {
     public void registerHealth(HealthMetaData metaData) {
         LOG.info("Adding /health endpoint delegate: " + metaData.getWebContext());
         this.endpoints.add(metaData);
+        this.delegates.add(new HealthDelegate(metaData, this::deploymentClassLoader));
     }
 
     @Override
@@ -170,6 +186,45 @@ public class MonitorService implements Monitor, Service<MonitorService> {
         return Collections.unmodifiableList(this.endpoints);
     }
 
+    @Override
+    public CompletableFuture<List<HealthResult>> invokeHealth() {
+        return this.healthInvoker.invoke(this.delegates);
+    }
+
+    private ClassLoader deploymentClassLoader(String deployment) {
+        ClassLoader classLoader;
+        try {
+            classLoader = this.serviceModuleLoaderValue.getValue()
+                    .loadModule(ServiceModuleLoader.MODULE_PREFIX + deployment)
+                    .getClassLoader();
+        } catch (ModuleLoadException e) {
+            throw new IllegalStateException("Unable to load deployment " + deployment, e);
+        }
+        ServiceController<?> unit = this.serviceRegistry.getService(Services.deploymentUnitName(deployment));
+        if (unit != null && this.watched.add(deployment)) {
+            unit.addListener(new AbstractServiceListener<Object>() {
+                @Override
+                public void transition(ServiceController<?> controller, ServiceController.Transition transition) {
+                    if (transition.getAfter() == ServiceController.Substate.REMOVED) {
+                        unregisterHealth(deployment);
+                    }
+                }
+            });
+        }
+        return classLoader;
+    }
+
+    /**
+     * Forget the health endpoints of an undeployed deployment, together with the classes resolved
+     * by their delegates.
+     */
+    private void unregisterHealth(String deployment) {
+        LOG.info("Removing /health endpoint delegates of undeployed " + deployment);
+        this.endpoints.removeIf(each -> deployment.equals(each.getDeployment()));
+        this.delegates.removeIf(each -> deployment.equals(each.getMetaData().getDeployment()));
+        this.watched.remove(deployment);
+    }
+
     @Override
     public Optional<SecurityRealm> getSecurityRealm() {
 
@@ -203,21 +258,37 @@ public class MonitorService implements Monitor, Service<MonitorService> {
         return this.securityRealmServiceValue;
     }
 
+    public Injector<ServiceModuleLoader> getServiceModuleLoaderInjector() {
+        return this.serviceModuleLoaderValue;
+    }
+
     private static final long DEFAULT_PROBE_TIMEOUT_SECONDS = 2;
 
+    private static final int HEALTH_THREADS = 4;
+
     private final InjectedValue<ServerEnvironment> serverEnvironmentValue = new InjectedValue<ServerEnvironment>();
 
     private final InjectedValue<ModelController> modelControllerValue = new InjectedValue<ModelController>();
 
     private final InjectedValue<SecurityRealm> securityRealmServiceValue = new InjectedValue<SecurityRealm>();
 
+    private final InjectedValue<ServiceModuleLoader> serviceModuleLoaderValue = new InjectedValue<ServiceModuleLoader>();
+
     private final Optional<String> securityRealm;
 
     private ExecutorService executorService;
 
     private ServerEnvironment serverEnvironment;
 
+    private ServiceRegistry serviceRegistry;
+
     private ModelControllerClient controllerClient;
 
+    private HealthInvoker healthInvoker;
+
     private CopyOnWriteArrayList<HealthMetaData> endpoints = new CopyOnWriteArrayList<HealthMetaData>();
+
+    private CopyOnWriteArrayList<HealthDelegate> delegates = new CopyOnWriteArrayList<HealthDelegate>();
+
+    private final Set<String> watched = ConcurrentHashMap.newKeySet();
 }
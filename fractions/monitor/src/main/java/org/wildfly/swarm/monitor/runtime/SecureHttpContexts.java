@@ -129,10 +129,7 @@ public class SecureHttpContexts implements HttpHandler {
             }
 
             if (Queries.isDirectAccessToHealthEndpoint(monitor, exchange.getRelativePath())) {
-                if (!hasTokenAuth(exchange)) {
-                    return true;
-                }
-                return false;
+                return true;
             }
 
             if (HttpContexts.getDefaultContextNames().contains(exchange.getRelativePath())) {
@@ -146,12 +143,6 @@ public class SecureHttpContexts implements HttpHandler {
         return handler;
     }
 
-    private boolean hasTokenAuth(HttpServerExchange exchange) {
-
-        String token = exchange.getAttachment(HttpContexts.TOKEN);
-        return token != null && HttpContexts.EPHEMERAL_TOKEN.equals(token);
-    }
-
     private static AuthenticationMechanism wrap(final AuthenticationMechanism toWrap, final AuthMechanism mechanism) {
         return new AuthenticationMechanismWrapper(toWrap, mechanism);
     }
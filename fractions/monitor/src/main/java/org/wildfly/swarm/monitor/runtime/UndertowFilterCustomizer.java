@@ -16,11 +16,17 @@
 package org.wildfly.swarm.monitor.runtime;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Any;
 import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
+import javax.inject.Named;
 
+import org.wildfly.swarm.io.IOFraction;
+import org.wildfly.swarm.monitor.MonitorFraction;
 import org.wildfly.swarm.spi.api.Customizer;
+import org.wildfly.swarm.spi.api.SocketBindingGroup;
 import org.wildfly.swarm.spi.runtime.annotations.Post;
+import org.wildfly.swarm.undertow.ProbeServer;
 import org.wildfly.swarm.undertow.UndertowFraction;
 
 /**
@@ -32,6 +38,17 @@ public class UndertowFilterCustomizer implements Customizer {
     @Inject
     Instance<UndertowFraction> undertowFractionInstance;
 
+    @Inject
+    @Any
+    Instance<MonitorFraction> fractionInstance;
+
+    @Inject
+    IOFraction io;
+
+    @Inject
+    @Named("standard-sockets")
+    SocketBindingGroup group;
+
     @Override
     public void customize() {
         if (!undertowFractionInstance.isUnsatisfied()) {
@@ -46,8 +63,8 @@ public class UndertowFilterCustomizer implements Customizer {
                         customFilter.className("org.wildfly.swarm.monitor.runtime.SecureHttpContexts");
                     });
 
-            undertow.subresources().server("default-server")
-                    .subresources().host("default-host")
+            Integer probePort = fractionInstance.isUnsatisfied() ? null : fractionInstance.get().probePort();
+            ProbeServer.installIfConfigured(undertow, io, group, probePort)
                     .filterRef("wfs-monitor", f -> {
                         f.priority(100);
                     });
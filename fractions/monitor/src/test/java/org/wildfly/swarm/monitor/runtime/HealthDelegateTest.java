@@ -0,0 +1,103 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.monitor.runtime;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.wildfly.swarm.health.HealthStatus;
+import org.wildfly.swarm.monitor.HealthMetaData;
+
+public class HealthDelegateTest {
+
+    @Test
+    public void testStatusIsInvokedDirectly() {
+        int instances = Checks.instances;
+        HealthDelegate delegate = delegate("/app/up", "up");
+        HealthResult result = delegate.invoke();
+        Assert.assertEquals(200, result.getStatus());
+        Assert.assertTrue(result.getPayload(), result.getPayload().contains("\"id\":\"database\""));
+        Assert.assertTrue(result.getPayload(), result.getPayload().contains("\"result\":\"UP\""));
+
+        // without CDI, each invocation has an instance of its own, as each JAX-RS request would
+        Assert.assertEquals(200, delegate.invoke().getStatus());
+        Assert.assertEquals(instances + 2, Checks.instances);
+    }
+
+    @Test
+    public void testDownAndFailingDelegates() {
+        Assert.assertEquals(503, delegate("/app/down", "down").invoke().getStatus());
+
+        HealthResult failing = delegate("/app/failing", "failing").invoke();
+        Assert.assertEquals(500, failing.getStatus());
+        Assert.assertTrue(failing.getPayload(), failing.getPayload().contains("\"id\":\"/app/failing\""));
+        Assert.assertTrue(failing.getPayload(), failing.getPayload().contains("\"result\":\"DOWN\""));
+
+        Assert.assertEquals(200, delegate("/app/text", "text").invoke().getStatus());
+        Assert.assertTrue(delegate("/app/text", "text").invoke().getPayload().contains("\"result\":\"DOWN\""));
+    }
+
+    @Test
+    public void testSlowDelegateTimesOut() throws Exception {
+        HealthInvoker invoker = new HealthInvoker(2, 200, TimeUnit.MILLISECONDS);
+        try {
+            List<HealthResult> results = invoker.invoke(Arrays.asList(delegate("/app/slow", "slow"), delegate("/app/up", "up")))
+                    .get(5, TimeUnit.SECONDS);
+            Assert.assertEquals(504, results.get(0).getStatus());
+            Assert.assertEquals(200, results.get(1).getStatus());
+        } finally {
+            invoker.close();
+        }
+    }
+
+    private static HealthDelegate delegate(String context, String method) {
+        HealthMetaData metaData = new HealthMetaData(context, false, "app.war", Checks.class.getName(), method);
+        return new HealthDelegate(metaData, deployment -> HealthDelegateTest.class.getClassLoader());
+    }
+
+    public static class Checks {
+
+        static int instances;
+
+        public Checks() {
+            ++instances;
+        }
+
+        public HealthStatus up() {
+            return HealthStatus.named("database").up();
+        }
+
+        public HealthStatus down() {
+            return HealthStatus.named("database").down();
+        }
+
+        public HealthStatus failing() {
+            throw new IllegalStateException("no database");
+        }
+
+        public String text() {
+            return "OK";
+        }
+
+        public HealthStatus slow() throws InterruptedException {
+            Thread.sleep(10_000);
+            return up();
+        }
+    }
+}
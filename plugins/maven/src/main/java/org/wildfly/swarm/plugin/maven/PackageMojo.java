@@ -69,6 +69,13 @@ public class PackageMojo extends AbstractSwarmMojo {
     @Parameter(alias = "hollow", defaultValue = "false", property = "swarm.hollow")
     protected boolean hollow;
 
+    /**
+     * Store the uberjar entries uncompressed so module jars can be loaded in place at runtime,
+     * at the cost of a larger uberjar.
+     */
+    @Parameter(alias = "uncompressed", defaultValue = "false", property = "swarm.uncompressed")
+    protected boolean uncompressed;
+
     /**
      * Flag to skip packaging entirely.
      */
@@ -137,6 +144,7 @@ public class PackageMojo extends AbstractSwarmMojo {
                 .executableScript(executableScript)
                 .fractionDetectionMode(fractionDetectMode)
                 .hollow(hollow)
+                .uncompressed(uncompressed)
                 .logger(new SimpleLogger() {
                     @Override
                     public void debug(String msg) {
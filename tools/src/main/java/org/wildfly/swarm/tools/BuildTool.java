@@ -31,6 +31,7 @@ import java.util.Collection;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.jar.Attributes;
@@ -43,16 +44,22 @@ import net.lingala.zip4j.core.ZipFile;
 import net.lingala.zip4j.exception.ZipException;
 import net.lingala.zip4j.model.FileHeader;
 import org.jboss.shrinkwrap.api.Archive;
+import org.jboss.shrinkwrap.api.ArchivePath;
+import org.jboss.shrinkwrap.api.Node;
 import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.asset.Asset;
 import org.jboss.shrinkwrap.api.asset.FileAsset;
 import org.jboss.shrinkwrap.api.asset.ByteArrayAsset;
+import org.jboss.shrinkwrap.api.exporter.StreamExporter;
 import org.jboss.shrinkwrap.api.exporter.ZipExporter;
+import org.jboss.shrinkwrap.api.exporter.ZipStoredExporter;
 import org.jboss.shrinkwrap.api.importer.ExplodedImporter;
 import org.jboss.shrinkwrap.api.importer.ZipImporter;
 import org.jboss.shrinkwrap.api.spec.JavaArchive;
 import org.jboss.shrinkwrap.impl.base.io.IOUtil;
 import org.wildfly.swarm.bootstrap.Main;
 import org.wildfly.swarm.bootstrap.env.WildFlySwarmManifest;
+import org.wildfly.swarm.bootstrap.modules.ModuleIndex;
 import org.wildfly.swarm.bootstrap.util.BootstrapProperties;
 import org.wildfly.swarm.bootstrap.util.MavenArtifactDescriptor;
 import org.wildfly.swarm.fractions.FractionDescriptor;
@@ -165,6 +172,16 @@ public class BuildTool {
         return this;
     }
 
+    /**
+     * Store uberjar entries without compression, allowing nested module jars
+     * to be loaded in place from a memory-mapped view of the uberjar, at the
+     * cost of a larger uberjar. Entries are compressed by default.
+     */
+    public BuildTool uncompressed(boolean uncompressed) {
+        this.uncompressed = uncompressed;
+        return this;
+    }
+
     public BuildTool hollow(boolean hollow) {
         this.hollow = hollow;
         return this;
@@ -239,6 +256,7 @@ public class BuildTool {
         addProjectAsset(this.dependencyManager);
         populateUberJarMavenRepository(this.dependencyManager);
         addUberjarResources();
+        addModuleIndex();
 
         return this.archive;
     }
@@ -437,6 +455,28 @@ public class BuildTool {
 
     }
 
+    private void addModuleIndex() throws IOException {
+        ModuleIndexBuilder builder = new ModuleIndexBuilder();
+
+        for (Map.Entry<ArchivePath, Node> each : this.archive.getContent().entrySet()) {
+            String path = each.getKey().get().substring(1);
+            Asset asset = each.getValue().getAsset();
+            if (asset != null && path.startsWith("modules/") && path.endsWith("/module.xml")) {
+                try (InputStream in = asset.openStream()) {
+                    builder.addRoot(path, in);
+                }
+            }
+        }
+
+        for (ArtifactSpec each : this.dependencyManager.getBootstrapDependencies()) {
+            builder.addBootstrapArtifact(each.file);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        builder.build().write(out);
+        this.archive.add(new ByteArrayAsset(out.toByteArray()), ModuleIndex.CLASSPATH_LOCATION);
+    }
+
     public static File getOutputFile(String baseName, Path directory) {
         return new File(directory.toFile(), baseName + "-swarm.jar");
     }
@@ -446,7 +486,7 @@ public class BuildTool {
         if (!out.getParentFile().exists() && !out.getParentFile().mkdirs()) {
             this.log.error("Failed to create parent directory for: " + out.getAbsolutePath());
         }
-        ZipExporter exporter = this.archive.as(ZipExporter.class);
+        StreamExporter exporter = this.uncompressed ? this.archive.as(ZipStoredExporter.class) : this.archive.as(ZipExporter.class);
         try (FileOutputStream fos = new FileOutputStream(out)) {
             if (executable) {
                 try (InputStream is = getLaunchScript()) {
@@ -581,6 +621,8 @@ public class BuildTool {
 
     private boolean executable;
 
+    private boolean uncompressed;
+
     private File executableScript;
 
     private DependencyManager dependencyManager;
@@ -28,6 +28,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.jar.JarFile;
@@ -251,14 +252,22 @@ public class DependencyManager implements ResolvedDependencies {
                     }
                 });
 
-        this.dependencies.stream()
-                .filter(e -> isFractionJar(e.file) || isConfigApiModulesJar(e.file))
+        getBootstrapDependencies()
                 .forEach((artifact) -> {
                     this.applicationManifest.addBootstrapArtifact(artifact.mavenGav());
                 });
 
     }
 
+    /**
+     * Bootstrap dependencies are those whose modules are loaded from the bootstrap classpath.
+     */
+    Set<ArtifactSpec> getBootstrapDependencies() {
+        return this.dependencies.stream()
+                .filter(e -> isFractionJar(e.file) || isConfigApiModulesJar(e.file))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
     Set<ArtifactSpec> getRemovableDependencies() {
         return this.removableDependencies;
     }
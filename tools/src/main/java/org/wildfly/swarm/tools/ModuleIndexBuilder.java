@@ -0,0 +1,278 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.tools;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+
+import org.jboss.shrinkwrap.descriptor.spi.node.Node;
+import org.jboss.shrinkwrap.descriptor.spi.node.dom.XmlDomNodeImporterImpl;
+import org.wildfly.swarm.bootstrap.modules.ModuleIndex;
+
+/**
+ * Pre-parses <code>module.xml</code> descriptors into a {@link ModuleIndex}.
+ *
+ * <p>Descriptors using anything beyond plain module dependencies and artifact
+ * resources are skipped, and left to be parsed at runtime.</p>
+ */
+public class ModuleIndexBuilder {
+
+    private static final String MODULES_PREFIX = "modules/";
+
+    private static final String MODULE_XML = "/module.xml";
+
+    private static final String NAME = "name";
+
+    private static final String SLOT = "slot";
+
+    private static final String MAIN = "main";
+
+    private static final String XMLNS = "xmlns";
+
+    private static final String MODULE_1_6 = "urn:jboss:module:1.6";
+
+    private static final Set<String> NAME_ONLY = Collections.singleton(NAME);
+
+    private static final Set<String> MODULE_ATTRIBUTES = new HashSet<>(Arrays.asList(XMLNS, NAME, SLOT, "version"));
+
+    private static final Set<String> ALIAS_ATTRIBUTES = new HashSet<>(Arrays.asList(XMLNS, NAME, SLOT, "target-name", "target-slot"));
+
+    private static final Set<String> DEPENDENCY_ATTRIBUTES = new HashSet<>(Arrays.asList(NAME, SLOT, "export", "optional", "services"));
+
+    /**
+     * Add a descriptor found at the root of the uberjar.
+     *
+     * @param path The path of the descriptor, such as <code>modules/org/foo/main/module.xml</code>.
+     * @param in   The descriptor content.
+     */
+    public void addRoot(String path, InputStream in) throws IOException {
+        byte[] content = readFully(in);
+        ModuleIndex.Entry entry = parse(path, content, true);
+        if (entry != null) {
+            this.index.add(entry);
+        }
+    }
+
+    /**
+     * Add the descriptors contained within a bootstrap artifact.
+     *
+     * <p>Descriptors found with differing content in several artifacts are excluded,
+     * as which one wins depends upon the runtime classpath order.</p>
+     *
+     * @param file The bootstrap artifact.
+     */
+    public void addBootstrapArtifact(File file) throws IOException {
+        try (JarFile jar = new JarFile(file)) {
+            Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry each = entries.nextElement();
+                String name = each.getName();
+                if (!name.startsWith(MODULES_PREFIX) || !name.endsWith(MODULE_XML)) {
+                    continue;
+                }
+                byte[] content;
+                try (InputStream in = jar.getInputStream(each)) {
+                    content = readFully(in);
+                }
+                byte[] existing = this.classpathContent.putIfAbsent(name, content);
+                if (existing != null && !Arrays.equals(existing, content)) {
+                    this.conflicting.add(name);
+                }
+            }
+        }
+    }
+
+    public ModuleIndex build() throws IOException {
+        for (Map.Entry<String, byte[]> each : this.classpathContent.entrySet()) {
+            if (this.conflicting.contains(each.getKey())) {
+                continue;
+            }
+            ModuleIndex.Entry entry = parse(each.getKey(), each.getValue(), false);
+            if (entry != null) {
+                this.index.add(entry);
+            }
+        }
+        return this.index;
+    }
+
+    static ModuleIndex.Entry parse(String path, byte[] content, boolean root) throws IOException {
+        Node node;
+        try {
+            node = new XmlDomNodeImporterImpl().importAsNode(new ByteArrayInputStream(content), true);
+        } catch (RuntimeException e) {
+            return null;
+        }
+
+        String dir = path.substring(MODULES_PREFIX.length(), path.length() - MODULE_XML.length());
+        int slotLoc = dir.lastIndexOf('/');
+        if (slotLoc < 0) {
+            return null;
+        }
+        String pathName = dir.substring(0, slotLoc).replace('/', '.');
+        String pathSlot = dir.substring(slotLoc + 1);
+
+        boolean noSlots = MODULE_1_6.equals(node.getAttribute(XMLNS));
+        String name = node.getAttribute(NAME);
+        String slot = noSlots ? MAIN : defaultSlot(node.getAttribute(SLOT));
+        if (name == null || !name.equals(pathName) || !slot.equals(pathSlot)) {
+            return null;
+        }
+
+        ModuleIndex.Entry entry = new ModuleIndex.Entry(name + ":" + slot, root);
+
+        if (node.getName().equals("module-alias")) {
+            if (!hasOnly(node, ALIAS_ATTRIBUTES) || !children(node).isEmpty()) {
+                return null;
+            }
+            String targetName = node.getAttribute("target-name");
+            if (targetName == null) {
+                return null;
+            }
+            entry.setAliasTarget(noSlots ? targetName : targetName + targetSlotSuffix(node.getAttribute("target-slot")));
+            return entry;
+        }
+
+        if (!node.getName().equals("module") || !hasOnly(node, MODULE_ATTRIBUTES)) {
+            return null;
+        }
+        entry.setVersion(node.getAttribute("version"));
+
+        Set<String> seen = new HashSet<>();
+        for (Node child : children(node)) {
+            if (!seen.add(child.getName())) {
+                return null;
+            }
+            switch (child.getName()) {
+                case "main-class":
+                    if (!hasOnly(child, NAME_ONLY) || child.getAttribute(NAME) == null || !children(child).isEmpty()) {
+                        return null;
+                    }
+                    entry.setMainClass(child.getAttribute(NAME));
+                    break;
+                case "resources":
+                    if (!addResources(entry, child)) {
+                        return null;
+                    }
+                    break;
+                case "dependencies":
+                    if (!addDependencies(entry, child, noSlots)) {
+                        return null;
+                    }
+                    break;
+                default:
+                    // exports, properties, permissions: leave to the parser
+                    return null;
+            }
+        }
+        return entry;
+    }
+
+    private static boolean addResources(ModuleIndex.Entry entry, Node resources) {
+        if (!resources.getAttributes().isEmpty()) {
+            return false;
+        }
+        for (Node each : children(resources)) {
+            if (!each.getName().equals("artifact") || !hasOnly(each, NAME_ONLY)
+                    || each.getAttribute(NAME) == null || !children(each).isEmpty()) {
+                return false;
+            }
+            entry.addArtifact(each.getAttribute(NAME));
+        }
+        entry.setResources(true);
+        return true;
+    }
+
+    private static boolean addDependencies(ModuleIndex.Entry entry, Node dependencies, boolean noSlots) {
+        if (!dependencies.getAttributes().isEmpty()) {
+            return false;
+        }
+        for (Node each : children(dependencies)) {
+            if (!each.getName().equals("module") || !hasOnly(each, DEPENDENCY_ATTRIBUTES)
+                    || each.getAttribute(NAME) == null || !children(each).isEmpty()) {
+                return false;
+            }
+            String slot = each.getAttribute(SLOT);
+            if (noSlots && slot != null) {
+                return false;
+            }
+            ModuleIndex.Services services;
+            String servicesAttr = each.getAttribute("services");
+            if (servicesAttr == null || servicesAttr.equals("none")) {
+                services = ModuleIndex.Services.NONE;
+            } else if (servicesAttr.equals("import")) {
+                services = ModuleIndex.Services.IMPORT;
+            } else if (servicesAttr.equals("export")) {
+                services = ModuleIndex.Services.EXPORT;
+            } else {
+                return false;
+            }
+            entry.addDependency(each.getAttribute(NAME),
+                                noSlots ? "" : defaultSlot(slot),
+                                Boolean.parseBoolean(each.getAttribute("export")),
+                                Boolean.parseBoolean(each.getAttribute("optional")),
+                                services);
+        }
+        return true;
+    }
+
+    private static List<Node> children(Node node) {
+        return node.getChildren().stream()
+                .filter(e -> !e.isComment())
+                .collect(Collectors.toList());
+    }
+
+    private static boolean hasOnly(Node node, Set<String> attributes) {
+        return attributes.containsAll(node.getAttributes().keySet());
+    }
+
+    private static String defaultSlot(String slot) {
+        return slot == null ? MAIN : slot;
+    }
+
+    private static String targetSlotSuffix(String slot) {
+        return slot == null || slot.equals(MAIN) ? "" : ":" + slot;
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[4096];
+        int len;
+        while ((len = in.read(buf)) >= 0) {
+            out.write(buf, 0, len);
+        }
+        return out.toByteArray();
+    }
+
+    private final ModuleIndex index = new ModuleIndex();
+
+    private final Map<String, byte[]> classpathContent = new HashMap<>();
+
+    private final Set<String> conflicting = new HashSet<>();
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright 2015-2017 Red Hat, Inc, and individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.wildfly.swarm.tools;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.jboss.modules.AliasModuleSpec;
+import org.jboss.modules.ConcreteModuleSpec;
+import org.jboss.modules.DependencySpec;
+import org.jboss.modules.ModuleDependencySpec;
+import org.jboss.modules.ModuleSpec;
+import org.junit.Test;
+import org.wildfly.swarm.bootstrap.modules.ModuleIndex;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ModuleIndexBuilderTest {
+
+    @Test
+    public void testIndexable() throws Exception {
+        ModuleIndex.Entry entry = ModuleIndexBuilder.parse("modules/org/example/indexable/main/module.xml", resource("indexable-module.xml"), true);
+
+        assertThat(entry).isNotNull();
+        assertThat(entry.getIdentifier()).isEqualTo("org.example.indexable:main");
+        assertThat(entry.getArtifacts()).containsOnly("org.example:indexable:1.0");
+    }
+
+    @Test
+    public void testMismatchedPath() throws Exception {
+        assertThat(ModuleIndexBuilder.parse("modules/org/example/other/main/module.xml", resource("indexable-module.xml"), true)).isNull();
+    }
+
+    @Test
+    public void testNotIndexable() throws Exception {
+        // properties and exports are left to the module.xml parser
+        assertThat(ModuleIndexBuilder.parse("modules/org/jboss/as/webservices/main/module.xml", resource("module.xml"), true)).isNull();
+    }
+
+    @Test
+    public void testAlias() throws Exception {
+        ModuleIndex.Entry entry = ModuleIndexBuilder.parse("modules/org/apache/commons/logging/main/module.xml", resource("alias-module.xml"), false);
+        assertThat(entry).isNotNull();
+
+        ModuleSpec spec = roundTrip(entry).lookup("org.apache.commons.logging", false).toModuleSpec("org.apache.commons.logging", null, "/");
+        assertThat(spec).isInstanceOf(AliasModuleSpec.class);
+        assertThat(((AliasModuleSpec) spec).getAliasName()).isEqualTo("org.slf4j.jcl-over-slf4j");
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        ModuleIndex.Entry entry = new ModuleIndex.Entry("org.example.deps:main", true);
+        entry.setMainClass("org.example.Main");
+        entry.addDependency("javax.api", "main", false, false, ModuleIndex.Services.NONE);
+        entry.addDependency("org.example.other", "api", true, true, ModuleIndex.Services.EXPORT);
+
+        ModuleIndex index = roundTrip(entry);
+        assertThat(index.lookup("org.example.deps", false)).isNull();
+
+        ModuleSpec spec = index.lookup("org.example.deps", true).toModuleSpec("org.example.deps", null, "/");
+        assertThat(spec).isInstanceOf(ConcreteModuleSpec.class);
+
+        DependencySpec[] dependencies = ((ConcreteModuleSpec) spec).getDependencies();
+        assertThat(dependencies).hasSize(3);
+        assertThat(((ModuleDependencySpec) dependencies[1]).getName()).isEqualTo("javax.api");
+        assertThat(((ModuleDependencySpec) dependencies[2]).getName()).isEqualTo("org.example.other:api");
+        assertThat(((ModuleDependencySpec) dependencies[2]).isOptional()).isTrue();
+        assertThat(((ConcreteModuleSpec) spec).getMainClass()).isEqualTo("org.example.Main");
+    }
+
+    private static ModuleIndex roundTrip(ModuleIndex.Entry entry) throws IOException {
+        ModuleIndex index = new ModuleIndex();
+        index.add(entry);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        index.write(out);
+        return ModuleIndex.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private byte[] resource(String name) throws IOException {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(name)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[1024];
+            int len;
+            while ((len = in.read(buf)) >= 0) {
+                out.write(buf, 0, len);
+            }
+            return out.toByteArray();
+        }
+    }
+}